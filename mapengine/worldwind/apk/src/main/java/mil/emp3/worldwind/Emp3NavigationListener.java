@@ -432,6 +432,8 @@ public class Emp3NavigationListener implements NavigatorListener {
                 // Log.d(TAG, "Navigation Moved. MOTION");
                 eEvent = MapViewEventEnum.VIEW_IN_MOTION;
                 BoundsGeneration.mapInMotion(mapInstance);  // This will invalidate the current bounding area
+                // Tessellations in progress were computed for the previous view, they will be redone when motion stops.
+                this.mapInstance.getTessellationQueue().supersedeAll();
                 // TODO If we decide to go into LookAt mode and stay there until setCamera or applyCamera then following is
                 //   required to stop event triggering going into infinite motion as we recalculate and rest LookAt on the Map
 //                if(bLookAtUpdated) return;
@@ -19,6 +19,7 @@ import org.cmapi.primitives.GeoPosition;
 import org.cmapi.primitives.IGeoBounds;
 import org.cmapi.primitives.IGeoPosition;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -29,6 +30,7 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
+import gov.nasa.worldwind.Frame;
 import gov.nasa.worldwind.FrameMetrics;
 import gov.nasa.worldwind.WorldWind;
 import gov.nasa.worldwind.Navigator;
@@ -40,6 +42,7 @@ import gov.nasa.worldwind.layer.LayerFactory;
 import gov.nasa.worldwind.layer.RenderableLayer;
 
 import gov.nasa.worldwind.render.ImageSource;
+import gov.nasa.worldwind.render.RenderContext;
 import gov.nasa.worldwind.render.RenderResourceCache;
 import gov.nasa.worldwind.shape.SurfaceImage;
 import gov.nasa.worldwind.util.Logger;
@@ -52,6 +55,7 @@ import mil.emp3.api.enums.WMSVersionEnum;
 import mil.emp3.api.enums.WMTSVersionEnum;
 import mil.emp3.api.interfaces.ICamera;
 import mil.emp3.api.interfaces.IFeature;
+import mil.emp3.api.interfaces.IFrameMetrics;
 import mil.emp3.api.interfaces.IGeoPackage;
 import mil.emp3.api.interfaces.IImageLayer;
 import mil.emp3.api.interfaces.ILookAt;
@@ -74,6 +78,13 @@ import mil.emp3.mapengine.interfaces.IMilStdRenderer;
 import mil.emp3.worldwind.controller.PickNavigateController;
 import mil.emp3.worldwind.feature.FeatureRenderableMapping;
 import mil.emp3.worldwind.feature.support.MilStd2525LevelOfDetailSelector;
+import mil.emp3.worldwind.feature.support.CullingStatistics;
+import mil.emp3.worldwind.feature.support.PlacemarkAttributesPool;
+import mil.emp3.worldwind.feature.support.TessellationQueue;
+import mil.emp3.worldwind.feature.support.FrameProfiler;
+import mil.emp3.worldwind.feature.support.IconAtlas;
+import mil.emp3.worldwind.feature.support.LevelOfDetailStatistics;
+import mil.emp3.worldwind.utils.FrameMetricsOverlay;
 import mil.emp3.worldwind.layer.EmpLayer;
 import mil.emp3.worldwind.layer.GeoJSONLayer;
 import mil.emp3.worldwind.layer.IconLayer;
@@ -105,9 +116,34 @@ public class MapInstance extends CoreMapInstance {
 
     private double FAR_THRESHOLD = 30000;
     private double MID_THRESHOLD = 10000;
+    private double THRESHOLD_HYSTERESIS = 0.1;
+    private int MAX_LEVEL_OF_DETAIL_CHANGES = 50;
+    private boolean singlePointClustering = false;
+    private boolean iconAtlasEnabled = false;
+    // Tactical graphic labels are hidden beyond the far threshold, this is the state of the last frame.
+    private boolean tacticalGraphicLabelsVisible = true;
 
     private Map<UUID, mil.emp3.worldwind.feature.FeatureRenderableMapping> featureHash;
     private Set<UUID> dirtyOnMapMove;
+    private TessellationQueue tessellationQueue;
+    private final CullingStatistics cullingStatistics = new CullingStatistics();
+    private final LevelOfDetailStatistics levelOfDetailStatistics = new LevelOfDetailStatistics();
+    // Created when the icon atlas is first enabled, it is kept when it is disabled as its icons may still be drawn.
+    private IconAtlas iconAtlas = null;
+    private final FrameProfiler frameProfiler = new FrameProfiler();
+    // The debug overlay, only accessed on the UI thread.
+    private FrameMetricsOverlay frameMetricsOverlay = null;
+    private volatile boolean frameMetricsOverlayVisible = false;
+    private static final int FRAME_METRICS_OVERLAY_PERIOD = 1000;
+    private final Runnable frameMetricsOverlayUpdater = new Runnable() {
+        @Override
+        public void run() {
+            updateFrameMetricsOverlay();
+        }
+    };
+    private final PlacemarkAttributesPool placemarkAttributesPool = new PlacemarkAttributesPool();
+    // Set by the pick controller for the duration of a pick.
+    private Sector pickSector = null;
     private RenderableLayer imageLayer;
     private Map<UUID, SurfaceImage> surfaceLayerHash;
     private Map<UUID, Layer> wmsHash;
@@ -257,6 +293,7 @@ public class MapInstance extends CoreMapInstance {
         this.wmtsHash = new HashMap<>();
         this.featureHash = new ConcurrentHashMap<>(); // zoom operation and re-rendering of Tactical Graphics will otherwise crash
         this.dirtyOnMapMove = new HashSet<>();
+        this.tessellationQueue = new TessellationQueue(this);
         /*
          * Layers to be rendered, in order.
          */
@@ -357,6 +394,8 @@ public class MapInstance extends CoreMapInstance {
         this.oMapViewController.Destroy();
 
         this.dirtyOnMapMove.clear();
+        this.tessellationQueue.shutdown();
+        this.handler.removeCallbacks(this.frameMetricsOverlayUpdater);
 
         while (!this.wmsHash.isEmpty()) {
             oUniqueId = (UUID) this.wmsHash.keySet().toArray()[0];
@@ -372,10 +411,12 @@ public class MapInstance extends CoreMapInstance {
             ww.getLayers().removeLayer(oLayer);
         }
 
+        List<IFeature> removedList = new ArrayList<>(this.featureHash.size());
         while (!this.featureHash.isEmpty()) {
             oUniqueId = (UUID) this.featureHash.keySet().toArray()[0];
-            this.removeFeature(oUniqueId);
+            this.removeFeature(oUniqueId, removedList);
         }
+        generateFeatureRemovedEvent(removedList);
 
 
         this.generateStateChangeEvent(MapStateEnum.SHUTDOWN);
@@ -437,12 +478,21 @@ public class MapInstance extends CoreMapInstance {
     /**
      * NOTE : This method is going to redraw what ever is in dirtyOnMapMove list. Based EMP-3065
      * this now included RenderableFeatures (Rectangle, Square, Circle and Ellipse).
+     * A graphic is only redrawn if its output changes with the new view, see TessellationView. Graphics with a
+     * tessellation outstanding are always redrawn as the map motion supersedes their jobs.
      */
     public void reRenderMPTacticalGraphics() {
         boolean issueRedraw = false;
+        ICamera camera = this.getCamera();
+        IGeoBounds bounds = this.getMapBounds();
+        double altitude = (null == camera) ? 0 : camera.getAltitude();
 
         for (Iterator<UUID> geoIds = dirtyOnMapMove.iterator(); geoIds.hasNext();) {
             FeatureRenderableMapping mapping = featureHash.get(geoIds.next());
+            if (!mapping.canRetryTessellation() ||
+                    ((null != camera) && !mapping.needsRender() && mapping.getTessellationView().isCurrent(bounds, altitude))) {
+                continue;
+            }
             mapping.setDirty(true);
             issueRedraw = true;
         }
@@ -463,6 +513,128 @@ public class MapInstance extends CoreMapInstance {
         }
     }
 
+    /**
+     * Tactical graphics and rendered features are generated by the MilStd renderer on this queue.
+     * @return
+     */
+    public TessellationQueue getTessellationQueue() {
+        return this.tessellationQueue;
+    }
+
+    /**
+     * The layers count the feature mappings they draw and cull in each frame here.
+     * @return
+     */
+    public CullingStatistics getCullingStatistics() {
+        return this.cullingStatistics;
+    }
+
+    /**
+     * The level of detail selector counts the icon changes of the MilStd single points of this map here.
+     * @return
+     */
+    public LevelOfDetailStatistics getLevelOfDetailStatistics() {
+        return this.levelOfDetailStatistics;
+    }
+
+    /**
+     * The layers, the feature mappings and the pick controller record where the time goes here.
+     * @return
+     */
+    public FrameProfiler getFrameProfiler() {
+        return this.frameProfiler;
+    }
+
+    @Override
+    public IFrameMetrics getFrameMetrics() {
+        return this.frameProfiler.getMetrics(this.tessellationQueue.getStatistics());
+    }
+
+    @Override
+    public void setFrameMetricsOverlay(boolean visible) {
+        this.frameMetricsOverlayVisible = visible;
+        if (!SystemUtils.isCurrentThreadUIThread()) {
+            /*
+             * SEE HANDLER NOTES ABOVE.
+             */
+            handler.post(this.frameMetricsOverlayUpdater);
+        } else {
+            this.updateFrameMetricsOverlay();
+        }
+    }
+
+    @Override
+    public boolean isFrameMetricsOverlayVisible() {
+        return this.frameMetricsOverlayVisible;
+    }
+
+    /**
+     * Adds, refreshes or removes the frame metrics overlay. While it is visible it refreshes itself every
+     * FRAME_METRICS_OVERLAY_PERIOD milliseconds. Must be called on the UI thread.
+     */
+    private void updateFrameMetricsOverlay() {
+        this.handler.removeCallbacks(this.frameMetricsOverlayUpdater);
+        if (this.frameMetricsOverlayVisible) {
+            if (null == this.frameMetricsOverlay) {
+                this.frameMetricsOverlay = new FrameMetricsOverlay();
+                ww.getOverlay().add(this.frameMetricsOverlay);
+            }
+            this.frameMetricsOverlay.setBounds(0, 0, ww.getWidth(), ww.getHeight());
+            this.frameMetricsOverlay.setMetrics(this.getFrameMetrics());
+            this.handler.postDelayed(this.frameMetricsOverlayUpdater, FRAME_METRICS_OVERLAY_PERIOD);
+        } else if (null != this.frameMetricsOverlay) {
+            ww.getOverlay().remove(this.frameMetricsOverlay);
+            this.frameMetricsOverlay = null;
+        }
+    }
+
+    /**
+     * The placemark attributes of Point features are shared through this pool.
+     * @return
+     */
+    public PlacemarkAttributesPool getPlacemarkAttributesPool() {
+        return this.placemarkAttributesPool;
+    }
+
+    /**
+     * Limits the features rendered by pick frames to the sector. It must be called on the UI thread.
+     * @param sector The sector around the pick location or null to pick in the whole view.
+     */
+    public void setPickSector(Sector sector) {
+        this.pickSector = sector;
+    }
+
+    /**
+     * The layers only render the features whose extent intersects this sector.
+     * @param rc
+     * @return The pick sector in a pick frame, the sector of the visible terrain otherwise.
+     */
+    public Sector getCullSector(RenderContext rc) {
+        if (rc.pickMode && (null != this.pickSector)) {
+            return this.pickSector;
+        }
+        return rc.terrain.getSector();
+    }
+
+    /**
+     * Requests a redraw of the map. It may be called from any thread.
+     */
+    public void requestRedraw() {
+        if (!SystemUtils.isCurrentThreadUIThread()) {
+            /*
+             * SEE HANDLER NOTES ABOVE.
+             */
+            handler.post(new Runnable() {
+                @Override
+                public void run() {
+                    ww.requestRedraw();
+                }
+            });
+        } else {
+            ww.requestRedraw();
+        }
+    }
+
     public IconSizeEnum getIconSizeSetting() {
         return storageManager.getIconSize(this);
     }
@@ -487,28 +659,33 @@ public class MapInstance extends CoreMapInstance {
             handler.post(new Runnable() {
                 @Override
                 public void run() {
+                    List<IFeature> addedList = new ArrayList<>(features.size());
                     for (FeatureVisibility featureVisibility: features) {
                         //if (null != featureVisibility.feature.getStrokeStyle()) {
                         //    Log.d(TAG, "Add Feature Stroke Width: " + featureVisibility.feature.getStrokeStyle().getStrokeWidth());
                         //}
                         MapInstance.this.plotFeature(featureVisibility.feature, featureVisibility.visible);
-                        MapInstance.this.generateFeatureAddedEvent(featureVisibility.feature);
+                        addedList.add(featureVisibility.feature);
                     }
+                    // One event for the whole list.
+                    MapInstance.this.generateFeatureAddedEvent(addedList);
 
                     ww.requestRedraw();
                 }
             });
         } else {
+            List<IFeature> addedList = new ArrayList<>(features.size());
             for (FeatureVisibility featureVisibility: features) {
                 MapInstance.this.plotFeature(featureVisibility.feature, featureVisibility.visible);
-                generateFeatureAddedEvent(featureVisibility.feature);
+                addedList.add(featureVisibility.feature);
             }
+            generateFeatureAddedEvent(addedList);
 
             ww.requestRedraw();
         }
     }
 
-    private void removeFeature(UUID uniqueId) {
+    private void removeFeature(UUID uniqueId, List<IFeature> removedList) {
         if (this.featureHash.containsKey(uniqueId)) {
             FeatureRenderableMapping oWrapper = this.featureHash.get(uniqueId);;
             dirtyOnMapMove.remove(uniqueId);
@@ -516,7 +693,7 @@ public class MapInstance extends CoreMapInstance {
             if (oWrapper != null) {
                 IFeature feature = oWrapper.getFeature();
                 getRenderableLayer(feature).removeFeatureRenderables(uniqueId);
-                generateFeatureRemovedEvent(feature);
+                removedList.add(feature);
                 this.featureHash.remove(uniqueId);
             }
         }
@@ -530,9 +707,11 @@ public class MapInstance extends CoreMapInstance {
      */
     @Override
     public void removeFeatures(final IUUIDSet features) {
+        List<IFeature> removedList = new ArrayList<>(features.size());
         for (java.util.UUID uniqueId: features) {
-            this.removeFeature(uniqueId);
+            this.removeFeature(uniqueId, removedList);
         }
+        generateFeatureRemovedEvent(removedList);
 
         // Update the view on UI thread.
         if (!SystemUtils.isCurrentThreadUIThread()) {
@@ -840,7 +1019,7 @@ public class MapInstance extends CoreMapInstance {
     @Override
     public void registerMilStdRenderer(IMilStdRenderer oRenderer) {
         super.registerMilStdRenderer(oRenderer);
-        MilStd2525LevelOfDetailSelector.initInstance(oRenderer, this);
+        MilStd2525LevelOfDetailSelector.initInstance(oRenderer);
     }
 
     /**
@@ -903,6 +1082,78 @@ public class MapInstance extends CoreMapInstance {
         return this.MID_THRESHOLD;
     }
 
+    @Override
+    public void setDistanceThresholdHysteresis(double dValue) {
+        MilStd2525LevelOfDetailSelector.setHysteresis(dValue);
+        this.THRESHOLD_HYSTERESIS = dValue;
+        ww.requestRedraw();
+    }
+
+    @Override
+    public double getDistanceThresholdHysteresis() {
+        return this.THRESHOLD_HYSTERESIS;
+    }
+
+    @Override
+    public void setMaxLevelOfDetailChangesPerFrame(int iValue) {
+        MilStd2525LevelOfDetailSelector.setMaxIconChangesPerFrame(iValue);
+        this.MAX_LEVEL_OF_DETAIL_CHANGES = iValue;
+    }
+
+    @Override
+    public int getMaxLevelOfDetailChangesPerFrame() {
+        return this.MAX_LEVEL_OF_DETAIL_CHANGES;
+    }
+
+    @Override
+    public void setSinglePointClustering(boolean enable) {
+        this.singlePointClustering = enable;
+        ww.requestRedraw();
+    }
+
+    @Override
+    public boolean isSinglePointClusteringEnabled() {
+        return this.singlePointClustering;
+    }
+
+    /**
+     * The icons created after the change are drawn from the atlas or from textures of their own, the icons of the
+     * symbols already displayed change with their level of detail.
+     * @param enable
+     */
+    @Override
+    public void setIconAtlas(boolean enable) {
+        this.iconAtlasEnabled = enable;
+        ww.requestRedraw();
+    }
+
+    @Override
+    public boolean isIconAtlasEnabled() {
+        return this.iconAtlasEnabled;
+    }
+
+    /**
+     * Must only be used on the render thread.
+     * @return The atlas the MilStd icons of this map are packed into, null if they never were.
+     */
+    public IconAtlas getIconAtlas() {
+        return this.iconAtlas;
+    }
+
+    /**
+     * The labels of tactical graphics are drawn when the camera is closer than the far distance threshold. The
+     * threshold is moved away from the current state by the hysteresis. It must be called on the render thread.
+     * @param cameraAltitude
+     * @return true if the labels must be drawn.
+     */
+    public boolean showTacticalGraphicLabels(double cameraAltitude) {
+        double threshold = this.FAR_THRESHOLD * (this.tacticalGraphicLabelsVisible ?
+                (1.0 + this.THRESHOLD_HYSTERESIS) : (1.0 - this.THRESHOLD_HYSTERESIS));
+
+        this.tacticalGraphicLabelsVisible = (cameraAltitude <= threshold);
+        return this.tacticalGraphicLabelsVisible;
+    }
+
     /**
      * Fetch Version information from BuildConfig
      * @param builder
@@ -966,6 +1217,45 @@ public class MapInstance extends CoreMapInstance {
             super.onDetachedFromWindow();
         }
 
+        @Override
+        protected void renderFrame(Frame frame) {
+            // The mini map doesn't contain the feature layers.
+            if (this != MapInstance.this.ww) {
+                super.renderFrame(frame);
+                return;
+            }
+
+            CullingStatistics statistics = MapInstance.this.cullingStatistics;
+            LevelOfDetailStatistics levelOfDetail = MapInstance.this.levelOfDetailStatistics;
+
+            if (MapInstance.this.iconAtlasEnabled && (null == MapInstance.this.iconAtlas)) {
+                MapInstance.this.iconAtlas = new IconAtlas();
+            }
+            // A disabled atlas still keeps the icons on its pages until they are lost.
+            IconAtlas iconAtlas = MapInstance.this.iconAtlas;
+            if (null != iconAtlas) {
+                iconAtlas.setEnabled(MapInstance.this.iconAtlasEnabled);
+            }
+
+            statistics.beginFrame(frame.pickMode);
+            MapInstance.this.frameProfiler.beginFrame(frame.pickMode);
+            levelOfDetail.beginFrame();
+            if (null != iconAtlas) {
+                iconAtlas.beginFrame();
+            }
+            try {
+                super.renderFrame(frame);
+            } finally {
+                statistics.endFrame();
+                if (null != iconAtlas) {
+                    MapInstance.this.frameProfiler.iconAtlasUsed(iconAtlas.getPageCount(), iconAtlas.getUsedPixels(),
+                            iconAtlas.getCapacityPixels(), iconAtlas.takeBindCount(), iconAtlas.takeDrawCount());
+                }
+                MapInstance.this.frameProfiler.endFrame(statistics.getDrawnCount(), statistics.getCulledCount(),
+                        levelOfDetail.getIconCacheHitCount(), levelOfDetail.getIconChangeCount());
+            }
+        }
+
         @Override
         public SurfaceHolder getHolder() {
             Log.d(TAG, "getHolder ");
@@ -1017,6 +1307,29 @@ public class MapInstance extends CoreMapInstance {
         return BoundsGeneration.getCurrentBoundingArea(this);
     }
 
+    /**
+     * The features are found with the spatial index of each layer. The extent of a feature is the bounding box of its
+     * positions and of the shapes generated for it.
+     * @param bounds
+     * @return
+     */
+    @Override
+    public List<IFeature> getFeaturesInBounds(IGeoBounds bounds) {
+        List<IFeature> featureList = new ArrayList<>();
+        List<FeatureRenderableMapping> mappingList = new ArrayList<>();
+
+        if (null == bounds) {
+            return featureList;
+        }
+        for (EmpLayer layer : new HashSet<>(this.empLayerMap.values())) {
+            layer.getSpatialIndex().query(bounds.getNorth(), bounds.getSouth(), bounds.getEast(), bounds.getWest(), mappingList);
+        }
+        for (FeatureRenderableMapping mapping : mappingList) {
+            featureList.add(mapping.getFeature());
+        }
+        return featureList;
+    }
+
     /**
      * Caller must be on UI thread.
      * @param pos
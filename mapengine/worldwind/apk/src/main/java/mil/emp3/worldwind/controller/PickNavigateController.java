@@ -13,6 +13,7 @@ import org.cmapi.primitives.GeoPosition;
 import org.cmapi.primitives.IGeoPosition;
 
 import java.util.EnumSet;
+import java.util.List;
 
 import gov.nasa.worldwind.BasicWorldWindowController;
 import gov.nasa.worldwind.PickedObject;
@@ -20,6 +21,7 @@ import gov.nasa.worldwind.PickedObjectList;
 import gov.nasa.worldwind.WorldWindow;
 import gov.nasa.worldwind.geom.Line;
 import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.geom.Sector;
 import gov.nasa.worldwind.geom.Vec3;
 
 import mil.emp3.api.enums.MapMotionLockEnum;
@@ -40,12 +42,17 @@ public class PickNavigateController extends BasicWorldWindowController implement
 
     private static float PICK_WIDTH = (float) (Resources.getSystem().getDisplayMetrics().densityDpi * 0.33); // 1/3 in
     private static float PICK_HALF_WIDTH = PickNavigateController.PICK_WIDTH / 2;
+    // Only features anchored within an inch of the tap are rendered by the pick frame. Icons and labels extend away
+    // from their anchor position.
+    private static float PICK_SECTOR_HALF_WIDTH = (float) Resources.getSystem().getDisplayMetrics().densityDpi;
 
     private Line ray = new Line(); // pre-allocated to avoid memory allocations
     private Vec3 pickPoint = new Vec3();    // pre-allocated to avoid memory allocations
     private IGeoPosition oGeoPosition = new GeoPosition(); // pre-allocated to avoid memory allocations.
     private IGeoPosition oGeoPosition2 = new GeoPosition(); // pre-allocated to avoid memory allocations.
     private Position oPos = new Position(); // pre-allocated to avoid memory allocations.
+    private Position oPickCorner = new Position(); // pre-allocated to avoid memory allocations.
+    private Sector oPickSector = new Sector(); // pre-allocated to avoid memory allocations.
     private android.graphics.Point oPointCoordinate = new android.graphics.Point(); // pre-allocated to avoid memory allocations.
     private android.graphics.Point oPreviousDragPoint = new android.graphics.Point(); // pre-allocated to avoid memory allocations.
 
@@ -234,7 +241,14 @@ public class PickNavigateController extends BasicWorldWindowController implement
 
         // Perform a new pick at the screen x, y
         //PickedObjectList pickList = this.ww.pick(event.getX(), event.getY());
-        PickedObjectList pickList = this.ww.pickShapesInRect(X, Y, PickNavigateController.PICK_WIDTH, PickNavigateController.PICK_WIDTH);
+        PickedObjectList pickList;
+        long startTime = System.nanoTime();
+        this.mapInstance.setPickSector(this.computePickSector(event.getX(), event.getY()));
+        try {
+            pickList = this.ww.pickShapesInRect(X, Y, PickNavigateController.PICK_WIDTH, PickNavigateController.PICK_WIDTH);
+        } finally {
+            this.mapInstance.setPickSector(null);
+        }
         int iPickCount = pickList.count();
 
         for (int iIndex = 0; iIndex < iPickCount; iIndex++) {
@@ -247,12 +261,52 @@ public class PickNavigateController extends BasicWorldWindowController implement
                         Log.d(TAG, "Picked " + oFeature.getClass().getSimpleName());
                         this.oFeaturePickList.add(0, oFeature); // Add it at the begining. WW has the top at the end.
                     }
+                } else if (oObject instanceof List) {
+                    // A cluster of single point symbols, see SinglePointClusterer.
+                    for (Object oMember : (List) oObject) {
+                        if ((oMember instanceof mil.emp3.api.interfaces.IFeature) && !this.oFeaturePickList.contains(oMember)) {
+                            this.oFeaturePickList.add(0, (mil.emp3.api.interfaces.IFeature) oMember);
+                        }
+                    }
+                    Log.d(TAG, "Picked cluster of " + ((List) oObject).size());
                 }
             }
         }
+        this.mapInstance.getFrameProfiler().picked(System.nanoTime() - startTime);
         Log.d(TAG, "  Pick " + this.oFeaturePickList.size());
     }
 
+    /**
+     * Computes the geographic sector around the tap. The layers use it to select the candidate features of the pick.
+     * @param x
+     * @param y
+     * @return The sector or null if part of the area around the tap is not on the globe.
+     */
+    private Sector computePickSector(float x, float y) {
+        double minLatitude = 90.0;
+        double maxLatitude = -90.0;
+        double minLongitude = 180.0;
+        double maxLongitude = -180.0;
+
+        // The corners and the middle of the sides of the square around the tap.
+        for (int row = -1; row <= 1; row++) {
+            for (int column = -1; column <= 1; column++) {
+                if ((0 == row) && (0 == column)) {
+                    continue;
+                }
+                if (!this.screenPointToGroundPosition(x + (column * PICK_SECTOR_HALF_WIDTH), y + (row * PICK_SECTOR_HALF_WIDTH), this.oPickCorner)) {
+                    return null;
+                }
+                minLatitude = Math.min(minLatitude, this.oPickCorner.latitude);
+                maxLatitude = Math.max(maxLatitude, this.oPickCorner.latitude);
+                minLongitude = Math.min(minLongitude, this.oPickCorner.longitude);
+                maxLongitude = Math.max(maxLongitude, this.oPickCorner.longitude);
+            }
+        }
+
+        return this.oPickSector.set(minLatitude, minLongitude, maxLatitude - minLatitude, maxLongitude - minLongitude);
+    }
+
     public boolean onSingleTapHandler(MotionEvent oEvent) {
         Log.d(TAG, "Single Tap " + this.oFeaturePickList.size());
 
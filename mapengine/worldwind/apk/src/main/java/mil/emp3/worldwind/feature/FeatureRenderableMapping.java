@@ -16,6 +16,8 @@ import org.cmapi.primitives.IGeoStrokeStyle;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import gov.nasa.worldwind.WorldWind;
 import gov.nasa.worldwind.geom.Offset;
@@ -38,6 +40,10 @@ import mil.emp3.api.utils.EmpBoundingBox;
 import mil.emp3.api.utils.FontUtilities;
 import mil.emp3.mapengine.interfaces.IEmpImageInfo;
 import mil.emp3.worldwind.MapInstance;
+import mil.emp3.worldwind.feature.support.FeatureSpatialIndex;
+import mil.emp3.worldwind.feature.support.PlacemarkAttributesPool;
+import mil.emp3.worldwind.feature.support.RenderableExtent;
+import mil.emp3.worldwind.feature.support.TessellationView;
 import mil.emp3.worldwind.utils.Conversion;
 
 /**
@@ -58,6 +64,30 @@ public abstract class FeatureRenderableMapping<T extends IFeature> implements Re
     // This list contains all the WW renderables the EMP feature translates into.
     private final List<Renderable> renderableList;
     private boolean isSelected = false;
+    // Mappings whose renderables are generated on the tessellation thread. The generation identifies the latest
+    // job, the result of an older job is discarded.
+    private final AtomicInteger tessellationGeneration = new AtomicInteger(0);
+    private final AtomicReference<Tessellation> completedTessellation = new AtomicReference<>();
+    // The generation of the tessellation currently swapped in, only accessed on the render thread.
+    private int swappedGeneration = 0;
+    // The latest generation whose tessellation failed, the current renderables are kept for it. The number of
+    // consecutive failures stops the re-render on map moves once it reaches MAX_TESSELLATION_FAILURES.
+    private final AtomicInteger failedGeneration = new AtomicInteger(0);
+    private final AtomicInteger tessellationFailures = new AtomicInteger(0);
+    public static final int MAX_TESSELLATION_FAILURES = 3;
+
+    // The geographic extent of the renderables, it is recomputed on the render thread when they change.
+    private final RenderableExtent extent = new RenderableExtent();
+    private boolean extentValid = false;
+    private final RenderableExtent indexExtent = new RenderableExtent();
+    // The view the current tessellation was generated for.
+    private final TessellationView tessellationView = new TessellationView();
+    // The spatial index of the layer that holds this mapping.
+    private FeatureSpatialIndex spatialIndex = null;
+    // The pooled placemark attributes used by the current renderables, and by the previous ones while the
+    // renderables are regenerated.
+    private List<PlacemarkAttributes> pooledAttributes = new ArrayList<>();
+    private List<PlacemarkAttributes> previousPooledAttributes = new ArrayList<>();
 
     public FeatureRenderableMapping(T feature, MapInstance instance) {
         this.oFeature = feature;
@@ -137,7 +167,7 @@ public abstract class FeatureRenderableMapping<T extends IFeature> implements Re
                         this.addRenderable(tempRenderable);
                     }
                 }
-                generateRenderables();
+                regenerateRenderables();
                 setDirty(false);
             }
             for (Renderable renderable : this.renderableList) {
@@ -159,7 +189,12 @@ public abstract class FeatureRenderableMapping<T extends IFeature> implements Re
     }
 
     public void setVisible(boolean value) {
+        boolean wasVisible = this.isVisible;
+
         this.isVisible = value;
+        if (value && !wasVisible) {
+            this.markPending();
+        }
     }
 
     public T getFeature() {
@@ -173,6 +208,7 @@ public abstract class FeatureRenderableMapping<T extends IFeature> implements Re
     public void setFeature(T feature) {
         this.oFeature = feature;
         this.isDirty = true;
+        this.markPending();
     }
 
     public boolean isDirty() {
@@ -181,27 +217,155 @@ public abstract class FeatureRenderableMapping<T extends IFeature> implements Re
 
     public void setDirty(boolean value) {
         this.isDirty = value;
+        this.invalidateExtent();
+        if (value) {
+            this.markPending();
+        }
     }
 
     public void setRenderable(Renderable renderable) {
         this.renderableList.clear();
         this.renderableList.add(renderable);
+        this.invalidateExtent();
     }
 
     public void setRenderables(java.util.List<Renderable> renderables) {
         this.renderableList.clear();
         this.renderableList.addAll(renderables);
+        this.invalidateExtent();
     }
 
     public void addRenderable(Renderable renderable) {
         if (!this.renderableList.contains(renderable)) {
             this.renderableList.add(renderable);
+            this.invalidateExtent();
+        }
+    }
+
+    /**
+     * Must be called when renderables are added, removed or moved so the extent is recomputed.
+     */
+    protected void invalidateExtent() {
+        this.extentValid = false;
+    }
+
+    /**
+     * Subclasses that keep renderables in other lists must override this method and add them to the extent.
+     * @param extent An empty extent.
+     */
+    protected void computeExtent(RenderableExtent extent) {
+        extent.union(this.renderableList);
+    }
+
+    /**
+     * @return The geographic extent of the current renderables.
+     */
+    public RenderableExtent getExtent() {
+        if (!this.extentValid) {
+            this.computeExtent(this.extent.setEmpty());
+            this.extentValid = true;
+        }
+        return this.extent;
+    }
+
+    /**
+     * Adds the positions of the feature to the extent. Subclasses whose feature has no positions of its own must
+     * override this method.
+     * @param extent
+     */
+    protected void computeFeatureExtent(RenderableExtent extent) {
+        unionPositions(extent, this.getFeature().getPositions());
+    }
+
+    protected static void unionPositions(RenderableExtent extent, List<IGeoPosition> positionList) {
+        if (null != positionList) {
+            for (int index = 0; index < positionList.size(); index++) {
+                IGeoPosition position = positionList.get(index);
+                extent.union(position.getLatitude(), position.getLongitude());
+            }
+        }
+    }
+
+    /**
+     * The extent kept in the spatial index is the union of the feature positions and the renderables. The positions
+     * place a feature whose renderables have not been generated yet.
+     * @return The extent, it is reused by the next call.
+     */
+    public RenderableExtent getIndexExtent() {
+        this.indexExtent.setEmpty();
+        this.computeFeatureExtent(this.indexExtent);
+        this.indexExtent.union(this.getExtent());
+        return this.indexExtent;
+    }
+
+    /**
+     * Called by the layer when the mapping is added to it.
+     * @param spatialIndex
+     */
+    public void setSpatialIndex(FeatureSpatialIndex spatialIndex) {
+        this.spatialIndex = spatialIndex;
+    }
+
+    /**
+     * Tells the spatial index the mapping must be rendered on the next frame, wherever its current extent is.
+     */
+    protected void markPending() {
+        if (null != this.spatialIndex) {
+            this.spatialIndex.markPending(this);
+        }
+    }
+
+    /**
+     * A mapping that is dirty or waiting for a tessellation must be rendered even if its extent is outside the view,
+     * its render method brings its renderables and extent up to date.
+     * @return true if the renderables are not up to date.
+     */
+    public boolean needsRender() {
+        int generation = this.tessellationGeneration.get();
+
+        return this.isDirty() || ((this.swappedGeneration != generation) && (this.failedGeneration.get() != generation));
+    }
+
+
+    /**
+     * Calls generateRenderables. The pooled placemark attributes of the old renderables are released after the new
+     * renderables acquired theirs, so a bundle used by both is not evicted from the pool.
+     */
+    protected void regenerateRenderables() {
+        List<PlacemarkAttributes> releaseList = this.pooledAttributes;
+        long startTime = getMapInstance().getFrameProfiler().startTimer();
+
+        this.pooledAttributes = this.previousPooledAttributes;
+        this.previousPooledAttributes = releaseList;
+        try {
+            generateRenderables();
+        } finally {
+            this.releasePooledAttributes(releaseList);
+            getMapInstance().getFrameProfiler().regenerated(startTime);
+        }
+    }
+
+    private void releasePooledAttributes(List<PlacemarkAttributes> attributesList) {
+        PlacemarkAttributesPool pool = getMapInstance().getPlacemarkAttributesPool();
+
+        for (int index = 0; index < attributesList.size(); index++) {
+            pool.release(attributesList.get(index));
         }
+        attributesList.clear();
     }
 
+    /**
+     * Releases the pooled placemark attributes of the current renderables. It must be called when the renderables are
+     * removed.
+     */
+    protected void releasePooledAttributes() {
+        this.releasePooledAttributes(this.pooledAttributes);
+    }
 
     /**
-     * This method creates a WW placemark from an EMP Point feature.
+     * This method creates a WW placemark from an EMP Point feature. The placemark attributes are shared with the
+     * placemarks of all points with the same icon and style, they are released when the renderables are regenerated
+     * or removed.
      * @param feature The EMP Point feature.
      * @param isSelected  True if the placemark is to be selected, false otherwise.
      * @return A WW placemark or null if one is not created.
@@ -209,6 +373,8 @@ public abstract class FeatureRenderableMapping<T extends IFeature> implements Re
     protected Placemark createPlacemark(mil.emp3.api.Point feature, boolean isSelected) {
         Offset imageOffset;
         PlacemarkAttributes oAttr;
+        ImageSource imageSource;
+        String imageKey;
         IGeoIconStyle oIconStyle = feature.getIconStyle();
         IGeoPosition oPos = feature.getPosition();
         String sURL = feature.getIconURI();
@@ -242,7 +408,8 @@ public abstract class FeatureRenderableMapping<T extends IFeature> implements Re
                 imageOffset = new Offset(gov.nasa.worldwind.WorldWind.OFFSET_PIXELS, 0, // x offset
                         gov.nasa.worldwind.WorldWind.OFFSET_PIXELS, imageBounds.height()); // y offset
             }
-            oAttr = PlacemarkAttributes.createWithImage(ImageSource.fromBitmap(imageInfo.getImage())).setImageOffset(imageOffset);
+            imageSource = ImageSource.fromBitmap(imageInfo.getImage());
+            imageKey = "resource:" + feature.getResourceId();
         } else if ((sURL == null) || (sURL.length() == 0)) {
             IEmpImageInfo imageInfo =  getMapInstance().getEmpResources().getDefaultIconImageInfo();
 
@@ -263,7 +430,8 @@ public abstract class FeatureRenderableMapping<T extends IFeature> implements Re
             imageOffset = new Offset(
                     gov.nasa.worldwind.WorldWind.OFFSET_PIXELS, oIconStyle.getOffSetX(), // x offset
                     gov.nasa.worldwind.WorldWind.OFFSET_PIXELS, 1.0 - (oIconStyle.getOffSetY() / imageBounds.height())); // y offset
-            oAttr = PlacemarkAttributes.createWithImage(ImageSource.fromBitmap(imageInfo.getImage())).setImageOffset(imageOffset);
+            imageSource = ImageSource.fromBitmap(imageInfo.getImage());
+            imageKey = "default:";
         } else {
             if (oIconStyle != null) {
                 imageOffset = new Offset(
@@ -274,10 +442,13 @@ public abstract class FeatureRenderableMapping<T extends IFeature> implements Re
                         gov.nasa.worldwind.WorldWind.OFFSET_FRACTION, 0, // x offset
                         gov.nasa.worldwind.WorldWind.OFFSET_FRACTION, 1.0); // y offset
             }
-            oAttr = PlacemarkAttributes.createWithImage(ImageSource.fromUrl(sURL)).setImageOffset(imageOffset);
+            imageSource = ImageSource.fromUrl(sURL);
+            imageKey = "url:" + sURL;
         }
 
-        oAttr.setImageScale(dScale);
+        oAttr = getMapInstance().getPlacemarkAttributesPool().acquire(
+                new PlacemarkAttributesPool.Key(imageKey, imageOffset, dScale, isSelected), imageSource);
+        this.pooledAttributes.add(oAttr);
 
         Placemark oIcon = new Placemark(
                 Position.fromDegrees(oPos.getLatitude(), oPos.getLongitude(), oPos.getAltitude()),
@@ -657,5 +828,90 @@ public abstract class FeatureRenderableMapping<T extends IFeature> implements Re
 
     public void removeRenderables() {
         this.getRenderableList().clear();
+        this.releasePooledAttributes();
+        this.invalidateExtent();
+    }
+
+    /**
+     * Mappings that generate their renderables on the tessellation thread must override this method. It is called
+     * on the tessellation thread and must not modify the mapping.
+     * @return The new renderables or null.
+     */
+    public Tessellation tessellate() {
+        return null;
+    }
+
+    /**
+     * Called when a tessellation job is submitted.
+     * @return The generation of the job, it supersedes all previous jobs of this mapping.
+     */
+    public int startTessellation() {
+        return this.tessellationGeneration.incrementAndGet();
+    }
+
+    public boolean isTessellationCurrent(int generation) {
+        return (this.tessellationGeneration.get() == generation);
+    }
+
+    /**
+     * Called on the tessellation thread when a job completes. The result is kept until the render thread takes it.
+     * @param generation
+     * @param tessellation
+     */
+    public void tessellationCompleted(int generation, Tessellation tessellation) {
+        if (this.isTessellationCurrent(generation)) {
+            tessellation.generation = generation;
+            this.completedTessellation.set(tessellation);
+            this.tessellationFailures.set(0);
+        }
+    }
+
+    /**
+     * Called on the tessellation thread when a job fails. The generation is resolved, the mapping keeps its current
+     * renderables until the next job succeeds.
+     * @param generation
+     */
+    public void tessellationFailed(int generation) {
+        if (this.isTessellationCurrent(generation)) {
+            this.failedGeneration.set(generation);
+            this.tessellationFailures.incrementAndGet();
+        }
+    }
+
+    /**
+     * A mapping whose last MAX_TESSELLATION_FAILURES tessellations failed is not re-rendered when the map moves, it is
+     * tried again when the feature changes.
+     * @return true if the mapping may be re-rendered for a new view.
+     */
+    public boolean canRetryTessellation() {
+        return (this.tessellationFailures.get() < MAX_TESSELLATION_FAILURES);
+    }
+
+    /**
+     * Called on the render thread.
+     * @return The latest completed tessellation not yet taken or null.
+     */
+    protected Tessellation takeTessellation() {
+        Tessellation tessellation = this.completedTessellation.getAndSet(null);
+
+        if (null != tessellation) {
+            this.swappedGeneration = tessellation.generation;
+        }
+        return tessellation;
+    }
+
+    /**
+     * Must be called on the render thread once the renderables of the tessellation are swapped in.
+     * @param tessellation
+     */
+    protected void tessellationSwapped(Tessellation tessellation) {
+        this.tessellationView.set(tessellation.viewBounds, tessellation.viewAltitude, this.getIndexExtent());
+    }
+
+    /**
+     * @return The view the current renderables were generated for.
+     */
+    public TessellationView getTessellationView() {
+        return this.tessellationView;
     }
 }
@@ -13,6 +13,7 @@ import mil.emp3.api.interfaces.IFeature;
 import mil.emp3.api.interfaces.IGeoJSON;
 import mil.emp3.api.interfaces.IImageLayer;
 import mil.emp3.worldwind.MapInstance;
+import mil.emp3.worldwind.feature.support.RenderableExtent;
 
 /**
  * This class implements the mapping between an EMP GeoJSON feature and the WW renderables.
@@ -81,7 +82,7 @@ public class GeoJSONFeature extends FeatureRenderableMapping<IGeoJSON> {
     public void render(RenderContext renderContext) {
         if (isVisible()) {
             if (isDirty()) {
-                generateRenderables();
+                regenerateRenderables();
                 setDirty(false);
             }
             // Place the surface images first followed by the polygon, then the paths, then the points, then the labels.
@@ -100,12 +101,29 @@ public class GeoJSONFeature extends FeatureRenderableMapping<IGeoJSON> {
         }
     }
 
+    @Override
+    protected void computeFeatureExtent(RenderableExtent extent) {
+        for (IFeature subFeature: getFeature().getFeatureList()) {
+            unionPositions(extent, subFeature.getPositions());
+        }
+    }
+
+    @Override
+    protected void computeExtent(RenderableExtent extent) {
+        super.computeExtent(extent);
+        extent.union(this.polygonRenderableList);
+        extent.union(this.lineRenderableList);
+        extent.union(this.pointRenderableList);
+    }
+
     @Override
     public void removeRenderables() {
         this.getRenderableList().clear();
         pointRenderableList.clear();
         lineRenderableList.clear();
         polygonRenderableList.clear();
+        this.releasePooledAttributes();
+        this.invalidateExtent();
     }
 }
 
@@ -3,6 +3,7 @@ package mil.emp3.worldwind.feature;
 import java.util.ArrayList;
 import java.util.List;
 
+import gov.nasa.worldwind.geom.Sector;
 import gov.nasa.worldwind.render.RenderContext;
 import gov.nasa.worldwind.render.Renderable;
 import gov.nasa.worldwind.shape.SurfaceImage;
@@ -14,6 +15,8 @@ import mil.emp3.api.interfaces.IFeature;
 import mil.emp3.api.interfaces.IImageLayer;
 import mil.emp3.api.interfaces.IKML;
 import mil.emp3.worldwind.MapInstance;
+import mil.emp3.worldwind.feature.support.CullingStatistics;
+import mil.emp3.worldwind.feature.support.RenderableExtent;
 
 /**
  * This class implements the mapping between an EMP KML feature and the WW renderables.
@@ -24,22 +27,60 @@ import mil.emp3.worldwind.MapInstance;
  * This class separates the renderables by type (Image, Polygon, Path, Point, Label) and renders them
  * in that order. This will ensure that a KML feature is rendered properly yet in the correct order
  * in respect to all other features.
+ *
+ * A KML document may contain thousands of placemarks, the extent of each sub renderable is kept so the ones outside
+ * the visible terrain are skipped.
  */
 
 public class KMLFeature extends FeatureRenderableMapping<IKML> {
 
-    private final List<Renderable> pointRenderableList;
-    private final List<Renderable> pathRenderableList;
-    private final List<Renderable> polygonRenderableList;
-    private final List<Renderable> labelRenderableList;
+    private final RenderableGroup pointRenderableList;
+    private final RenderableGroup pathRenderableList;
+    private final RenderableGroup polygonRenderableList;
+    private final RenderableGroup labelRenderableList;
+
+    /**
+     * A list of renderables and the extent of each.
+     */
+    private static class RenderableGroup {
+        private final List<Renderable> renderables = new ArrayList<>();
+        private final List<RenderableExtent> extents = new ArrayList<>();
+
+        private void add(Renderable renderable) {
+            this.renderables.add(renderable);
+            this.extents.add(new RenderableExtent().union(renderable));
+        }
+
+        private void clear() {
+            this.renderables.clear();
+            this.extents.clear();
+        }
+
+        private void unionInto(RenderableExtent extent) {
+            for (int index = 0; index < this.extents.size(); index++) {
+                extent.union(this.extents.get(index));
+            }
+        }
+
+        private void render(RenderContext renderContext, Sector viewSector, CullingStatistics statistics) {
+            for (int index = 0; index < this.renderables.size(); index++) {
+                if (this.extents.get(index).intersects(viewSector)) {
+                    this.renderables.get(index).render(renderContext);
+                    statistics.drawnRenderable();
+                } else {
+                    statistics.culledRenderable();
+                }
+            }
+        }
+    }
 
     public KMLFeature(IKML feature, MapInstance instance) {
         super(feature, instance);
 
-        pointRenderableList = new ArrayList<>();
-        pathRenderableList = new ArrayList<>();
-        polygonRenderableList = new ArrayList<>();
-        labelRenderableList = new ArrayList<>();
+        pointRenderableList = new RenderableGroup();
+        pathRenderableList = new RenderableGroup();
+        polygonRenderableList = new RenderableGroup();
+        labelRenderableList = new RenderableGroup();
     }
 
     @Override
@@ -109,28 +150,39 @@ public class KMLFeature extends FeatureRenderableMapping<IKML> {
     public void render(RenderContext renderContext) {
         if (isVisible()) {
             if (isDirty()) {
-                generateRenderables();
+                regenerateRenderables();
                 setDirty(false);
             }
+            Sector viewSector = renderContext.terrain.getSector();
+            CullingStatistics statistics = getMapInstance().getCullingStatistics();
+
             // Place the surface images first followed by the polygon, then the paths, then the points, then the labels.
             for (Renderable renderable : this.getRenderableList()) {
                 renderable.render(renderContext);
             }
-            for (Renderable renderable : this.polygonRenderableList) {
-                renderable.render(renderContext);
-            }
-            for (Renderable renderable : this.pathRenderableList) {
-                renderable.render(renderContext);
-            }
-            for (Renderable renderable : this.labelRenderableList) {
-                renderable.render(renderContext);
-            }
-            for (Renderable renderable : this.pointRenderableList) {
-                renderable.render(renderContext);
-            }
+            this.polygonRenderableList.render(renderContext, viewSector, statistics);
+            this.pathRenderableList.render(renderContext, viewSector, statistics);
+            this.labelRenderableList.render(renderContext, viewSector, statistics);
+            this.pointRenderableList.render(renderContext, viewSector, statistics);
         }
     }
 
+    @Override
+    protected void computeFeatureExtent(RenderableExtent extent) {
+        for (IFeature subFeature: getFeature().getFeatureList()) {
+            unionPositions(extent, subFeature.getPositions());
+        }
+    }
+
+    @Override
+    protected void computeExtent(RenderableExtent extent) {
+        super.computeExtent(extent);
+        this.polygonRenderableList.unionInto(extent);
+        this.pathRenderableList.unionInto(extent);
+        this.labelRenderableList.unionInto(extent);
+        this.pointRenderableList.unionInto(extent);
+    }
+
     @Override
     public void removeRenderables() {
         this.getRenderableList().clear();
@@ -138,5 +190,7 @@ public class KMLFeature extends FeatureRenderableMapping<IKML> {
         pathRenderableList.clear();
         polygonRenderableList.clear();
         labelRenderableList.clear();
+        this.releasePooledAttributes();
+        this.invalidateExtent();
     }
 }
@@ -10,13 +10,19 @@ import gov.nasa.worldwind.geom.Position;
 import gov.nasa.worldwind.render.RenderContext;
 import gov.nasa.worldwind.render.Renderable;
 import gov.nasa.worldwind.shape.Placemark;
+import gov.nasa.worldwind.shape.PlacemarkAttributes;
 import mil.emp3.api.MilStdSymbol;
+import mil.emp3.mapengine.api.MilStdSymbolKey;
 import mil.emp3.mapengine.interfaces.IMilStdRenderer;
 import mil.emp3.worldwind.MapInstance;
 import mil.emp3.worldwind.feature.support.MilStd2525LevelOfDetailSelector;
 
 /**
  * This class implements the milstd 2525 single point icons in the world wind map engine.
+ *
+ * The level of detail selector runs for every symbol on every frame. Everything it needs is prepared here when the
+ * symbol is updated so a frame without a level of detail change does not allocate. The symbol keys of the levels of
+ * detail are only created when the symbol code, modifiers or attributes change.
  */
 public class MilStd2525SinglePoint extends FeatureRenderableMapping<MilStdSymbol> {
     private static final String TAG = MilStd2525SinglePoint.class.getSimpleName();
@@ -35,15 +41,26 @@ public class MilStd2525SinglePoint extends FeatureRenderableMapping<MilStdSymbol
     private SparseArray oAttributes = null;
     private int iLastLevelOfDetail = -1;
     private final Placemark placemark;
+    // The symbol code used at the lowest level of detail, it only depends on the affiliation.
+    private String sLowFidelitySymbolCode;
+    // The keys of the icon of each level of detail, indexed by level.
+    private final MilStdSymbolKey[] levelKeys = new MilStdSymbolKey[3];
+    // The icon size setting scale times the icon scale of the symbol.
+    private double dImageScale;
+    // The attributes of each level of detail, indexed by level. They are dropped when the symbol is dirty.
+    private final PlacemarkAttributes[] levelAttributes = new PlacemarkAttributes[3];
 
     public MilStd2525SinglePoint(MapInstance mapInstance, IMilStdRenderer iconRenderer, Position position, MilStdSymbol symbol) {
         super(symbol, mapInstance);
 
         this.placemark = new EMPPlacemark(this, position);
         this.sSymbolCode = symbol.getSymbolCode();
+        this.sLowFidelitySymbolCode = MilStd2525LevelOfDetailSelector.getLowFidelitySymbolCode(this.sSymbolCode);
         this.oRenderer = iconRenderer;
         this.setSymbolAttributes();
         this.setSymbolModifiers();
+        this.setSymbolKeys();
+        this.setImageScale();
         placemark.setPickDelegate(symbol);
         switch (symbol.getAltitudeMode()) {
             case RELATIVE_TO_GROUND:
@@ -66,6 +83,16 @@ public class MilStd2525SinglePoint extends FeatureRenderableMapping<MilStdSymbol
         this.placemark.render(renderContext);
     }
 
+    /**
+     * The placemark is always up to date, the dirty flag only tells the level of detail selector to regenerate the
+     * icon when it is next drawn.
+     * @return false
+     */
+    @Override
+    public boolean needsRender() {
+        return false;
+    }
+
     private void setSymbolModifiers() {
         this.oModifiers = this.oRenderer.getUnitModifiers(this.getMapInstance(), this.getFeature());
     }
@@ -74,6 +101,26 @@ public class MilStd2525SinglePoint extends FeatureRenderableMapping<MilStdSymbol
         this.oAttributes = this.oRenderer.getAttributes(this.getMapInstance(), this.getFeature(), this.isSelected());
     }
 
+    /**
+     * Creates the keys of the levels of detail from the current symbol code, modifiers and attributes.
+     */
+    private void setSymbolKeys() {
+        MilStdSymbolKey key = MilStdSymbolKey.create(this.sSymbolCode, this.oModifiers, this.oAttributes);
+
+        this.levelKeys[MilStd2525LevelOfDetailSelector.HIGHEST_LEVEL_OF_DETAIL] = key;
+        this.levelKeys[MilStd2525LevelOfDetailSelector.MEDIUM_LEVEL_OF_DETAIL] = key.withoutModifiers();
+        this.levelKeys[MilStd2525LevelOfDetailSelector.LOW_LEVEL_OF_DETAIL] =
+                MilStd2525LevelOfDetailSelector.getLowFidelitySymbolKey(this.sLowFidelitySymbolCode);
+    }
+
+    /**
+     * @param iLevel
+     * @return The key of the icon of the level of detail.
+     */
+    public MilStdSymbolKey getLevelKey(int iLevel) {
+        return this.levelKeys[iLevel];
+    }
+
     public SparseArray getSymbolModifiers() {
         return this.oModifiers;
     }
@@ -86,6 +133,25 @@ public class MilStd2525SinglePoint extends FeatureRenderableMapping<MilStdSymbol
         this.setDirty(false);
     }
 
+    private void setImageScale() {
+        this.dImageScale = this.getMapInstance().getIconSizeSetting().getScaleFactor() * this.getIconScale();
+    }
+
+    /**
+     * Copies the position of the symbol to the placemark if it moved.
+     */
+    private void updatePosition() {
+        IGeoPosition oPos = this.getFeature().getPosition();
+        Position position = this.placemark.getPosition();
+
+        if ((null != oPos) && ((position.latitude != oPos.getLatitude()) || (position.longitude != oPos.getLongitude()) ||
+                (position.altitude != oPos.getAltitude()))) {
+            // The placemark position is updated in place.
+            position.set(oPos.getLatitude(), oPos.getLongitude(), oPos.getAltitude());
+            this.invalidateExtent();
+        }
+    }
+
     /**
      * This method updates the feature and set it dirty if it requires the renderer to be called.
      * @param symbol
@@ -96,37 +162,70 @@ public class MilStd2525SinglePoint extends FeatureRenderableMapping<MilStdSymbol
             this.setDirty(false);
         }
 
-        // Without the following position updates via a call to Feature.apply will not work.
-        // Should we comparing old position vs new position?
-        IGeoPosition oPos = this.getFeature().getPosition();
-        this.placemark.setPosition(Position.fromDegrees(oPos.getLatitude(), oPos.getLongitude(), oPos.getAltitude()));
-
-        if (this.sSymbolCode != symbol.getSymbolCode()) {
-            // if the symbol code has changed it is dirty.
-            this.setDirty(true);
-            this.sSymbolCode = symbol.getSymbolCode();
-        }
+        // Without the following position updates via a call to Feature.apply will not work. This is the only place
+        // the position is pushed to the placemark.
+        this.updatePosition();
 
         SparseArray oMod = this.oRenderer.getUnitModifiers(this.getMapInstance(), this.getFeature());
         SparseArray oAttr = this.oRenderer.getAttributes(this.getMapInstance(), this.getFeature(), isSelected());
 
-        if (!this.oModifiers.toString().equals(oMod.toString())) {
-            // The modifiers have changed so we mark it dirty.
+        // The key of the highest level of detail covers the symbol code, the modifiers and the attributes. Comparing to
+        // it does not allocate.
+        if (!this.levelKeys[MilStd2525LevelOfDetailSelector.HIGHEST_LEVEL_OF_DETAIL].matches(symbol.getSymbolCode(), oMod, oAttr)) {
             this.setDirty(true);
+            if ((null == this.sSymbolCode) ? (null != symbol.getSymbolCode()) : !this.sSymbolCode.equals(symbol.getSymbolCode())) {
+                this.sSymbolCode = symbol.getSymbolCode();
+                this.sLowFidelitySymbolCode = MilStd2525LevelOfDetailSelector.getLowFidelitySymbolCode(this.sSymbolCode);
+            }
             this.oModifiers = oMod;
-        }
-
-        if (!this.oAttributes.toString().equals(oAttr.toString())) {
-            // The attributes has changed, mark dirty.
-            this.setDirty(true);
             this.oAttributes = oAttr;
+            this.setSymbolKeys();
         }
+
+        // The icon size setting is applied by re-plotting the symbols.
+        this.setImageScale();
     }
 
     public String getSymbolCode() {
         return this.getFeature().getSymbolCode();
     }
 
+    public Placemark getPlacemark() {
+        return this.placemark;
+    }
+
+    public String getLowFidelitySymbolCode() {
+        return this.sLowFidelitySymbolCode;
+    }
+
+    /**
+     * @return The scale to apply to the icon image.
+     */
+    public double getImageScale() {
+        return this.dImageScale;
+    }
+
+    /**
+     * @param iLevel
+     * @return The attributes previously created for the level of detail, null if there are none.
+     */
+    public PlacemarkAttributes getLevelAttributes(int iLevel) {
+        return this.levelAttributes[iLevel];
+    }
+
+    public void setLevelAttributes(int iLevel, PlacemarkAttributes attributes) {
+        this.levelAttributes[iLevel] = attributes;
+    }
+
+    /**
+     * Drops the attributes of all levels of detail, they are recreated on demand.
+     */
+    public void clearLevelAttributes() {
+        for (int index = 0; index < this.levelAttributes.length; index++) {
+            this.levelAttributes[index] = null;
+        }
+    }
+
     public MilStdSymbol getSymbol() {
         return this.getFeature();
     }
@@ -158,5 +257,7 @@ public class MilStd2525SinglePoint extends FeatureRenderableMapping<MilStdSymbol
         super.setSelected(selected);
         setSymbolAttributes();
         setSymbolModifiers();
+        setSymbolKeys();
+        setImageScale();
     }
 }
@@ -8,11 +8,10 @@ import java.util.List;
 import gov.nasa.worldwind.render.RenderContext;
 import gov.nasa.worldwind.render.Renderable;
 import mil.emp3.api.MilStdSymbol;
-import mil.emp3.api.Path;
-import mil.emp3.api.Polygon;
-import mil.emp3.api.Text;
+import mil.emp3.api.interfaces.ICamera;
 import mil.emp3.api.interfaces.IFeature;
 import mil.emp3.worldwind.MapInstance;
+import mil.emp3.worldwind.feature.support.RenderableExtent;
 
 /**
  * This class manages the relationship between the EMP MilStdSymbol and the WW basic shapes.
@@ -38,10 +37,12 @@ public class MilStd2525TacticalGraphic extends FeatureRenderableMapping<MilStdSy
             // If its visible we must render it on the map.
             //Log.i(TAG, "TG render with bounds visible.");
             if (this.isDirty()) {
-                // If it is dirty we must call the renderer again before we render it on the map.
-                renderMPTacticalGraphic(bounds);
+                // If it is dirty we must call the renderer again. That is done on the tessellation thread, the current
+                // renderables are drawn until the new ones are ready.
+                this.getMapInstance().getTessellationQueue().submit(this);
                 this.setDirty(false);
             }
+            this.swapTessellation();
 
             java.util.List<Renderable> renderableList = this.getRenderableList();
 
@@ -54,7 +55,7 @@ public class MilStd2525TacticalGraphic extends FeatureRenderableMapping<MilStdSy
                 renderable.render(renderContext);
             }
 
-            if (cameraAltitude <= this.getMapInstance().getFarDistanceThreshold()) {
+            if (this.getMapInstance().showTacticalGraphicLabels(cameraAltitude)) {
                 for(Renderable renderable: renderableLabelList) {
                     renderable.render(renderContext);
                 }
@@ -62,43 +63,41 @@ public class MilStd2525TacticalGraphic extends FeatureRenderableMapping<MilStdSy
         }
     }
 
-    private void renderMPTacticalGraphic(IGeoBounds bounds) {
-        Renderable tempRenderable;
-        MilStdSymbol oSymbol = this.getFeature();
-
-        this.getRenderableList().clear();
-        this.renderablePathList.clear();
-        this.renderableLabelList.clear();
-
-        java.util.List<IFeature> featureList = getMapInstance().getMilStdRenderer().getTGRenderableShapes(getMapInstance(), oSymbol, isSelected());
-
-        for (IFeature feature: featureList) {
-            if (feature instanceof Path) {
-                // Create a WW path object.
-                tempRenderable = this.createWWPath((Path) feature, isSelected());
+    /**
+     * Replaces the renderables with the latest completed tessellation, if there is one.
+     */
+    private void swapTessellation() {
+        Tessellation tessellation = this.takeTessellation();
+
+        if (null != tessellation) {
+            this.setRenderables(tessellation.polygonList);
+            this.renderablePathList.clear();
+            this.renderablePathList.addAll(tessellation.pathList);
+            this.renderableLabelList.clear();
+            this.renderableLabelList.addAll(tessellation.labelList);
+            this.tessellationSwapped(tessellation);
+        }
+    }
 
-                if (tempRenderable != null) {
-                    tempRenderable.setPickDelegate(oSymbol);
-                    this.renderablePathList.add(tempRenderable);
-                }
-            } else if (feature instanceof Polygon) {
-                // Create a WW polygon object.
-                tempRenderable = this.createWWPolygon((Polygon) feature, isSelected());
+    /**
+     * This method is executed on the tessellation thread.
+     * @return
+     */
+    @Override
+    public Tessellation tessellate() {
+        ICamera camera = getMapInstance().getCamera();
+        IGeoBounds viewBounds = (null == camera) ? null : getMapInstance().getMapBounds();
+        double viewAltitude = (null == camera) ? 0 : camera.getAltitude();
+        java.util.List<IFeature> featureList = getMapInstance().getMilStdRenderer().getTGRenderableShapes(getMapInstance(), this.getFeature(), isSelected());
 
-                if (tempRenderable != null) {
-                    tempRenderable.setPickDelegate(oSymbol);
-                    this.addRenderable(tempRenderable);
-                }
-            } else if (feature instanceof Text) {
-                // Create a WW text object.
-                tempRenderable = this.createWWLabel((Text) feature, isSelected());
+        return Tessellation.build(this, featureList, null).setView(viewBounds, viewAltitude);
+    }
 
-                if (tempRenderable != null) {
-                    tempRenderable.setPickDelegate(oSymbol);
-                    this.renderableLabelList.add(tempRenderable);
-                }
-            }
-        }
+    @Override
+    protected void computeExtent(RenderableExtent extent) {
+        super.computeExtent(extent);
+        extent.union(this.renderablePathList);
+        extent.union(this.renderableLabelList);
     }
 
     @Override
@@ -106,5 +105,6 @@ public class MilStd2525TacticalGraphic extends FeatureRenderableMapping<MilStdSy
         this.getRenderableList().clear();
         this.renderablePathList.clear();
         this.renderableLabelList.clear();
+        this.invalidateExtent();
     }
 }
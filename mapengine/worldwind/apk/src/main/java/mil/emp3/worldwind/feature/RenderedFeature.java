@@ -9,12 +9,12 @@ import java.util.List;
 
 import gov.nasa.worldwind.render.RenderContext;
 import gov.nasa.worldwind.render.Renderable;
-import mil.emp3.api.Path;
 import mil.emp3.api.Polygon;
-import mil.emp3.api.Text;
+import mil.emp3.api.interfaces.ICamera;
 import mil.emp3.api.interfaces.IFeature;
 import mil.emp3.worldwind.MapInstance;
 import mil.emp3.worldwind.feature.support.BufferGenerator;
+import mil.emp3.worldwind.feature.support.RenderableExtent;
 
 /**
  * This class represents the features (Rectangle, Square, Circle, and Ellipse) that get rendered with the MilStd renderer.
@@ -45,11 +45,12 @@ public class RenderedFeature extends FeatureRenderableMapping<IFeature> {
 
         if (this.isVisible()) {
             if (this.isDirty()) {
-                removeRenderables();
-                // If it is dirty we must call the renderer again before we render it on the map.
-                this.renderFeature(bounds);
+                // If it is dirty we must call the renderer again. That is done on the tessellation thread, the current
+                // renderables are drawn until the new ones are ready.
+                this.getMapInstance().getTessellationQueue().submit(this);
                 this.setDirty(false);
             }
+            this.swapTessellation();
 
             /*
                 When features are rendered we need to render all background objects first. This is map services, ground images etc.. Then we need
@@ -77,7 +78,7 @@ public class RenderedFeature extends FeatureRenderableMapping<IFeature> {
             }
 
             if (this.labelRenderableList != null){
-                if (cameraAltitude <= this.getMapInstance().getFarDistanceThreshold()) {
+                if (this.getMapInstance().showTacticalGraphicLabels(cameraAltitude)) {
                     for(Renderable renderable: this.labelRenderableList) {
                         renderable.render(renderContext);
                     }
@@ -86,6 +87,22 @@ public class RenderedFeature extends FeatureRenderableMapping<IFeature> {
         }
     }
 
+    /**
+     * Replaces the renderables with the latest completed tessellation, if there is one.
+     */
+    private void swapTessellation() {
+        Tessellation tessellation = this.takeTessellation();
+
+        if (null != tessellation) {
+            this.setRenderables(tessellation.polygonList);
+            this.pathRenderableList.clear();
+            this.pathRenderableList.addAll(tessellation.pathList);
+            this.labelRenderableList.clear();
+            this.labelRenderableList.addAll(tessellation.labelList);
+            this.tessellationSwapped(tessellation);
+        }
+    }
+
     protected Renderable generateBuffer(double buffer) {
         try {
             Polygon bufferPolygon = BufferGenerator.generateBufferPolygon(getFeature(), getMapInstance(), buffer);
@@ -98,47 +115,31 @@ public class RenderedFeature extends FeatureRenderableMapping<IFeature> {
         return null;
     }
 
-    private void renderFeature(IGeoBounds bounds) {
-        Renderable tempRenderable;
+    /**
+     * This method is executed on the tessellation thread.
+     * @return
+     */
+    @Override
+    public Tessellation tessellate() {
+        ICamera camera = getMapInstance().getCamera();
+        IGeoBounds viewBounds = (null == camera) ? null : getMapInstance().getMapBounds();
+        double viewAltitude = (null == camera) ? 0 : camera.getAltitude();
+        Renderable bufferRenderable = null;
 
         if (getFeature().getBuffer() > 0) {
-            tempRenderable = generateBuffer(getFeature().getBuffer());
-
-            if (tempRenderable != null) {
-                tempRenderable.setPickDelegate(getFeature());
-                addRenderable(tempRenderable);
-            }
+            bufferRenderable = generateBuffer(getFeature().getBuffer());
         }
 
         java.util.List<IFeature> featureList = getMapInstance().getMilStdRenderer().getFeatureRenderableShapes(getMapInstance(), this.getFeature(), this.isSelected());
 
-        for (IFeature feature: featureList) {
-            if (feature instanceof Path) {
-                // Create a WW path object.
-                tempRenderable = this.createWWPath((Path) feature, isSelected());
-
-                if (tempRenderable != null) {
-                    tempRenderable.setPickDelegate(this.getFeature());
-                    this.pathRenderableList.add(tempRenderable);
-                }
-            } else if (feature instanceof Polygon) {
-                // Create a WW polygon object.
-                tempRenderable = this.createWWPolygon((Polygon) feature, isSelected());
-
-                if (tempRenderable != null) {
-                    tempRenderable.setPickDelegate(this.getFeature());
-                    this.addRenderable(tempRenderable);
-                }
-            } else if (feature instanceof Text) {
-                // Create a WW text object.
-                tempRenderable = this.createWWLabel((Text) feature, isSelected());
+        return Tessellation.build(this, featureList, bufferRenderable).setView(viewBounds, viewAltitude);
+    }
 
-                if (tempRenderable != null) {
-                    tempRenderable.setPickDelegate(this.getFeature());
-                    this.labelRenderableList.add(tempRenderable);
-                }
-            }
-        }
+    @Override
+    protected void computeExtent(RenderableExtent extent) {
+        super.computeExtent(extent);
+        extent.union(this.pathRenderableList);
+        extent.union(this.labelRenderableList);
     }
 
     @Override
@@ -146,5 +147,6 @@ public class RenderedFeature extends FeatureRenderableMapping<IFeature> {
         this.getRenderableList().clear();
         pathRenderableList.clear();
         labelRenderableList.clear();
+        this.invalidateExtent();
     }
 }
@@ -0,0 +1,84 @@
+package mil.emp3.worldwind.feature;
+
+import org.cmapi.primitives.IGeoBounds;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import gov.nasa.worldwind.render.Renderable;
+import mil.emp3.api.Path;
+import mil.emp3.api.Polygon;
+import mil.emp3.api.Text;
+import mil.emp3.api.interfaces.IFeature;
+
+/**
+ * This class holds the WW renderables generated from the basic shapes the MilStd renderer returns for a feature.
+ * It is built on a tessellation thread and handed to the render thread, which swaps it into the feature mapping.
+ * Once it is handed to the mapping it is not modified.
+ */
+public class Tessellation {
+    // Polygons are drawn first, then the paths and then the labels.
+    final List<Renderable> polygonList = new ArrayList<>();
+    final List<Renderable> pathList = new ArrayList<>();
+    final List<Renderable> labelList = new ArrayList<>();
+    // Set when the tessellation is handed to the mapping.
+    int generation = 0;
+    // The map bounds and camera altitude the renderer generated the shapes for, the bounds may be null.
+    IGeoBounds viewBounds = null;
+    double viewAltitude = 0;
+
+    Tessellation setView(IGeoBounds bounds, double altitude) {
+        this.viewBounds = bounds;
+        this.viewAltitude = altitude;
+        return this;
+    }
+
+    /**
+     * Converts the basic shapes to WW renderables.
+     * @param mapping The mapping the renderables are for.
+     * @param shapeList The features returned by the MilStd renderer.
+     * @param bufferRenderable The buffer polygon, it may be null.
+     * @return
+     */
+    static Tessellation build(FeatureRenderableMapping mapping, List<IFeature> shapeList, Renderable bufferRenderable) {
+        Tessellation tessellation = new Tessellation();
+        IFeature pickDelegate = mapping.getFeature();
+        boolean isSelected = mapping.isSelected();
+        Renderable tempRenderable;
+
+        if (bufferRenderable != null) {
+            bufferRenderable.setPickDelegate(pickDelegate);
+            tessellation.polygonList.add(bufferRenderable);
+        }
+
+        for (IFeature feature: shapeList) {
+            if (feature instanceof Path) {
+                // Create a WW path object.
+                tempRenderable = mapping.createWWPath((Path) feature, isSelected);
+
+                if (tempRenderable != null) {
+                    tempRenderable.setPickDelegate(pickDelegate);
+                    tessellation.pathList.add(tempRenderable);
+                }
+            } else if (feature instanceof Polygon) {
+                // Create a WW polygon object.
+                tempRenderable = mapping.createWWPolygon((Polygon) feature, isSelected);
+
+                if (tempRenderable != null) {
+                    tempRenderable.setPickDelegate(pickDelegate);
+                    tessellation.polygonList.add(tempRenderable);
+                }
+            } else if (feature instanceof Text) {
+                // Create a WW text object.
+                tempRenderable = mapping.createWWLabel((Text) feature, isSelected);
+
+                if (tempRenderable != null) {
+                    tempRenderable.setPickDelegate(pickDelegate);
+                    tessellation.labelList.add(tempRenderable);
+                }
+            }
+        }
+
+        return tessellation;
+    }
+}
@@ -0,0 +1,95 @@
+package mil.emp3.worldwind.feature.support;
+
+/**
+ * This class counts the feature mappings drawn and culled in a frame. KML features are also culled per sub renderable,
+ * those are counted separately.
+ *
+ * The counters are updated on the render thread between beginFrame and endFrame, pick frames are not counted. The
+ * values of the last completed frame can be read from any thread.
+ */
+public class CullingStatistics {
+    private boolean counting = false;
+    private int drawnCount = 0;
+    private int culledCount = 0;
+    private int drawnRenderableCount = 0;
+    private int culledRenderableCount = 0;
+
+    // All fields below are guarded by this.
+    private int lastDrawnCount = 0;
+    private int lastCulledCount = 0;
+    private int lastDrawnRenderableCount = 0;
+    private int lastCulledRenderableCount = 0;
+    private long frameCount = 0;
+
+    public void beginFrame(boolean pickMode) {
+        this.counting = !pickMode;
+        this.drawnCount = 0;
+        this.culledCount = 0;
+        this.drawnRenderableCount = 0;
+        this.culledRenderableCount = 0;
+    }
+
+    public void endFrame() {
+        if (this.counting) {
+            synchronized (this) {
+                this.lastDrawnCount = this.drawnCount;
+                this.lastCulledCount = this.culledCount;
+                this.lastDrawnRenderableCount = this.drawnRenderableCount;
+                this.lastCulledRenderableCount = this.culledRenderableCount;
+                this.frameCount++;
+            }
+        }
+        this.counting = false;
+    }
+
+    public void drawn(int count) {
+        this.drawnCount += count;
+    }
+
+    public void culled(int count) {
+        this.culledCount += count;
+    }
+
+    public void drawnRenderable() {
+        this.drawnRenderableCount++;
+    }
+
+    public void culledRenderable() {
+        this.culledRenderableCount++;
+    }
+
+    /**
+     * @return Number of feature mappings drawn in the last frame.
+     */
+    public synchronized int getDrawnCount() {
+        return this.lastDrawnCount;
+    }
+
+    /**
+     * @return Number of feature mappings skipped in the last frame as they were outside the view.
+     */
+    public synchronized int getCulledCount() {
+        return this.lastCulledCount;
+    }
+
+    /**
+     * @return Number of KML sub renderables drawn in the last frame.
+     */
+    public synchronized int getDrawnRenderableCount() {
+        return this.lastDrawnRenderableCount;
+    }
+
+    /**
+     * @return Number of KML sub renderables skipped in the last frame.
+     */
+    public synchronized int getCulledRenderableCount() {
+        return this.lastCulledRenderableCount;
+    }
+
+    /**
+     * @return Number of frames counted.
+     */
+    public synchronized long getFrameCount() {
+        return this.frameCount;
+    }
+}
@@ -0,0 +1,393 @@
+package mil.emp3.worldwind.feature.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+import gov.nasa.worldwind.geom.Sector;
+import mil.emp3.worldwind.feature.FeatureRenderableMapping;
+
+/**
+ * This class is a spatial index of the geographic extent of feature mappings. Each EmpLayer keeps one so that a frame,
+ * a pick or a bounds query only visits the mappings near the area of interest instead of all of them.
+ *
+ * The index is a quadtree over latitude and longitude. A mapping is stored in the smallest node that fully contains
+ * its extent, a node is split when it holds more than MAX_NODE_ENTRIES mappings. A mapping with an empty extent is
+ * stored in the root with a whole globe extent.
+ *
+ * A mapping whose renderables are not up to date, see FeatureRenderableMapping.needsRender, is pending. Pending
+ * mappings are returned by every view query so the layer renders them. The layer calls refresh once they have been
+ * rendered, which stores their new extent.
+ *
+ * Results are returned in the order the mappings were added to the index, which is the order the layer draws them.
+ *
+ * All public methods are thread safe. Features are removed on the caller's thread and rendered on the UI thread.
+ */
+public class FeatureSpatialIndex {
+    private static final int MAX_NODE_ENTRIES = 16;
+    // At this depth a node spans less than a thousandth of a degree.
+    private static final int MAX_DEPTH = 18;
+    // Fraction of the view sector added on each side, it must match RenderableExtent.
+    private static final double VIEW_MARGIN = 0.05;
+
+    private static final Comparator<Entry> SEQUENCE_ORDER = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry entry1, Entry entry2) {
+            return (entry1.sequence < entry2.sequence) ? -1 : ((entry1.sequence == entry2.sequence) ? 0 : 1);
+        }
+    };
+
+    private final Node root = new Node(null, 0, -90.0, 90.0, -180.0, 180.0);
+    private final HashMap<FeatureRenderableMapping, Entry> entries = new HashMap<>();
+    private final List<Entry> pendingEntries = new ArrayList<>();
+    private final List<Entry> queryResult = new ArrayList<>();
+    private long nextSequence = 0;
+    private int queryStamp = 0;
+
+    private static class Entry {
+        private final FeatureRenderableMapping mapping;
+        private final long sequence;
+        private double minLatitude;
+        private double maxLatitude;
+        private double minLongitude;
+        private double maxLongitude;
+        private Node node = null;
+        private int nodeIndex = -1;
+        private int pendingIndex = -1;
+        private int stamp = 0;
+
+        private Entry(FeatureRenderableMapping mapping, long sequence) {
+            this.mapping = mapping;
+            this.sequence = sequence;
+        }
+
+        private void setExtent(RenderableExtent extent) {
+            if (extent.isEmpty()) {
+                this.minLatitude = -90.0;
+                this.maxLatitude = 90.0;
+                this.minLongitude = -180.0;
+                this.maxLongitude = 180.0;
+            } else {
+                this.minLatitude = extent.getMinLatitude();
+                this.maxLatitude = extent.getMaxLatitude();
+                this.minLongitude = extent.getMinLongitude();
+                this.maxLongitude = extent.getMaxLongitude();
+            }
+        }
+
+        private boolean intersects(double minLatitude, double maxLatitude, double minLongitude, double maxLongitude) {
+            return (this.minLatitude <= maxLatitude) && (this.maxLatitude >= minLatitude) &&
+                    (this.minLongitude <= maxLongitude) && (this.maxLongitude >= minLongitude);
+        }
+    }
+
+    private static class Node {
+        private final Node parent;
+        private final int depth;
+        private final double minLatitude;
+        private final double maxLatitude;
+        private final double minLongitude;
+        private final double maxLongitude;
+        private final List<Entry> entries = new ArrayList<>();
+        private Node[] children = null;
+        // Number of entries in this node and all its descendants.
+        private int size = 0;
+
+        private Node(Node parent, int depth, double minLatitude, double maxLatitude, double minLongitude, double maxLongitude) {
+            this.parent = parent;
+            this.depth = depth;
+            this.minLatitude = minLatitude;
+            this.maxLatitude = maxLatitude;
+            this.minLongitude = minLongitude;
+            this.maxLongitude = maxLongitude;
+        }
+
+        private boolean contains(Entry entry) {
+            return (entry.minLatitude >= this.minLatitude) && (entry.maxLatitude <= this.maxLatitude) &&
+                    (entry.minLongitude >= this.minLongitude) && (entry.maxLongitude <= this.maxLongitude);
+        }
+
+        private boolean intersects(double minLatitude, double maxLatitude, double minLongitude, double maxLongitude) {
+            return (this.minLatitude <= maxLatitude) && (this.maxLatitude >= minLatitude) &&
+                    (this.minLongitude <= maxLongitude) && (this.maxLongitude >= minLongitude);
+        }
+
+        private Node childContaining(Entry entry) {
+            if (null != this.children) {
+                for (Node child : this.children) {
+                    if (child.contains(entry)) {
+                        return child;
+                    }
+                }
+            }
+            return null;
+        }
+
+        private void addEntry(Entry entry) {
+            entry.node = this;
+            entry.nodeIndex = this.entries.size();
+            this.entries.add(entry);
+        }
+
+        private void removeEntry(Entry entry) {
+            // Move the last entry into the slot so removal doesn't shift the list.
+            int lastIndex = this.entries.size() - 1;
+            Entry last = this.entries.remove(lastIndex);
+            if (last != entry) {
+                this.entries.set(entry.nodeIndex, last);
+                last.nodeIndex = entry.nodeIndex;
+            }
+            entry.node = null;
+            entry.nodeIndex = -1;
+        }
+
+        private void split() {
+            double midLatitude = (this.minLatitude + this.maxLatitude) / 2.0;
+            double midLongitude = (this.minLongitude + this.maxLongitude) / 2.0;
+            int childDepth = this.depth + 1;
+
+            this.children = new Node[] {
+                    new Node(this, childDepth, this.minLatitude, midLatitude, this.minLongitude, midLongitude),
+                    new Node(this, childDepth, this.minLatitude, midLatitude, midLongitude, this.maxLongitude),
+                    new Node(this, childDepth, midLatitude, this.maxLatitude, this.minLongitude, midLongitude),
+                    new Node(this, childDepth, midLatitude, this.maxLatitude, midLongitude, this.maxLongitude)
+            };
+
+            List<Entry> oldEntries = new ArrayList<>(this.entries);
+            this.entries.clear();
+            for (Entry entry : oldEntries) {
+                Node child = this.childContaining(entry);
+                if (null == child) {
+                    this.addEntry(entry);
+                } else {
+                    child.addEntry(entry);
+                    child.size++;
+                }
+            }
+        }
+    }
+
+    private void insert(Entry entry) {
+        Node node = this.root;
+
+        while (true) {
+            node.size++;
+            if ((null == node.children) && (node.entries.size() >= MAX_NODE_ENTRIES) && (node.depth < MAX_DEPTH)) {
+                node.split();
+            }
+            Node child = node.childContaining(entry);
+            if (null == child) {
+                break;
+            }
+            node = child;
+        }
+        node.addEntry(entry);
+    }
+
+    private void remove(Entry entry) {
+        Node node = entry.node;
+
+        node.removeEntry(entry);
+        while (null != node) {
+            node.size--;
+            if ((0 == node.size) && (null != node.children)) {
+                // The whole sub tree is empty.
+                node.children = null;
+            }
+            node = node.parent;
+        }
+    }
+
+    private void setPending(Entry entry, boolean pending) {
+        if (pending && (-1 == entry.pendingIndex)) {
+            entry.pendingIndex = this.pendingEntries.size();
+            this.pendingEntries.add(entry);
+        } else if (!pending && (-1 != entry.pendingIndex)) {
+            int lastIndex = this.pendingEntries.size() - 1;
+            Entry last = this.pendingEntries.remove(lastIndex);
+            if (last != entry) {
+                this.pendingEntries.set(entry.pendingIndex, last);
+                last.pendingIndex = entry.pendingIndex;
+            }
+            entry.pendingIndex = -1;
+        }
+    }
+
+    private void update(Entry entry) {
+        FeatureRenderableMapping mapping = entry.mapping;
+
+        this.remove(entry);
+        entry.setExtent(mapping.getIndexExtent());
+        this.insert(entry);
+        this.setPending(entry, mapping.isVisible() && mapping.needsRender());
+    }
+
+    /**
+     * Adds the mapping to the index. It must be called on the UI thread.
+     * @param mapping
+     */
+    public synchronized void add(FeatureRenderableMapping mapping) {
+        if (!this.entries.containsKey(mapping)) {
+            Entry entry = new Entry(mapping, this.nextSequence++);
+            entry.setExtent(mapping.getIndexExtent());
+            this.entries.put(mapping, entry);
+            this.insert(entry);
+            this.setPending(entry, mapping.isVisible() && mapping.needsRender());
+        }
+    }
+
+    /**
+     * Removes the mapping from the index. It may be called on any thread.
+     * @param mapping
+     */
+    public synchronized void remove(FeatureRenderableMapping mapping) {
+        Entry entry = this.entries.remove(mapping);
+
+        if (null != entry) {
+            this.remove(entry);
+            this.setPending(entry, false);
+        }
+    }
+
+    /**
+     * Stores the current extent of the mapping. It must be called on the UI thread when the position of the mapping
+     * changes or after a pending mapping has been rendered.
+     * @param mapping
+     */
+    public synchronized void refresh(FeatureRenderableMapping mapping) {
+        Entry entry = this.entries.get(mapping);
+
+        if (null != entry) {
+            this.update(entry);
+        }
+    }
+
+    /**
+     * Refreshes all the mappings in the list.
+     * @param mappingList
+     */
+    public synchronized void refresh(List<FeatureRenderableMapping> mappingList) {
+        for (int index = 0; index < mappingList.size(); index++) {
+            Entry entry = this.entries.get(mappingList.get(index));
+
+            if (null != entry) {
+                this.update(entry);
+            }
+        }
+    }
+
+    /**
+     * Marks the mapping as pending so it is rendered on the next frame wherever its extent is. It may be called on any
+     * thread.
+     * @param mapping
+     */
+    public synchronized void markPending(FeatureRenderableMapping mapping) {
+        Entry entry = this.entries.get(mapping);
+
+        if (null != entry) {
+            this.setPending(entry, true);
+        }
+    }
+
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    private void collect(Node node, double minLatitude, double maxLatitude, double minLongitude, double maxLongitude) {
+        for (int index = 0; index < node.entries.size(); index++) {
+            Entry entry = node.entries.get(index);
+            if ((entry.stamp != this.queryStamp) && entry.intersects(minLatitude, maxLatitude, minLongitude, maxLongitude)) {
+                entry.stamp = this.queryStamp;
+                this.queryResult.add(entry);
+            }
+        }
+        if (null != node.children) {
+            for (Node child : node.children) {
+                if ((child.size > 0) && child.intersects(minLatitude, maxLatitude, minLongitude, maxLongitude)) {
+                    this.collect(child, minLatitude, maxLatitude, minLongitude, maxLongitude);
+                }
+            }
+        }
+    }
+
+    /**
+     * Collects the entries whose extent intersects the bounds. A west bound greater than the east bound crosses the
+     * date line.
+     */
+    private void collect(double south, double north, double west, double east) {
+        if (west <= east) {
+            this.collect(this.root, south, north, west, east);
+        } else {
+            this.collect(this.root, south, north, west, 180.0);
+            this.collect(this.root, south, north, -180.0, east);
+        }
+    }
+
+    private void startQuery() {
+        this.queryResult.clear();
+        this.queryStamp++;
+        if (0 == this.queryStamp) {
+            // The stamp wrapped, clear the old stamps so no entry is skipped.
+            for (Entry entry : this.entries.values()) {
+                entry.stamp = 0;
+            }
+            this.queryStamp = 1;
+        }
+    }
+
+    private void endQuery(List<FeatureRenderableMapping> result, List<FeatureRenderableMapping> pendingResult) {
+        Collections.sort(this.queryResult, SEQUENCE_ORDER);
+        for (int index = 0; index < this.queryResult.size(); index++) {
+            Entry entry = this.queryResult.get(index);
+            result.add(entry.mapping);
+            if ((null != pendingResult) && (-1 != entry.pendingIndex)) {
+                pendingResult.add(entry.mapping);
+            }
+        }
+        this.queryResult.clear();
+    }
+
+    /**
+     * Finds the mappings to render in a frame: the ones whose extent intersects the view sector, enlarged by a small
+     * margin, and all the pending ones.
+     * @param viewSector The sector of the visible terrain. If it is empty all mappings are returned.
+     * @param result Receives the mappings in drawing order.
+     * @param pendingResult Receives the pending mappings, they must be refreshed once rendered.
+     */
+    public synchronized void queryView(Sector viewSector, List<FeatureRenderableMapping> result, List<FeatureRenderableMapping> pendingResult) {
+        this.startQuery();
+        if (viewSector.isEmpty()) {
+            this.collect(this.root, -90.0, 90.0, -180.0, 180.0);
+        } else {
+            double latitudeMargin = viewSector.deltaLatitude() * VIEW_MARGIN;
+            double longitudeMargin = viewSector.deltaLongitude() * VIEW_MARGIN;
+
+            this.collect(viewSector.minLatitude() - latitudeMargin, viewSector.maxLatitude() + latitudeMargin,
+                    viewSector.minLongitude() - longitudeMargin, viewSector.maxLongitude() + longitudeMargin);
+        }
+        for (int index = 0; index < this.pendingEntries.size(); index++) {
+            Entry entry = this.pendingEntries.get(index);
+            if (entry.stamp != this.queryStamp) {
+                entry.stamp = this.queryStamp;
+                this.queryResult.add(entry);
+            }
+        }
+        this.endQuery(result, pendingResult);
+    }
+
+    /**
+     * Finds the mappings whose extent intersects the bounds.
+     * @param north
+     * @param south
+     * @param east
+     * @param west If it is greater than east the bounds cross the date line.
+     * @param result Receives the mappings in drawing order.
+     */
+    public synchronized void query(double north, double south, double east, double west, List<FeatureRenderableMapping> result) {
+        this.startQuery();
+        this.collect(south, north, west, east);
+        this.endQuery(result, null);
+    }
+}
@@ -0,0 +1,489 @@
+package mil.emp3.worldwind.feature.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import mil.emp3.api.interfaces.IFrameMetrics;
+
+/**
+ * This class records where the render thread spends each frame: the frame time, the time of each feature layer, the
+ * features drawn and culled, the renderables regenerated on the render thread, the MilStd icon cache hits and misses
+ * and an estimate of the bytes allocated. A map that packs its icons into an IconAtlas also records the occupancy of
+ * the atlas and its texture binds. Pick frames are not recorded, the picks are timed separately.
+ *
+ * The values of the last CAPACITY frames are kept in a ring buffer. The render thread is the only writer. Each slot
+ * is stamped with its frame number before and after it is written, a reader that finds different stamps skips the
+ * slot, so neither side ever waits for the other.
+ *
+ * The per frame accumulators are only accessed on the render thread between beginFrame and endFrame.
+ */
+public class FrameProfiler {
+    public static final int CAPACITY = 120;
+    public static final int MAX_LAYERS = 16;
+
+    private static final int STAMP = 0;
+    private static final int START_TIME = 1;
+    private static final int FRAME_TIME = 2;
+    private static final int DRAWN_COUNT = 3;
+    private static final int CULLED_COUNT = 4;
+    private static final int REGENERATED_COUNT = 5;
+    private static final int REGENERATE_TIME = 6;
+    private static final int ICON_CACHE_HITS = 7;
+    private static final int ICON_CACHE_MISSES = 8;
+    private static final int ALLOCATED_BYTES = 9;
+    private static final int ATLAS_PAGE_COUNT = 10;
+    private static final int ATLAS_USED_PIXELS = 11;
+    private static final int ATLAS_CAPACITY_PIXELS = 12;
+    private static final int ATLAS_BIND_COUNT = 13;
+    private static final int ATLAS_DRAW_COUNT = 14;
+    private static final int LAYER_TIME = 15;
+    private static final int SLOT_SIZE = LAYER_TIME + MAX_LAYERS;
+
+    private final AtomicLongArray slots = new AtomicLongArray(CAPACITY * SLOT_SIZE);
+    private final AtomicLong frameCount = new AtomicLong(0);
+    private final List<String> layerNames = new CopyOnWriteArrayList<>();
+
+    // Render thread state.
+    private boolean recording = false;
+    private long frameStart;
+    private long heapStart;
+    private int regeneratedCount;
+    private long regenerateTime;
+    private int atlasPageCount;
+    private long atlasUsedPixels;
+    private long atlasCapacityPixels;
+    private int atlasBindCount;
+    private int atlasDrawCount;
+    private final long[] layerTime = new long[MAX_LAYERS];
+
+    // Picks are executed on the UI thread.
+    private final AtomicLong pickCount = new AtomicLong(0);
+    private final AtomicLong lastPickTime = new AtomicLong(0);
+    private final AtomicLong maxPickTime = new AtomicLong(0);
+    private final AtomicLong totalPickTime = new AtomicLong(0);
+
+    public FrameProfiler() {
+        for (int index = 0; index < CAPACITY; index++) {
+            this.slots.set(index * SLOT_SIZE + STAMP, -1);
+        }
+    }
+
+    /**
+     * Called by each feature layer when it is created.
+     * @param layerName
+     * @return The index the layer must pass to layerRendered, -1 if there are too many layers to record.
+     */
+    public synchronized int registerLayer(String layerName) {
+        if (this.layerNames.size() >= MAX_LAYERS) {
+            return -1;
+        }
+        this.layerNames.add(layerName);
+        return this.layerNames.size() - 1;
+    }
+
+    public void beginFrame(boolean pickMode) {
+        this.recording = !pickMode;
+        if (this.recording) {
+            this.frameStart = System.nanoTime();
+            this.heapStart = usedHeap();
+            this.regeneratedCount = 0;
+            this.regenerateTime = 0;
+            this.atlasPageCount = 0;
+            this.atlasUsedPixels = 0;
+            this.atlasCapacityPixels = 0;
+            this.atlasBindCount = 0;
+            this.atlasDrawCount = 0;
+            for (int index = 0; index < MAX_LAYERS; index++) {
+                this.layerTime[index] = 0;
+            }
+        }
+    }
+
+    /**
+     * @return The start time to pass to layerRendered or regenerated, 0 if the frame is not recorded.
+     */
+    public long startTimer() {
+        return this.recording ? System.nanoTime() : 0;
+    }
+
+    public void layerRendered(int layerIndex, long startTime) {
+        if (this.recording && (layerIndex >= 0)) {
+            this.layerTime[layerIndex] += System.nanoTime() - startTime;
+        }
+    }
+
+    /**
+     * Called when the renderables of a feature were regenerated on the render thread.
+     * @param startTime
+     */
+    public void regenerated(long startTime) {
+        if (this.recording) {
+            this.regeneratedCount++;
+            this.regenerateTime += System.nanoTime() - startTime;
+        }
+    }
+
+    /**
+     * Called before endFrame by a map that packs its MilStd icons into an IconAtlas.
+     * @param pageCount Pages of the atlas.
+     * @param usedPixels Pixels of the pages covered by icons.
+     * @param capacityPixels Pixels of the pages.
+     * @param bindCount Page binds on the GL thread since the previous frame was recorded.
+     * @param drawCount Icons drawn from the atlas on the GL thread since the previous frame was recorded.
+     */
+    public void iconAtlasUsed(int pageCount, long usedPixels, long capacityPixels, int bindCount, int drawCount) {
+        if (this.recording) {
+            this.atlasPageCount = pageCount;
+            this.atlasUsedPixels = usedPixels;
+            this.atlasCapacityPixels = capacityPixels;
+            this.atlasBindCount = bindCount;
+            this.atlasDrawCount = drawCount;
+        }
+    }
+
+    /**
+     * Stores the frame in the ring buffer.
+     * @param drawnCount Features drawn in the frame.
+     * @param culledCount Features culled in the frame.
+     * @param iconCacheHits MilStd icons reused in the frame.
+     * @param iconCacheMisses MilStd icons created in the frame.
+     */
+    public void endFrame(int drawnCount, int culledCount, int iconCacheHits, int iconCacheMisses) {
+        if (!this.recording) {
+            return;
+        }
+        this.recording = false;
+
+        long frameNumber = this.frameCount.get();
+        int base = (int) (frameNumber % CAPACITY) * SLOT_SIZE;
+
+        this.slots.set(base + STAMP, -1);
+        this.slots.set(base + START_TIME, this.frameStart);
+        this.slots.set(base + FRAME_TIME, System.nanoTime() - this.frameStart);
+        this.slots.set(base + DRAWN_COUNT, drawnCount);
+        this.slots.set(base + CULLED_COUNT, culledCount);
+        this.slots.set(base + REGENERATED_COUNT, this.regeneratedCount);
+        this.slots.set(base + REGENERATE_TIME, this.regenerateTime);
+        this.slots.set(base + ICON_CACHE_HITS, iconCacheHits);
+        this.slots.set(base + ICON_CACHE_MISSES, iconCacheMisses);
+        this.slots.set(base + ALLOCATED_BYTES, Math.max(0, usedHeap() - this.heapStart));
+        this.slots.set(base + ATLAS_PAGE_COUNT, this.atlasPageCount);
+        this.slots.set(base + ATLAS_USED_PIXELS, this.atlasUsedPixels);
+        this.slots.set(base + ATLAS_CAPACITY_PIXELS, this.atlasCapacityPixels);
+        this.slots.set(base + ATLAS_BIND_COUNT, this.atlasBindCount);
+        this.slots.set(base + ATLAS_DRAW_COUNT, this.atlasDrawCount);
+        for (int index = 0; index < MAX_LAYERS; index++) {
+            this.slots.set(base + LAYER_TIME + index, this.layerTime[index]);
+        }
+        this.slots.set(base + STAMP, frameNumber);
+        this.frameCount.set(frameNumber + 1);
+    }
+
+    /**
+     * Called on the UI thread when a pick completes.
+     * @param elapsed Time the pick took in nanoseconds.
+     */
+    public void picked(long elapsed) {
+        long max;
+
+        this.pickCount.incrementAndGet();
+        this.lastPickTime.set(elapsed);
+        this.totalPickTime.addAndGet(elapsed);
+        do {
+            max = this.maxPickTime.get();
+        } while ((elapsed > max) && !this.maxPickTime.compareAndSet(max, elapsed));
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Builds a snapshot of the recorded frames. It may be called from any thread.
+     * @param tessellation The current tessellation queue counters.
+     * @return
+     */
+    public IFrameMetrics getMetrics(TessellationQueue.Statistics tessellation) {
+        Metrics metrics = new Metrics();
+        List<String> names = new ArrayList<>(this.layerNames);
+        long[] slot = new long[SLOT_SIZE];
+        long[] layerTotal = new long[MAX_LAYERS];
+        long frameTotal = 0;
+        long drawnTotal = 0;
+        long culledTotal = 0;
+        long regenerateTotal = 0;
+        long allocatedTotal = 0;
+        long atlasBindTotal = 0;
+        long atlasDrawTotal = 0;
+        long firstStart = Long.MAX_VALUE;
+        long lastStart = Long.MIN_VALUE;
+        long lastFrameNumber = -1;
+
+        metrics.layerNames = names;
+        metrics.maxLayerTime = new long[names.size()];
+        metrics.averageLayerTime = new long[names.size()];
+
+        for (int index = 0; index < CAPACITY; index++) {
+            if (!this.readSlot(index, slot)) {
+                continue;
+            }
+
+            metrics.sampleCount++;
+            frameTotal += slot[FRAME_TIME];
+            metrics.maxFrameTime = Math.max(metrics.maxFrameTime, slot[FRAME_TIME]);
+            drawnTotal += slot[DRAWN_COUNT];
+            culledTotal += slot[CULLED_COUNT];
+            metrics.regeneratedCount += (int) slot[REGENERATED_COUNT];
+            regenerateTotal += slot[REGENERATE_TIME];
+            metrics.iconCacheHitCount += (int) slot[ICON_CACHE_HITS];
+            metrics.iconCacheMissCount += (int) slot[ICON_CACHE_MISSES];
+            allocatedTotal += slot[ALLOCATED_BYTES];
+            atlasBindTotal += slot[ATLAS_BIND_COUNT];
+            atlasDrawTotal += slot[ATLAS_DRAW_COUNT];
+            for (int layer = 0; layer < names.size(); layer++) {
+                layerTotal[layer] += slot[LAYER_TIME + layer];
+                metrics.maxLayerTime[layer] = Math.max(metrics.maxLayerTime[layer], slot[LAYER_TIME + layer]);
+            }
+            firstStart = Math.min(firstStart, slot[START_TIME]);
+            lastStart = Math.max(lastStart, slot[START_TIME]);
+            if (slot[STAMP] > lastFrameNumber) {
+                lastFrameNumber = slot[STAMP];
+                metrics.lastFrameTime = slot[FRAME_TIME];
+                metrics.iconAtlasPageCount = (int) slot[ATLAS_PAGE_COUNT];
+                metrics.iconAtlasOccupancy = (slot[ATLAS_CAPACITY_PIXELS] > 0) ?
+                        ((double) slot[ATLAS_USED_PIXELS] / slot[ATLAS_CAPACITY_PIXELS]) : 0.0;
+            }
+        }
+
+        metrics.frameCount = this.frameCount.get();
+        if (metrics.sampleCount > 0) {
+            metrics.averageFrameTime = frameTotal / metrics.sampleCount;
+            metrics.averageDrawnCount = (int) (drawnTotal / metrics.sampleCount);
+            metrics.averageCulledCount = (int) (culledTotal / metrics.sampleCount);
+            metrics.averageAllocatedBytes = allocatedTotal / metrics.sampleCount;
+            metrics.averageIconAtlasBindCount = (int) (atlasBindTotal / metrics.sampleCount);
+            metrics.averageIconAtlasDrawCount = (int) (atlasDrawTotal / metrics.sampleCount);
+            for (int layer = 0; layer < names.size(); layer++) {
+                metrics.averageLayerTime[layer] = layerTotal[layer] / metrics.sampleCount;
+            }
+        }
+        if (metrics.regeneratedCount > 0) {
+            metrics.averageRegenerateTime = regenerateTotal / metrics.regeneratedCount;
+        }
+        if ((metrics.sampleCount > 1) && (lastStart > firstStart)) {
+            metrics.framesPerSecond = (metrics.sampleCount - 1) * 1.0e9 / (lastStart - firstStart);
+        }
+
+        metrics.tessellationQueueDepth = tessellation.getQueueDepth();
+        metrics.tessellationCount = tessellation.getCompletedCount();
+        metrics.averageTessellationTime = tessellation.getAverageTessellationTime();
+        metrics.maxTessellationTime = tessellation.getMaxTessellationTime();
+
+        metrics.pickCount = this.pickCount.get();
+        metrics.lastPickTime = this.lastPickTime.get();
+        metrics.maxPickTime = this.maxPickTime.get();
+        metrics.averagePickTime = (metrics.pickCount > 0) ? (this.totalPickTime.get() / metrics.pickCount) : 0;
+
+        return metrics;
+    }
+
+    /**
+     * Copies a slot of the ring buffer.
+     * @param index
+     * @param slot
+     * @return false if the slot was never written or was being written.
+     */
+    private boolean readSlot(int index, long[] slot) {
+        int base = index * SLOT_SIZE;
+        long stamp = this.slots.get(base + STAMP);
+
+        if (stamp < 0) {
+            return false;
+        }
+        for (int field = 1; field < SLOT_SIZE; field++) {
+            slot[field] = this.slots.get(base + field);
+        }
+        slot[STAMP] = stamp;
+        return (stamp == this.slots.get(base + STAMP));
+    }
+
+    private static class Metrics implements IFrameMetrics {
+        private long frameCount;
+        private int sampleCount;
+        private double framesPerSecond;
+        private long lastFrameTime;
+        private long averageFrameTime;
+        private long maxFrameTime;
+        private List<String> layerNames;
+        private long[] averageLayerTime;
+        private long[] maxLayerTime;
+        private int averageDrawnCount;
+        private int averageCulledCount;
+        private int regeneratedCount;
+        private long averageRegenerateTime;
+        private int iconCacheHitCount;
+        private int iconCacheMissCount;
+        private long averageAllocatedBytes;
+        private int iconAtlasPageCount;
+        private double iconAtlasOccupancy;
+        private int averageIconAtlasBindCount;
+        private int averageIconAtlasDrawCount;
+        private int tessellationQueueDepth;
+        private long tessellationCount;
+        private long averageTessellationTime;
+        private long maxTessellationTime;
+        private long pickCount;
+        private long lastPickTime;
+        private long averagePickTime;
+        private long maxPickTime;
+
+        @Override
+        public long getFrameCount() {
+            return this.frameCount;
+        }
+
+        @Override
+        public int getSampleCount() {
+            return this.sampleCount;
+        }
+
+        @Override
+        public double getFramesPerSecond() {
+            return this.framesPerSecond;
+        }
+
+        @Override
+        public long getLastFrameTime() {
+            return this.lastFrameTime;
+        }
+
+        @Override
+        public long getAverageFrameTime() {
+            return this.averageFrameTime;
+        }
+
+        @Override
+        public long getMaxFrameTime() {
+            return this.maxFrameTime;
+        }
+
+        @Override
+        public List<String> getLayerNames() {
+            return this.layerNames;
+        }
+
+        @Override
+        public long getAverageLayerTime(String layerName) {
+            int index = this.layerNames.indexOf(layerName);
+
+            return (index < 0) ? 0 : this.averageLayerTime[index];
+        }
+
+        @Override
+        public long getMaxLayerTime(String layerName) {
+            int index = this.layerNames.indexOf(layerName);
+
+            return (index < 0) ? 0 : this.maxLayerTime[index];
+        }
+
+        @Override
+        public int getAverageDrawnCount() {
+            return this.averageDrawnCount;
+        }
+
+        @Override
+        public int getAverageCulledCount() {
+            return this.averageCulledCount;
+        }
+
+        @Override
+        public int getRegeneratedCount() {
+            return this.regeneratedCount;
+        }
+
+        @Override
+        public long getAverageRegenerateTime() {
+            return this.averageRegenerateTime;
+        }
+
+        @Override
+        public int getIconCacheHitCount() {
+            return this.iconCacheHitCount;
+        }
+
+        @Override
+        public int getIconCacheMissCount() {
+            return this.iconCacheMissCount;
+        }
+
+        @Override
+        public long getAverageAllocatedBytes() {
+            return this.averageAllocatedBytes;
+        }
+
+        @Override
+        public int getIconAtlasPageCount() {
+            return this.iconAtlasPageCount;
+        }
+
+        @Override
+        public double getIconAtlasOccupancy() {
+            return this.iconAtlasOccupancy;
+        }
+
+        @Override
+        public int getAverageIconAtlasBindCount() {
+            return this.averageIconAtlasBindCount;
+        }
+
+        @Override
+        public int getAverageIconAtlasDrawCount() {
+            return this.averageIconAtlasDrawCount;
+        }
+
+        @Override
+        public int getTessellationQueueDepth() {
+            return this.tessellationQueueDepth;
+        }
+
+        @Override
+        public long getTessellationCount() {
+            return this.tessellationCount;
+        }
+
+        @Override
+        public long getAverageTessellationTime() {
+            return this.averageTessellationTime;
+        }
+
+        @Override
+        public long getMaxTessellationTime() {
+            return this.maxTessellationTime;
+        }
+
+        @Override
+        public long getPickCount() {
+            return this.pickCount;
+        }
+
+        @Override
+        public long getLastPickTime() {
+            return this.lastPickTime;
+        }
+
+        @Override
+        public long getAveragePickTime() {
+            return this.averagePickTime;
+        }
+
+        @Override
+        public long getMaxPickTime() {
+            return this.maxPickTime;
+        }
+    }
+}
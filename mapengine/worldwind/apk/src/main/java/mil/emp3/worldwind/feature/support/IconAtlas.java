@@ -0,0 +1,402 @@
+package mil.emp3.worldwind.feature.support;
+
+import android.graphics.Bitmap;
+import android.opengl.GLES20;
+import android.opengl.GLUtils;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import gov.nasa.worldwind.draw.DrawContext;
+import gov.nasa.worldwind.geom.Offset;
+import gov.nasa.worldwind.render.ImageSource;
+import gov.nasa.worldwind.render.RenderContext;
+import gov.nasa.worldwind.render.Texture;
+import mil.emp3.mapengine.api.MilStdSymbolKey;
+
+/**
+ * This class packs the MilStd icons of a map into a few large textures, the pages. Each icon is drawn from its sub
+ * rectangle of a page, so the placemarks of icons that share a page are drawn without binding another texture.
+ *
+ * An icon is added to the atlas as a bitmap image source. The atlas puts a texture in the render resource cache of the
+ * map under that image source, the placemark finds it there in place of a texture of its own. The icon is copied to its
+ * page on the GL thread the next time the page is bound. The placements on the pages are managed by an
+ * IconAtlasPacker, when all pages are full the least recently used one is emptied for the new icons.
+ *
+ * The image source keeps the bitmap of the icon. An icon whose page was emptied, or whose texture the render resource
+ * cache evicted, is added again by touch on the next frame it is drawn. An icon that can't be added, because it is too
+ * large or all pages are in use, is drawn from a texture of its own the placemark creates from the bitmap. A disabled
+ * atlas adds no icons, the icons already on its pages are drawn from them until their page is lost.
+ *
+ * All methods except the texture ones are called on the render thread. The bind and draw counts are incremented on
+ * the GL thread.
+ */
+public class IconAtlas {
+    public static final int PAGE_SIZE = 1024;
+    public static final int MAX_PAGES = 4;
+    public static final int MAX_ICON_SIZE = 256;
+
+    // Keeps linear filtering from blending the neighbouring icons.
+    private static final int PADDING = 1;
+
+    // The frames rendered but not drawn yet may still use a page.
+    private static final int FRAME_LATENCY = 3;
+
+    // The icons are swept of the ones whose page was emptied when the map grows past this size.
+    private static final int MINIMUM_SWEEP_SIZE = 256;
+
+    private final IconAtlasPacker packer = new IconAtlasPacker(PAGE_SIZE, MAX_PAGES, PADDING, FRAME_LATENCY);
+    private final List<AtlasPage> pages = new ArrayList<>();
+    private final HashMap<MilStdSymbolKey, Icon> icons = new HashMap<>();
+    private int sweepSize = MINIMUM_SWEEP_SIZE;
+    private long frameNumber = 0;
+    private boolean enabled = true;
+
+    private final AtomicInteger bindCount = new AtomicInteger(0);
+    private final AtomicInteger drawCount = new AtomicInteger(0);
+
+    // Cleared pixels uploaded under each icon and its padding, only used on the GL thread.
+    private static ByteBuffer clearPixels = null;
+
+    /**
+     * An icon of the atlas. The image source and offset are set on the placemark attributes of the icon.
+     */
+    public static class Icon {
+        private final ImageSource imageSource;
+        private final Offset imageOffset;
+        private final AtlasTexture texture;
+
+        private Icon(ImageSource imageSource, Offset imageOffset, AtlasTexture texture) {
+            this.imageSource = imageSource;
+            this.imageOffset = imageOffset;
+            this.texture = texture;
+        }
+
+        public ImageSource getImageSource() {
+            return this.imageSource;
+        }
+
+        public Offset getImageOffset() {
+            return this.imageOffset;
+        }
+    }
+
+    /**
+     * A page of the atlas. The icons placed on the page are uploaded the next time it is bound.
+     */
+    private class AtlasPage extends Texture {
+        private final List<Upload> pendingUploads = new ArrayList<>();
+        private long checkedFrame = -1;
+        private int generation = -1;
+
+        private AtlasPage() {
+            super(PAGE_SIZE, PAGE_SIZE, GLES20.GL_RGBA);
+        }
+
+        private void queueUpload(Upload upload) {
+            synchronized (this.pendingUploads) {
+                this.pendingUploads.add(upload);
+            }
+        }
+
+        private void clearUploads() {
+            synchronized (this.pendingUploads) {
+                this.pendingUploads.clear();
+            }
+        }
+
+        @Override
+        public boolean bindTexture(DrawContext dc) {
+            if ((this.textureName == UNINITIALIZED_NAME) || (dc.currentTexture() != this.textureName[0])) {
+                IconAtlas.this.bindCount.incrementAndGet();
+            }
+
+            boolean bound = super.bindTexture(dc);
+            if (bound) {
+                this.uploadPending();
+            }
+            return bound;
+        }
+
+        /**
+         * Copies the icons placed since the last bind to the bound page texture.
+         */
+        private void uploadPending() {
+            List<Upload> uploads;
+
+            synchronized (this.pendingUploads) {
+                if (this.pendingUploads.isEmpty()) {
+                    return;
+                }
+                uploads = new ArrayList<>(this.pendingUploads);
+                this.pendingUploads.clear();
+            }
+
+            if (clearPixels == null) {
+                int paddedSize = MAX_ICON_SIZE + (2 * PADDING);
+                clearPixels = ByteBuffer.allocateDirect(paddedSize * paddedSize * 4);
+            }
+
+            for (Upload upload : uploads) {
+                IconAtlasPacker.Placement placement = upload.placement;
+                clearPixels.rewind();
+                GLES20.glTexSubImage2D(GLES20.GL_TEXTURE_2D, 0, placement.getX() - PADDING, placement.getY() - PADDING,
+                        placement.getWidth() + (2 * PADDING), placement.getHeight() + (2 * PADDING), GLES20.GL_RGBA,
+                        GLES20.GL_UNSIGNED_BYTE, clearPixels);
+                if (!upload.bitmap.isRecycled()) {
+                    GLUtils.texSubImage2D(GLES20.GL_TEXTURE_2D, 0, placement.getX(), placement.getY(), upload.bitmap);
+                }
+            }
+        }
+    }
+
+    private static class Upload {
+        private final IconAtlasPacker.Placement placement;
+        private final Bitmap bitmap;
+
+        private Upload(IconAtlasPacker.Placement placement, Bitmap bitmap) {
+            this.placement = placement;
+            this.bitmap = bitmap;
+        }
+    }
+
+    /**
+     * The texture of one icon. It binds the page the icon is placed on, its texture coordinate transform maps the
+     * icon to its sub rectangle of the page. The page owns the GL texture, releasing the icon releases nothing.
+     */
+    private class AtlasTexture extends Texture {
+        private final AtlasPage page;
+        private final IconAtlasPacker.Placement placement;
+
+        private AtlasTexture(AtlasPage page, IconAtlasPacker.Placement placement) {
+            super(placement.getWidth(), placement.getHeight(), GLES20.GL_RGBA);
+            this.page = page;
+            this.placement = placement;
+
+            // The bitmap rows are stored top down, the texture coordinates start at the bottom of the icon.
+            double pageSize = PAGE_SIZE;
+            this.texCoordTransform.set(
+                    placement.getWidth() / pageSize, 0, placement.getX() / pageSize,
+                    0, -placement.getHeight() / pageSize, (placement.getY() + placement.getHeight()) / pageSize,
+                    0, 0, 1);
+        }
+
+        @Override
+        public boolean bindTexture(DrawContext dc) {
+            IconAtlas.this.drawCount.incrementAndGet();
+            return this.page.bindTexture(dc);
+        }
+
+        @Override
+        public int getTextureName(DrawContext dc) {
+            return this.page.getTextureName(dc);
+        }
+
+        @Override
+        public void release(DrawContext dc) {
+        }
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * Must be called at the start of each frame.
+     */
+    public void beginFrame() {
+        this.frameNumber++;
+        this.packer.beginFrame();
+    }
+
+    /**
+     * Gets an icon added to the atlas before.
+     * @param rc
+     * @param symbolKey
+     * @return The icon, null if it is not in the atlas.
+     */
+    public Icon getIcon(RenderContext rc, MilStdSymbolKey symbolKey) {
+        Icon icon = this.icons.get(symbolKey);
+
+        if (icon == null) {
+            return null;
+        }
+        if ((rc.getTexture(icon.imageSource) != icon.texture) || !this.isLive(rc, icon.texture)) {
+            this.icons.remove(symbolKey);
+            return null;
+        }
+        this.packer.touch(icon.texture.placement);
+        return icon;
+    }
+
+    /**
+     * Adds an icon to the atlas.
+     * @param rc
+     * @param symbolKey
+     * @param bitmap The image of the icon.
+     * @param imageOffset The offset of the icon on its placemark.
+     * @return The icon, null if the bitmap is null or the atlas is disabled. The icon is returned even if it could
+     * not be placed on a page.
+     */
+    public Icon addIcon(RenderContext rc, MilStdSymbolKey symbolKey, Bitmap bitmap, Offset imageOffset) {
+        if ((bitmap == null) || !this.enabled) {
+            return null;
+        }
+
+        ImageSource imageSource = ImageSource.fromBitmap(bitmap);
+        AtlasTexture texture = this.insert(rc, imageSource);
+        Icon icon = new Icon(imageSource, imageOffset, texture);
+
+        if (texture != null) {
+            this.icons.put(symbolKey, icon);
+            if (this.icons.size() > this.sweepSize) {
+                this.sweepIcons();
+            }
+        }
+        return icon;
+    }
+
+    /**
+     * Marks the page of an icon as used in the current frame. An icon that is no longer on its page is added again,
+     * or left to a texture of its own when the atlas is disabled. Must be called for every icon placemark before it is
+     * rendered.
+     * @param rc
+     * @param imageSource The image source of the placemark, sources that are not bitmaps are ignored.
+     * @return true if the icon is drawn from the atlas.
+     */
+    public boolean touch(RenderContext rc, ImageSource imageSource) {
+        if ((imageSource == null) || !imageSource.isBitmap()) {
+            return false;
+        }
+
+        Texture texture = rc.getTexture(imageSource);
+        if (texture instanceof AtlasTexture) {
+            AtlasTexture atlasTexture = (AtlasTexture) texture;
+            if (this.isLive(rc, atlasTexture)) {
+                return this.packer.touch(atlasTexture.placement);
+            }
+            rc.renderResourceCache.remove(imageSource);
+        } else if (texture != null) {
+            // The icon could not be placed when it was added, the placemark created a texture of its own.
+            return false;
+        }
+        return this.enabled && (this.insert(rc, imageSource) != null);
+    }
+
+    /**
+     * Places the bitmap of the image source on a page and puts its texture in the render resource cache.
+     * @return The texture, null if the bitmap can't be placed.
+     */
+    private AtlasTexture insert(RenderContext rc, ImageSource imageSource) {
+        Bitmap bitmap = imageSource.asBitmap();
+
+        if ((bitmap == null) || bitmap.isRecycled() || (bitmap.getConfig() != Bitmap.Config.ARGB_8888) ||
+                (bitmap.getWidth() > MAX_ICON_SIZE) || (bitmap.getHeight() > MAX_ICON_SIZE)) {
+            return null;
+        }
+
+        IconAtlasPacker.Placement placement = this.packer.insert(bitmap.getWidth(), bitmap.getHeight());
+        if (placement == null) {
+            return null;
+        }
+
+        AtlasPage page;
+        if (placement.getPage() < this.pages.size()) {
+            page = this.pages.get(placement.getPage());
+        } else {
+            page = new AtlasPage();
+            this.pages.add(page);
+            rc.renderResourceCache.put(page, page, page.getByteCount());
+            page.checkedFrame = this.frameNumber;
+        }
+
+        if (page.generation != placement.getGeneration()) {
+            // The page was emptied, the icons of the previous generation must not be uploaded.
+            page.clearUploads();
+            page.generation = placement.getGeneration();
+        }
+
+        AtlasTexture texture = new AtlasTexture(page, placement);
+        page.queueUpload(new Upload(placement, bitmap));
+        rc.putTexture(imageSource, texture);
+        return texture;
+    }
+
+    /**
+     * @return true if the icon is still on its page and the page texture is still in the render resource cache. A
+     * page the cache dropped, after the GL context was lost or under memory pressure, is replaced by an empty one.
+     */
+    private boolean isLive(RenderContext rc, AtlasTexture texture) {
+        if (!this.packer.isCurrent(texture.placement)) {
+            return false;
+        }
+
+        int pageIndex = texture.placement.getPage();
+        AtlasPage page = this.pages.get(pageIndex);
+        if (page.checkedFrame != this.frameNumber) {
+            if (rc.renderResourceCache.get(page) != page) {
+                this.packer.clearPage(pageIndex);
+                page = new AtlasPage();
+                this.pages.set(pageIndex, page);
+                rc.renderResourceCache.put(page, page, page.getByteCount());
+            }
+            page.checkedFrame = this.frameNumber;
+        }
+        return (texture.page == page) && this.packer.isCurrent(texture.placement);
+    }
+
+    /**
+     * Removes the icons whose page was emptied, so the keys of icons no longer drawn don't accumulate.
+     */
+    private void sweepIcons() {
+        Iterator<Icon> iterator = this.icons.values().iterator();
+
+        while (iterator.hasNext()) {
+            if (!this.packer.isCurrent(iterator.next().texture.placement)) {
+                iterator.remove();
+            }
+        }
+        this.sweepSize = Math.max(MINIMUM_SWEEP_SIZE, this.icons.size() * 2);
+    }
+
+    public int getPageCount() {
+        return this.packer.getPageCount();
+    }
+
+    /**
+     * @return The number of pixels of the pages covered by icons.
+     */
+    public long getUsedPixels() {
+        return this.packer.getUsedPixels();
+    }
+
+    /**
+     * @return The number of pixels of the pages.
+     */
+    public long getCapacityPixels() {
+        return this.packer.getCapacityPixels();
+    }
+
+    /**
+     * @return The number of times a page texture was bound since the last call. It is counted on the GL thread, so
+     * it covers the frames drawn since the last call rather than the frame being rendered.
+     */
+    public int takeBindCount() {
+        return this.bindCount.getAndSet(0);
+    }
+
+    /**
+     * @return The number of icons drawn from the atlas since the last call, see takeBindCount.
+     */
+    public int takeDrawCount() {
+        return this.drawCount.getAndSet(0);
+    }
+}
@@ -0,0 +1,275 @@
+package mil.emp3.worldwind.feature.support;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class places the icons of an IconAtlas on the pages of the atlas. It doesn't know about textures, it only
+ * tracks which part of each page is used.
+ *
+ * Each page is filled with shelves: a shelf is a row as high as the first icon placed on it, the icons are placed on
+ * a shelf from left to right. An icon goes on the lowest shelf it fits on, a new shelf is opened when none fits. Icons
+ * are never removed one at a time, a page is emptied as a whole.
+ *
+ * When all pages are full the page that was used least recently is emptied. A page used in one of the last
+ * frameLatency frames is never emptied as those frames may not have been drawn yet. Each page has a generation that
+ * changes when the page is emptied, the placements of the previous generation are no longer current.
+ *
+ * The packer must only be used on the render thread.
+ */
+public class IconAtlasPacker {
+    private final int pageSize;
+    private final int maxPages;
+    private final int padding;
+    private final int frameLatency;
+    private final List<Page> pages = new ArrayList<>();
+    private long frameNumber = 0;
+    private int evictionCount = 0;
+
+    /**
+     * The position of an icon on a page, without the padding.
+     */
+    public static class Placement {
+        private final int page;
+        private final int generation;
+        private final int x;
+        private final int y;
+        private final int width;
+        private final int height;
+
+        private Placement(int page, int generation, int x, int y, int width, int height) {
+            this.page = page;
+            this.generation = generation;
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+        }
+
+        public int getPage() {
+            return this.page;
+        }
+
+        /**
+         * @return The generation of the page when the icon was placed.
+         */
+        public int getGeneration() {
+            return this.generation;
+        }
+
+        public int getX() {
+            return this.x;
+        }
+
+        public int getY() {
+            return this.y;
+        }
+
+        public int getWidth() {
+            return this.width;
+        }
+
+        public int getHeight() {
+            return this.height;
+        }
+    }
+
+    private static class Shelf {
+        private final int y;
+        private final int height;
+        private int x = 0;
+
+        private Shelf(int y, int height) {
+            this.y = y;
+            this.height = height;
+        }
+    }
+
+    private static class Page {
+        private final List<Shelf> shelves = new ArrayList<>();
+        private int top = 0;
+        private long usedPixels = 0;
+        private long lastUsedFrame = 0;
+        private int generation = 0;
+
+        private void clear() {
+            this.shelves.clear();
+            this.top = 0;
+            this.usedPixels = 0;
+            this.generation++;
+        }
+    }
+
+    /**
+     * @param pageSize The width and height of a page in pixels.
+     * @param maxPages The number of pages the atlas may create.
+     * @param padding The number of pixels kept free around each icon.
+     * @param frameLatency The number of frames that may be rendered but not drawn yet.
+     */
+    public IconAtlasPacker(int pageSize, int maxPages, int padding, int frameLatency) {
+        this.pageSize = pageSize;
+        this.maxPages = maxPages;
+        this.padding = padding;
+        this.frameLatency = frameLatency;
+    }
+
+    /**
+     * Must be called at the start of each frame.
+     */
+    public void beginFrame() {
+        this.frameNumber++;
+    }
+
+    /**
+     * Places an icon. The page it is placed on is marked as used in the current frame.
+     * @param width
+     * @param height
+     * @return The placement, null if the icon is larger than a page or all pages are full and in use.
+     */
+    public Placement insert(int width, int height) {
+        int paddedWidth = width + (2 * this.padding);
+        int paddedHeight = height + (2 * this.padding);
+        Placement placement;
+
+        if ((width <= 0) || (height <= 0) || (paddedWidth > this.pageSize) || (paddedHeight > this.pageSize)) {
+            return null;
+        }
+
+        for (int index = 0; index < this.pages.size(); index++) {
+            placement = this.place(index, paddedWidth, paddedHeight);
+            if (placement != null) {
+                return placement;
+            }
+        }
+
+        if (this.pages.size() < this.maxPages) {
+            this.pages.add(new Page());
+            return this.place(this.pages.size() - 1, paddedWidth, paddedHeight);
+        }
+
+        int leastRecentlyUsed = this.getLeastRecentlyUsedPage();
+        if (leastRecentlyUsed < 0) {
+            return null;
+        }
+        this.pages.get(leastRecentlyUsed).clear();
+        this.evictionCount++;
+        return this.place(leastRecentlyUsed, paddedWidth, paddedHeight);
+    }
+
+    /**
+     * Places the padded icon on the lowest shelf of the page it fits on. A shelf more than twice as high as the icon
+     * is skipped so small icons don't waste the rows of the large ones.
+     */
+    private Placement place(int pageIndex, int paddedWidth, int paddedHeight) {
+        Page page = this.pages.get(pageIndex);
+        Shelf shelf = null;
+
+        for (Shelf candidate : page.shelves) {
+            if ((candidate.height >= paddedHeight) && (candidate.height <= (2 * paddedHeight)) &&
+                    ((this.pageSize - candidate.x) >= paddedWidth)) {
+                if ((shelf == null) || (candidate.height < shelf.height)) {
+                    shelf = candidate;
+                }
+            }
+        }
+
+        if (shelf == null) {
+            if ((this.pageSize - page.top) < paddedHeight) {
+                return null;
+            }
+            shelf = new Shelf(page.top, paddedHeight);
+            page.shelves.add(shelf);
+            page.top += paddedHeight;
+        }
+
+        Placement placement = new Placement(pageIndex, page.generation, shelf.x + this.padding, shelf.y + this.padding,
+                paddedWidth - (2 * this.padding), paddedHeight - (2 * this.padding));
+        shelf.x += paddedWidth;
+        page.usedPixels += placement.width * placement.height;
+        page.lastUsedFrame = this.frameNumber;
+        return placement;
+    }
+
+    /**
+     * @return The index of the page used least recently and not used by the frames that may not be drawn yet, -1 if
+     * there is none.
+     */
+    private int getLeastRecentlyUsedPage() {
+        int leastRecentlyUsed = -1;
+
+        for (int index = 0; index < this.pages.size(); index++) {
+            Page page = this.pages.get(index);
+            if ((this.frameNumber - page.lastUsedFrame) > this.frameLatency) {
+                if ((leastRecentlyUsed < 0) || (page.lastUsedFrame < this.pages.get(leastRecentlyUsed).lastUsedFrame)) {
+                    leastRecentlyUsed = index;
+                }
+            }
+        }
+        return leastRecentlyUsed;
+    }
+
+    /**
+     * Marks the page of the placement as used in the current frame.
+     * @param placement
+     * @return false if the placement is no longer current, the page was not marked.
+     */
+    public boolean touch(Placement placement) {
+        if (!this.isCurrent(placement)) {
+            return false;
+        }
+        this.pages.get(placement.page).lastUsedFrame = this.frameNumber;
+        return true;
+    }
+
+    /**
+     * @param placement
+     * @return true if the page of the placement was not emptied since the icon was placed.
+     */
+    public boolean isCurrent(Placement placement) {
+        return (placement.page < this.pages.size()) && (this.pages.get(placement.page).generation == placement.generation);
+    }
+
+    /**
+     * Empties a page whose content was lost, the placements on the page are no longer current.
+     * @param pageIndex
+     */
+    public void clearPage(int pageIndex) {
+        if (pageIndex < this.pages.size()) {
+            this.pages.get(pageIndex).clear();
+        }
+    }
+
+    public int getPageCount() {
+        return this.pages.size();
+    }
+
+    public int getPageSize() {
+        return this.pageSize;
+    }
+
+    /**
+     * @return The number of pixels of all pages covered by icons, the padding is not included.
+     */
+    public long getUsedPixels() {
+        long usedPixels = 0;
+
+        for (Page page : this.pages) {
+            usedPixels += page.usedPixels;
+        }
+        return usedPixels;
+    }
+
+    /**
+     * @return The number of pixels of all pages.
+     */
+    public long getCapacityPixels() {
+        return (long) this.pages.size() * this.pageSize * this.pageSize;
+    }
+
+    /**
+     * @return The number of pages emptied to make room for new icons.
+     */
+    public int getEvictionCount() {
+        return this.evictionCount;
+    }
+}
@@ -0,0 +1,40 @@
+package mil.emp3.worldwind.feature.support;
+
+/**
+ * This class counts the level of detail changes of the MilStd single points of one map in a frame. The
+ * MilStd2525LevelOfDetailSelector is shared by all maps, the limit of icon changes per frame applies to the counters of
+ * the map that renders the frame.
+ *
+ * The counters are only accessed on the render thread of the map, between beginFrame and the end of the frame.
+ */
+public class LevelOfDetailStatistics {
+    private int iconChangeCount = 0;
+    private int iconCacheHitCount = 0;
+
+    public void beginFrame() {
+        this.iconChangeCount = 0;
+        this.iconCacheHitCount = 0;
+    }
+
+    public void iconChanged() {
+        this.iconChangeCount++;
+    }
+
+    public void iconCacheHit() {
+        this.iconCacheHitCount++;
+    }
+
+    /**
+     * @return The number of level of detail changes that created an icon in the current frame.
+     */
+    public int getIconChangeCount() {
+        return this.iconChangeCount;
+    }
+
+    /**
+     * @return The number of level of detail changes that reused the icon cached by the symbol in the current frame.
+     */
+    public int getIconCacheHitCount() {
+        return this.iconCacheHitCount;
+    }
+}
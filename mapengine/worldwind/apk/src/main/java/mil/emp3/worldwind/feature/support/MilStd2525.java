@@ -16,6 +16,7 @@ import android.util.SparseArray;
 
 import java.lang.ref.WeakReference;
 import java.util.HashMap;
+import java.util.Iterator;
 
 import armyc2.c2sd.renderer.utilities.ImageInfo;
 import gov.nasa.worldwind.WorldWind;
@@ -23,6 +24,7 @@ import gov.nasa.worldwind.geom.Offset;
 import gov.nasa.worldwind.render.ImageSource;
 import gov.nasa.worldwind.shape.PlacemarkAttributes;
 import gov.nasa.worldwind.util.Logger;
+import mil.emp3.mapengine.api.MilStdSymbolKey;
 import mil.emp3.mapengine.interfaces.IEmpImageInfo;
 import mil.emp3.mapengine.interfaces.IMilStdRenderer;
 
@@ -52,11 +54,14 @@ public class MilStd2525 {
      * A cache of PlacemarkAttribute bundles containing MIL-STD-2525 symbols. Using a cache is essential for memory
      * management: we want to share the bitmap textures for identical symbols.  The cache maintains weak references to
      * the attribute bundles so that the garbage collector can reclaim the memory when a Placemark releases an attribute
-     * bundle, for instance when it changes its level-of-detail.
+     * bundle, for instance when it changes its level-of-detail. Access is synchronized on the cache as it is used from
+     * the render thread and from the threads that build the features.
      */
-    private static HashMap<String, WeakReference<PlacemarkAttributes>> symbolCache = new HashMap<>();
+    private static HashMap<MilStdSymbolKey, WeakReference<PlacemarkAttributes>> symbolCache = new HashMap<>();
 
-    private static SparseArray<String> emptyArray = new SparseArray<>();    // may be used in a cache key
+    // The cache is swept of the references the garbage collector cleared when it grows past this size.
+    private final static int MINIMUM_SWEEP_SIZE = 256;
+    private static int sweepSize = MINIMUM_SWEEP_SIZE;
 
     private final static double MINIMUM_IMAGE_SCALE = 0.25;
 
@@ -80,33 +85,61 @@ public class MilStd2525 {
      * bundle's imageSource property.
      */
     public static PlacemarkAttributes getPlacemarkAttributes(String symbolCode, SparseArray<String> modifiers, SparseArray<String> attributes) {
+        return MilStd2525.getPlacemarkAttributes(MilStdSymbolKey.create(symbolCode, modifiers, attributes));
+    }
 
-        // Generate a cache key for this symbol
-        String symbolKey = symbolCode
-            + (modifiers == null ? emptyArray.toString() : modifiers.toString())
-            + (attributes == null ? emptyArray.toString() : attributes.toString());
-
-        // Look for an attribute bundle in our cache and determine if the cached reference is valid
-        WeakReference<PlacemarkAttributes> reference = symbolCache.get(symbolKey);
-        PlacemarkAttributes placemarkAttributes = (reference == null ? null : reference.get());
+    /**
+     * Gets a PlacemarkAttributes bundle for the supplied symbol key, see above. Callers that keep the key of the symbol
+     * should use this method so the key is not built on every lookup.
+     *
+     * @param symbolKey The symbol code, modifiers and attributes of the symbol.
+     *
+     * @return Either a new or a cached PlacemarkAttributes bundle containing the specified symbol embedded in the
+     * bundle's imageSource property.
+     */
+    public static PlacemarkAttributes getPlacemarkAttributes(MilStdSymbolKey symbolKey) {
 
-        // Create the attributes if they haven't been created yet or if they've been released
-        if (placemarkAttributes == null) {
+        synchronized (symbolCache) {
+            // Look for an attribute bundle in our cache and determine if the cached reference is valid
+            WeakReference<PlacemarkAttributes> reference = symbolCache.get(symbolKey);
+            PlacemarkAttributes placemarkAttributes = (reference == null ? null : reference.get());
 
-            // Create the attributes bundle and add it to the cache.
-            // The actual bitmap will be lazily (re)created using a factory.
-            placemarkAttributes = MilStd2525.createPlacemarkAttributes(symbolCode, modifiers, attributes);
+            // Create the attributes if they haven't been created yet or if they've been released
             if (placemarkAttributes == null) {
-                throw new IllegalArgumentException("Cannot generate a symbol for: " + symbolKey);
+
+                // Create the attributes bundle and add it to the cache.
+                // The actual bitmap will be lazily (re)created using a factory.
+                placemarkAttributes = MilStd2525.createPlacemarkAttributes(symbolKey);
+                if (placemarkAttributes == null) {
+                    throw new IllegalArgumentException("Cannot generate a symbol for: " + symbolKey);
+                }
+                // Add a weak reference to the attribute bundle to our cache
+                symbolCache.put(symbolKey, new WeakReference<>(placemarkAttributes));
+                if (symbolCache.size() > sweepSize) {
+                    sweepSymbolCache();
+                }
+
+                // Perform some initialization of the bundle conducive to eye distance scaling
+                placemarkAttributes.setMinimumImageScale(MINIMUM_IMAGE_SCALE);
             }
-            // Add a weak reference to the attribute bundle to our cache
-            symbolCache.put(symbolKey, new WeakReference<>(placemarkAttributes));
 
-            // Perform some initialization of the bundle conducive to eye distance scaling
-            placemarkAttributes.setMinimumImageScale(MINIMUM_IMAGE_SCALE);
+            return placemarkAttributes;
         }
+    }
 
-        return placemarkAttributes;
+    /**
+     * Removes the entries whose attribute bundle was garbage collected, so keys of symbols that are no longer displayed
+     * don't accumulate. Must be called with the lock on symbolCache held.
+     */
+    private static void sweepSymbolCache() {
+        Iterator<WeakReference<PlacemarkAttributes>> iterator = symbolCache.values().iterator();
+
+        while (iterator.hasNext()) {
+            if (iterator.next().get() == null) {
+                iterator.remove();
+            }
+        }
+        sweepSize = Math.max(MINIMUM_SWEEP_SIZE, symbolCache.size() * 2);
     }
 
     /**
@@ -122,10 +155,21 @@ public class MilStd2525 {
      * @return A new PlacemarkAttributes bundle representing the MIL-STD-2525 symbol.
      */
     public static PlacemarkAttributes createPlacemarkAttributes(String symbolCode, SparseArray<String> modifiers, SparseArray<String> attributes) {
+        return MilStd2525.createPlacemarkAttributes(MilStdSymbolKey.create(symbolCode, modifiers, attributes));
+    }
+
+    /**
+     * Creates a placemark attributes bundle for the supplied symbol key, see above.
+     *
+     * @param symbolKey The symbol code, modifiers and attributes of the symbol.
+     *
+     * @return A new PlacemarkAttributes bundle representing the MIL-STD-2525 symbol.
+     */
+    public static PlacemarkAttributes createPlacemarkAttributes(MilStdSymbolKey symbolKey) {
         PlacemarkAttributes placemarkAttributes = new PlacemarkAttributes();
 
         // Create a BitmapFactory instance with the values needed to create and recreate the symbol's bitmap
-        SymbolBitmapFactory factory = new SymbolBitmapFactory(symbolCode, modifiers, attributes, placemarkAttributes);
+        SymbolBitmapFactory factory = new SymbolBitmapFactory(symbolKey, placemarkAttributes);
         placemarkAttributes.setImageSource(ImageSource.fromBitmapFactory(factory));
 
         return placemarkAttributes;
@@ -142,11 +186,22 @@ public class MilStd2525 {
      */
 
     public static ImageInfo renderImage(String symbolCode, SparseArray<String> modifiers, SparseArray<String> attributes) {
+        return MilStd2525.renderImage(MilStdSymbolKey.create(symbolCode, modifiers, attributes));
+    }
+
+    /**
+     * Creates an MIL-STD-2525 symbol from the specified symbol key, see above.
+     *
+     * @param symbolKey The symbol code, modifiers and attributes of the symbol.
+     *
+     * @return An ImageInfo object containing the symbol's bitmap and meta data; may be null
+     */
+    public static ImageInfo renderImage(MilStdSymbolKey symbolKey) {
         if(null == renderer) {
             throw new IllegalStateException("MilStd2525 renderer is not set");
         }
 
-        IEmpImageInfo empImageInfo = renderer.getMilStdIcon(symbolCode, modifiers, attributes);
+        IEmpImageInfo empImageInfo = renderer.getMilStdIcon(symbolKey);
         if(null != empImageInfo) {
             ImageInfo imageInfo = new ImageInfo(empImageInfo.getImage(), empImageInfo.getCenterPoint(), empImageInfo.getSymbolBounds());
             return imageInfo;
@@ -164,11 +219,7 @@ public class MilStd2525 {
      */
     protected static class SymbolBitmapFactory implements ImageSource.BitmapFactory {
 
-        private final String symbolCode;
-
-        private final SparseArray<String> modifiers;
-
-        private final SparseArray<String> attributes;
+        private final MilStdSymbolKey symbolKey;
 
         private final PlacemarkAttributes placemarkAttributes;
 
@@ -179,16 +230,12 @@ public class MilStd2525 {
          * attributes. The createBitmap() method will return a new instance of a bitmap and will also update the
          * associated placemarkAttributes bundle's imageOffset property based on the size of the new bitmap.
          *
-         * @param symbolCode          SIDC code
-         * @param modifiers           Unit modifiers to be copied; null is permitted
-         * @param attributes          Rendering attributes to be copied; null is permitted
+         * @param symbolKey           SIDC code, modifiers and attributes. The key is immutable so it is not copied.
          * @param placemarkAttributes Placemark attribute bundle associated with this factory
          */
-        public SymbolBitmapFactory(String symbolCode, SparseArray<String> modifiers, SparseArray<String> attributes, PlacemarkAttributes placemarkAttributes) {
+        public SymbolBitmapFactory(MilStdSymbolKey symbolKey, PlacemarkAttributes placemarkAttributes) {
             // Capture the values needed to (re)create the symbol bitmap
-            this.symbolCode = symbolCode;
-            this.modifiers = modifiers != null ? modifiers.clone() : null;
-            this.attributes = attributes != null ? attributes.clone() : null;
+            this.symbolKey = symbolKey;
             // The MilStd2525.symbolCache maintains a WeakReference to the placemark attributes. The finalizer is able to
             // resolve the circular dependency between the PlacemarkAttributes->ImageSource->Factory->PlacemarkAttributes
             // and garbage collect the attributes a Placemark releases its attribute bundle (e.g., when switching
@@ -204,9 +251,9 @@ public class MilStd2525 {
         @Override
         public Bitmap createBitmap() {
             // Create the symbol's bitmap
-            ImageInfo imageInfo = MilStd2525.renderImage(this.symbolCode, this.modifiers, this.attributes);
+            ImageInfo imageInfo = MilStd2525.renderImage(this.symbolKey);
             if (imageInfo == null) {
-                Logger.logMessage(Logger.ERROR, "MilStd2525", "createBitmap", "Failed to render image for " + this.symbolCode);
+                Logger.logMessage(Logger.ERROR, "MilStd2525", "createBitmap", "Failed to render image for " + this.symbolKey.getSymbolCode());
                 // TODO: File JIRA issue - must return a valid bitmap, else the ImageRetriever repeatedly attempts to create the bitmap.
                 return defaultImage;
             }
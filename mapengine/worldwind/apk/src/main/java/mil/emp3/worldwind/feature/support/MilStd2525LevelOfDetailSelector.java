@@ -2,18 +2,17 @@ package mil.emp3.worldwind.feature.support;
 
 import android.graphics.Point;
 import android.graphics.Rect;
-import android.util.SparseArray;
 
-import org.cmapi.primitives.IGeoPosition;
+import java.util.HashMap;
 
 import gov.nasa.worldwind.WorldWind;
 import gov.nasa.worldwind.geom.Offset;
-import gov.nasa.worldwind.geom.Position;
 import gov.nasa.worldwind.render.ImageSource;
 import gov.nasa.worldwind.render.RenderContext;
 import gov.nasa.worldwind.shape.Placemark;
 import gov.nasa.worldwind.shape.PlacemarkAttributes;
 import gov.nasa.worldwind.util.Logger;
+import mil.emp3.mapengine.api.MilStdSymbolKey;
 import mil.emp3.mapengine.interfaces.IEmpImageInfo;
 import mil.emp3.mapengine.interfaces.IMilStdRenderer;
 import mil.emp3.worldwind.MapInstance;
@@ -26,6 +25,17 @@ import mil.emp3.worldwind.feature.MilStd2525SinglePoint;
  * This implementation draw all icons further than FAR_THRESHOLD distance from the camera as a dot. It draws
  * icons between FAR_THRESHOLD and MID_THRESHOLD distance as MilStd icon with not modifiers. And icons
  * closer tha MID_THRESHOLD distance as a MilStd icon with modifiers and attributes.
+ *
+ * The selector is called for every symbol on every frame. When the level of detail doesn't change it does not
+ * allocate, the attributes of each level are kept by the MilStd2525SinglePoint until the symbol is dirty.
+ *
+ * A symbol only leaves its level of detail once the distance is past the threshold by the hysteresis fraction, so
+ * zooming around a threshold doesn't flip symbols back and forth. The number of level changes that need a new icon
+ * is limited per frame and per map, the remaining symbols keep their current icon and change on the next frames.
+ *
+ * The selector is shared by all maps, the state of a frame is kept by the MapInstance of the symbol. When that map has
+ * an enabled IconAtlas the icons are rendered by the icon renderer and packed into the pages of the atlas, whichever
+ * cache the renderer uses.
  */
 public class MilStd2525LevelOfDetailSelector implements Placemark.LevelOfDetailSelector {
     private static final String TAG = MilStd2525LevelOfDetailSelector.class.getSimpleName();
@@ -34,31 +44,38 @@ public class MilStd2525LevelOfDetailSelector implements Placemark.LevelOfDetailS
 
     private static IMilStdRenderer oMilStdIconRenderer;
 
-    private static MapInstance oMapInstance;
+    public final static int HIGHEST_LEVEL_OF_DETAIL = 0;
 
-    protected final static int HIGHEST_LEVEL_OF_DETAIL = 0;
+    public final static int MEDIUM_LEVEL_OF_DETAIL = 1;
 
-    protected final static int MEDIUM_LEVEL_OF_DETAIL = 1;
-
-    protected final static int LOW_LEVEL_OF_DETAIL = 2;
+    public final static int LOW_LEVEL_OF_DETAIL = 2;
 
     protected static double FAR_THRESHOLD = 30000;
 
     protected static double MID_THRESHOLD = 10000;
 
+    protected static double HYSTERESIS = 0.1;
+
+    protected static int MAX_ICON_CHANGES_PER_FRAME = 50;
+
     // Look in BitmapCacheFactory for explanation of this
     private static boolean useWorldWindRenderCache = true;
+
+    // The low fidelity symbol code of each affiliation.
+    private static final HashMap<String, String> lowFidelitySymbolCodes = new HashMap<>();
+
+    // The key of each low fidelity symbol code.
+    private static final HashMap<String, MilStdSymbolKey> lowFidelitySymbolKeys = new HashMap<>();
+
     /**
      * This static method initializes the oInstance.
      * @param iconRenderer
-     * @param mapInstance
      * @return
      */
-    public synchronized static MilStd2525LevelOfDetailSelector initInstance(IMilStdRenderer iconRenderer, MapInstance mapInstance) {
+    public synchronized static MilStd2525LevelOfDetailSelector initInstance(IMilStdRenderer iconRenderer) {
         if (MilStd2525LevelOfDetailSelector.oInstance == null) {
             MilStd2525LevelOfDetailSelector.oInstance = new MilStd2525LevelOfDetailSelector();
             MilStd2525LevelOfDetailSelector.oMilStdIconRenderer = iconRenderer;
-            MilStd2525LevelOfDetailSelector.oMapInstance = mapInstance;
         }
 
         if(!iconRenderer.getBitmapCacheName().equals("NoBitmapCache")) {
@@ -94,9 +111,62 @@ public class MilStd2525LevelOfDetailSelector implements Placemark.LevelOfDetailS
         MID_THRESHOLD = dValue;
     }
 
+    /**
+     * Sets the hysteresis of the thresholds. A symbol changes level of detail when the camera distance is past the
+     * threshold by this fraction of the threshold.
+     *
+     * @param dValue A fraction between 0 and 1.
+     */
+    public static void setHysteresis(double dValue) {
+        HYSTERESIS = dValue;
+    }
+
+    /**
+     * Sets the number of level of detail changes per frame of a map that may create a new icon. Changes back to a
+     * level the symbol already has an icon for are not limited.
+     *
+     * @param iValue The number of changes, 0 or less for no limit.
+     */
+    public static void setMaxIconChangesPerFrame(int iValue) {
+        MAX_ICON_CHANGES_PER_FRAME = iValue;
+    }
+
     private MilStd2525LevelOfDetailSelector() {
     }
 
+    /**
+     * The low fidelity symbol only shows the affiliation. The codes are shared by all symbols with the same
+     * affiliation.
+     * @param sSymbolCode
+     * @return The SIDC of the low fidelity symbol.
+     */
+    public static synchronized String getLowFidelitySymbolCode(String sSymbolCode) {
+        String sAffiliation = armyc2.c2sd.renderer.utilities.SymbolUtilities.getAffiliation(sSymbolCode);
+        String sSimpleCode = lowFidelitySymbolCodes.get(sAffiliation);
+
+        if (sSimpleCode == null) {
+            sSimpleCode = "S" + sAffiliation + "P*------*****"; // SIDC
+            lowFidelitySymbolCodes.put(sAffiliation, sSimpleCode);
+        }
+        return sSimpleCode;
+    }
+
+    /**
+     * The low fidelity icon has no modifiers and no attributes, its key is shared by all symbols with the same
+     * affiliation.
+     * @param sLowFidelitySymbolCode A code returned by getLowFidelitySymbolCode.
+     * @return The key of the low fidelity icon.
+     */
+    public static synchronized MilStdSymbolKey getLowFidelitySymbolKey(String sLowFidelitySymbolCode) {
+        MilStdSymbolKey key = lowFidelitySymbolKeys.get(sLowFidelitySymbolCode);
+
+        if (key == null) {
+            key = MilStdSymbolKey.create(sLowFidelitySymbolCode, null, null);
+            lowFidelitySymbolKeys.put(sLowFidelitySymbolCode, key);
+        }
+        return key;
+    }
+
     /**
      * Gets the active attributes for the current distance to the camera and highlighted state.
      *
@@ -112,73 +182,101 @@ public class MilStd2525LevelOfDetailSelector implements Placemark.LevelOfDetailS
                             "The placemark is not a MilStd2525SinglePoint"));
         }
         MilStd2525SinglePoint milStdPlacemark = ((MilStd2525SinglePoint.EMPPlacemark) placemark).featureMapper;
-        PlacemarkAttributes placemarkAttributes = placemark.getAttributes();
+        MapInstance mapInstance = milStdPlacemark.getMapInstance();
+        LevelOfDetailStatistics statistics = mapInstance.getLevelOfDetailStatistics();
+        IconAtlas iconAtlas = mapInstance.getIconAtlas();
         int lastLevelOfDetail = milStdPlacemark.getLastLevelOfDetail();
+        int levelOfDetail;
 
-        // Update position.
-        IGeoPosition oPos = milStdPlacemark.getSymbol().getPosition();
-        placemark.setPosition(Position.fromDegrees(oPos.getLatitude(), oPos.getLongitude(), oPos.getAltitude()));
-
-        // Determine the normal attributes based on the distance from the camera to the placemark
-        if (cameraDistance > FAR_THRESHOLD) {
-            // Low-fidelity: use affiliation only
-            if ((lastLevelOfDetail != LOW_LEVEL_OF_DETAIL) || milStdPlacemark.isDirty()) {
-                String simpleCode = "S" + armyc2.c2sd.renderer.utilities.SymbolUtilities.getAffiliation(milStdPlacemark.getSymbolCode()) + "P*------*****"; // SIDC
-                placemarkAttributes = this.createPlacemarkAttributes(placemarkAttributes, simpleCode, null, null);
-                milStdPlacemark.setLastLevelOfDetail(LOW_LEVEL_OF_DETAIL);
-            }
-        } else if (cameraDistance > MID_THRESHOLD) {
-            // Medium-fidelity: use the regulation SIDC code with attributes but without modifiers
-            if ((lastLevelOfDetail != MEDIUM_LEVEL_OF_DETAIL) || milStdPlacemark.isDirty()) {
-                placemarkAttributes = this.createPlacemarkAttributes(placemarkAttributes, milStdPlacemark.getSymbolCode(), null, milStdPlacemark.getSymbolAttributes());
-                milStdPlacemark.setLastLevelOfDetail(MEDIUM_LEVEL_OF_DETAIL);
-            }
+        // The position is pushed to the placemark by MilStd2525SinglePoint.updateSymbol when the symbol moves.
+
+        // Determine the normal attributes based on the distance from the camera to the placemark. A threshold is
+        // moved away from the current level by the hysteresis.
+        double hysteresis = (lastLevelOfDetail < 0) ? 0.0 : HYSTERESIS;
+        double farThreshold = FAR_THRESHOLD * ((lastLevelOfDetail == LOW_LEVEL_OF_DETAIL) ? (1.0 - hysteresis) : (1.0 + hysteresis));
+        double midThreshold = MID_THRESHOLD * ((lastLevelOfDetail == HIGHEST_LEVEL_OF_DETAIL) ? (1.0 + hysteresis) : (1.0 - hysteresis));
+
+        if (cameraDistance > farThreshold) {
+            levelOfDetail = LOW_LEVEL_OF_DETAIL;
+        } else if (cameraDistance > midThreshold) {
+            levelOfDetail = MEDIUM_LEVEL_OF_DETAIL;
         } else {
-            // High-fidelity: use the regulation SIDC code the modifiers and attributes
-            if ((lastLevelOfDetail != HIGHEST_LEVEL_OF_DETAIL) || milStdPlacemark.isDirty()) {
-                placemarkAttributes = this.createPlacemarkAttributes(placemarkAttributes, milStdPlacemark.getSymbolCode(), milStdPlacemark.getSymbolModifiers(), milStdPlacemark.getSymbolAttributes());
-                milStdPlacemark.setLastLevelOfDetail(HIGHEST_LEVEL_OF_DETAIL);
-            }
+            levelOfDetail = HIGHEST_LEVEL_OF_DETAIL;
         }
 
-        // Update the placemark's attributes bundle
-        if (placemarkAttributes != null) {
-            // Apply the symbols and Icon size setting scales.
-            double dScale = oMapInstance.getIconSizeSetting().getScaleFactor() * milStdPlacemark.getIconScale();
-            placemarkAttributes.setImageScale(dScale);
-            placemark.setAttributes(placemarkAttributes);
+        if ((lastLevelOfDetail != levelOfDetail) || milStdPlacemark.isDirty()) {
+            if (milStdPlacemark.isDirty()) {
+                milStdPlacemark.clearLevelAttributes();
+            }
+
+            PlacemarkAttributes placemarkAttributes = milStdPlacemark.getLevelAttributes(levelOfDetail);
+
+            if (placemarkAttributes == null) {
+                if ((lastLevelOfDetail >= 0) && !milStdPlacemark.isDirty() && (MAX_ICON_CHANGES_PER_FRAME > 0) &&
+                        (statistics.getIconChangeCount() >= MAX_ICON_CHANGES_PER_FRAME)) {
+                    // Over the budget of this frame, keep the current icon and try again on the next frame.
+                    rc.requestRedraw();
+                    this.applyImageScale(rc, placemark, milStdPlacemark, iconAtlas);
+                    return;
+                }
+                statistics.iconChanged();
+
+                // Low-fidelity uses the affiliation only, medium-fidelity the regulation SIDC code with attributes but
+                // without modifiers and high-fidelity the regulation SIDC code the modifiers and attributes.
+                placemarkAttributes = this.createPlacemarkAttributes(rc, iconAtlas, null, milStdPlacemark.getLevelKey(levelOfDetail));
+                milStdPlacemark.setLevelAttributes(levelOfDetail, placemarkAttributes);
+            } else {
+                statistics.iconCacheHit();
+            }
+
+            // Update the placemark's attributes bundle
+            if (placemarkAttributes != null) {
+                placemark.setAttributes(placemarkAttributes);
+            }
+            milStdPlacemark.setLastLevelOfDetail(levelOfDetail);
 
             if (milStdPlacemark.isDirty()) {
                 milStdPlacemark.resetDirty();
             }
         }
+
+        this.applyImageScale(rc, placemark, milStdPlacemark, iconAtlas);
+    }
+
+    private void applyImageScale(RenderContext rc, Placemark placemark, MilStd2525SinglePoint milStdPlacemark, IconAtlas iconAtlas) {
+        // Apply the symbols and Icon size setting scales. The attributes from the WW render cache are shared by
+        // symbols with different scales.
+        placemark.getAttributes().setImageScale(milStdPlacemark.getImageScale());
+
+        // The page of the icon must be marked as used, and the icon placed again if its page was emptied, before the
+        // placemark looks up its texture.
+        if (null != iconAtlas) {
+            iconAtlas.touch(rc, placemark.getAttributes().getImageSource());
+        }
     }
 
     /**
      * Processing depends on the type of cache we are using. We will keep this logic around until we make a final decision on this issue.
+     * @param rc
+     * @param iconAtlas The atlas of the map of the symbol, null if the map never packed its icons.
      * @param oPlacemarkAttributes
-     * @param sSymbolCode
-     * @param oModifiers
-     * @param oAttr
+     * @param oSymbolKey
      * @return
      */
-    private PlacemarkAttributes createPlacemarkAttributes(PlacemarkAttributes oPlacemarkAttributes, String sSymbolCode, SparseArray oModifiers,
-                                                          SparseArray oAttr) {
-        if(useWorldWindRenderCache) {
-            PlacemarkAttributes pma = MilStd2525.getPlacemarkAttributes(sSymbolCode, oModifiers, oAttr);
+    private PlacemarkAttributes createPlacemarkAttributes(RenderContext rc, IconAtlas iconAtlas, PlacemarkAttributes oPlacemarkAttributes, MilStdSymbolKey oSymbolKey) {
+        if ((null != iconAtlas) && iconAtlas.isEnabled()) {
+            return this.createAtlasPlacemarkAttributes(rc, iconAtlas, oSymbolKey);
+        } else if(useWorldWindRenderCache) {
+            PlacemarkAttributes pma = MilStd2525.getPlacemarkAttributes(oSymbolKey);
             pma.setDrawLeader(true);
             return pma;
         } else {
             IEmpImageInfo oImageInfo;
 
-            oImageInfo = oMilStdIconRenderer.getMilStdIcon(sSymbolCode, oModifiers, oAttr);
+            oImageInfo = oMilStdIconRenderer.getMilStdIcon(oSymbolKey);
 
             if (oImageInfo != null) {
-                Rect imageBounds = oImageInfo.getImageBounds();      // The bounds of the entire image, including text
-                Point centerPoint = oImageInfo.getCenterPoint();     // The center of the core symbol
-                // getCenterPoint reference is top-left, WW needs bottom-left.
-                Offset imageOffset = new Offset(WorldWind.OFFSET_FRACTION, ((double) centerPoint.x) / imageBounds.width(), // x offset
-                    WorldWind.OFFSET_FRACTION, 1.0 - (((double) centerPoint.y) / imageBounds.height())); // y offset
+                Offset imageOffset = getImageOffset(oImageInfo);
 
                 if (oPlacemarkAttributes == null) {
                     oPlacemarkAttributes = PlacemarkAttributes.createWithImage(ImageSource.fromBitmap(oImageInfo.getImage())).setImageOffset(imageOffset);
@@ -191,4 +289,40 @@ public class MilStd2525LevelOfDetailSelector implements Placemark.LevelOfDetailS
             return oPlacemarkAttributes;
         }
     }
+
+    /**
+     * Gets the icon from the atlas of the map, the icon is rendered and added to the atlas if it is not there. The
+     * attributes are not shared, the image source of the icon is.
+     * @param rc
+     * @param iconAtlas
+     * @param oSymbolKey
+     * @return
+     */
+    private PlacemarkAttributes createAtlasPlacemarkAttributes(RenderContext rc, IconAtlas iconAtlas, MilStdSymbolKey oSymbolKey) {
+        IconAtlas.Icon icon = iconAtlas.getIcon(rc, oSymbolKey);
+
+        if (icon == null) {
+            IEmpImageInfo oImageInfo = oMilStdIconRenderer.getMilStdIcon(oSymbolKey);
+
+            if (oImageInfo == null) {
+                return null;
+            }
+            icon = iconAtlas.addIcon(rc, oSymbolKey, oImageInfo.getImage(), getImageOffset(oImageInfo));
+            if (icon == null) {
+                return null;
+            }
+        }
+
+        PlacemarkAttributes oPlacemarkAttributes = PlacemarkAttributes.createWithImage(icon.getImageSource()).setImageOffset(icon.getImageOffset());
+        oPlacemarkAttributes.setDrawLeader(true);
+        return oPlacemarkAttributes;
+    }
+
+    private static Offset getImageOffset(IEmpImageInfo oImageInfo) {
+        Rect imageBounds = oImageInfo.getImageBounds();      // The bounds of the entire image, including text
+        Point centerPoint = oImageInfo.getCenterPoint();     // The center of the core symbol
+        // getCenterPoint reference is top-left, WW needs bottom-left.
+        return new Offset(WorldWind.OFFSET_FRACTION, ((double) centerPoint.x) / imageBounds.width(), // x offset
+            WorldWind.OFFSET_FRACTION, 1.0 - (((double) centerPoint.y) / imageBounds.height())); // y offset
+    }
 }
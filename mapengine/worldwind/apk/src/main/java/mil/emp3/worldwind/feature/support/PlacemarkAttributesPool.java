@@ -0,0 +1,147 @@
+package mil.emp3.worldwind.feature.support;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import gov.nasa.worldwind.geom.Offset;
+import gov.nasa.worldwind.render.ImageSource;
+import gov.nasa.worldwind.shape.PlacemarkAttributes;
+
+/**
+ * This class pools the PlacemarkAttributes bundles of EMP Point features. Points with the same icon, offset, scale and
+ * selection state share one bundle and therefore one texture in the WW render resource cache.
+ *
+ * The bundles are reference counted. A bundle that is no longer used is kept in a bounded list of unused bundles, so a
+ * feature that is regenerated finds its bundle again, the oldest unused bundles are evicted once the list is full.
+ *
+ * A shared bundle must not be modified by its users.
+ */
+public class PlacemarkAttributesPool {
+    private static final int MAX_UNUSED_ENTRIES = 128;
+
+    private final HashMap<Key, Entry> entries = new HashMap<>();
+    private final IdentityHashMap<PlacemarkAttributes, Entry> entriesByAttributes = new IdentityHashMap<>();
+    // The unused entries from the least to the most recently released.
+    private final LinkedHashMap<Key, Entry> unusedEntries = new LinkedHashMap<>();
+
+    /**
+     * The key of a bundle.
+     */
+    public static class Key {
+        private final String imageKey;
+        private final Offset imageOffset;
+        private final double imageScale;
+        private final boolean selected;
+
+        /**
+         * @param imageKey Identifies the icon image, e.g. its URL or the Android resource id.
+         * @param imageOffset
+         * @param imageScale
+         * @param selected
+         */
+        public Key(String imageKey, Offset imageOffset, double imageScale, boolean selected) {
+            this.imageKey = imageKey;
+            this.imageOffset = imageOffset;
+            this.imageScale = imageScale;
+            this.selected = selected;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if ((null == o) || (this.getClass() != o.getClass())) {
+                return false;
+            }
+
+            Key that = (Key) o;
+            return (this.selected == that.selected) &&
+                    (Double.compare(this.imageScale, that.imageScale) == 0) &&
+                    this.imageKey.equals(that.imageKey) &&
+                    this.imageOffset.equals(that.imageOffset);
+        }
+
+        @Override
+        public int hashCode() {
+            long scaleBits = Double.doubleToLongBits(this.imageScale);
+            int result = this.imageKey.hashCode();
+
+            result = (31 * result) + this.imageOffset.hashCode();
+            result = (31 * result) + (int) (scaleBits ^ (scaleBits >>> 32));
+            result = (31 * result) + (this.selected ? 1 : 0);
+            return result;
+        }
+    }
+
+    private static class Entry {
+        private final Key key;
+        private final PlacemarkAttributes attributes;
+        private int referenceCount = 0;
+
+        private Entry(Key key, PlacemarkAttributes attributes) {
+            this.key = key;
+            this.attributes = attributes;
+        }
+    }
+
+    /**
+     * Retrieves the bundle for the key, creating it if it is not in the pool. Each call must be paired with a call to
+     * release.
+     * @param key
+     * @param imageSource The image of the icon, it is only used if the bundle is created.
+     * @return The shared bundle.
+     */
+    public synchronized PlacemarkAttributes acquire(Key key, ImageSource imageSource) {
+        Entry entry = this.entries.get(key);
+
+        if (null == entry) {
+            PlacemarkAttributes attributes = PlacemarkAttributes.createWithImage(imageSource)
+                    .setImageOffset(key.imageOffset)
+                    .setImageScale(key.imageScale);
+
+            entry = new Entry(key, attributes);
+            this.entries.put(key, entry);
+            this.entriesByAttributes.put(attributes, entry);
+        } else if (0 == entry.referenceCount) {
+            this.unusedEntries.remove(key);
+        }
+        entry.referenceCount++;
+
+        return entry.attributes;
+    }
+
+    /**
+     * Releases a bundle returned by acquire.
+     * @param attributes
+     */
+    public synchronized void release(PlacemarkAttributes attributes) {
+        Entry entry = this.entriesByAttributes.get(attributes);
+
+        if ((null == entry) || (0 == entry.referenceCount)) {
+            return;
+        }
+
+        entry.referenceCount--;
+        if (0 == entry.referenceCount) {
+            this.unusedEntries.put(entry.key, entry);
+            if (this.unusedEntries.size() > MAX_UNUSED_ENTRIES) {
+                Iterator<Entry> iterator = this.unusedEntries.values().iterator();
+                Entry eldest = iterator.next();
+
+                iterator.remove();
+                this.entries.remove(eldest.key);
+                this.entriesByAttributes.remove(eldest.attributes);
+            }
+        }
+    }
+
+    /**
+     * @return The number of bundles in the pool, used and unused.
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+}
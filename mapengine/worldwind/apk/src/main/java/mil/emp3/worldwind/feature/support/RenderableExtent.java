@@ -0,0 +1,170 @@
+package mil.emp3.worldwind.feature.support;
+
+import java.util.List;
+
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.render.Renderable;
+import gov.nasa.worldwind.shape.Label;
+import gov.nasa.worldwind.shape.Path;
+import gov.nasa.worldwind.shape.Placemark;
+import gov.nasa.worldwind.shape.Polygon;
+import gov.nasa.worldwind.shape.SurfaceImage;
+
+/**
+ * This class holds the geographic extent of a set of WW renderables. It is used to skip renderables that are outside
+ * the visible terrain.
+ *
+ * The WW Sector is not used to accumulate the extent as a sector built from a single position is empty, and its
+ * intersect test excludes the edges.
+ *
+ * An extent that crosses the date line covers all the longitudes in between, which is conservative. A renderable of
+ * a type this class doesn't know makes the extent cover the whole globe so it is never culled.
+ */
+public class RenderableExtent {
+    // Fraction of the view sector added on each side so icons and labels anchored just outside the view are drawn.
+    private static final double VIEW_MARGIN = 0.05;
+
+    private boolean empty = true;
+    private double minLatitude;
+    private double maxLatitude;
+    private double minLongitude;
+    private double maxLongitude;
+
+    public boolean isEmpty() {
+        return this.empty;
+    }
+
+    public RenderableExtent setEmpty() {
+        this.empty = true;
+        return this;
+    }
+
+    public RenderableExtent setFullSphere() {
+        this.empty = false;
+        this.minLatitude = -90.0;
+        this.maxLatitude = 90.0;
+        this.minLongitude = -180.0;
+        this.maxLongitude = 180.0;
+        return this;
+    }
+
+    public double getMinLatitude() {
+        return this.minLatitude;
+    }
+
+    public double getMaxLatitude() {
+        return this.maxLatitude;
+    }
+
+    public double getMinLongitude() {
+        return this.minLongitude;
+    }
+
+    public double getMaxLongitude() {
+        return this.maxLongitude;
+    }
+
+    public RenderableExtent union(double latitude, double longitude) {
+        if (Double.isNaN(latitude) || Double.isNaN(longitude)) {
+            return this;
+        }
+        if (this.empty) {
+            this.empty = false;
+            this.minLatitude = latitude;
+            this.maxLatitude = latitude;
+            this.minLongitude = longitude;
+            this.maxLongitude = longitude;
+        } else {
+            this.minLatitude = Math.min(this.minLatitude, latitude);
+            this.maxLatitude = Math.max(this.maxLatitude, latitude);
+            this.minLongitude = Math.min(this.minLongitude, longitude);
+            this.maxLongitude = Math.max(this.maxLongitude, longitude);
+        }
+        return this;
+    }
+
+    public RenderableExtent union(RenderableExtent extent) {
+        if (!extent.empty) {
+            this.union(extent.minLatitude, extent.minLongitude);
+            this.union(extent.maxLatitude, extent.maxLongitude);
+        }
+        return this;
+    }
+
+    private void union(List<Position> positions) {
+        if (null != positions) {
+            for (int index = 0; index < positions.size(); index++) {
+                Position position = positions.get(index);
+                this.union(position.latitude, position.longitude);
+            }
+        }
+    }
+
+    /**
+     * Adds the positions of the renderable to the extent.
+     * @param renderable
+     * @return this
+     */
+    public RenderableExtent union(Renderable renderable) {
+        if (renderable instanceof Path) {
+            this.union(((Path) renderable).getPositions());
+        } else if (renderable instanceof Polygon) {
+            Polygon polygon = (Polygon) renderable;
+            for (int index = 0; index < polygon.getBoundaryCount(); index++) {
+                this.union(polygon.getBoundary(index));
+            }
+        } else if (renderable instanceof Placemark) {
+            Position position = ((Placemark) renderable).getPosition();
+            if (null != position) {
+                this.union(position.latitude, position.longitude);
+            }
+        } else if (renderable instanceof Label) {
+            Position position = ((Label) renderable).getPosition();
+            if (null != position) {
+                this.union(position.latitude, position.longitude);
+            }
+        } else if (renderable instanceof SurfaceImage) {
+            Sector sector = ((SurfaceImage) renderable).getSector();
+            if (!sector.isEmpty()) {
+                this.union(sector.minLatitude(), sector.minLongitude());
+                this.union(sector.maxLatitude(), sector.maxLongitude());
+            }
+        } else if (null != renderable) {
+            this.setFullSphere();
+        }
+        return this;
+    }
+
+    /**
+     * Adds the positions of all the renderables to the extent.
+     * @param renderableList
+     * @return this
+     */
+    public RenderableExtent union(List<Renderable> renderableList) {
+        for (int index = 0; index < renderableList.size(); index++) {
+            this.union(renderableList.get(index));
+        }
+        return this;
+    }
+
+    /**
+     * Tests the extent against the view sector, the sector is enlarged by a small margin. An empty extent has nothing
+     * to draw and is reported as intersecting so the caller doesn't count it as culled.
+     * @param viewSector The sector of the visible terrain. If it is empty nothing is culled.
+     * @return true if the extent may be visible.
+     */
+    public boolean intersects(Sector viewSector) {
+        if (this.empty || viewSector.isEmpty()) {
+            return true;
+        }
+
+        double latitudeMargin = viewSector.deltaLatitude() * VIEW_MARGIN;
+        double longitudeMargin = viewSector.deltaLongitude() * VIEW_MARGIN;
+
+        return (this.minLatitude <= (viewSector.maxLatitude() + latitudeMargin)) &&
+                (this.maxLatitude >= (viewSector.minLatitude() - latitudeMargin)) &&
+                (this.minLongitude <= (viewSector.maxLongitude() + longitudeMargin)) &&
+                (this.maxLongitude >= (viewSector.minLongitude() - longitudeMargin));
+    }
+}
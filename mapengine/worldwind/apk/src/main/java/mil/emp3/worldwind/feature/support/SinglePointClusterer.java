@@ -0,0 +1,286 @@
+package mil.emp3.worldwind.feature.support;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.util.DisplayMetrics;
+import android.util.Log;
+import android.util.SparseArray;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import armyc2.c2sd.renderer.utilities.SymbolUtilities;
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.geom.Offset;
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.geom.Vec3;
+import gov.nasa.worldwind.render.ImageSource;
+import gov.nasa.worldwind.render.RenderContext;
+import gov.nasa.worldwind.shape.Placemark;
+import gov.nasa.worldwind.shape.PlacemarkAttributes;
+import mil.emp3.api.interfaces.IFeature;
+import mil.emp3.worldwind.feature.FeatureRenderableMapping;
+import mil.emp3.worldwind.feature.MilStd2525SinglePoint;
+
+/**
+ * This class draws the MilStd single point symbols of a layer clustered in screen space. The viewport is divided in
+ * square cells, the symbols whose position projects in the same cell are drawn as one marker. The marker is a circle
+ * with the fill color of the most common affiliation of the cluster and the number of symbols. A cell with one symbol
+ * draws the symbol itself. As the grid is in screen space, the clusters break up as the camera zooms in.
+ *
+ * Selected symbols are always drawn. Symbols that project outside the viewport are drawn unclustered.
+ *
+ * In pick mode the pick delegate of a marker is a list of the features of the cluster, so picking a cluster picks all
+ * its symbols. A new list is created for each pick as the clusters are reused by the next frame.
+ *
+ * The clusters, their placemarks and the markers are reused from frame to frame. This class must only be used on the
+ * render thread.
+ */
+public class SinglePointClusterer {
+    private static final String TAG = SinglePointClusterer.class.getSimpleName();
+    // Counts greater than this are shown as MAX_LABEL_COUNT+.
+    private static final int MAX_LABEL_COUNT = 99;
+    // The markers are cached per affiliation and count. The cache is dropped when it is larger than this.
+    private static final int MAX_MARKER_ATTRIBUTES = 512;
+    private static final int AFFILIATION_COUNT = 26;
+
+    private static class Cluster {
+        private final List<MilStd2525SinglePoint> members = new ArrayList<>();
+        // The number of members per affiliation letter.
+        private final int[] affiliationCount = new int[AFFILIATION_COUNT];
+        private final Position position = new Position();
+        private Placemark placemark = null;
+        private double latitudeSum;
+        private double longitudeSum;
+
+        private void clear() {
+            this.members.clear();
+            for (int index = 0; index < AFFILIATION_COUNT; index++) {
+                this.affiliationCount[index] = 0;
+            }
+            this.latitudeSum = 0;
+            this.longitudeSum = 0;
+        }
+    }
+
+    private final int cellSize;
+    private final int markerSize;
+    private final Vec3 modelPoint = new Vec3();
+    private final Vec3 screenPoint = new Vec3();
+    // The cells of the viewport, row by row. A null entry is an empty cell.
+    private Cluster[] cells = new Cluster[0];
+    private int columnCount = 0;
+    private int rowCount = 0;
+    // The clusters with members in this frame and the unused ones.
+    private final List<Cluster> frameClusters = new ArrayList<>();
+    private final List<Cluster> freeClusters = new ArrayList<>();
+    // The marker attributes keyed by (affiliation letter index * (MAX_LABEL_COUNT + 2)) + count.
+    private final SparseArray<PlacemarkAttributes> markerAttributes = new SparseArray<>();
+
+    public SinglePointClusterer() {
+        DisplayMetrics oMetrics = Resources.getSystem().getDisplayMetrics();
+
+        this.cellSize = Math.max(1, (int) (oMetrics.densityDpi * 0.375)); // 3/8 in
+        this.markerSize = Math.max(1, (int) (oMetrics.densityDpi * 0.25)); // 1/4 in
+    }
+
+    /**
+     * Draws the single point symbols of the list, clustered. Other mappings in the list are ignored.
+     * @param rc
+     * @param mappingList The mappings of the frame, as returned by the layer's queryFrameMappings.
+     */
+    public void render(RenderContext rc, List<FeatureRenderableMapping> mappingList) {
+        MilStd2525SinglePoint singlePoint;
+        Position position;
+        Cluster cluster;
+
+        this.beginFrame(rc);
+
+        for (int index = 0; index < mappingList.size(); index++) {
+            if (!(mappingList.get(index) instanceof MilStd2525SinglePoint)) {
+                continue;
+            }
+            singlePoint = (MilStd2525SinglePoint) mappingList.get(index);
+            if (!singlePoint.isVisible()) {
+                continue;
+            }
+            if (singlePoint.isSelected()) {
+                singlePoint.render(rc);
+                continue;
+            }
+
+            position = singlePoint.getPlacemark().getPosition();
+            rc.geographicToCartesian(position.latitude, position.longitude, position.altitude,
+                    singlePoint.getPlacemark().getAltitudeMode(), this.modelPoint);
+            if (!rc.project(this.modelPoint, this.screenPoint)) {
+                // Behind the camera or clipped, the placemark culls itself.
+                singlePoint.render(rc);
+                continue;
+            }
+
+            int column = (int) Math.floor((this.screenPoint.x - rc.viewport.x) / this.cellSize);
+            int row = (int) Math.floor((this.screenPoint.y - rc.viewport.y) / this.cellSize);
+            if ((column < 0) || (column >= this.columnCount) || (row < 0) || (row >= this.rowCount)) {
+                singlePoint.render(rc);
+                continue;
+            }
+
+            cluster = this.getCluster((row * this.columnCount) + column);
+            cluster.members.add(singlePoint);
+            cluster.latitudeSum += position.latitude;
+            cluster.longitudeSum += position.longitude;
+            cluster.affiliationCount[affiliationIndex(singlePoint.getLowFidelitySymbolCode())]++;
+        }
+
+        for (int index = 0; index < this.frameClusters.size(); index++) {
+            cluster = this.frameClusters.get(index);
+            try {
+                if (cluster.members.size() == 1) {
+                    cluster.members.get(0).render(rc);
+                } else {
+                    this.renderCluster(rc, cluster);
+                }
+            } catch (Exception Ex) {
+                Log.e(TAG, "Exception while rendering cluster.", Ex);
+            }
+        }
+    }
+
+    /**
+     * Releases the clusters of the previous frame and sizes the grid to the viewport.
+     * @param rc
+     */
+    private void beginFrame(RenderContext rc) {
+        int columnCount = (rc.viewport.width + this.cellSize - 1) / this.cellSize;
+        int rowCount = (rc.viewport.height + this.cellSize - 1) / this.cellSize;
+
+        for (int index = 0; index < this.frameClusters.size(); index++) {
+            Cluster cluster = this.frameClusters.get(index);
+
+            cluster.clear();
+            this.freeClusters.add(cluster);
+        }
+        this.frameClusters.clear();
+
+        if ((columnCount != this.columnCount) || (rowCount != this.rowCount)) {
+            this.columnCount = columnCount;
+            this.rowCount = rowCount;
+            this.cells = new Cluster[columnCount * rowCount];
+        } else {
+            for (int index = 0; index < this.cells.length; index++) {
+                this.cells[index] = null;
+            }
+        }
+    }
+
+    private Cluster getCluster(int cellIndex) {
+        Cluster cluster = this.cells[cellIndex];
+
+        if (null == cluster) {
+            if (this.freeClusters.isEmpty()) {
+                cluster = new Cluster();
+            } else {
+                cluster = this.freeClusters.remove(this.freeClusters.size() - 1);
+            }
+            this.cells[cellIndex] = cluster;
+            this.frameClusters.add(cluster);
+        }
+
+        return cluster;
+    }
+
+    private void renderCluster(RenderContext rc, Cluster cluster) {
+        int memberCount = cluster.members.size();
+        int dominantAffiliation = 0;
+
+        for (int index = 1; index < AFFILIATION_COUNT; index++) {
+            if (cluster.affiliationCount[index] > cluster.affiliationCount[dominantAffiliation]) {
+                dominantAffiliation = index;
+            }
+        }
+
+        cluster.position.set(cluster.latitudeSum / memberCount, cluster.longitudeSum / memberCount, 0);
+        if (null == cluster.placemark) {
+            cluster.placemark = new Placemark(cluster.position);
+            cluster.placemark.setAltitudeMode(WorldWind.CLAMP_TO_GROUND);
+        } else {
+            cluster.placemark.setPosition(cluster.position);
+        }
+        cluster.placemark.setAttributes(this.getMarkerAttributes(dominantAffiliation, memberCount));
+
+        if (rc.pickMode) {
+            List<IFeature> features = new ArrayList<>(memberCount);
+
+            for (int index = 0; index < memberCount; index++) {
+                features.add(cluster.members.get(index).getFeature());
+            }
+            cluster.placemark.setPickDelegate(features);
+        } else {
+            cluster.placemark.setPickDelegate(null);
+        }
+        cluster.placemark.render(rc);
+    }
+
+    private static int affiliationIndex(String sSymbolCode) {
+        int index = Character.toUpperCase(sSymbolCode.charAt(1)) - 'A';
+
+        return ((index < 0) || (index >= AFFILIATION_COUNT)) ? ('U' - 'A') : index;
+    }
+
+    private PlacemarkAttributes getMarkerAttributes(int affiliation, int count) {
+        int labelCount = Math.min(count, MAX_LABEL_COUNT + 1);
+        int key = (affiliation * (MAX_LABEL_COUNT + 2)) + labelCount;
+        PlacemarkAttributes attributes = this.markerAttributes.get(key);
+
+        if (null == attributes) {
+            if (this.markerAttributes.size() >= MAX_MARKER_ATTRIBUTES) {
+                this.markerAttributes.clear();
+            }
+            String sLabel = (labelCount > MAX_LABEL_COUNT) ? (MAX_LABEL_COUNT + "+") : Integer.toString(labelCount);
+            attributes = PlacemarkAttributes.createWithImage(ImageSource.fromBitmap(
+                    this.createMarker((char) ('A' + affiliation), sLabel)))
+                    .setImageOffset(Offset.center());
+            this.markerAttributes.put(key, attributes);
+        }
+
+        return attributes;
+    }
+
+    /**
+     * Draws a marker in the style of the far icons of the CoreBitmapCache, with the count in the middle.
+     * @param cAffiliation
+     * @param sLabel
+     * @return
+     */
+    private Bitmap createMarker(char cAffiliation, String sLabel) {
+        DisplayMetrics oMetrics = Resources.getSystem().getDisplayMetrics();
+        String sSymbolCode = "S" + cAffiliation + "P*------*****";
+        armyc2.c2sd.renderer.utilities.Color oColor = SymbolUtilities.getFillColorOfAffiliation(sSymbolCode);
+        int iColor;
+        int iColorBlack = 0xFF000000;
+        float fCenter = this.markerSize / 2.0f;
+        Bitmap oBitmap = Bitmap.createBitmap(oMetrics, this.markerSize, this.markerSize, Bitmap.Config.ARGB_8888);
+        Canvas oCanvas = new Canvas(oBitmap);
+        Paint oPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+        iColor = oColor.getAlpha();
+        iColor = (iColor << 8) + oColor.getRed();
+        iColor = (iColor << 8) + oColor.getGreen();
+        iColor = (iColor << 8) + oColor.getBlue();
+
+        oPaint.setColor(iColorBlack);
+        oCanvas.drawCircle(fCenter, fCenter, fCenter, oPaint);
+        oPaint.setColor(iColor);
+        oCanvas.drawCircle(fCenter, fCenter, (float) (fCenter / 1.15), oPaint);
+
+        oPaint.setColor(iColorBlack);
+        oPaint.setFakeBoldText(true);
+        oPaint.setTextAlign(Paint.Align.CENTER);
+        oPaint.setTextSize(this.markerSize * ((sLabel.length() > 2) ? 0.35f : 0.45f));
+        oCanvas.drawText(sLabel, fCenter, fCenter - ((oPaint.descent() + oPaint.ascent()) / 2), oPaint);
+
+        return oBitmap;
+    }
+}
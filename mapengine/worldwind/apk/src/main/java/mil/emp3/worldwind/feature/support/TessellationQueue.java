@@ -0,0 +1,231 @@
+package mil.emp3.worldwind.feature.support;
+
+import android.util.Log;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import mil.emp3.worldwind.MapInstance;
+import mil.emp3.worldwind.feature.FeatureRenderableMapping;
+import mil.emp3.worldwind.feature.Tessellation;
+
+/**
+ * This class runs the MilStd renderer for tactical graphics and rendered features off the GL render thread. When a
+ * mapping is dirty the render thread submits it and keeps drawing its current renderables. The new renderables are
+ * handed back to the mapping, which swaps them in on a later frame, and a redraw is requested.
+ *
+ * Each submit supersedes the mapping's previous job, a job that is no longer the latest for its mapping is skipped or
+ * its result discarded. supersedeAll does the same for every job submitted before it, it is called when the map starts
+ * moving as the results were computed for a view that is going away.
+ *
+ * A job that fails resolves its generation without new renderables, the mapping keeps drawing its current ones.
+ *
+ * The SEC renderer keeps static state so the jobs are executed by a single worker thread.
+ */
+public class TessellationQueue {
+    private static final String TAG = TessellationQueue.class.getSimpleName();
+    private static final int WORKER_COUNT = 1;
+
+    private final MapInstance mapInstance;
+    private final ExecutorService executor;
+    private final AtomicInteger epoch = new AtomicInteger(0);
+
+    // All fields below are guarded by this.
+    private int queueDepth = 0;
+    private long submittedCount = 0;
+    private long completedCount = 0;
+    private long supersededCount = 0;
+    private long failedCount = 0;
+    private long lastTessellationTime = 0;
+    private long maxTessellationTime = 0;
+    private long totalTessellationTime = 0;
+
+    public TessellationQueue(MapInstance mapInstance) {
+        this.mapInstance = mapInstance;
+        this.executor = Executors.newFixedThreadPool(WORKER_COUNT, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "Tessellation Thread");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    private class Job implements Runnable {
+        private final FeatureRenderableMapping mapping;
+        private final int generation;
+        private final int jobEpoch;
+
+        private Job(FeatureRenderableMapping mapping, int generation, int jobEpoch) {
+            this.mapping = mapping;
+            this.generation = generation;
+            this.jobEpoch = jobEpoch;
+        }
+
+        private boolean isCurrent() {
+            return (this.jobEpoch == TessellationQueue.this.epoch.get()) && this.mapping.isTessellationCurrent(this.generation);
+        }
+
+        @Override
+        public void run() {
+            synchronized (TessellationQueue.this) {
+                TessellationQueue.this.queueDepth--;
+            }
+
+            if (!this.isCurrent()) {
+                TessellationQueue.this.superseded();
+                return;
+            }
+
+            Tessellation tessellation;
+            long start = System.nanoTime();
+            try {
+                tessellation = this.mapping.tessellate();
+            } catch (Exception Ex) {
+                Log.e(TAG, "Tessellation of " + this.mapping.getDisplayName() + " failed.", Ex);
+                tessellation = null;
+            }
+            long elapsed = System.nanoTime() - start;
+
+            if (!this.isCurrent()) {
+                TessellationQueue.this.superseded();
+                return;
+            }
+            if (null == tessellation) {
+                this.mapping.tessellationFailed(this.generation);
+                TessellationQueue.this.failed();
+                return;
+            }
+
+            this.mapping.tessellationCompleted(this.generation, tessellation);
+            TessellationQueue.this.completed(elapsed);
+            TessellationQueue.this.mapInstance.requestRedraw();
+        }
+    }
+
+    /**
+     * Queues the mapping for tessellation. Any job already queued or running for the mapping is superseded.
+     * @param mapping
+     */
+    public void submit(FeatureRenderableMapping mapping) {
+        Job job = new Job(mapping, mapping.startTessellation(), this.epoch.get());
+
+        synchronized (this) {
+            this.queueDepth++;
+            this.submittedCount++;
+        }
+        try {
+            this.executor.execute(job);
+        } catch (RejectedExecutionException Ex) {
+            // The map instance is being destroyed.
+            synchronized (this) {
+                this.queueDepth--;
+            }
+        }
+    }
+
+    /**
+     * Supersedes all jobs submitted so far.
+     */
+    public void supersedeAll() {
+        this.epoch.incrementAndGet();
+    }
+
+    public void shutdown() {
+        this.supersedeAll();
+        this.executor.shutdownNow();
+    }
+
+    private synchronized void superseded() {
+        this.supersededCount++;
+    }
+
+    private synchronized void failed() {
+        this.failedCount++;
+    }
+
+    private synchronized void completed(long elapsed) {
+        this.completedCount++;
+        this.lastTessellationTime = elapsed;
+        this.totalTessellationTime += elapsed;
+        if (elapsed > this.maxTessellationTime) {
+            this.maxTessellationTime = elapsed;
+        }
+    }
+
+    /**
+     * @return A copy of the current counters.
+     */
+    public synchronized Statistics getStatistics() {
+        Statistics statistics = new Statistics();
+
+        statistics.queueDepth = this.queueDepth;
+        statistics.submittedCount = this.submittedCount;
+        statistics.completedCount = this.completedCount;
+        statistics.supersededCount = this.supersededCount;
+        statistics.failedCount = this.failedCount;
+        statistics.lastTessellationTime = this.lastTessellationTime;
+        statistics.maxTessellationTime = this.maxTessellationTime;
+        statistics.averageTessellationTime = (this.completedCount > 0) ? (this.totalTessellationTime / this.completedCount) : 0;
+        return statistics;
+    }
+
+    /**
+     * A snapshot of the tessellation counters. Times are in nanoseconds.
+     */
+    public static class Statistics {
+        private int queueDepth;
+        private long submittedCount;
+        private long completedCount;
+        private long supersededCount;
+        private long failedCount;
+        private long lastTessellationTime;
+        private long maxTessellationTime;
+        private long averageTessellationTime;
+
+        /**
+         * @return Number of jobs waiting for the worker.
+         */
+        public int getQueueDepth() {
+            return this.queueDepth;
+        }
+
+        public long getSubmittedCount() {
+            return this.submittedCount;
+        }
+
+        public long getCompletedCount() {
+            return this.completedCount;
+        }
+
+        /**
+         * @return Number of jobs skipped or discarded because a newer job replaced them.
+         */
+        public long getSupersededCount() {
+            return this.supersededCount;
+        }
+
+        /**
+         * @return Number of jobs whose tessellation threw or returned nothing.
+         */
+        public long getFailedCount() {
+            return this.failedCount;
+        }
+
+        public long getLastTessellationTime() {
+            return this.lastTessellationTime;
+        }
+
+        public long getMaxTessellationTime() {
+            return this.maxTessellationTime;
+        }
+
+        public long getAverageTessellationTime() {
+            return this.averageTessellationTime;
+        }
+    }
+}
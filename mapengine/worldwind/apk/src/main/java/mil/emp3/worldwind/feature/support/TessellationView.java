@@ -0,0 +1,89 @@
+package mil.emp3.worldwind.feature.support;
+
+import org.cmapi.primitives.IGeoBounds;
+
+/**
+ * This class remembers the view a tessellation of a tactical graphic or rendered feature was generated for. The
+ * MilStd renderer clips its output to the map bounds and adapts it to the scale, so the output only needs to be
+ * regenerated when the view changes in a way that alters it.
+ *
+ * The view is recorded on the render thread when the tessellation is swapped in and tested on the UI thread when the
+ * camera stops, the methods are synchronized.
+ */
+public class TessellationView {
+    // The fraction of the camera altitude the altitude may change by before the output must be regenerated.
+    private static final double SCALE_TOLERANCE = 0.2;
+
+    private boolean valid = false;
+    private double north;
+    private double south;
+    private double east;
+    private double west;
+    private double altitude;
+    // True if the output is within the bounds it was generated for, i.e. it was not clipped.
+    private boolean unclipped;
+    private double minLatitude;
+    private double maxLatitude;
+    private double minLongitude;
+    private double maxLongitude;
+
+    /**
+     * Records the view of the tessellation that was just swapped in.
+     * @param bounds The map bounds when the tessellation was generated, null if they were not known.
+     * @param altitude The camera altitude when the tessellation was generated.
+     * @param extent The extent of the feature positions and of the new renderables.
+     */
+    public synchronized void set(IGeoBounds bounds, double altitude, RenderableExtent extent) {
+        if ((null == bounds) || crossesDateLine(bounds) || extent.isEmpty()) {
+            this.valid = false;
+            return;
+        }
+
+        this.valid = true;
+        this.north = bounds.getNorth();
+        this.south = bounds.getSouth();
+        this.east = bounds.getEast();
+        this.west = bounds.getWest();
+        this.altitude = altitude;
+        this.minLatitude = extent.getMinLatitude();
+        this.maxLatitude = extent.getMaxLatitude();
+        this.minLongitude = extent.getMinLongitude();
+        this.maxLongitude = extent.getMaxLongitude();
+        this.unclipped = (this.minLatitude > this.south) && (this.maxLatitude < this.north) &&
+                (this.minLongitude > this.west) && (this.maxLongitude < this.east);
+    }
+
+    public synchronized void invalidate() {
+        this.valid = false;
+    }
+
+    /**
+     * Tests if the current output is still valid for a new view. It is if the camera altitude is within the
+     * tolerance and either the output was not clipped or the new bounds are within the bounds it was generated for.
+     * An unclipped output that is outside the new bounds is also valid, it is tested again once it comes into view.
+     * @param bounds The new map bounds.
+     * @param altitude The new camera altitude.
+     * @return true if the output does not need to be regenerated.
+     */
+    public synchronized boolean isCurrent(IGeoBounds bounds, double altitude) {
+        if (!this.valid || (null == bounds) || crossesDateLine(bounds)) {
+            return false;
+        }
+
+        if (this.unclipped && ((this.minLatitude > bounds.getNorth()) || (this.maxLatitude < bounds.getSouth()) ||
+                (this.minLongitude > bounds.getEast()) || (this.maxLongitude < bounds.getWest()))) {
+            return true;
+        }
+
+        if (Math.abs(altitude - this.altitude) > (this.altitude * SCALE_TOLERANCE)) {
+            return false;
+        }
+
+        return this.unclipped || ((bounds.getNorth() <= this.north) && (bounds.getSouth() >= this.south) &&
+                (bounds.getEast() <= this.east) && (bounds.getWest() >= this.west));
+    }
+
+    private static boolean crossesDateLine(IGeoBounds bounds) {
+        return bounds.getWest() > bounds.getEast();
+    }
+}
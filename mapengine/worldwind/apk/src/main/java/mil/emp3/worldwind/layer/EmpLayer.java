@@ -1,33 +1,254 @@
 package mil.emp3.worldwind.layer;
 
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.UUID;
 
 import gov.nasa.worldwind.layer.RenderableLayer;
+import gov.nasa.worldwind.render.RenderContext;
 import gov.nasa.worldwind.render.Renderable;
 import mil.emp3.api.interfaces.IFeature;
 import mil.emp3.worldwind.feature.FeatureRenderableMapping;
 import mil.emp3.worldwind.MapInstance;
+import mil.emp3.worldwind.feature.support.CullingStatistics;
+import mil.emp3.worldwind.feature.support.FeatureSpatialIndex;
+import mil.emp3.worldwind.feature.support.FrameProfiler;
 
 /**
  * This abstract class is the base class for all layers that contain EMP feature. It allows the implementation
  * to ensure that the feature types are rendered in a specific order.
+ *
+ * The mappings of the layer are kept in a spatial index. Each frame only the mappings that intersect the view, and
+ * those whose renderables are not up to date, are rendered.
+ *
+ * The drawing order comes from the spatial index, so the layer's renderable list is unordered. The position of each
+ * renderable in the list is indexed and a removal moves the last renderable into the hole, which makes removing a
+ * feature O(1) instead of a scan of the list. A renderable can only be added once.
  * @param <T> A class the implements the IFeature interface.
  */
 abstract public class EmpLayer<T extends IFeature> extends RenderableLayer {
     final static private String TAG = EmpLayer.class.getSimpleName();
 
     final private MapInstance mapInstance;
+    final private FeatureSpatialIndex spatialIndex = new FeatureSpatialIndex();
+    // The index of the layer in the frame profiler.
+    final private int profilerIndex;
+    // The position of each renderable in the renderables list.
+    final private IdentityHashMap<Renderable, Integer> renderableIndex = new IdentityHashMap<>();
+
+    // Reused by every frame, they are only accessed on the render thread.
+    final private List<FeatureRenderableMapping> frameMappingList = new ArrayList<>();
+    final private List<FeatureRenderableMapping> pendingMappingList = new ArrayList<>();
 
     public EmpLayer(String displayName, MapInstance mapInstance) {
         super(displayName);
 
         this.mapInstance = mapInstance;
+        this.profilerIndex = mapInstance.getFrameProfiler().registerLayer(displayName);
     }
 
     protected MapInstance getMapInstance() {
         return mapInstance;
     }
 
+    public FeatureSpatialIndex getSpatialIndex() {
+        return this.spatialIndex;
+    }
+
+    /**
+     * The time each layer takes is recorded in the frame profiler of the map instance.
+     * @param rc
+     */
+    @Override
+    public void render(RenderContext rc) {
+        FrameProfiler profiler = getMapInstance().getFrameProfiler();
+        long startTime = profiler.startTimer();
+
+        try {
+            super.render(rc);
+        } finally {
+            profiler.layerRendered(this.profilerIndex, startTime);
+        }
+    }
+
+    @Override
+    protected void doRender(RenderContext rc) {
+        List<FeatureRenderableMapping> mappingList = this.queryFrameMappings(rc);
+        FeatureRenderableMapping mapping;
+
+        for (int index = 0; index < mappingList.size(); index++) {
+            mapping = mappingList.get(index);
+            try {
+                mapping.render(rc);
+            } catch (Exception Ex) {
+                Log.e(TAG, "Exception while rendering '" + mapping.getDisplayName() + "'", Ex);
+            }
+        }
+        this.refreshPendingMappings();
+    }
+
+    /**
+     * Finds the mappings to render in this frame and counts them in the map instance culling statistics. The list is
+     * reused by the next frame.
+     * @param rc
+     * @return The mappings in drawing order.
+     */
+    protected List<FeatureRenderableMapping> queryFrameMappings(RenderContext rc) {
+        CullingStatistics statistics = getMapInstance().getCullingStatistics();
+        int visibleCount = 0;
+
+        this.frameMappingList.clear();
+        this.pendingMappingList.clear();
+        this.spatialIndex.queryView(getMapInstance().getCullSector(rc), this.frameMappingList, this.pendingMappingList);
+
+        for (int index = 0; index < this.frameMappingList.size(); index++) {
+            if (this.frameMappingList.get(index).isVisible()) {
+                visibleCount++;
+            }
+        }
+        statistics.drawn(visibleCount);
+        statistics.culled(this.spatialIndex.size() - this.frameMappingList.size());
+
+        return this.frameMappingList;
+    }
+
+    /**
+     * Must be called after the mappings returned by queryFrameMappings are rendered. It stores the new extent of the
+     * ones that were out of date.
+     */
+    protected void refreshPendingMappings() {
+        if (!this.pendingMappingList.isEmpty()) {
+            this.spatialIndex.refresh(this.pendingMappingList);
+            this.pendingMappingList.clear();
+        }
+    }
+
+    /**
+     * Adds a new mapping to the spatial index of the layer.
+     * @param mapping
+     */
+    protected void addToSpatialIndex(FeatureRenderableMapping mapping) {
+        mapping.setSpatialIndex(this.spatialIndex);
+        this.spatialIndex.add(mapping);
+    }
+
+    @Override
+    public void addRenderable(Renderable renderable) {
+        if (!this.renderableIndex.containsKey(renderable)) {
+            super.addRenderable(renderable);
+            this.renderableIndex.put(renderable, this.renderables.size() - 1);
+        }
+    }
+
+    @Override
+    public void addRenderable(int index, Renderable renderable) {
+        if (!this.renderableIndex.containsKey(renderable)) {
+            super.addRenderable(index, renderable);
+            this.reindexFrom(index);
+        }
+    }
+
+    @Override
+    public void addAllRenderables(Iterable<? extends Renderable> iterable) {
+        for (Renderable renderable : iterable) {
+            this.addRenderable(renderable);
+        }
+    }
+
+    @Override
+    public void addAllRenderables(RenderableLayer layer) {
+        this.addAllRenderables((Iterable<Renderable>) layer);
+    }
+
+    /**
+     * A renderable that is already in the layer is not added a second time, the layer is left unchanged.
+     * @param index
+     * @param renderable
+     * @return The renderable replaced, the renderable itself if it is already at index or null if it is at another index.
+     */
+    @Override
+    public Renderable setRenderable(int index, Renderable renderable) {
+        Integer currentIndex = this.renderableIndex.get(renderable);
+
+        if (null != currentIndex) {
+            return (currentIndex == index) ? renderable : null;
+        }
+
+        Renderable oldRenderable = super.setRenderable(index, renderable);
+
+        this.renderableIndex.remove(oldRenderable);
+        this.renderableIndex.put(renderable, index);
+        return oldRenderable;
+    }
+
+    @Override
+    public int indexOfRenderable(Renderable renderable) {
+        Integer index = this.renderableIndex.get(renderable);
+
+        return (null == index) ? -1 : index;
+    }
+
+    @Override
+    public boolean removeRenderable(Renderable renderable) {
+        Integer index = this.renderableIndex.remove(renderable);
+
+        if (null == index) {
+            return false;
+        }
+
+        int lastIndex = this.renderables.size() - 1;
+        Renderable lastRenderable = this.renderables.remove(lastIndex);
+        if (index != lastIndex) {
+            this.renderables.set(index, lastRenderable);
+            this.renderableIndex.put(lastRenderable, index);
+        }
+        return true;
+    }
+
+    @Override
+    public Renderable removeRenderable(int index) {
+        Renderable renderable = this.renderables.get(index);
+
+        this.removeRenderable(renderable);
+        return renderable;
+    }
+
+    @Override
+    public boolean removeAllRenderables(Iterable<? extends Renderable> iterable) {
+        boolean removed = false;
+
+        for (Renderable renderable : iterable) {
+            removed |= this.removeRenderable(renderable);
+        }
+        return removed;
+    }
+
+    @Override
+    public void clearRenderables() {
+        super.clearRenderables();
+        this.renderableIndex.clear();
+    }
+
+    /**
+     * The list can't be modified through the iterator as the index would not be updated.
+     * @return
+     */
+    @Override
+    public Iterator<Renderable> iterator() {
+        return Collections.unmodifiableList(this.renderables).iterator();
+    }
+
+    private void reindexFrom(int index) {
+        for (int iIndex = index; iIndex < this.renderables.size(); iIndex++) {
+            this.renderableIndex.put(this.renderables.get(iIndex), iIndex);
+        }
+    }
+
     /**
      * Make sure you don't touch the View in this method.
      * @param feature
@@ -48,6 +269,8 @@ abstract public class EmpLayer<T extends IFeature> extends RenderableLayer {
             FeatureRenderableMapping oMapping;
             oMapping = getMapInstance().getFeatureHash().get(geoId);
 
+            this.spatialIndex.remove(oMapping);
+            oMapping.setSpatialIndex(null);
             oMapping.removeRenderables();
             this.removeRenderable(oMapping);
         }
@@ -75,6 +298,7 @@ abstract public class EmpLayer<T extends IFeature> extends RenderableLayer {
         } else {
             oMapping = this.createFeatureMapping(feature);
             this.addRenderable(oMapping);
+            this.addToSpatialIndex(oMapping);
             getMapInstance().getFeatureHash().put(feature.getGeoId(), oMapping);
         }
 
@@ -6,7 +6,6 @@ import org.cmapi.primitives.GeoPosition;
 import org.cmapi.primitives.IGeoBounds;
 import org.cmapi.primitives.IGeoPosition;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import gov.nasa.worldwind.geom.Position;
@@ -17,6 +16,7 @@ import mil.emp3.worldwind.feature.FeatureRenderableMapping;
 import mil.emp3.worldwind.MapInstance;
 import mil.emp3.worldwind.feature.MilStd2525SinglePoint;
 import mil.emp3.worldwind.feature.MilStd2525TacticalGraphic;
+import mil.emp3.worldwind.feature.support.SinglePointClusterer;
 
 /**
  * This class implements the NASA WW layer that shall contain all milstd symbols.
@@ -24,26 +24,32 @@ import mil.emp3.worldwind.feature.MilStd2525TacticalGraphic;
 public class MilStdSymbolLayer extends EmpLayer<MilStdSymbol> {
     final static private String TAG = MilStdSymbolLayer.class.getSimpleName();
 
-    final private List<Renderable> singlePointList;
+    // Created when clustering is first enabled.
+    private SinglePointClusterer clusterer = null;
 
     public MilStdSymbolLayer(MapInstance mapInstance) {
         super(TAG, mapInstance);
-        singlePointList = new ArrayList<>();
     }
 
     /**
-     * It is important that multi-point symbols are rendered before single-point symbols.
+     * It is important that multi-point symbols are rendered before single-point symbols. Both are held in the layer's
+     * renderable list, the order is set here.
+     *
+     * When single point clustering is enabled and the camera is farther than the mid distance threshold, the single
+     * point symbols are drawn by the clusterer.
      * @param rc
      */
     @Override
     protected void doRender(RenderContext rc) {
         Renderable renderable;
-        if ((this.count() > 0) && (this.getRenderable(0) != null)) {
+        List<FeatureRenderableMapping> mappingList = this.queryFrameMappings(rc);
+
+        if (!mappingList.isEmpty()) {
             double cameraAltitude = getMapInstance().getWW().getNavigator().getAltitude();
             IGeoBounds bounds = getMapInstance().getMapBounds();
 
-            for (int iIndex = 0; iIndex < this.count() ; iIndex++) {
-                renderable = this.getRenderable(iIndex);
+            for (int iIndex = 0; iIndex < mappingList.size() ; iIndex++) {
+                renderable = mappingList.get(iIndex);
                 try {
                     if (renderable instanceof MilStd2525TacticalGraphic) {
                         ((MilStd2525TacticalGraphic) renderable).render(rc, bounds, cameraAltitude);
@@ -54,18 +60,21 @@ public class MilStdSymbolLayer extends EmpLayer<MilStdSymbol> {
             }
 
         }
-        for (int iIndex = 0; iIndex < this.singlePointList.size(); iIndex++) {
-            renderable = this.singlePointList.get(iIndex);
-            renderable.render(rc);
-        }
-    }
-
-    @Override
-    public boolean removeRenderable(Renderable renderable) {
-        if (super.removeRenderable(renderable)) {
-            return true;
+        if (getMapInstance().isSinglePointClusteringEnabled() &&
+                (getMapInstance().getWW().getNavigator().getAltitude() > getMapInstance().getMidDistanceThreshold())) {
+            if (null == this.clusterer) {
+                this.clusterer = new SinglePointClusterer();
+            }
+            this.clusterer.render(rc, mappingList);
+        } else {
+            for (int iIndex = 0; iIndex < mappingList.size(); iIndex++) {
+                renderable = mappingList.get(iIndex);
+                if (renderable instanceof MilStd2525SinglePoint) {
+                    renderable.render(rc);
+                }
+            }
         }
-        return this.singlePointList.remove(renderable);
+        this.refreshPendingMappings();
     }
 
     @Override
@@ -80,11 +89,10 @@ public class MilStdSymbolLayer extends EmpLayer<MilStdSymbol> {
                 oPos = new GeoPosition();
             }
             mapping = new MilStd2525SinglePoint(getMapInstance(), getMapInstance().getMilStdRenderer(), Position.fromDegrees(oPos.getLatitude(), oPos.getLongitude(), oPos.getAltitude()), feature);
-            singlePointList.add(mapping);
         } else {
             mapping = new MilStd2525TacticalGraphic(feature, getMapInstance());
-            this.addRenderable(mapping);
         }
+        this.addRenderable(mapping);
 
         return mapping;
     }
@@ -97,11 +105,14 @@ public class MilStdSymbolLayer extends EmpLayer<MilStdSymbol> {
             oMapping = getMapInstance().getFeatureHash().get(feature.getGeoId());
             if (feature.isSinglePoint()) {
                 ((MilStd2525SinglePoint) oMapping).updateSymbol(feature);
+                // The position may have changed.
+                this.getSpatialIndex().refresh(oMapping);
             } else {
                 oMapping.setFeature(feature);
             }
         } else {
             oMapping = this.createFeatureMapping(feature);
+            this.addToSpatialIndex(oMapping);
             getMapInstance().getFeatureHash().put(feature.getGeoId(), oMapping);
             if (!feature.isSinglePoint()) {
                 getMapInstance().addToDirtyOnMapMove(feature.getGeoId());
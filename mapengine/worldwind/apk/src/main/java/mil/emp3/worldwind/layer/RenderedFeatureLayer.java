@@ -4,8 +4,9 @@ import android.util.Log;
 
 import org.cmapi.primitives.IGeoBounds;
 
+import java.util.List;
+
 import gov.nasa.worldwind.render.RenderContext;
-import gov.nasa.worldwind.render.Renderable;
 import mil.emp3.api.interfaces.IFeature;
 import mil.emp3.worldwind.feature.FeatureRenderableMapping;
 import mil.emp3.worldwind.MapInstance;
@@ -24,14 +25,15 @@ public class RenderedFeatureLayer extends EmpLayer<IFeature> {
 
     @Override
     protected void doRender(RenderContext rc) {
-        if ((this.count() > 0) && (this.getRenderable(0) != null)) {
+        List<FeatureRenderableMapping> mappingList = this.queryFrameMappings(rc);
+
+        if (!mappingList.isEmpty()) {
             double cameraAltitude = getMapInstance().getWW().getNavigator().getAltitude();
             RenderedFeature feature;
             IGeoBounds bounds = getMapInstance().getMapBounds();
-            java.util.Iterator<Renderable> iterator = this.iterator();
 
-            while (iterator.hasNext()) {
-                feature = (RenderedFeature) iterator.next();
+            for (int index = 0; index < mappingList.size(); index++) {
+                feature = (RenderedFeature) mappingList.get(index);
                 try {
                     feature.render(rc, bounds, cameraAltitude);
                 } catch (Exception var6) {
@@ -39,6 +41,7 @@ public class RenderedFeatureLayer extends EmpLayer<IFeature> {
                 }
             }
         }
+        this.refreshPendingMappings();
     }
 
     @Override
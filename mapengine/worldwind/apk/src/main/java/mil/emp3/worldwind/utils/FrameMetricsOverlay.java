@@ -0,0 +1,98 @@
+package mil.emp3.worldwind.utils;
+
+import android.content.res.Resources;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.drawable.Drawable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import mil.emp3.api.interfaces.IFrameMetrics;
+
+/**
+ * This drawable shows the frame metrics of the map instance as text in the top left corner of the map view. It is
+ * added to the overlay of the WorldWindow and updated on the UI thread.
+ */
+public class FrameMetricsOverlay extends Drawable {
+    private static final double NANOS_PER_MILLI = 1.0e6;
+
+    private final Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint backgroundPaint = new Paint();
+    private final float margin;
+    private final List<String> lines = new ArrayList<>();
+
+    public FrameMetricsOverlay() {
+        float density = Resources.getSystem().getDisplayMetrics().density;
+
+        this.margin = 4 * density;
+        this.textPaint.setColor(0xFFFFFFFF);
+        this.textPaint.setTextSize(11 * density);
+        this.backgroundPaint.setColor(0xA0000000);
+    }
+
+    /**
+     * Replaces the text with the new metrics. Must be called on the UI thread.
+     * @param metrics
+     */
+    public void setMetrics(IFrameMetrics metrics) {
+        this.lines.clear();
+        this.lines.add(String.format(Locale.US, "%.1f fps  frame %.2f ms avg  %.2f ms max", metrics.getFramesPerSecond(),
+                metrics.getAverageFrameTime() / NANOS_PER_MILLI, metrics.getMaxFrameTime() / NANOS_PER_MILLI));
+        for (String layerName : metrics.getLayerNames()) {
+            this.lines.add(String.format(Locale.US, "%s %.2f ms avg  %.2f ms max", layerName,
+                    metrics.getAverageLayerTime(layerName) / NANOS_PER_MILLI, metrics.getMaxLayerTime(layerName) / NANOS_PER_MILLI));
+        }
+        this.lines.add(String.format(Locale.US, "drawn %d  culled %d  regenerated %d (%.2f ms avg)", metrics.getAverageDrawnCount(),
+                metrics.getAverageCulledCount(), metrics.getRegeneratedCount(), metrics.getAverageRegenerateTime() / NANOS_PER_MILLI));
+        this.lines.add(String.format(Locale.US, "icons hit %d  miss %d  alloc %,d B/frame", metrics.getIconCacheHitCount(),
+                metrics.getIconCacheMissCount(), metrics.getAverageAllocatedBytes()));
+        if (metrics.getIconAtlasPageCount() > 0) {
+            this.lines.add(String.format(Locale.US, "atlas %d pages  %.0f%% used  binds %d  icons %d /frame",
+                    metrics.getIconAtlasPageCount(), metrics.getIconAtlasOccupancy() * 100,
+                    metrics.getAverageIconAtlasBindCount(), metrics.getAverageIconAtlasDrawCount()));
+        }
+        this.lines.add(String.format(Locale.US, "tessellation queue %d  %.2f ms avg  %.2f ms max", metrics.getTessellationQueueDepth(),
+                metrics.getAverageTessellationTime() / NANOS_PER_MILLI, metrics.getMaxTessellationTime() / NANOS_PER_MILLI));
+        this.lines.add(String.format(Locale.US, "picks %d  last %.2f ms  max %.2f ms", metrics.getPickCount(),
+                metrics.getLastPickTime() / NANOS_PER_MILLI, metrics.getMaxPickTime() / NANOS_PER_MILLI));
+        this.invalidateSelf();
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+        float lineHeight = this.textPaint.getFontSpacing();
+        float width = 0;
+
+        if (this.lines.isEmpty()) {
+            return;
+        }
+        for (String line : this.lines) {
+            width = Math.max(width, this.textPaint.measureText(line));
+        }
+
+        canvas.drawRect(0, 0, width + (2 * this.margin), (this.lines.size() * lineHeight) + (2 * this.margin), this.backgroundPaint);
+        for (int index = 0; index < this.lines.size(); index++) {
+            canvas.drawText(this.lines.get(index), this.margin, this.margin + ((index + 1) * lineHeight) - this.textPaint.descent(),
+                    this.textPaint);
+        }
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        this.textPaint.setAlpha(alpha);
+    }
+
+    @Override
+    public void setColorFilter(ColorFilter colorFilter) {
+        this.textPaint.setColorFilter(colorFilter);
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.TRANSLUCENT;
+    }
+}
@@ -0,0 +1,115 @@
+package android.util;
+
+import java.util.Arrays;
+
+/**
+ * Mock SparseArray implementation for testing on non android host. The keys are kept sorted, as on android.
+ */
+public class SparseArray<E> implements Cloneable {
+    private int[] keys;
+    private Object[] values;
+    private int size;
+
+    public SparseArray() {
+        this(10);
+    }
+
+    public SparseArray(int initialCapacity) {
+        this.keys = new int[Math.max(1, initialCapacity)];
+        this.values = new Object[this.keys.length];
+        this.size = 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public SparseArray<E> clone() {
+        try {
+            SparseArray<E> clone = (SparseArray<E>) super.clone();
+            clone.keys = this.keys.clone();
+            clone.values = this.values.clone();
+            return clone;
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    public E get(int key) {
+        return this.get(key, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    public E get(int key, E valueIfKeyNotFound) {
+        int index = Arrays.binarySearch(this.keys, 0, this.size, key);
+        return (index < 0) ? valueIfKeyNotFound : (E) this.values[index];
+    }
+
+    public void remove(int key) {
+        int index = Arrays.binarySearch(this.keys, 0, this.size, key);
+
+        if (index >= 0) {
+            System.arraycopy(this.keys, index + 1, this.keys, index, this.size - index - 1);
+            System.arraycopy(this.values, index + 1, this.values, index, this.size - index - 1);
+            this.size--;
+            this.values[this.size] = null;
+        }
+    }
+
+    public void put(int key, E value) {
+        int index = Arrays.binarySearch(this.keys, 0, this.size, key);
+
+        if (index >= 0) {
+            this.values[index] = value;
+            return;
+        }
+        index = ~index;
+        if (this.size == this.keys.length) {
+            this.keys = Arrays.copyOf(this.keys, this.size * 2);
+            this.values = Arrays.copyOf(this.values, this.size * 2);
+        }
+        System.arraycopy(this.keys, index, this.keys, index + 1, this.size - index);
+        System.arraycopy(this.values, index, this.values, index + 1, this.size - index);
+        this.keys[index] = key;
+        this.values[index] = value;
+        this.size++;
+    }
+
+    public void append(int key, E value) {
+        this.put(key, value);
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public int keyAt(int index) {
+        return this.keys[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    public E valueAt(int index) {
+        return (E) this.values[index];
+    }
+
+    public void clear() {
+        Arrays.fill(this.values, 0, this.size, null);
+        this.size = 0;
+    }
+
+    @Override
+    public String toString() {
+        if (this.size == 0) {
+            return "{}";
+        }
+
+        StringBuilder buffer = new StringBuilder(this.size * 28);
+        buffer.append('{');
+        for (int index = 0; index < this.size; index++) {
+            if (index > 0) {
+                buffer.append(", ");
+            }
+            buffer.append(this.keys[index]).append('=').append(this.values[index]);
+        }
+        buffer.append('}');
+        return buffer.toString();
+    }
+}
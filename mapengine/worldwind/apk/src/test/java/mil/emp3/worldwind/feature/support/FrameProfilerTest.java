@@ -0,0 +1,108 @@
+package mil.emp3.worldwind.feature.support;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import mil.emp3.api.interfaces.IFrameMetrics;
+
+public class FrameProfilerTest {
+
+    private static void recordFrame(FrameProfiler profiler, int layerIndex, boolean pickMode) {
+        profiler.beginFrame(pickMode);
+        profiler.layerRendered(layerIndex, profiler.startTimer());
+        profiler.regenerated(profiler.startTimer());
+        profiler.endFrame(10, 5, 2, 1);
+    }
+
+    @Test
+    public void emptyProfiler() {
+        IFrameMetrics metrics = new FrameProfiler().getMetrics(new TessellationQueue.Statistics());
+
+        Assert.assertEquals(0, metrics.getFrameCount());
+        Assert.assertEquals(0, metrics.getSampleCount());
+        Assert.assertEquals(0.0, metrics.getFramesPerSecond(), 0.0);
+        Assert.assertTrue(metrics.getLayerNames().isEmpty());
+    }
+
+    @Test
+    public void pickFramesAreNotRecorded() {
+        FrameProfiler profiler = new FrameProfiler();
+        int layerIndex = profiler.registerLayer("Layer");
+
+        recordFrame(profiler, layerIndex, false);
+        recordFrame(profiler, layerIndex, true);
+        profiler.picked(2000);
+        profiler.picked(1000);
+
+        IFrameMetrics metrics = profiler.getMetrics(new TessellationQueue.Statistics());
+        Assert.assertEquals(1, metrics.getFrameCount());
+        Assert.assertEquals(1, metrics.getSampleCount());
+        Assert.assertEquals(10, metrics.getAverageDrawnCount());
+        Assert.assertEquals(5, metrics.getAverageCulledCount());
+        Assert.assertEquals(1, metrics.getRegeneratedCount());
+        Assert.assertEquals(2, metrics.getIconCacheHitCount());
+        Assert.assertEquals(1, metrics.getIconCacheMissCount());
+        Assert.assertEquals(2, metrics.getPickCount());
+        Assert.assertEquals(1000, metrics.getLastPickTime());
+        Assert.assertEquals(1500, metrics.getAveragePickTime());
+        Assert.assertEquals(2000, metrics.getMaxPickTime());
+    }
+
+    @Test
+    public void ringBufferKeepsTheLastFrames() {
+        FrameProfiler profiler = new FrameProfiler();
+        int layerIndex = profiler.registerLayer("Layer");
+
+        for (int frame = 0; frame < FrameProfiler.CAPACITY + 10; frame++) {
+            recordFrame(profiler, layerIndex, false);
+        }
+
+        IFrameMetrics metrics = profiler.getMetrics(new TessellationQueue.Statistics());
+        Assert.assertEquals(FrameProfiler.CAPACITY + 10, metrics.getFrameCount());
+        Assert.assertEquals(FrameProfiler.CAPACITY, metrics.getSampleCount());
+        Assert.assertEquals(FrameProfiler.CAPACITY * 2, metrics.getIconCacheHitCount());
+        Assert.assertTrue(metrics.getMaxLayerTime("Layer") >= metrics.getAverageLayerTime("Layer"));
+        Assert.assertEquals(0, metrics.getAverageLayerTime("Unknown"));
+    }
+
+    @Test
+    public void iconAtlasIsRecorded() {
+        FrameProfiler profiler = new FrameProfiler();
+
+        // No atlas.
+        recordFrame(profiler, -1, false);
+        IFrameMetrics metrics = profiler.getMetrics(new TessellationQueue.Statistics());
+        Assert.assertEquals(0, metrics.getIconAtlasPageCount());
+        Assert.assertEquals(0.0, metrics.getIconAtlasOccupancy(), 0.0);
+
+        profiler.beginFrame(false);
+        profiler.iconAtlasUsed(1, 100, 400, 3, 50);
+        profiler.endFrame(10, 5, 2, 1);
+        profiler.beginFrame(false);
+        profiler.iconAtlasUsed(2, 400, 800, 5, 150);
+        profiler.endFrame(10, 5, 2, 1);
+        // The atlas of a pick frame is not recorded.
+        profiler.beginFrame(true);
+        profiler.iconAtlasUsed(4, 0, 1600, 100, 100);
+        profiler.endFrame(10, 5, 2, 1);
+
+        metrics = profiler.getMetrics(new TessellationQueue.Statistics());
+        Assert.assertEquals(2, metrics.getIconAtlasPageCount());
+        Assert.assertEquals(0.5, metrics.getIconAtlasOccupancy(), 0.0);
+        Assert.assertEquals((3 + 5) / 3, metrics.getAverageIconAtlasBindCount());
+        Assert.assertEquals((50 + 150) / 3, metrics.getAverageIconAtlasDrawCount());
+    }
+
+    @Test
+    public void layerCountIsBounded() {
+        FrameProfiler profiler = new FrameProfiler();
+
+        for (int index = 0; index < FrameProfiler.MAX_LAYERS; index++) {
+            Assert.assertEquals(index, profiler.registerLayer("Layer" + index));
+        }
+        Assert.assertEquals(-1, profiler.registerLayer("OneTooMany"));
+        // A layer that could not be registered is ignored.
+        recordFrame(profiler, -1, false);
+        Assert.assertEquals(1, profiler.getMetrics(new TessellationQueue.Statistics()).getSampleCount());
+    }
+}
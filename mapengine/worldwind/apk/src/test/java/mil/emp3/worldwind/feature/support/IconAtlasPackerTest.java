@@ -0,0 +1,131 @@
+package mil.emp3.worldwind.feature.support;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class IconAtlasPackerTest {
+    private static final int PAGE_SIZE = 256;
+    private static final int PADDING = 1;
+    private static final int FRAME_LATENCY = 3;
+
+    private static boolean overlap(IconAtlasPacker.Placement first, IconAtlasPacker.Placement second) {
+        return (first.getPage() == second.getPage()) &&
+                (first.getX() - PADDING < second.getX() + second.getWidth() + PADDING) &&
+                (second.getX() - PADDING < first.getX() + first.getWidth() + PADDING) &&
+                (first.getY() - PADDING < second.getY() + second.getHeight() + PADDING) &&
+                (second.getY() - PADDING < first.getY() + first.getHeight() + PADDING);
+    }
+
+    @Test
+    public void iconsArePlacedWithoutOverlap() {
+        IconAtlasPacker packer = new IconAtlasPacker(PAGE_SIZE, 1, PADDING, FRAME_LATENCY);
+        IconAtlasPacker.Placement[] placements = new IconAtlasPacker.Placement[40];
+
+        packer.beginFrame();
+        for (int index = 0; index < placements.length; index++) {
+            // Icons of a few sizes, as icons with and without text modifiers.
+            placements[index] = packer.insert(20 + (index % 3) * 10, 20 + (index % 2) * 12);
+            Assert.assertNotNull(placements[index]);
+            Assert.assertTrue(placements[index].getX() >= PADDING);
+            Assert.assertTrue(placements[index].getY() >= PADDING);
+            Assert.assertTrue(placements[index].getX() + placements[index].getWidth() + PADDING <= PAGE_SIZE);
+            Assert.assertTrue(placements[index].getY() + placements[index].getHeight() + PADDING <= PAGE_SIZE);
+        }
+        for (int first = 0; first < placements.length; first++) {
+            for (int second = first + 1; second < placements.length; second++) {
+                Assert.assertFalse("Icons " + first + " and " + second + " overlap", overlap(placements[first], placements[second]));
+            }
+        }
+
+        Assert.assertEquals(1, packer.getPageCount());
+        Assert.assertTrue(packer.getUsedPixels() > 0);
+        Assert.assertTrue(packer.getUsedPixels() < packer.getCapacityPixels());
+    }
+
+    @Test
+    public void iconsLargerThanAPageAreNotPlaced() {
+        IconAtlasPacker packer = new IconAtlasPacker(PAGE_SIZE, 1, PADDING, FRAME_LATENCY);
+
+        packer.beginFrame();
+        Assert.assertNull(packer.insert(PAGE_SIZE, 10));
+        Assert.assertNull(packer.insert(10, PAGE_SIZE - 1));
+        Assert.assertNotNull(packer.insert(PAGE_SIZE - 2 * PADDING, 10));
+        Assert.assertEquals(0, packer.getEvictionCount());
+    }
+
+    @Test
+    public void pagesAreAddedUntilTheLimit() {
+        IconAtlasPacker packer = new IconAtlasPacker(PAGE_SIZE, 2, PADDING, FRAME_LATENCY);
+
+        packer.beginFrame();
+        // Each icon fills most of a page.
+        Assert.assertEquals(0, packer.insert(200, 200).getPage());
+        Assert.assertEquals(1, packer.insert(200, 200).getPage());
+        // Both pages are used in the current frame, so neither can be emptied.
+        Assert.assertNull(packer.insert(200, 200));
+        Assert.assertEquals(2, packer.getPageCount());
+        Assert.assertEquals(0, packer.getEvictionCount());
+    }
+
+    @Test
+    public void leastRecentlyUsedPageIsEmptied() {
+        IconAtlasPacker packer = new IconAtlasPacker(PAGE_SIZE, 2, PADDING, FRAME_LATENCY);
+
+        packer.beginFrame();
+        IconAtlasPacker.Placement first = packer.insert(200, 200);
+        IconAtlasPacker.Placement second = packer.insert(200, 200);
+
+        // The first page is drawn on every frame, the second one is not.
+        for (int frame = 0; frame <= FRAME_LATENCY; frame++) {
+            packer.beginFrame();
+            Assert.assertTrue(packer.touch(first));
+        }
+
+        IconAtlasPacker.Placement third = packer.insert(200, 200);
+        Assert.assertNotNull(third);
+        Assert.assertEquals(second.getPage(), third.getPage());
+        Assert.assertEquals(1, packer.getEvictionCount());
+        Assert.assertTrue(packer.isCurrent(first));
+        Assert.assertFalse(packer.isCurrent(second));
+        Assert.assertTrue(packer.isCurrent(third));
+        Assert.assertFalse(packer.touch(second));
+        Assert.assertEquals(2 * 200 * 200, packer.getUsedPixels());
+    }
+
+    @Test
+    public void pageInUseByPendingFramesIsKept() {
+        IconAtlasPacker packer = new IconAtlasPacker(PAGE_SIZE, 1, PADDING, FRAME_LATENCY);
+
+        packer.beginFrame();
+        IconAtlasPacker.Placement first = packer.insert(200, 200);
+
+        // The page was used within the frames that may not be drawn yet.
+        for (int frame = 0; frame < FRAME_LATENCY; frame++) {
+            packer.beginFrame();
+            Assert.assertNull(packer.insert(200, 200));
+        }
+        Assert.assertTrue(packer.isCurrent(first));
+
+        packer.beginFrame();
+        Assert.assertNotNull(packer.insert(200, 200));
+        Assert.assertFalse(packer.isCurrent(first));
+    }
+
+    @Test
+    public void clearedPageIsReused() {
+        IconAtlasPacker packer = new IconAtlasPacker(PAGE_SIZE, 1, PADDING, FRAME_LATENCY);
+
+        packer.beginFrame();
+        IconAtlasPacker.Placement first = packer.insert(100, 100);
+        packer.clearPage(first.getPage());
+
+        Assert.assertFalse(packer.isCurrent(first));
+        Assert.assertEquals(0, packer.getUsedPixels());
+
+        IconAtlasPacker.Placement second = packer.insert(100, 100);
+        Assert.assertEquals(first.getX(), second.getX());
+        Assert.assertEquals(first.getY(), second.getY());
+        Assert.assertTrue(packer.isCurrent(second));
+        Assert.assertEquals(0, packer.getEvictionCount());
+    }
+}
@@ -0,0 +1,104 @@
+package mil.emp3.worldwind.feature.support;
+
+import android.util.Log;
+
+import org.cmapi.primitives.IGeoAltitudeMode;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.SuppressStaticInitializationFor;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.shape.Placemark;
+import mil.emp3.api.MilStdSymbol;
+import mil.emp3.api.enums.IconSizeEnum;
+import mil.emp3.mapengine.interfaces.IMilStdRenderer;
+import mil.emp3.worldwind.MapInstance;
+import mil.emp3.worldwind.feature.MilStd2525SinglePoint;
+
+/**
+ * Counts the bytes allocated by the level of detail selector on frames where no symbol changes its level of detail.
+ * The map instance, the renderer and the symbols are mocks, they are only called when the symbols are created. The
+ * measure depends on the JVM, the test is ignored by default.
+ */
+@RunWith(PowerMockRunner.class)
+@PowerMockIgnore({"javax.management.*", "com.sun.management.*"})
+@SuppressStaticInitializationFor({"mil.emp3.worldwind.MapInstance", "mil.emp3.worldwind.feature.FeatureRenderableMapping"})
+public class MilStd2525LevelOfDetailSelectorBenchmarkTest {
+    private static String TAG = MilStd2525LevelOfDetailSelectorBenchmarkTest.class.getSimpleName();
+    private static final int SYMBOL_COUNT = 10000;
+    private static final int FRAMES = 60;
+    // Far enough to use the low level of detail.
+    private static final double CAMERA_DISTANCE = 100000;
+
+    private MilStd2525LevelOfDetailSelector selector;
+    private List<Placemark> placemarks;
+
+    @Before
+    public void setUp() throws Exception {
+        MapInstance mapInstance = Mockito.mock(MapInstance.class);
+        IMilStdRenderer renderer = Mockito.mock(IMilStdRenderer.class);
+
+        Mockito.when(mapInstance.getIconSizeSetting()).thenReturn(IconSizeEnum.SMALL);
+        Mockito.when(mapInstance.getLevelOfDetailStatistics()).thenReturn(new LevelOfDetailStatistics());
+        // Anything other than NoBitmapCache keeps the selector away from the WW render cache.
+        Mockito.when(renderer.getBitmapCacheName()).thenReturn("BenchmarkBitmapCache");
+
+        selector = MilStd2525LevelOfDetailSelector.initInstance(renderer);
+        placemarks = new ArrayList<>(SYMBOL_COUNT);
+        for (int index = 0; index < SYMBOL_COUNT; index++) {
+            MilStdSymbol symbol = Mockito.mock(MilStdSymbol.class);
+
+            Mockito.when(symbol.getSymbolCode()).thenReturn("SFGPUCI----D---");
+            Mockito.when(symbol.getAltitudeMode()).thenReturn(IGeoAltitudeMode.AltitudeMode.CLAMP_TO_GROUND);
+
+            MilStd2525SinglePoint singlePoint = new MilStd2525SinglePoint(mapInstance, renderer,
+                    Position.fromDegrees(40.0 + (index * .0001), -74.0, 0), symbol);
+            placemarks.add((Placemark) singlePoint.getRenderableList().get(0));
+        }
+    }
+
+    private void renderFrame() {
+        for (int index = 0; index < placemarks.size(); index++) {
+            selector.selectLevelOfDetail(null, placemarks.get(index), CAMERA_DISTANCE);
+        }
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    @Ignore
+    @Test
+    public void steadyStateFramesDoNotAllocate() throws Exception {
+        // The first frame selects the level of detail of every symbol, the next ones warm up the JIT.
+        for (int frame = 0; frame < FRAMES; frame++) {
+            renderFrame();
+        }
+
+        long allocated = allocatedBytes();
+        long start = System.nanoTime();
+        for (int frame = 0; frame < FRAMES; frame++) {
+            renderFrame();
+        }
+        long elapsed = System.nanoTime() - start;
+        // Reading the counter allocates a little, measure it so it is not blamed on the selector.
+        long counterOverhead = allocatedBytes();
+        counterOverhead = allocatedBytes() - counterOverhead;
+        allocated = allocatedBytes() - allocated - (2 * counterOverhead);
+
+        Log.i(TAG, "select level of detail " + SYMBOL_COUNT + " symbols " + FRAMES + " frames " + (elapsed / FRAMES / 1000) +
+                " us/frame " + allocated + " bytes allocated");
+        Assert.assertTrue("Steady state frames should not allocate, " + allocated + " bytes allocated",
+                allocated < (FRAMES * 64));
+    }
+}
@@ -0,0 +1,141 @@
+package mil.emp3.worldwind.feature.support;
+
+import org.cmapi.primitives.IGeoAltitudeMode;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.powermock.core.classloader.annotations.SuppressStaticInitializationFor;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.render.RenderContext;
+import gov.nasa.worldwind.shape.Placemark;
+import mil.emp3.api.MilStdSymbol;
+import mil.emp3.api.enums.IconSizeEnum;
+import mil.emp3.mapengine.interfaces.IMilStdRenderer;
+import mil.emp3.worldwind.MapInstance;
+import mil.emp3.worldwind.feature.MilStd2525SinglePoint;
+
+/**
+ * Verifies the per-frame budget of icon changes and the hysteresis of the level of detail thresholds. The map
+ * instance, the renderer and the symbols are mocks.
+ */
+@RunWith(PowerMockRunner.class)
+@SuppressStaticInitializationFor({"mil.emp3.worldwind.MapInstance", "mil.emp3.worldwind.feature.FeatureRenderableMapping"})
+public class MilStd2525LevelOfDetailSelectorTest {
+    private static final int BUDGET = 5;
+    private static final int OVER_BUDGET = 3;
+    private static final double FAR_DISTANCE = 100000;
+    private static final double NEAR_DISTANCE = 1000;
+
+    private MilStd2525LevelOfDetailSelector selector;
+    private MapInstance mapInstance;
+    private IMilStdRenderer renderer;
+    private LevelOfDetailStatistics statistics;
+    private RenderContext rc;
+    private int maxIconChangesPerFrame;
+
+    @Before
+    public void setUp() throws Exception {
+        mapInstance = Mockito.mock(MapInstance.class);
+        renderer = Mockito.mock(IMilStdRenderer.class);
+        statistics = new LevelOfDetailStatistics();
+        rc = Mockito.mock(RenderContext.class);
+
+        Mockito.when(mapInstance.getIconSizeSetting()).thenReturn(IconSizeEnum.SMALL);
+        Mockito.when(mapInstance.getLevelOfDetailStatistics()).thenReturn(statistics);
+        // Anything other than NoBitmapCache keeps the selector away from the WW render cache.
+        Mockito.when(renderer.getBitmapCacheName()).thenReturn("TestBitmapCache");
+
+        selector = MilStd2525LevelOfDetailSelector.initInstance(renderer);
+        maxIconChangesPerFrame = MilStd2525LevelOfDetailSelector.MAX_ICON_CHANGES_PER_FRAME;
+        MilStd2525LevelOfDetailSelector.setMaxIconChangesPerFrame(BUDGET);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        MilStd2525LevelOfDetailSelector.setMaxIconChangesPerFrame(maxIconChangesPerFrame);
+    }
+
+    private MilStd2525SinglePoint createSinglePoint() {
+        MilStdSymbol symbol = Mockito.mock(MilStdSymbol.class);
+
+        Mockito.when(symbol.getSymbolCode()).thenReturn("SFGPUCI----D---");
+        Mockito.when(symbol.getAltitudeMode()).thenReturn(IGeoAltitudeMode.AltitudeMode.CLAMP_TO_GROUND);
+        return new MilStd2525SinglePoint(mapInstance, renderer, Position.fromDegrees(40.0, -74.0, 0), symbol);
+    }
+
+    private void renderFrame(List<MilStd2525SinglePoint> singlePoints, double cameraDistance) {
+        statistics.beginFrame();
+        for (MilStd2525SinglePoint singlePoint : singlePoints) {
+            selector.selectLevelOfDetail(rc, (Placemark) singlePoint.getRenderableList().get(0), cameraDistance);
+        }
+    }
+
+    private int countAtLevel(List<MilStd2525SinglePoint> singlePoints, int levelOfDetail) {
+        int count = 0;
+
+        for (MilStd2525SinglePoint singlePoint : singlePoints) {
+            if (singlePoint.getLastLevelOfDetail() == levelOfDetail) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void iconChangesAreLimitedPerFrame() throws Exception {
+        List<MilStd2525SinglePoint> singlePoints = new ArrayList<>();
+        for (int index = 0; index < (BUDGET + OVER_BUDGET); index++) {
+            singlePoints.add(createSinglePoint());
+        }
+
+        // The first selection of a symbol is not limited, a symbol must be drawn.
+        renderFrame(singlePoints, FAR_DISTANCE);
+        Assert.assertEquals(BUDGET + OVER_BUDGET, countAtLevel(singlePoints, MilStd2525LevelOfDetailSelector.LOW_LEVEL_OF_DETAIL));
+        Mockito.verify(rc, Mockito.never()).requestRedraw();
+
+        renderFrame(singlePoints, NEAR_DISTANCE);
+        Assert.assertEquals(BUDGET, statistics.getIconChangeCount());
+        Assert.assertEquals(BUDGET, countAtLevel(singlePoints, MilStd2525LevelOfDetailSelector.HIGHEST_LEVEL_OF_DETAIL));
+        Assert.assertEquals(OVER_BUDGET, countAtLevel(singlePoints, MilStd2525LevelOfDetailSelector.LOW_LEVEL_OF_DETAIL));
+        Mockito.verify(rc, Mockito.atLeastOnce()).requestRedraw();
+
+        // The symbols over the budget change on the next frame.
+        renderFrame(singlePoints, NEAR_DISTANCE);
+        Assert.assertEquals(OVER_BUDGET, statistics.getIconChangeCount());
+        Assert.assertEquals(BUDGET + OVER_BUDGET, countAtLevel(singlePoints, MilStd2525LevelOfDetailSelector.HIGHEST_LEVEL_OF_DETAIL));
+    }
+
+    @Test
+    public void thresholdsHaveHysteresis() throws Exception {
+        List<MilStd2525SinglePoint> singlePoints = new ArrayList<>();
+        singlePoints.add(createSinglePoint());
+        MilStd2525SinglePoint singlePoint = singlePoints.get(0);
+        double farThreshold = MilStd2525LevelOfDetailSelector.FAR_THRESHOLD;
+        double hysteresis = MilStd2525LevelOfDetailSelector.HYSTERESIS;
+
+        renderFrame(singlePoints, farThreshold * 2);
+        Assert.assertEquals(MilStd2525LevelOfDetailSelector.LOW_LEVEL_OF_DETAIL, singlePoint.getLastLevelOfDetail());
+
+        // Just inside the far threshold the symbol keeps the low level of detail.
+        renderFrame(singlePoints, farThreshold * (1.0 - (hysteresis / 2)));
+        Assert.assertEquals(MilStd2525LevelOfDetailSelector.LOW_LEVEL_OF_DETAIL, singlePoint.getLastLevelOfDetail());
+
+        renderFrame(singlePoints, farThreshold * (1.0 - (hysteresis * 2)));
+        Assert.assertEquals(MilStd2525LevelOfDetailSelector.MEDIUM_LEVEL_OF_DETAIL, singlePoint.getLastLevelOfDetail());
+
+        // Just outside the far threshold the symbol keeps the medium level of detail.
+        renderFrame(singlePoints, farThreshold * (1.0 + (hysteresis / 2)));
+        Assert.assertEquals(MilStd2525LevelOfDetailSelector.MEDIUM_LEVEL_OF_DETAIL, singlePoint.getLastLevelOfDetail());
+
+        renderFrame(singlePoints, farThreshold * (1.0 + (hysteresis * 2)));
+        Assert.assertEquals(MilStd2525LevelOfDetailSelector.LOW_LEVEL_OF_DETAIL, singlePoint.getLastLevelOfDetail());
+    }
+}
@@ -0,0 +1,153 @@
+package mil.emp3.worldwind.feature.support;
+
+import android.util.Log;
+import android.util.SparseArray;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+
+import mil.emp3.mapengine.api.MilStdSymbolKey;
+
+/**
+ * Compares the string cache keys built from SparseArray.toString with MilStdSymbolKey, for the construction of a key
+ * and for a cache lookup. The modifiers and attributes are typical of a unit with labels. The timing and allocation
+ * measure depends on the JVM, it is ignored by default.
+ */
+public class MilStdSymbolKeyBenchmarkTest {
+    private static String TAG = MilStdSymbolKeyBenchmarkTest.class.getSimpleName();
+    private static final int SYMBOL_COUNT = 1000;
+    private static final int ITERATIONS = 100;
+
+    private String[] symbolCodes;
+    private SparseArray<String>[] modifiers;
+    private SparseArray<String> attributes;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        symbolCodes = new String[SYMBOL_COUNT];
+        modifiers = new SparseArray[SYMBOL_COUNT];
+        for (int index = 0; index < SYMBOL_COUNT; index++) {
+            symbolCodes[index] = "SFGPUCI----D---";
+            modifiers[index] = new SparseArray<>();
+            modifiers[index].put(9, "Unit " + index);       // Unique designation
+            modifiers[index].put(11, "1-2 IN");             // Higher formation
+            modifiers[index].put(20, "Staff comments");
+        }
+        attributes = new SparseArray<>();
+        attributes.put(0, "ff00ff00");                      // Fill color
+        attributes.put(1, "ff000000");                      // Line color
+        attributes.put(6, "35");                            // Pixel size
+    }
+
+    private static String stringKey(String symbolCode, SparseArray oModifiers, SparseArray oAttr) {
+        StringBuilder keyBuilder = new StringBuilder();
+        keyBuilder.append(symbolCode);
+        keyBuilder.append(oModifiers);
+        keyBuilder.append(oAttr);
+        return keyBuilder.toString();
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    @Test
+    public void keysAreEqualForTheSameAppearance() {
+        SparseArray<String> copy = modifiers[1].clone();
+        MilStdSymbolKey key = MilStdSymbolKey.create(symbolCodes[1], modifiers[1], attributes);
+
+        Assert.assertEquals(key, MilStdSymbolKey.create(symbolCodes[1], copy, attributes.clone()));
+        Assert.assertEquals(key.hashCode(), MilStdSymbolKey.create(symbolCodes[1], copy, attributes.clone()).hashCode());
+        Assert.assertTrue(key.matches(symbolCodes[1], copy, attributes));
+        Assert.assertEquals(stringKey(symbolCodes[1], modifiers[1], attributes), key.toString());
+
+        copy.put(9, "Changed");
+        Assert.assertFalse(key.matches(symbolCodes[1], copy, attributes));
+        Assert.assertNotEquals(key, MilStdSymbolKey.create(symbolCodes[1], copy, attributes));
+        Assert.assertNotEquals(key, MilStdSymbolKey.create(symbolCodes[2], modifiers[2], attributes));
+
+        // Null arrays are a different icon than empty ones.
+        Assert.assertNotEquals(MilStdSymbolKey.create(symbolCodes[1], null, null),
+                MilStdSymbolKey.create(symbolCodes[1], new SparseArray<String>(), new SparseArray<String>()));
+        // The string of a key is the key of the disk store, it must differ when the keys do.
+        Assert.assertNotEquals(MilStdSymbolKey.create(symbolCodes[1], null, null).toString(),
+                MilStdSymbolKey.create(symbolCodes[1], new SparseArray<String>(), new SparseArray<String>()).toString());
+        Assert.assertNotEquals(MilStdSymbolKey.create(symbolCodes[1], null, attributes).toString(),
+                MilStdSymbolKey.create(symbolCodes[1], new SparseArray<String>(), attributes).toString());
+        Assert.assertEquals(stringKey(symbolCodes[1], null, attributes), key.withoutModifiers().toString());
+        Assert.assertEquals(MilStdSymbolKey.create(symbolCodes[1], null, attributes), key.withoutModifiers());
+        Assert.assertNull(key.withoutModifiers().createModifiers());
+        Assert.assertEquals(attributes.toString(), key.createAttributes().toString());
+    }
+
+    @Ignore
+    @Test
+    public void keyConstructionAndLookup() {
+        HashMap<String, Object> stringCache = new HashMap<>();
+        HashMap<MilStdSymbolKey, Object> keyCache = new HashMap<>();
+        MilStdSymbolKey[] keys = new MilStdSymbolKey[SYMBOL_COUNT];
+        int found = 0;
+
+        for (int index = 0; index < SYMBOL_COUNT; index++) {
+            keys[index] = MilStdSymbolKey.create(symbolCodes[index], modifiers[index], attributes);
+            stringCache.put(stringKey(symbolCodes[index], modifiers[index], attributes), keys[index]);
+            keyCache.put(keys[index], keys[index]);
+        }
+
+        // Warm up the JIT.
+        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+            for (int index = 0; index < SYMBOL_COUNT; index++) {
+                found += (stringCache.get(stringKey(symbolCodes[index], modifiers[index], attributes)) != null) ? 1 : 0;
+                found += (keyCache.get(MilStdSymbolKey.create(symbolCodes[index], modifiers[index], attributes)) != null) ? 1 : 0;
+                found += (keyCache.get(keys[index]) != null) ? 1 : 0;
+                found += keys[index].matches(symbolCodes[index], modifiers[index], attributes) ? 1 : 0;
+            }
+        }
+        Assert.assertEquals(4 * ITERATIONS * SYMBOL_COUNT, found);
+
+        long allocated = allocatedBytes();
+        long start = System.nanoTime();
+        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+            for (int index = 0; index < SYMBOL_COUNT; index++) {
+                stringCache.get(stringKey(symbolCodes[index], modifiers[index], attributes));
+            }
+        }
+        long stringTime = System.nanoTime() - start;
+        long stringBytes = allocatedBytes() - allocated;
+
+        allocated = allocatedBytes();
+        start = System.nanoTime();
+        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+            for (int index = 0; index < SYMBOL_COUNT; index++) {
+                keyCache.get(MilStdSymbolKey.create(symbolCodes[index], modifiers[index], attributes));
+            }
+        }
+        long createTime = System.nanoTime() - start;
+        long createBytes = allocatedBytes() - allocated;
+
+        allocated = allocatedBytes();
+        start = System.nanoTime();
+        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+            for (int index = 0; index < SYMBOL_COUNT; index++) {
+                keyCache.get(keys[index]);
+                keys[index].matches(symbolCodes[index], modifiers[index], attributes);
+            }
+        }
+        long keptTime = System.nanoTime() - start;
+        long keptBytes = allocatedBytes() - allocated;
+
+        int lookups = ITERATIONS * SYMBOL_COUNT;
+        Log.i(TAG, "string key " + (stringTime / lookups) + " ns " + (stringBytes / lookups) + " bytes per lookup");
+        Log.i(TAG, "created key " + (createTime / lookups) + " ns " + (createBytes / lookups) + " bytes per lookup");
+        Log.i(TAG, "kept key and match " + (keptTime / lookups) + " ns " + (keptBytes / lookups) + " bytes per lookup");
+
+        Assert.assertTrue("A created key should allocate less than a string key", createBytes < stringBytes);
+        Assert.assertTrue("A kept key should not allocate, " + keptBytes + " bytes allocated", keptBytes < (lookups / 10));
+    }
+}
@@ -0,0 +1,99 @@
+package mil.emp3.worldwind.feature.support;
+
+import android.util.Log;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.core.classloader.annotations.SuppressStaticInitializationFor;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import mil.emp3.api.interfaces.IFeature;
+import mil.emp3.worldwind.MapInstance;
+import mil.emp3.worldwind.feature.FeatureRenderableMapping;
+import mil.emp3.worldwind.feature.Tessellation;
+
+/**
+ * Verifies that a tessellation that fails resolves its generation, so the mapping is not rendered and re-queued
+ * forever.
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(Log.class)
+@SuppressStaticInitializationFor({"mil.emp3.worldwind.MapInstance", "mil.emp3.worldwind.feature.FeatureRenderableMapping"})
+public class TessellationQueueTest {
+    private static final long TIMEOUT = 5000;
+
+    private TessellationQueue queue;
+    private IFeature feature;
+
+    private static class FailingMapping extends FeatureRenderableMapping<IFeature> {
+        private final boolean throwing;
+
+        private FailingMapping(IFeature feature, MapInstance mapInstance, boolean throwing) {
+            super(feature, mapInstance);
+            this.throwing = throwing;
+        }
+
+        @Override
+        public Tessellation tessellate() {
+            if (this.throwing) {
+                throw new IllegalStateException("The renderer failed");
+            }
+            return null;
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        PowerMockito.mockStatic(Log.class);
+        queue = new TessellationQueue(Mockito.mock(MapInstance.class));
+        feature = Mockito.mock(IFeature.class);
+        Mockito.when(feature.getName()).thenReturn("failing");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        queue.shutdown();
+    }
+
+    private void tessellate(FeatureRenderableMapping mapping, long failedCount) throws Exception {
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+
+        queue.submit(mapping);
+        while (queue.getStatistics().getFailedCount() < failedCount) {
+            Assert.assertTrue("The tessellation should complete", System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private void failureResolvesGeneration(boolean throwing) throws Exception {
+        FeatureRenderableMapping mapping = new FailingMapping(feature, null, throwing);
+
+        mapping.setDirty(false);
+        tessellate(mapping, 1);
+        Assert.assertFalse("A failed tessellation must not keep the mapping pending", mapping.needsRender());
+        Assert.assertTrue(mapping.canRetryTessellation());
+
+        for (int failure = 2; failure <= FeatureRenderableMapping.MAX_TESSELLATION_FAILURES; failure++) {
+            tessellate(mapping, failure);
+        }
+        Assert.assertFalse(mapping.needsRender());
+        Assert.assertFalse("The mapping should no longer be re-rendered on map moves", mapping.canRetryTessellation());
+        Assert.assertEquals(0, queue.getStatistics().getCompletedCount());
+    }
+
+    @Test
+    public void rendererThrows() throws Exception {
+        failureResolvesGeneration(true);
+    }
+
+    @Test
+    public void rendererReturnsNothing() throws Exception {
+        failureResolvesGeneration(false);
+    }
+}
@@ -0,0 +1,70 @@
+package mil.emp3.worldwind.feature.support;
+
+import org.cmapi.primitives.GeoBounds;
+import org.cmapi.primitives.IGeoBounds;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TessellationViewTest {
+    private static final double ALTITUDE = 100000;
+
+    private static IGeoBounds bounds(double south, double west, double north, double east) {
+        IGeoBounds bounds = new GeoBounds();
+
+        bounds.setSouth(south);
+        bounds.setWest(west);
+        bounds.setNorth(north);
+        bounds.setEast(east);
+        return bounds;
+    }
+
+    private static RenderableExtent extent(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude) {
+        return new RenderableExtent().union(minLatitude, minLongitude).union(maxLatitude, maxLongitude);
+    }
+
+    @Test
+    public void unknownViewIsNotCurrent() {
+        TessellationView view = new TessellationView();
+
+        Assert.assertFalse(view.isCurrent(bounds(0, 0, 10, 10), ALTITUDE));
+
+        view.set(null, ALTITUDE, extent(1, 1, 2, 2));
+        Assert.assertFalse(view.isCurrent(bounds(0, 0, 10, 10), ALTITUDE));
+    }
+
+    @Test
+    public void unclippedOutputSurvivesPan() {
+        TessellationView view = new TessellationView();
+
+        view.set(bounds(0, 0, 10, 10), ALTITUDE, extent(4, 4, 6, 6));
+        Assert.assertTrue(view.isCurrent(bounds(2, 2, 12, 12), ALTITUDE * 1.1));
+        // Zoomed out past the tolerance.
+        Assert.assertFalse(view.isCurrent(bounds(-10, -10, 20, 20), ALTITUDE * 2));
+    }
+
+    @Test
+    public void clippedOutputSurvivesZoomInOnly() {
+        TessellationView view = new TessellationView();
+
+        view.set(bounds(0, 0, 10, 10), ALTITUDE, extent(-5, -5, 6, 6));
+        Assert.assertTrue(view.isCurrent(bounds(1, 1, 9, 9), ALTITUDE * 0.9));
+        Assert.assertFalse(view.isCurrent(bounds(-2, -2, 8, 8), ALTITUDE));
+    }
+
+    @Test
+    public void unclippedOutputOutOfViewIsDeferred() {
+        TessellationView view = new TessellationView();
+
+        view.set(bounds(0, 0, 10, 10), ALTITUDE, extent(4, 4, 6, 6));
+        Assert.assertTrue(view.isCurrent(bounds(20, 20, 40, 40), ALTITUDE * 3));
+        Assert.assertFalse(view.isCurrent(bounds(0, 0, 30, 30), ALTITUDE * 3));
+    }
+
+    @Test
+    public void dateLineIsNeverCurrent() {
+        TessellationView view = new TessellationView();
+
+        view.set(bounds(0, 170, 10, -170), ALTITUDE, extent(4, 175, 6, 176));
+        Assert.assertFalse(view.isCurrent(bounds(0, 170, 10, -170), ALTITUDE));
+    }
+}
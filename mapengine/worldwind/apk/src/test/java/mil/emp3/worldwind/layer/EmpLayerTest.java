@@ -0,0 +1,96 @@
+package mil.emp3.worldwind.layer;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.powermock.core.classloader.annotations.SuppressStaticInitializationFor;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import gov.nasa.worldwind.render.Renderable;
+import mil.emp3.api.interfaces.IFeature;
+import mil.emp3.worldwind.MapInstance;
+import mil.emp3.worldwind.feature.FeatureRenderableMapping;
+import mil.emp3.worldwind.feature.support.FrameProfiler;
+
+/**
+ * Verifies that the index of the renderables of a layer stays consistent with the list, the removal of a renderable
+ * depends on it.
+ */
+@RunWith(PowerMockRunner.class)
+@SuppressStaticInitializationFor("mil.emp3.worldwind.MapInstance")
+public class EmpLayerTest {
+    private EmpLayer<IFeature> layer;
+    private Renderable first;
+    private Renderable second;
+    private Renderable third;
+
+    private static class TestLayer extends EmpLayer<IFeature> {
+        private TestLayer(MapInstance mapInstance) {
+            super("Test", mapInstance);
+        }
+
+        @Override
+        protected FeatureRenderableMapping createFeatureMapping(IFeature feature) {
+            return null;
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        MapInstance mapInstance = Mockito.mock(MapInstance.class);
+
+        Mockito.when(mapInstance.getFrameProfiler()).thenReturn(new FrameProfiler());
+        layer = new TestLayer(mapInstance);
+        first = Mockito.mock(Renderable.class);
+        second = Mockito.mock(Renderable.class);
+        third = Mockito.mock(Renderable.class);
+        layer.addRenderable(first);
+        layer.addRenderable(second);
+        layer.addRenderable(third);
+    }
+
+    private void assertIndexed() {
+        for (int index = 0; index < layer.count(); index++) {
+            Assert.assertEquals(index, layer.indexOfRenderable(layer.getRenderable(index)));
+        }
+    }
+
+    @Test
+    public void addTwice() {
+        layer.addRenderable(second);
+        Assert.assertEquals(3, layer.count());
+        assertIndexed();
+    }
+
+    @Test
+    public void removeMovesTheLastRenderable() {
+        Assert.assertTrue(layer.removeRenderable(first));
+        Assert.assertFalse(layer.removeRenderable(first));
+        Assert.assertEquals(2, layer.count());
+        Assert.assertSame(third, layer.getRenderable(0));
+        assertIndexed();
+    }
+
+    @Test
+    public void setRenderable() {
+        Renderable other = Mockito.mock(Renderable.class);
+
+        Assert.assertSame(second, layer.setRenderable(1, other));
+        Assert.assertEquals(-1, layer.indexOfRenderable(second));
+        assertIndexed();
+
+        // A renderable already in the layer is not added again.
+        Assert.assertNull(layer.setRenderable(0, third));
+        Assert.assertSame(other, layer.setRenderable(1, other));
+        Assert.assertEquals(3, layer.count());
+        assertIndexed();
+
+        Assert.assertTrue(layer.removeRenderable(third));
+        Assert.assertTrue(layer.removeRenderable(first));
+        Assert.assertEquals(1, layer.count());
+        Assert.assertSame(other, layer.getRenderable(0));
+        assertIndexed();
+    }
+}
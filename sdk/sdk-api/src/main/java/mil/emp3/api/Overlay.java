@@ -90,6 +90,13 @@ public class Overlay extends Container implements IOverlay {
         return storageManager.getChildFeatures(this);
     }
 
+    @Override
+    public void applyFeatures(List<IFeature> features)
+            throws EMP_Exception {
+        if((null == features) || (0 == features.size())) return;
+        storageManager.apply(features);
+    }
+
     @Override
     public void addFeature(IFeature feature, boolean visible)
             throws EMP_Exception {
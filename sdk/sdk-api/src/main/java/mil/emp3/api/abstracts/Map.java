@@ -31,6 +31,7 @@ import mil.emp3.api.interfaces.IContainer;
 import mil.emp3.api.interfaces.IContainerSet;
 import mil.emp3.api.interfaces.IEmpPropertyList;
 import mil.emp3.api.interfaces.IFeature;
+import mil.emp3.api.interfaces.IFrameMetrics;
 import mil.emp3.api.interfaces.ILookAt;
 import mil.emp3.api.interfaces.IMap;
 import mil.emp3.api.interfaces.IMapService;
@@ -168,6 +169,13 @@ public abstract class Map extends Container implements IMap {
         return storageManager.getChildFeatures(this);
     }
 
+    @Override
+    public void applyFeatures(List<IFeature> features)
+            throws EMP_Exception {
+        if((null == features) || (0 == features.size())) return;
+        storageManager.apply(features);
+    }
+
     @Override
     public List<IOverlay> getAllOverlays() {
         return storageManager.getChildOverlays(this);
@@ -646,4 +654,64 @@ public abstract class Map extends Container implements IMap {
     public int getBackgroundBrightness() {
         return storageManager.getMapInstance(this).getBackgroundBrightness();
     }
+
+    @Override
+    public void setDistanceThresholdHysteresis(double dValue) {
+        storageManager.getMapInstance(this).setDistanceThresholdHysteresis(Math.min(1.0, Math.max(0.0, dValue)));
+    }
+
+    @Override
+    public double getDistanceThresholdHysteresis() {
+        return storageManager.getMapInstance(this).getDistanceThresholdHysteresis();
+    }
+
+    @Override
+    public void setMaxLevelOfDetailChangesPerFrame(int iValue) {
+        storageManager.getMapInstance(this).setMaxLevelOfDetailChangesPerFrame(iValue);
+    }
+
+    @Override
+    public int getMaxLevelOfDetailChangesPerFrame() {
+        return storageManager.getMapInstance(this).getMaxLevelOfDetailChangesPerFrame();
+    }
+
+    @Override
+    public void setSinglePointClustering(boolean enable) {
+        storageManager.getMapInstance(this).setSinglePointClustering(enable);
+    }
+
+    @Override
+    public boolean isSinglePointClusteringEnabled() {
+        return storageManager.getMapInstance(this).isSinglePointClusteringEnabled();
+    }
+
+    @Override
+    public void setIconAtlas(boolean enable) {
+        storageManager.getMapInstance(this).setIconAtlas(enable);
+    }
+
+    @Override
+    public boolean isIconAtlasEnabled() {
+        return storageManager.getMapInstance(this).isIconAtlasEnabled();
+    }
+
+    @Override
+    public IFrameMetrics getFrameMetrics() {
+        return storageManager.getMapInstance(this).getFrameMetrics();
+    }
+
+    @Override
+    public void setFrameMetricsOverlay(boolean visible) {
+        storageManager.getMapInstance(this).setFrameMetricsOverlay(visible);
+    }
+
+    @Override
+    public boolean isFrameMetricsOverlayVisible() {
+        return storageManager.getMapInstance(this).isFrameMetricsOverlayVisible();
+    }
+
+    @Override
+    public List<IFeature> getFeaturesInBounds(IGeoBounds bounds) {
+        return storageManager.getMapInstance(this).getFeaturesInBounds(bounds);
+    }
 }
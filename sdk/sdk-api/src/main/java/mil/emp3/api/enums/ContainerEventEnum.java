@@ -13,5 +13,9 @@ public enum ContainerEventEnum implements IEventEnum {
     /**
      * One or more objects/containers was removed from the container.
      */
-    OBJECT_REMOVED
+    OBJECT_REMOVED,
+    /**
+     * One or more child features were updated by a bulk apply.
+     */
+    OBJECT_UPDATED
 }
@@ -25,7 +25,7 @@ public abstract class ContainerEvent extends Event<ContainerEventEnum, IContaine
     /**
      * This method retrieves a list of the children that the events refers to. If
      * The event is an ADD, the list contains the children that were added. If its a REMOVE
-     * event the list of children that were removed.
+     * event the list of children that were removed. If its an UPDATE event the list of children that were updated.
      * @return 
      */
     public abstract List<IGeoBase> getAffectedChildren();
@@ -1,22 +1,46 @@
 package mil.emp3.api.events;
 
+import java.util.Collections;
+import java.util.List;
+
 import mil.emp3.api.enums.MapFeatureEventEnum;
 import mil.emp3.api.interfaces.IFeature;
 import mil.emp3.api.interfaces.IMap;
 
 public abstract class MapFeatureAddedEvent extends Event<MapFeatureEventEnum, IMap> {
-    final private IFeature feature;
+    final private List<IFeature> features;
 
     protected MapFeatureAddedEvent(MapFeatureEventEnum eEvent, IMap map, IFeature feature) {
         super(eEvent, map);
-        this.feature = feature;
+        this.features = Collections.singletonList(feature);
+    }
+
+    /**
+     * This constructor is used to create an event for a group of features. Such events are only delivered to
+     * listeners that implement {@link mil.emp3.api.listeners.IBatchEventListener}.
+     * @param eEvent
+     * @param map
+     * @param features
+     */
+    protected MapFeatureAddedEvent(MapFeatureEventEnum eEvent, IMap map, List<IFeature> features) {
+        super(eEvent, map);
+        this.features = Collections.unmodifiableList(features);
     }
 
     /**
-     * Returns the feature for which the event was generated.
+     * Returns the feature for which the event was generated. If the event was generated for a group of features
+     * it returns the first one.
      * @return the feature added
      */
     public IFeature getFeature() {
-        return feature;
+        return features.isEmpty() ? null : features.get(0);
+    }
+
+    /**
+     * Returns all the features for which the event was generated.
+     * @return the features added
+     */
+    public List<IFeature> getFeatures() {
+        return features;
     }
 }
@@ -0,0 +1,134 @@
+package mil.emp3.api.interfaces;
+
+import java.util.List;
+
+/*
+ * This is an internal interface class.  The app developer must not implement this interface.
+ *
+ * A snapshot of the frame metrics recorded by a map engine. The frame values are computed over the most recent frames
+ * the engine keeps, see getSampleCount. Pick frames are not part of the frame values. The counts accumulate from the
+ * time the map instance was created. All times are in nanoseconds.
+ */
+public interface IFrameMetrics {
+
+    /**
+     * @return Number of frames recorded since the map instance was created.
+     */
+    long getFrameCount();
+
+    /**
+     * @return Number of recent frames the frame values are computed over.
+     */
+    int getSampleCount();
+
+    /**
+     * @return Frames per second over the recent frames, 0 if there are less than two.
+     */
+    double getFramesPerSecond();
+
+    long getLastFrameTime();
+
+    long getAverageFrameTime();
+
+    long getMaxFrameTime();
+
+    /**
+     * @return The names of the feature layers, in drawing order.
+     */
+    List<String> getLayerNames();
+
+    /**
+     * @param layerName One of the names returned by getLayerNames.
+     * @return Average time the layer took to render, 0 if the name is unknown.
+     */
+    long getAverageLayerTime(String layerName);
+
+    /**
+     * @param layerName One of the names returned by getLayerNames.
+     * @return Longest time the layer took to render, 0 if the name is unknown.
+     */
+    long getMaxLayerTime(String layerName);
+
+    /**
+     * @return Average number of features drawn per frame.
+     */
+    int getAverageDrawnCount();
+
+    /**
+     * @return Average number of features skipped per frame as they were outside the view.
+     */
+    int getAverageCulledCount();
+
+    /**
+     * @return Number of features whose renderables were regenerated on the render thread over the recent frames.
+     */
+    int getRegeneratedCount();
+
+    /**
+     * @return Average time it took to regenerate the renderables of one feature on the render thread.
+     */
+    long getAverageRegenerateTime();
+
+    /**
+     * @return Number of MilStd icons reused from the per symbol cache over the recent frames.
+     */
+    int getIconCacheHitCount();
+
+    /**
+     * @return Number of MilStd icons created on level of detail changes over the recent frames.
+     */
+    int getIconCacheMissCount();
+
+    /**
+     * @return Estimate of the bytes allocated per frame, from the growth of the heap during the frames. A garbage
+     * collection during a frame hides its allocations.
+     */
+    long getAverageAllocatedBytes();
+
+    /**
+     * @return Number of texture pages of the MilStd icon atlas in the last frame, 0 if the map doesn't pack its icons
+     * into an atlas.
+     */
+    int getIconAtlasPageCount();
+
+    /**
+     * @return Fraction of the pixels of the icon atlas pages covered by icons in the last frame, between 0 and 1.
+     */
+    double getIconAtlasOccupancy();
+
+    /**
+     * @return Average number of times an icon atlas page was bound per frame. Icons drawn one after the other from the
+     * same page share one bind.
+     */
+    int getAverageIconAtlasBindCount();
+
+    /**
+     * @return Average number of icons drawn from the icon atlas per frame.
+     */
+    int getAverageIconAtlasDrawCount();
+
+    /**
+     * @return Number of tactical graphics and rendered features waiting for or being tessellated.
+     */
+    int getTessellationQueueDepth();
+
+    /**
+     * @return Number of tessellations completed.
+     */
+    long getTessellationCount();
+
+    long getAverageTessellationTime();
+
+    long getMaxTessellationTime();
+
+    /**
+     * @return Number of picks executed.
+     */
+    long getPickCount();
+
+    long getLastPickTime();
+
+    long getAveragePickTime();
+
+    long getMaxPickTime();
+}
@@ -116,6 +116,17 @@ public interface IMap extends IContainer {
      */
     List<IFeature> getAllFeatures();
 
+    /**
+     * This method triggers an update of all the features in the list. It should be used instead of calling
+     * apply on each feature when many features change at once, e.g. track position updates. The updates
+     * are sent to the map engine in one call and one
+     * {@link mil.emp3.api.enums.ContainerEventEnum#OBJECT_UPDATED} event is generated per parent container.
+     * @param features A list of features that have been modified.
+     * @throws EMP_Exception The exception is raised if one or more features are not on a map.
+     */
+    void applyFeatures(List<IFeature> features)
+            throws EMP_Exception;
+
     /**
      * This method retrieves a list of all overlays currently plotted in the map.
      * @return This method returns a java.util.List of IOverlay objects.
@@ -594,6 +605,89 @@ public interface IMap extends IContainer {
      */
     double getMidDistanceThreshold();
 
+    /**
+     * This method sets the hysteresis of the far and mid distance thresholds. Once a MilStd single point icon
+     * changes its level of detail it only changes back after the distance is past the threshold by this fraction
+     * of the threshold. The same applies to the labels of tactical graphics and the far distance threshold.
+     * This avoids icons flipping between levels of detail when the camera distance is close to a threshold.
+     * Current default is 0.1.
+     * @param dValue A fraction between 0.0 and 1.0. Values less than 0 are set to 0, and values greater than 1 are set to 1.
+     */
+    void setDistanceThresholdHysteresis(double dValue);
+
+    /**
+     * This method retrieves the hysteresis of the distance thresholds.
+     * @return The fraction of the thresholds.
+     */
+    double getDistanceThresholdHysteresis();
+
+    /**
+     * This method limits the number of MilStd single point icons that are generated per frame when icons change
+     * their level of detail. The remaining icons are changed over the following frames. Changes to a level of detail
+     * an icon was already generated for are not limited.
+     * Current default is 50.
+     * @param iValue The number of icons per frame. 0 or less removes the limit.
+     */
+    void setMaxLevelOfDetailChangesPerFrame(int iValue);
+
+    /**
+     * This method retrieves the number of icons generated per frame on level of detail changes.
+     * @return The number of icons, 0 or less if there is no limit.
+     */
+    int getMaxLevelOfDetailChangesPerFrame();
+
+    /**
+     * This method enables or disables the clustering of MilStd single point symbols. When enabled and the camera is
+     * farther than the mid distance threshold, the symbols that fall in the same cell of a screen space grid are drawn
+     * as one marker showing the number of symbols and the color of the most common affiliation. The clusters break up
+     * as the camera zooms in. Selected symbols are never clustered. Picking a cluster picks all its symbols.
+     * Current default is disabled.
+     * @param enable true to enable clustering, false to disable it.
+     */
+    void setSinglePointClustering(boolean enable);
+
+    /**
+     * This method retrieves the single point clustering setting.
+     * @return true if clustering is enabled, false otherwise.
+     */
+    boolean isSinglePointClusteringEnabled();
+
+    /**
+     * This method enables or disables the packing of MilStd single point icons into a few large textures. When enabled
+     * the icons of many symbols are drawn from the same texture, which reduces the texture binds per frame when many
+     * distinct icons are displayed. The least recently used textures are reused when they are full.
+     * Current default is disabled.
+     * @param enable true to enable the icon atlas, false to disable it.
+     */
+    void setIconAtlas(boolean enable);
+
+    /**
+     * This method retrieves the icon atlas setting.
+     * @return true if the icon atlas is enabled, false otherwise.
+     */
+    boolean isIconAtlasEnabled();
+
+    /**
+     * This method retrieves a snapshot of the frame metrics the map engine records: frame and per layer render
+     * times, feature counts, icon cache hits and misses, tessellation and pick times. It is meant to diagnose
+     * rendering performance.
+     * @return The metrics or null if the map engine does not record them.
+     */
+    IFrameMetrics getFrameMetrics();
+
+    /**
+     * This method shows or hides a debug overlay over the map that displays the frame metrics, refreshed every
+     * second. Current default is hidden.
+     * @param visible true to show the overlay, false to hide it.
+     */
+    void setFrameMetricsOverlay(boolean visible);
+
+    /**
+     * This method retrieves the frame metrics overlay setting.
+     * @return true if the overlay is shown, false otherwise.
+     */
+    boolean isFrameMetricsOverlayVisible();
+
     /**
      * geoToScreen - convert from GeoPosition to screen coordinates
      * @param pos
@@ -693,6 +787,14 @@ public interface IMap extends IContainer {
      */
     int getBackgroundBrightness();
 
+    /**
+     * This method returns the features on the map whose geographic extent intersects the bounds. The extent
+     * of a feature includes its positions and the shapes rendered for it.
+     * @param bounds The geographic bounds. If west is greater than east the bounds cross the date line.
+     * @return The list of features. The list is empty if bounds is null.
+     */
+    List<IFeature> getFeaturesInBounds(IGeoBounds bounds);
+
     /**
      * This method creates a mini map associated with the map. The android View containing the map is
      * returned to the client. It is the responsibility of the client to add the view to a parent.
@@ -97,6 +97,18 @@ public interface IOverlay extends IContainer, IGeoContainer {
     public void removeFeatures(List<IFeature> features)
             throws EMP_Exception;
 
+    /**
+     * This method triggers an update of all the features in the list. It is equivalent to calling
+     * apply on each feature but the updates are sent to the map(s) together and one
+     * {@link mil.emp3.api.enums.ContainerEventEnum#OBJECT_UPDATED} event is generated per parent container
+     * of the features, listing the updated children of that container. The features do not have to be
+     * children of this overlay, when none of them is this overlay gets no event.
+     * @param features A list of features that have been modified.
+     * @throws EMP_Exception The exception is raised if one or more features are not on a map.
+     */
+    public void applyFeatures(List<IFeature> features)
+            throws EMP_Exception;
+
     /**
      * This method triggers an update of the overlay. After changing any properties, this
      * method MUST be called to force an update.
@@ -0,0 +1,40 @@
+package mil.emp3.api.interfaces.core;
+
+/*
+ * This is an internal interface class.  The app developer must not implement this interface.
+ *
+ * A snapshot of the asynchronous event dispatch counters. The counts accumulate from the time the event manager was
+ * created, they are not reset when asynchronous dispatch is turned off.
+ */
+public interface IEventDispatchStatistics {
+
+    /**
+     * @return Number of events currently waiting to be delivered to a listener.
+     */
+    int getQueueDepth();
+
+    /**
+     * @return Largest number of events that were waiting at one time.
+     */
+    int getMaxQueueDepth();
+
+    /**
+     * @return Number of listener deliveries requested, including those that were coalesced or dropped.
+     */
+    long getDispatchedCount();
+
+    /**
+     * @return Number of events delivered to listeners.
+     */
+    long getDeliveredCount();
+
+    /**
+     * @return Number of in motion camera or view events that replaced an undelivered event of the same kind.
+     */
+    long getCoalescedCount();
+
+    /**
+     * @return Number of in motion camera or view events discarded because the queue was full.
+     */
+    long getDroppedCount();
+}
@@ -41,6 +41,44 @@ public interface IEventManager {
 
     void clear();
 
+    /**
+     * Event listeners registered on a container also receive the events of its descendants. The event manager caches
+     * the listeners each object routes to, the storage manager must call this method whenever parent child
+     * relationships change.
+     */
+    void invalidateRoutingTable();
+
+    /**
+     * Turns asynchronous event dispatch on or off. When on, listeners are called on a bounded pool of background
+     * threads instead of the thread that generated the event. Each listener receives its events in order. It is off
+     * by default.
+     * @param enable
+     */
+    void setAsynchronousDispatch(boolean enable);
+
+    boolean isAsynchronousDispatch();
+
+    /**
+     * Sets the number of events waiting for asynchronous delivery above which CAMERA_IN_MOTION and VIEW_IN_MOTION
+     * events are dropped. Other events are always queued.
+     * @param capacity
+     */
+    void setDispatchQueueCapacity(int capacity);
+
+    /**
+     * When on, an undelivered CAMERA_IN_MOTION or VIEW_IN_MOTION event is replaced by a newer one for the same camera
+     * or map so a slow listener only receives the latest. It is on by default and only applies to asynchronous
+     * dispatch.
+     * @param coalesce
+     */
+    void setCoalesceMotionEvents(boolean coalesce);
+
+    /**
+     * This method returns a snapshot of the asynchronous dispatch counters.
+     * @return {@link IEventDispatchStatistics}
+     */
+    IEventDispatchStatistics getDispatchStatistics();
+
     EventListenerHandle addEventHandler(EventListenerTypeEnum eEventType, IGeoBase oRegistrationObject, IEventListener oListener) throws EMP_Exception;
 
     void generateContainerEvent(ContainerEventEnum eEvent,
@@ -79,6 +117,14 @@ public interface IEventManager {
 
     void generateMapFeatureRemovedEvent(MapFeatureEventEnum eventEnum, IMap map, IFeature feature);
 
+    /**
+     * Listeners that implement IBatchEventListener receive one event with all features, the others one event
+     * per feature.
+     */
+    void generateMapFeatureAddedEvent(MapFeatureEventEnum eventEnum, IMap map, List<IFeature> features);
+
+    void generateMapFeatureRemovedEvent(MapFeatureEventEnum eventEnum, IMap map, List<IFeature> features);
+
     void generateMapCameraEvent(CameraEventEnum eventEnum, IMap map, ICamera camera, boolean animate);
 
     void generateVisibilityEvent(VisibilityActionEnum eEvent, IContainer oTarget, IContainer oParent, IMap oOnMap);
@@ -6,6 +6,7 @@ import org.cmapi.primitives.IGeoFillStyle;
 import org.cmapi.primitives.IGeoLabelStyle;
 import org.cmapi.primitives.IGeoStrokeStyle;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -17,6 +18,7 @@ import mil.emp3.api.enums.VisibilityActionEnum;
 import mil.emp3.api.enums.VisibilityStateEnum;
 import mil.emp3.api.exceptions.EMP_Exception;
 import mil.emp3.api.interfaces.*;
+import mil.emp3.api.interfaces.core.storage.IBulkApplyStatistics;
 import mil.emp3.api.interfaces.core.storage.IClientMapRestoreData;
 import mil.emp3.api.interfaces.core.storage.IClientMapToMapInstance;
 import mil.emp3.mapengine.interfaces.IMapInstance;
@@ -64,8 +66,42 @@ public interface IStorageManager {
 
     void apply(IFeature feature, boolean batch) throws EMP_Exception;
 
+    /**
+     * Applies the changes of all features in the list. Each map instance receives a single addFeatures call and
+     * one OBJECT_UPDATED container event is generated per parent container.
+     * @param features
+     * @throws EMP_Exception If one or more features are not on a map. The other features are still applied.
+     */
+    void apply(List<IFeature> features) throws EMP_Exception;
+
+    /**
+     * Sets the maximum time in milliseconds a batched apply is held before it is sent to the map engines.
+     * @param millis
+     */
+    void setBulkApplyFlushInterval(long millis);
+
+    /**
+     * Sets the number of distinct pending feature updates that causes the batched applies to be sent immediately.
+     * @param count
+     */
+    void setBulkApplyHighWaterMark(int count);
+
+    /**
+     * This method returns a snapshot of the batched apply queue counters.
+     * @return {@link IBulkApplyStatistics}
+     */
+    IBulkApplyStatistics getBulkApplyStatistics();
+
     List<IFeature> getChildFeatures(IContainer parent);
 
+    /**
+     * Returns an iterator over all direct and indirect child features of the parent without copying them into a
+     * list. The iterator walks a snapshot so it is not affected by later changes and doesn't support remove.
+     * @param parent
+     * @return
+     */
+    Iterator<IFeature> getChildFeaturesIterator(IContainer parent);
+
     List<IOverlay> getChildOverlays(IContainer parent);
 
     List<IGeoBase> getImmediateChildren(IContainer container);
@@ -0,0 +1,51 @@
+package mil.emp3.api.interfaces.core.storage;
+
+/*
+ * This is an internal interface class.  The app developer must not implement this interface.
+ *
+ * A snapshot of the bulk feature apply queue counters. The lastFlush values describe the most recent flush, the
+ * total values accumulate from the time the storage manager was created.
+ */
+public interface IBulkApplyStatistics {
+
+    /**
+     * @return Number of feature updates queued between the previous flush and the last flush.
+     */
+    int getLastFlushQueuedCount();
+
+    /**
+     * @return Number of queued updates that replaced an update of the same feature before the last flush.
+     */
+    int getLastFlushCoalescedCount();
+
+    /**
+     * @return Number of features sent to the map instances by the last flush.
+     */
+    int getLastFlushFlushedCount();
+
+    /**
+     * @return Time in nanoseconds the last flush took.
+     */
+    long getLastFlushLatency();
+
+    /**
+     * @return Longest flush in nanoseconds.
+     */
+    long getMaxFlushLatency();
+
+    /**
+     * @return Number of flushes executed.
+     */
+    long getFlushCount();
+
+    long getTotalQueuedCount();
+
+    long getTotalCoalescedCount();
+
+    long getTotalFlushedCount();
+
+    /**
+     * @return Number of feature updates currently waiting for a flush.
+     */
+    int getPendingCount();
+}
@@ -0,0 +1,10 @@
+package mil.emp3.api.listeners;
+
+/**
+ * A listener that also implements this interface receives a single event for a group of objects instead of one
+ * event per object, e.g. one {@link mil.emp3.api.events.MapFeatureAddedEvent} listing all the features plotted by
+ * one update. It is honored by {@link IMapFeatureAddedEventListener} and {@link IMapFeatureRemovedEventListener}.
+ * Listeners that don't implement it keep receiving one event per object.
+ */
+public interface IBatchEventListener {
+}
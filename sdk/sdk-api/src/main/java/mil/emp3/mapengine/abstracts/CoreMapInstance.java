@@ -191,6 +191,26 @@ public abstract class CoreMapInstance implements IMapInstance {
         }
     }
 
+    /**
+     * Builds one feature removed event for all the features and posts it to the listener.
+     * @param features
+     */
+    protected void generateFeatureRemovedEvent(List<IFeature> features) {
+        if((null != featureRemovedEventListener) && !features.isEmpty()) {
+            featureRemovedEventListener.onEvent(new MapInstanceFeatureRemovedEvent(this, MapFeatureEventEnum.MAP_FEATURE_REMOVED, features));
+        }
+    }
+
+    /**
+     * Builds one feature added event for all the features and posts it to the listener.
+     * @param features
+     */
+    protected void generateFeatureAddedEvent(List<IFeature> features) {
+        if((null != featureAddedEventListener) && !features.isEmpty()) {
+            featureAddedEventListener.onEvent(new MapInstanceFeatureAddedEvent(this, MapFeatureEventEnum.MAP_FEATURE_ADDED, features));
+        }
+    }
+
     /**
      * Builds a View Change event and posts it to the listener.
      * @param oEvent
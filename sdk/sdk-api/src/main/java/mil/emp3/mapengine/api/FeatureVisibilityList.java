@@ -1,24 +1,152 @@
 package mil.emp3.mapengine.api;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.UUID;
 
 /**
  * This class implements a list of {@link FeatureVisibility} objects.
+ *
+ * In addition to the list contract the class maintains an index of feature Id to list position so that
+ * {@link #contains(UUID)}, {@link #get(UUID)} and {@link #addOrUpdate(FeatureVisibility)} are O(1). The list
+ * itself preserves insertion order, which is the order in which map engines receive the features.
+ *
+ * The index is kept current by the add/set/clear methods. Any other structural change (iterator removal,
+ * remove(int) etc.) is detected via the list's modification count and the index is rebuilt on the next lookup.
  */
 public class FeatureVisibilityList extends ArrayList<FeatureVisibility> {
 
+    // Feature Id to the position of its first occurrence in the list.
+    private final HashMap<UUID, Integer> featureIndex = new HashMap<>();
+
+    // The value of modCount when featureIndex was last known to be in sync with the list.
+    private int indexModCount = 0;
+
+    public FeatureVisibilityList() {
+        super();
+    }
+
+    public FeatureVisibilityList(int initialCapacity) {
+        super(initialCapacity);
+    }
+
+    /**
+     * Rebuilds the index if the list was structurally modified behind its back.
+     */
+    private void syncIndex() {
+        if (this.indexModCount != this.modCount) {
+            this.featureIndex.clear();
+            for (int index = 0; index < size(); index++) {
+                UUID uuId = super.get(index).feature.getGeoId();
+                if (!this.featureIndex.containsKey(uuId)) {
+                    this.featureIndex.put(uuId, index);
+                }
+            }
+            this.indexModCount = this.modCount;
+        }
+    }
+
+    /**
+     * Indexes the records from fromIndex to the end of the list. Must only be called when the index was in sync
+     * before the records were appended.
+     * @param fromIndex
+     */
+    private void indexTail(int fromIndex) {
+        for (int index = fromIndex; index < size(); index++) {
+            UUID uuId = super.get(index).feature.getGeoId();
+            if (!this.featureIndex.containsKey(uuId)) {
+                this.featureIndex.put(uuId, index);
+            }
+        }
+        this.indexModCount = this.modCount;
+    }
+
     /**
      * Returns true if Feature with specified uuId is present in the list.
      * @param uuId
      * @return
      */
     public boolean contains(UUID uuId) {
-        for (FeatureVisibility oRec: this) {
-            if (oRec.feature.getGeoId().compareTo(uuId) == 0) {
-                return true;
+        syncIndex();
+        return this.featureIndex.containsKey(uuId);
+    }
+
+    /**
+     * Returns the record of the Feature with the specified uuId or null if it is not in the list.
+     * @param uuId
+     * @return
+     */
+    public FeatureVisibility get(UUID uuId) {
+        syncIndex();
+        Integer index = this.featureIndex.get(uuId);
+        return (null == index) ? null : super.get(index);
+    }
+
+    /**
+     * Adds the record if its feature is not in the list, otherwise the existing record is replaced in place
+     * so the feature keeps its original position.
+     * @param record
+     * @return true if the record was added, false if it replaced an existing record.
+     */
+    public boolean addOrUpdate(FeatureVisibility record) {
+        syncIndex();
+        Integer index = this.featureIndex.get(record.feature.getGeoId());
+        if (null != index) {
+            super.set(index, record);
+            return false;
+        }
+        add(record);
+        return true;
+    }
+
+    /**
+     * Invokes {@link #addOrUpdate(FeatureVisibility)} for each record.
+     * @param records
+     * @return the number of records that replaced an existing record.
+     */
+    public int addOrUpdateAll(Collection<? extends FeatureVisibility> records) {
+        int replaced = 0;
+        for (FeatureVisibility record : records) {
+            if (!addOrUpdate(record)) {
+                replaced++;
             }
         }
-        return false;
+        return replaced;
+    }
+
+    @Override
+    public boolean add(FeatureVisibility record) {
+        syncIndex();
+        int fromIndex = size();
+        boolean added = super.add(record);
+        indexTail(fromIndex);
+        return added;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends FeatureVisibility> records) {
+        syncIndex();
+        int fromIndex = size();
+        boolean added = super.addAll(records);
+        indexTail(fromIndex);
+        return added;
+    }
+
+    @Override
+    public FeatureVisibility set(int index, FeatureVisibility record) {
+        FeatureVisibility previous = super.set(index, record);
+        if (previous.feature.getGeoId().compareTo(record.feature.getGeoId()) != 0) {
+            // set does not change modCount, force a rebuild.
+            this.indexModCount = this.modCount - 1;
+        }
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        this.featureIndex.clear();
+        this.indexModCount = this.modCount;
     }
 }
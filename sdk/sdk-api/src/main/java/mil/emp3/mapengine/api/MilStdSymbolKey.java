@@ -0,0 +1,225 @@
+package mil.emp3.mapengine.api;
+
+import android.util.SparseArray;
+
+import java.util.Arrays;
+
+/**
+ * This class identifies the appearance of a MilStd single point icon: the symbol code, the modifiers and the
+ * attributes. It is used as the key of the icon caches in place of a string built from the SparseArrays, and by the
+ * map engines to detect when the appearance of a symbol changed.
+ *
+ * A key is immutable. The entries of the arrays are copied when the key is created and its hash code is computed
+ * once, so a key should be created when the symbol changes and kept, not created for every lookup. Two keys with
+ * different hash codes are not compared any further.
+ *
+ * A null array and an empty array are different keys as the renderer draws the far icon when both arrays are null.
+ */
+public final class MilStdSymbolKey {
+    private static final int[] NO_KEYS = new int[0];
+    private static final String[] NO_VALUES = new String[0];
+
+    private final String symbolCode;
+    private final int[] modifierKeys;
+    private final String[] modifierValues;
+    private final int[] attributeKeys;
+    private final String[] attributeValues;
+    private final boolean hasModifiers;
+    private final boolean hasAttributes;
+    private final int hashCode;
+
+    private MilStdSymbolKey(String symbolCode, int[] modifierKeys, String[] modifierValues, boolean hasModifiers,
+            int[] attributeKeys, String[] attributeValues, boolean hasAttributes) {
+        this.symbolCode = symbolCode;
+        this.modifierKeys = modifierKeys;
+        this.modifierValues = modifierValues;
+        this.hasModifiers = hasModifiers;
+        this.attributeKeys = attributeKeys;
+        this.attributeValues = attributeValues;
+        this.hasAttributes = hasAttributes;
+
+        int hash = (symbolCode == null) ? 0 : symbolCode.hashCode();
+        hash = (31 * hash) + (hasModifiers ? 1 : 0);
+        hash = (31 * hash) + Arrays.hashCode(modifierKeys);
+        hash = (31 * hash) + Arrays.hashCode(modifierValues);
+        hash = (31 * hash) + (hasAttributes ? 1 : 0);
+        hash = (31 * hash) + Arrays.hashCode(attributeKeys);
+        hash = (31 * hash) + Arrays.hashCode(attributeValues);
+        this.hashCode = hash;
+    }
+
+    /**
+     * Creates the key of an icon.
+     * @param symbolCode The symbol code that identifies the 2525 symbol.
+     * @param modifiers The modifiers of the icon, may be null.
+     * @param attributes The attributes of the icon, may be null.
+     * @return The key.
+     */
+    public static MilStdSymbolKey create(String symbolCode, SparseArray modifiers, SparseArray attributes) {
+        int[] modifierKeys = keysOf(modifiers);
+        int[] attributeKeys = keysOf(attributes);
+
+        return new MilStdSymbolKey(symbolCode,
+                modifierKeys, valuesOf(modifiers), (modifiers != null),
+                attributeKeys, valuesOf(attributes), (attributes != null));
+    }
+
+    private static int[] keysOf(SparseArray array) {
+        if ((null == array) || (array.size() == 0)) {
+            return NO_KEYS;
+        }
+
+        int[] keys = new int[array.size()];
+        for (int index = 0; index < keys.length; index++) {
+            keys[index] = array.keyAt(index);
+        }
+        return keys;
+    }
+
+    private static String[] valuesOf(SparseArray array) {
+        if ((null == array) || (array.size() == 0)) {
+            return NO_VALUES;
+        }
+
+        String[] values = new String[array.size()];
+        for (int index = 0; index < values.length; index++) {
+            Object value = array.valueAt(index);
+
+            if (null != value) {
+                values[index] = value.toString();
+            }
+        }
+        return values;
+    }
+
+    /**
+     * @return A key with the same symbol code and attributes but no modifiers. The arrays are shared with this key.
+     */
+    public MilStdSymbolKey withoutModifiers() {
+        if (!this.hasModifiers) {
+            return this;
+        }
+        return new MilStdSymbolKey(this.symbolCode, NO_KEYS, NO_VALUES, false, this.attributeKeys, this.attributeValues,
+                this.hasAttributes);
+    }
+
+    /**
+     * Compares the key to the appearance of a symbol without creating a new key.
+     * @param symbolCode
+     * @param modifiers
+     * @param attributes
+     * @return true if a key created from the arguments would be equal to this key.
+     */
+    public boolean matches(String symbolCode, SparseArray modifiers, SparseArray attributes) {
+        return ((null == this.symbolCode) ? (null == symbolCode) : this.symbolCode.equals(symbolCode)) &&
+                sameEntries(this.hasModifiers, this.modifierKeys, this.modifierValues, modifiers) &&
+                sameEntries(this.hasAttributes, this.attributeKeys, this.attributeValues, attributes);
+    }
+
+    private static boolean sameEntries(boolean hasArray, int[] keys, String[] values, SparseArray array) {
+        if (hasArray != (null != array)) {
+            return false;
+        }
+        if ((null == array) || (array.size() != keys.length)) {
+            return (null == array);
+        }
+        for (int index = 0; index < keys.length; index++) {
+            Object value = array.valueAt(index);
+
+            if ((keys[index] != array.keyAt(index)) ||
+                    ((null == value) ? (null != values[index]) : !value.toString().equals(values[index]))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String getSymbolCode() {
+        return this.symbolCode;
+    }
+
+    public boolean hasModifiers() {
+        return this.hasModifiers;
+    }
+
+    public boolean hasAttributes() {
+        return this.hasAttributes;
+    }
+
+    /**
+     * @return A new SparseArray with the modifiers of the key, null if the key was created without modifiers.
+     */
+    public SparseArray<String> createModifiers() {
+        return this.hasModifiers ? toSparseArray(this.modifierKeys, this.modifierValues) : null;
+    }
+
+    /**
+     * @return A new SparseArray with the attributes of the key, null if the key was created without attributes.
+     */
+    public SparseArray<String> createAttributes() {
+        return this.hasAttributes ? toSparseArray(this.attributeKeys, this.attributeValues) : null;
+    }
+
+    private static SparseArray<String> toSparseArray(int[] keys, String[] values) {
+        SparseArray<String> array = new SparseArray<>(keys.length);
+
+        for (int index = 0; index < keys.length; index++) {
+            array.append(keys[index], values[index]);
+        }
+        return array;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MilStdSymbolKey)) {
+            return false;
+        }
+
+        MilStdSymbolKey other = (MilStdSymbolKey) o;
+        return (this.hashCode == other.hashCode) &&
+                (this.hasModifiers == other.hasModifiers) &&
+                (this.hasAttributes == other.hasAttributes) &&
+                ((null == this.symbolCode) ? (null == other.symbolCode) : this.symbolCode.equals(other.symbolCode)) &&
+                Arrays.equals(this.modifierKeys, other.modifierKeys) &&
+                Arrays.equals(this.attributeKeys, other.attributeKeys) &&
+                Arrays.equals(this.attributeValues, other.attributeValues) &&
+                Arrays.equals(this.modifierValues, other.modifierValues);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hashCode;
+    }
+
+    /**
+     * @return The key in the format of the string keys used before, the symbol code followed by the SparseArrays. A null
+     * array is written as null and an empty one as {}, two keys have the same string only if they are equal.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+
+        builder.append(this.symbolCode);
+        appendEntries(builder, this.hasModifiers, this.modifierKeys, this.modifierValues);
+        appendEntries(builder, this.hasAttributes, this.attributeKeys, this.attributeValues);
+        return builder.toString();
+    }
+
+    private static void appendEntries(StringBuilder builder, boolean hasArray, int[] keys, String[] values) {
+        if (!hasArray) {
+            builder.append("null");
+            return;
+        }
+        builder.append('{');
+        for (int index = 0; index < keys.length; index++) {
+            if (index > 0) {
+                builder.append(", ");
+            }
+            builder.append(keys[index]).append('=').append(values[index]);
+        }
+        builder.append('}');
+    }
+}
@@ -1,5 +1,8 @@
 package mil.emp3.mapengine.events;
 
+import java.util.Collections;
+import java.util.List;
+
 import mil.emp3.api.enums.MapFeatureEventEnum;
 import mil.emp3.api.events.Event;
 import mil.emp3.api.interfaces.IFeature;
@@ -10,7 +13,7 @@ import mil.emp3.mapengine.interfaces.IMapInstance;
  * All events of this type are handled by the EMP core code.
  */
 public class MapInstanceFeatureRemovedEvent extends Event<MapFeatureEventEnum, IMapInstance> {
-    final private IFeature feature;
+    final private List<IFeature> features;
 
     /**
      * This constructor must be called by the map engines to create a MapInstanceUserInteractionEvent event
@@ -20,7 +23,18 @@ public class MapInstanceFeatureRemovedEvent extends Event<MapFeatureEventEnum, I
      */
     public MapInstanceFeatureRemovedEvent(IMapInstance mapInstance, MapFeatureEventEnum event, IFeature feature) {
         super(event, mapInstance);
-        this.feature = feature;
+        this.features = Collections.singletonList(feature);
+    }
+
+    /**
+     * This constructor should be used by the map engines when a single update removed more than one feature.
+     * @param mapInstance The actual map instance. The this property of the object that implements the IMapInstance interface.
+     * @param event The feature event generated. See {@link MapFeatureEventEnum}.
+     * @param features The features this event is associated with. See {@link IFeature}.
+     */
+    public MapInstanceFeatureRemovedEvent(IMapInstance mapInstance, MapFeatureEventEnum event, List<IFeature> features) {
+        super(event, mapInstance);
+        this.features = Collections.unmodifiableList(features);
     }
 
     /**
@@ -28,6 +42,14 @@ public class MapInstanceFeatureRemovedEvent extends Event<MapFeatureEventEnum, I
      * @return the feature removed
      */
     public IFeature getFeature() {
-        return feature;
+        return features.isEmpty() ? null : features.get(0);
+    }
+
+    /**
+     * Returns all the features for which the event was generated.
+     * @return the features removed
+     */
+    public List<IFeature> getFeatures() {
+        return features;
     }
 }
@@ -0,0 +1,51 @@
+package mil.emp3.mapengine.interfaces;
+
+/*
+ * This is an internal interface class.  The app developer must not implement this interface.
+ *
+ * A snapshot of the MilStd icon prefetch counters. The last values describe the most recent prefetch, the total values
+ * accumulate from the time the renderer was created.
+ */
+public interface IIconPrefetchStatistics {
+
+    /**
+     * @return Number of single point symbols of the last prefetch that are drawn as an icon at the current camera distance.
+     */
+    int getLastSymbolCount();
+
+    /**
+     * @return Number of distinct icons rendered by the last prefetch.
+     */
+    int getLastIconCount();
+
+    /**
+     * @return Number of symbols of the last prefetch that share their icon with another symbol of the same prefetch.
+     */
+    int getLastDuplicateCount();
+
+    /**
+     * @return Time in nanoseconds the last prefetch took, from the time it started until its last icon was rendered.
+     */
+    long getLastPrefetchDuration();
+
+    /**
+     * @return Longest prefetch in nanoseconds.
+     */
+    long getMaxPrefetchDuration();
+
+    /**
+     * @return Number of prefetches executed.
+     */
+    long getPrefetchCount();
+
+    long getTotalSymbolCount();
+
+    long getTotalIconCount();
+
+    long getTotalDuplicateCount();
+
+    /**
+     * @return Number of prefetches waiting for the previous one to complete.
+     */
+    int getPendingCount();
+}
@@ -14,6 +14,7 @@ import mil.emp3.api.enums.UserInteractionEventEnum;
 import mil.emp3.api.interfaces.ICamera;
 import mil.emp3.api.interfaces.ICapture;
 import mil.emp3.api.interfaces.IFeature;
+import mil.emp3.api.interfaces.IFrameMetrics;
 import mil.emp3.api.interfaces.ILookAt;
 import mil.emp3.api.interfaces.IMapService;
 import mil.emp3.api.interfaces.IUUIDSet;
@@ -267,6 +268,74 @@ public interface IMapInstance {
      */
     void setMidDistanceThreshold(double dValue);
 
+    /**
+     * This method sets the hysteresis of the far and mid distance thresholds, as a fraction of the thresholds. The
+     * level of detail of an icon must only change once the distance is past the threshold by this fraction.
+     * @param dValue A fraction between 0.0 and 1.0.
+     */
+    void setDistanceThresholdHysteresis(double dValue);
+
+    /**
+     * This method retrieves the hysteresis of the distance thresholds.
+     * @return The fraction of the thresholds.
+     */
+    double getDistanceThresholdHysteresis();
+
+    /**
+     * This method sets the number of MilStd single point icons the map instance may generate per frame when icons
+     * change their level of detail.
+     * @param iValue The number of icons per frame. 0 or less removes the limit.
+     */
+    void setMaxLevelOfDetailChangesPerFrame(int iValue);
+
+    /**
+     * This method retrieves the number of icons generated per frame on level of detail changes.
+     * @return The number of icons, 0 or less if there is no limit.
+     */
+    int getMaxLevelOfDetailChangesPerFrame();
+
+    /**
+     * This method enables or disables the clustering of MilStd single point symbols that overlap on the screen.
+     * @param enable true to enable clustering, false to disable it.
+     */
+    void setSinglePointClustering(boolean enable);
+
+    /**
+     * This method retrieves the single point clustering setting.
+     * @return true if clustering is enabled, false otherwise.
+     */
+    boolean isSinglePointClusteringEnabled();
+
+    /**
+     * This method enables or disables the packing of MilStd single point icons into shared textures.
+     * @param enable true to enable the icon atlas, false to disable it.
+     */
+    void setIconAtlas(boolean enable);
+
+    /**
+     * This method retrieves the icon atlas setting.
+     * @return true if the icon atlas is enabled, false otherwise.
+     */
+    boolean isIconAtlasEnabled();
+
+    /**
+     * This method retrieves a snapshot of the frame metrics recorded by the map engine.
+     * @return The metrics or null if the map engine does not record them.
+     */
+    IFrameMetrics getFrameMetrics();
+
+    /**
+     * This method shows or hides the frame metrics debug overlay.
+     * @param visible true to show the overlay, false to hide it.
+     */
+    void setFrameMetricsOverlay(boolean visible);
+
+    /**
+     * This method retrieves the frame metrics overlay setting.
+     * @return true if the overlay is shown, false otherwise.
+     */
+    boolean isFrameMetricsOverlayVisible();
+
     /**
      * Returns version information for the map engine
      * @Param builder
@@ -365,4 +434,11 @@ public interface IMapInstance {
      * @return Return the current value 0 - 100.
      */
     int getBackgroundBrightness();
+
+    /**
+     * This method must return the features on the map whose geographic extent intersects the bounds.
+     * @param bounds The geographic bounds. If west is greater than east the bounds cross the date line.
+     * @return The list of features. The list must be empty if bounds is null.
+     */
+    List<IFeature> getFeaturesInBounds(IGeoBounds bounds);
 }
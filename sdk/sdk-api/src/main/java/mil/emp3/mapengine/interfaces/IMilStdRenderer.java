@@ -4,11 +4,13 @@ import android.util.SparseArray;
 
 import org.cmapi.primitives.IGeoBounds;
 
+import java.util.Collection;
 import java.util.List;
 
 import mil.emp3.api.MilStdSymbol;
 import mil.emp3.api.interfaces.IFeature;
 import mil.emp3.api.interfaces.core.IStorageManager;
+import mil.emp3.mapengine.api.MilStdSymbolKey;
 
 /**
  * This object provides interface to Mild Std renderer. Ir is constructed in the EMP Core and registered with the Map Instance for its usage.
@@ -41,6 +43,28 @@ public interface IMilStdRenderer {
      */
     IEmpImageInfo getMilStdIcon(String sSymbolCode, SparseArray oModifiers, SparseArray oAttr);
 
+    /**
+     * Gets the bitmap that represents the MilStd icon symbol. This is the same as the method above for callers that
+     * keep the key of the symbol, the key is not built again for the cache lookup.
+     * @param oSymbolKey The symbol code, modifiers and attributes of the icon. See {@link MilStdSymbolKey}.
+     * @return {@link IEmpImageInfo}.
+     */
+    IEmpImageInfo getMilStdIcon(MilStdSymbolKey oSymbolKey);
+
+    /**
+     * Renders the icons of the single point symbols ahead of their first draw, so the map engine finds them in the
+     * cache instead of rendering them one at a time on its render thread. Symbols that share the same icon are
+     * rendered once. The icons are rendered in the background, this method returns immediately.
+     * @param symbols The symbols added to the map, symbols that are not single point are ignored.
+     * @param mapInstance The map instance the symbols are added to, its label settings and camera select the icons.
+     */
+    void prefetchIcons(Collection<MilStdSymbol> symbols, IMapInstance mapInstance);
+
+    /**
+     * @return {@link IIconPrefetchStatistics}
+     */
+    IIconPrefetchStatistics getIconPrefetchStatistics();
+
     /**
      * Gets the 2525 modifiers defined in the symbol.
      * @param mapInstance The map instance making the call.
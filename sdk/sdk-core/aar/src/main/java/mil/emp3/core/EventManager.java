@@ -1,7 +1,6 @@
 package mil.emp3.core;
 
 import android.graphics.Point;
-import android.util.Log;
 
 import org.cmapi.primitives.IGeoBase;
 import org.cmapi.primitives.IGeoBounds;
@@ -10,8 +9,11 @@ import org.cmapi.primitives.IGeoPosition;
 import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import mil.emp3.api.enums.CameraEventEnum;
 import mil.emp3.api.enums.ContainerEventEnum;
@@ -33,14 +35,17 @@ import mil.emp3.api.exceptions.EMP_Exception;
 import mil.emp3.api.interfaces.ICamera;
 import mil.emp3.api.interfaces.IContainer;
 import mil.emp3.api.interfaces.IContainerSet;
+import mil.emp3.api.interfaces.core.IEventDispatchStatistics;
 import mil.emp3.api.interfaces.core.IEventManager;
 import mil.emp3.api.interfaces.IFeature;
 import mil.emp3.api.interfaces.ILookAt;
 import mil.emp3.api.interfaces.IMap;
 import mil.emp3.api.interfaces.IOverlay;
 import mil.emp3.api.interfaces.core.IStorageManager;
+import mil.emp3.api.listeners.IBatchEventListener;
 import mil.emp3.api.listeners.IEventListener;
 import mil.emp3.core.events.ContainerEvent;
+import mil.emp3.core.events.EventDispatcher;
 import mil.emp3.core.events.EventListenerHandle;
 import mil.emp3.core.events.FeatureEvent;
 import mil.emp3.core.events.FeatureUserInteractionEvent;
@@ -82,6 +87,43 @@ public class EventManager implements IEventManager {
     // This hash contains the event listener that were registers on an IContainer.
     private final EventRegistrationHashMap oRegisteredOnContainer = new EventRegistrationHashMap();
 
+    // Routing table. For an event type and evented object it holds the handlers found by walking the object and all its
+    // ancestors across the registries above, with each listener appearing once. Building a route requires a walk up the
+    // storage hierarchy so routes are kept until a listener is added or removed or the storage manager reports a
+    // hierarchy change. A route records the routing version it was built for and is ignored once the version moves on,
+    // so a route built while a change was taking place is never used.
+    private final ConcurrentHashMap<EventListenerTypeEnum, ConcurrentHashMap<UUID, Route>> oRoutingTable = new ConcurrentHashMap<>();
+    private final AtomicLong routingVersion = new AtomicLong(0);
+
+    private static final EventListenerHandle[] NO_HANDLERS = new EventListenerHandle[0];
+
+    // Delivers events on background threads when asynchronous dispatch is on.
+    private final EventDispatcher eventDispatcher = new EventDispatcher();
+    private volatile boolean asynchronousDispatch = false;
+
+    // Listeners already called while an event is delivered for a list of features.
+    private static class MergeScratch {
+        private final IdentityHashMap<IEventListener, Boolean> calledListeners = new IdentityHashMap<>();
+        private boolean inUse = false;
+    }
+
+    private final ThreadLocal<MergeScratch> mergeScratch = new ThreadLocal<MergeScratch>() {
+        @Override
+        protected MergeScratch initialValue() {
+            return new MergeScratch();
+        }
+    };
+
+    private static class Route {
+        private final long version;
+        private final EventListenerHandle[] handlers;
+
+        private Route(long version, EventListenerHandle[] handlers) {
+            this.version = version;
+            this.handlers = handlers;
+        }
+    }
+
     @Override
     public void setStorageManager(IStorageManager storageManager) {
         this.storageManager = storageManager;
@@ -97,6 +139,106 @@ public class EventManager implements IEventManager {
         oRegisteredOnFeature.clear();
         oRegisteredOnCamera.clear();
         oRegisteredOnContainer.clear();
+        this.invalidateRoutingTable();
+    }
+
+    /**
+     * Drops all cached routes. It is invoked when listeners are added or removed and by the storage manager when
+     * parent child relationships change.
+     */
+    @Override
+    public void invalidateRoutingTable() {
+        this.routingVersion.incrementAndGet();
+        this.oRoutingTable.clear();
+    }
+
+    /**
+     * When on, listeners are called on background threads instead of the thread that generated the event. Each
+     * listener still receives its events in order. Events queued when it is turned off are still delivered.
+     * @param enable
+     */
+    @Override
+    public void setAsynchronousDispatch(boolean enable) {
+        if (enable) {
+            this.eventDispatcher.start();
+        } else {
+            this.eventDispatcher.stop();
+        }
+        this.asynchronousDispatch = enable;
+    }
+
+    @Override
+    public boolean isAsynchronousDispatch() {
+        return this.asynchronousDispatch;
+    }
+
+    @Override
+    public void setDispatchQueueCapacity(int capacity) {
+        this.eventDispatcher.setQueueCapacity(capacity);
+    }
+
+    @Override
+    public void setCoalesceMotionEvents(boolean coalesce) {
+        this.eventDispatcher.setCoalesceMotionEvents(coalesce);
+    }
+
+    @Override
+    public IEventDispatchStatistics getDispatchStatistics() {
+        return this.eventDispatcher.getStatistics();
+    }
+
+    /**
+     * Returns the handlers of all listeners that must receive an event of the specified type generated on the evented
+     * object. The returned array is shared and must not be modified.
+     * @param eEventType
+     * @param oEventedObject
+     * @return
+     */
+    private EventListenerHandle[] getRoute(EventListenerTypeEnum eEventType, IGeoBase oEventedObject) {
+        if (null == oEventedObject) {
+            return NO_HANDLERS;
+        }
+
+        long version = this.routingVersion.get();
+        ConcurrentHashMap<UUID, Route> oTypeRoutes = this.oRoutingTable.get(eEventType);
+
+        if (null == oTypeRoutes) {
+            oTypeRoutes = new ConcurrentHashMap<>();
+            ConcurrentHashMap<UUID, Route> oExisting = this.oRoutingTable.putIfAbsent(eEventType, oTypeRoutes);
+            if (null != oExisting) {
+                oTypeRoutes = oExisting;
+            }
+        }
+
+        Route oRoute = oTypeRoutes.get(oEventedObject.getGeoId());
+        if ((null == oRoute) || (oRoute.version != version)) {
+            ListenerHandleList oList = new ListenerHandleList();
+            this.getEventHandlers(eEventType, oEventedObject, oList);
+            oRoute = new Route(version, this.removeDuplicateListeners(oList));
+            oTypeRoutes.put(oEventedObject.getGeoId(), oRoute);
+        }
+        return oRoute.handlers;
+    }
+
+    /**
+     * A listener registered on more than one object in the path of an event is only called once, through the first
+     * handle found.
+     * @param oList
+     * @return
+     */
+    private EventListenerHandle[] removeDuplicateListeners(List<EventListenerHandle> oList) {
+        if (oList.isEmpty()) {
+            return NO_HANDLERS;
+        }
+
+        IdentityHashMap<IEventListener, EventListenerHandle> oListeners = new IdentityHashMap<>();
+        ListenerHandleList oUnique = new ListenerHandleList();
+        for (EventListenerHandle oHandle : oList) {
+            if (null == oListeners.put(oHandle.getListener(), oHandle)) {
+                oUnique.add(oHandle);
+            }
+        }
+        return oUnique.toArray(new EventListenerHandle[oUnique.size()]);
     }
 
     private EventListenerHandle addEventHandler(
@@ -123,6 +265,7 @@ public class EventManager implements IEventManager {
         }
 
         oHandleList.add(oHandle);
+        this.invalidateRoutingTable();
         return oHandle;
     }
 
@@ -259,30 +402,59 @@ public class EventManager implements IEventManager {
         }
     }
     
+    /**
+     * Delivers the event to the listener through the dispatcher. When asynchronous dispatch is off the dispatcher calls
+     * the listener on the calling thread, once the events queued before it was turned off are delivered.
+     * @param oListener
+     * @param oEvent
+     */
+    private void callEventHandler(IEventListener oListener, Event oEvent) {
+        this.eventDispatcher.dispatch(oListener, oEvent);
+    }
+
     private void callEventHandlers(ListenerHandleList handlerList, Event oEvent) {
         for (EventListenerHandle oHandle : handlerList) {
-            try {
-                oHandle.getListener().onEvent(oEvent);
-            } catch (Exception Ex) {
-                Log.e(TAG, "The client event handler for " + EventListenerTypeEnum.class.getSimpleName() + " generated an exception.", Ex);
-            }
+            this.callEventHandler(oHandle.getListener(), oEvent);
         }
     }
 
-    private void processEvent(EventListenerTypeEnum eEventType, IGeoBase oEventedObject, Event oEvent) {
-        ListenerHandleList oList = new ListenerHandleList();
+    private void callEventHandlers(EventListenerHandle[] handlers, Event oEvent) {
+        for (int iIndex = 0; iIndex < handlers.length; iIndex++) {
+            this.callEventHandler(handlers[iIndex].getListener(), oEvent);
+        }
+    }
 
-        this.getEventHandlers(eEventType, oEventedObject, oList);
-        this.callEventHandlers(oList, oEvent);
+    private void processEvent(EventListenerTypeEnum eEventType, IGeoBase oEventedObject, Event oEvent) {
+        this.callEventHandlers(this.getRoute(eEventType, oEventedObject), oEvent);
     }
 
     private void processEvent(EventListenerTypeEnum eEventType, List<IFeature> featureList, Event oEvent) {
-        ListenerHandleList oList = new ListenerHandleList();
+        if (1 == featureList.size()) {
+            this.processEvent(eEventType, featureList.get(0), oEvent);
+            return;
+        }
 
-        for (IFeature feature: featureList) {
-            this.getEventHandlers(eEventType, feature, oList);
+        // Walk the cached routes of all features, each listener is called once. The set of called listeners is kept
+        // per thread and reused, a listener that generates an event of a list while it is called gets its own set.
+        MergeScratch oScratch = this.mergeScratch.get();
+        if (oScratch.inUse) {
+            oScratch = new MergeScratch();
+        }
+        oScratch.inUse = true;
+        try {
+            for (int iFeature = 0; iFeature < featureList.size(); iFeature++) {
+                EventListenerHandle[] handlers = this.getRoute(eEventType, featureList.get(iFeature));
+                for (int iIndex = 0; iIndex < handlers.length; iIndex++) {
+                    IEventListener oListener = handlers[iIndex].getListener();
+                    if (null == oScratch.calledListeners.put(oListener, Boolean.TRUE)) {
+                        this.callEventHandler(oListener, oEvent);
+                    }
+                }
+            }
+        } finally {
+            oScratch.calledListeners.clear();
+            oScratch.inUse = false;
         }
-        this.callEventHandlers(oList, oEvent);
     }
 
     @Override
@@ -363,6 +535,77 @@ public class EventManager implements IEventManager {
         this.processEvent(EventListenerTypeEnum.MAP_FEATURE_REMOVED_EVENT_LISTENER, map, event);
     }
 
+    @Override
+    public void generateMapFeatureAddedEvent(MapFeatureEventEnum eventEnum, IMap map, List<IFeature> features) {
+        if ((null == features) || features.isEmpty()) {
+            return;
+        }
+
+        EventListenerHandle[] handlers = this.getRoute(EventListenerTypeEnum.MAP_FEATURE_ADDED_EVENT_LISTENER, map);
+        if (0 == handlers.length) {
+            return;
+        }
+
+        int batchCount = this.callBatchEventHandlers(handlers, new MapFeatureAddedEvent(eventEnum, map, new ArrayList<>(features)));
+        if (batchCount < handlers.length) {
+            for (IFeature feature : features) {
+                this.callPerObjectEventHandlers(handlers, new MapFeatureAddedEvent(eventEnum, map, feature));
+            }
+        }
+    }
+
+    @Override
+    public void generateMapFeatureRemovedEvent(MapFeatureEventEnum eventEnum, IMap map, List<IFeature> features) {
+        if ((null == features) || features.isEmpty()) {
+            return;
+        }
+
+        EventListenerHandle[] handlers = this.getRoute(EventListenerTypeEnum.MAP_FEATURE_REMOVED_EVENT_LISTENER, map);
+        if (0 == handlers.length) {
+            return;
+        }
+
+        int batchCount = this.callBatchEventHandlers(handlers, new MapFeatureRemovedEvent(eventEnum, map, new ArrayList<>(features)));
+        if (batchCount < handlers.length) {
+            for (IFeature feature : features) {
+                this.callPerObjectEventHandlers(handlers, new MapFeatureRemovedEvent(eventEnum, map, feature));
+            }
+        }
+    }
+
+    /**
+     * Calls the handlers whose listener accepts a single event for a group of objects.
+     * @param handlers
+     * @param oEvent
+     * @return The number of handlers called.
+     */
+    private int callBatchEventHandlers(EventListenerHandle[] handlers, Event oEvent) {
+        int count = 0;
+
+        for (int iIndex = 0; iIndex < handlers.length; iIndex++) {
+            IEventListener oListener = handlers[iIndex].getListener();
+            if (oListener instanceof IBatchEventListener) {
+                count++;
+                this.callEventHandler(oListener, oEvent);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Calls the handlers whose listener needs one event per object.
+     * @param handlers
+     * @param oEvent
+     */
+    private void callPerObjectEventHandlers(EventListenerHandle[] handlers, Event oEvent) {
+        for (int iIndex = 0; iIndex < handlers.length; iIndex++) {
+            IEventListener oListener = handlers[iIndex].getListener();
+            if (!(oListener instanceof IBatchEventListener)) {
+                this.callEventHandler(oListener, oEvent);
+            }
+        }
+    }
+
     @Override
     public void generateMapCameraEvent(CameraEventEnum eventEnum, IMap map, ICamera camera, boolean animate) {
         mil.emp3.core.events.CameraEvent cameraEvent;
@@ -461,6 +704,7 @@ public class EventManager implements IEventManager {
             if (oListenerList != null) {
                 if (oListenerList.keySet().contains(oRegistrationObject.getGeoId())) {
                     this.removeListener((EventListenerHandle) oHandle, oListenerList.get(oRegistrationObject.getGeoId()));
+                    this.invalidateRoutingTable();
                 }
             }
         }
@@ -0,0 +1,288 @@
+package mil.emp3.core.events;
+
+import android.util.Log;
+
+import java.util.ArrayDeque;
+import java.util.IdentityHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import mil.emp3.api.enums.CameraEventEnum;
+import mil.emp3.api.enums.MapViewEventEnum;
+import mil.emp3.api.events.CameraEvent;
+import mil.emp3.api.events.Event;
+import mil.emp3.api.events.MapViewChangeEvent;
+import mil.emp3.api.interfaces.core.IEventDispatchStatistics;
+import mil.emp3.api.listeners.IEventListener;
+
+/**
+ * This class delivers events to listeners on a small pool of background threads so that a slow listener doesn't
+ * stall the thread that generated the event, which is often the UI or render thread.
+ *
+ * Each listener has its own queue. A listener receives its events in the order they were dispatched and never on two
+ * threads at once, different listeners are served in parallel. Once the number of undelivered events reaches the
+ * capacity new CAMERA_IN_MOTION and VIEW_IN_MOTION events are dropped and counted, a later event supersedes them. All
+ * other events are queued beyond the capacity as a listener may depend on each of them, the producer is not blocked
+ * as it is often the UI or render thread.
+ *
+ * When motion coalescing is on, a CAMERA_IN_MOTION or VIEW_IN_MOTION event replaces an undelivered in motion event
+ * for the same camera or map at the tail of the listener's queue, so a listener that can't keep up only sees the
+ * latest position.
+ */
+public class EventDispatcher {
+    private static final String TAG = EventDispatcher.class.getSimpleName();
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 10000;
+    public static final int DEFAULT_THREAD_COUNT = 2;
+    // Events delivered to one listener before its queue yields the thread to other listeners.
+    private static final int DELIVERY_BATCH_SIZE = 32;
+
+    private final IdentityHashMap<IEventListener, ListenerQueue> listenerQueues = new IdentityHashMap<>();
+    private ExecutorService executor = null;
+
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+    private boolean coalesceMotionEvents = true;
+
+    // All fields below are guarded by this.
+    private int queueDepth = 0;
+    private int maxQueueDepth = 0;
+    private long dispatchedCount = 0;
+    private long deliveredCount = 0;
+    private long coalescedCount = 0;
+    private long droppedCount = 0;
+
+    /**
+     * Events of one listener waiting for delivery. It is scheduled on the executor while it has events.
+     */
+    private class ListenerQueue implements Runnable {
+        private final IEventListener listener;
+        private final ArrayDeque<Event> events = new ArrayDeque<>();
+        private boolean scheduled = false;
+
+        private ListenerQueue(IEventListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void run() {
+            int count = 0;
+
+            while (true) {
+                Event event;
+
+                synchronized (EventDispatcher.this) {
+                    // Yield to other listeners after a batch. A stopped dispatcher drains the queue on this thread.
+                    if ((count >= DELIVERY_BATCH_SIZE) && (null != EventDispatcher.this.executor)) {
+                        EventDispatcher.this.executor.execute(this);
+                        return;
+                    }
+                    event = this.events.poll();
+                    if (null == event) {
+                        this.scheduled = false;
+                        EventDispatcher.this.listenerQueues.remove(this.listener);
+                        return;
+                    }
+                    EventDispatcher.this.queueDepth--;
+                    EventDispatcher.this.deliveredCount++;
+                }
+                EventDispatcher.deliver(this.listener, event);
+                count++;
+            }
+        }
+    }
+
+    /**
+     * Calls the listener on the current thread.
+     * @param listener
+     * @param event
+     */
+    @SuppressWarnings("unchecked")
+    public static void deliver(IEventListener listener, Event event) {
+        try {
+            listener.onEvent(event);
+        } catch (Exception Ex) {
+            Log.e(TAG, "The client event handler for " + event.getClass().getSimpleName() + " generated an exception.", Ex);
+        }
+    }
+
+    private static boolean isMotionEvent(Event event) {
+        if (event instanceof CameraEvent) {
+            return (event.getEvent() == CameraEventEnum.CAMERA_IN_MOTION);
+        } else if (event instanceof MapViewChangeEvent) {
+            return (event.getEvent() == MapViewEventEnum.VIEW_IN_MOTION);
+        }
+        return false;
+    }
+
+    /**
+     * Starts the delivery threads. Events dispatched before start are delivered on the calling thread.
+     */
+    public synchronized void start() {
+        if (null == this.executor) {
+            this.executor = Executors.newFixedThreadPool(DEFAULT_THREAD_COUNT, new ThreadFactory() {
+                private int threadCount = 0;
+
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "Event Dispatch Thread " + (++threadCount));
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+    }
+
+    /**
+     * Stops accepting events for listeners without undelivered events, those are delivered on the calling thread. Events
+     * already queued are still delivered on the delivery threads, and so are later events of the same listeners, so a
+     * listener never runs on two threads at once.
+     */
+    public synchronized void stop() {
+        if (null != this.executor) {
+            this.executor.shutdown();
+            this.executor = null;
+        }
+    }
+
+    public synchronized boolean isStarted() {
+        return (null != this.executor);
+    }
+
+    public synchronized void setQueueCapacity(int queueCapacity) {
+        if (queueCapacity > 0) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+
+    public synchronized int getQueueCapacity() {
+        return this.queueCapacity;
+    }
+
+    public synchronized void setCoalesceMotionEvents(boolean coalesceMotionEvents) {
+        this.coalesceMotionEvents = coalesceMotionEvents;
+    }
+
+    public synchronized boolean isCoalesceMotionEvents() {
+        return this.coalesceMotionEvents;
+    }
+
+    /**
+     * Queues the event for the listener. When the dispatcher is stopped the event is delivered on the calling thread,
+     * unless the listener still has undelivered events.
+     * @param listener
+     * @param event
+     */
+    public void dispatch(IEventListener listener, Event event) {
+        synchronized (this) {
+            if (null != this.executor) {
+                this.enqueue(listener, event);
+                return;
+            }
+
+            ListenerQueue listenerQueue = this.listenerQueues.get(listener);
+            if (null != listenerQueue) {
+                // The queue is still drained by the thread delivering it, the event must follow the queued ones.
+                this.dispatchedCount++;
+                listenerQueue.events.addLast(event);
+                this.queueDepth++;
+                return;
+            }
+        }
+        EventDispatcher.deliver(listener, event);
+    }
+
+    private void enqueue(IEventListener listener, Event event) {
+        ListenerQueue listenerQueue = this.listenerQueues.get(listener);
+
+        this.dispatchedCount++;
+        if (null == listenerQueue) {
+            listenerQueue = new ListenerQueue(listener);
+            this.listenerQueues.put(listener, listenerQueue);
+        } else if (this.coalesceMotionEvents && EventDispatcher.isMotionEvent(event)) {
+            Event last = listenerQueue.events.peekLast();
+            if ((null != last) && (last.getClass() == event.getClass()) && (last.getEvent() == event.getEvent()) &&
+                    (last.getTarget() == event.getTarget())) {
+                listenerQueue.events.pollLast();
+                listenerQueue.events.addLast(event);
+                this.coalescedCount++;
+                return;
+            }
+        }
+
+        if ((this.queueDepth >= this.queueCapacity) && EventDispatcher.isMotionEvent(event)) {
+            this.droppedCount++;
+            if (1 == (this.droppedCount % 1000)) {
+                Log.w(TAG, "Event queue full, " + this.droppedCount + " in motion events dropped.");
+            }
+            if (!listenerQueue.scheduled && listenerQueue.events.isEmpty()) {
+                this.listenerQueues.remove(listener);
+            }
+            return;
+        }
+
+        listenerQueue.events.addLast(event);
+        this.queueDepth++;
+        if (this.queueDepth > this.maxQueueDepth) {
+            this.maxQueueDepth = this.queueDepth;
+        }
+        if (!listenerQueue.scheduled) {
+            listenerQueue.scheduled = true;
+            this.executor.execute(listenerQueue);
+        }
+    }
+
+    /**
+     * @return A copy of the current counters.
+     */
+    public synchronized IEventDispatchStatistics getStatistics() {
+        Statistics statistics = new Statistics();
+
+        statistics.queueDepth = this.queueDepth;
+        statistics.maxQueueDepth = this.maxQueueDepth;
+        statistics.dispatchedCount = this.dispatchedCount;
+        statistics.deliveredCount = this.deliveredCount;
+        statistics.coalescedCount = this.coalescedCount;
+        statistics.droppedCount = this.droppedCount;
+        return statistics;
+    }
+
+    private static class Statistics implements IEventDispatchStatistics {
+        private int queueDepth;
+        private int maxQueueDepth;
+        private long dispatchedCount;
+        private long deliveredCount;
+        private long coalescedCount;
+        private long droppedCount;
+
+        @Override
+        public int getQueueDepth() {
+            return this.queueDepth;
+        }
+
+        @Override
+        public int getMaxQueueDepth() {
+            return this.maxQueueDepth;
+        }
+
+        @Override
+        public long getDispatchedCount() {
+            return this.dispatchedCount;
+        }
+
+        @Override
+        public long getDeliveredCount() {
+            return this.deliveredCount;
+        }
+
+        @Override
+        public long getCoalescedCount() {
+            return this.coalescedCount;
+        }
+
+        @Override
+        public long getDroppedCount() {
+            return this.droppedCount;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package mil.emp3.core.events;
 
+import java.util.List;
+
 import mil.emp3.api.enums.MapFeatureEventEnum;
 import mil.emp3.api.interfaces.IFeature;
 import mil.emp3.api.interfaces.IMap;
@@ -8,4 +10,8 @@ public class MapFeatureAddedEvent extends mil.emp3.api.events.MapFeatureAddedEve
     public MapFeatureAddedEvent(MapFeatureEventEnum eventEnum, IMap map, IFeature feature) {
         super(eventEnum, map, feature);
     }
+
+    public MapFeatureAddedEvent(MapFeatureEventEnum eventEnum, IMap map, List<IFeature> features) {
+        super(eventEnum, map, features);
+    }
 }
@@ -227,7 +227,8 @@ public abstract class MapInstanceEventHandler extends MapStatus implements IMapI
         IMap oClientMap = this.getClientMap();
 
         if (oClientMap != null) {
-            eventManager.generateMapFeatureAddedEvent(event.getEvent(), oClientMap, event.getFeature());
+            // The event may carry many features, listeners that opt into batch delivery get a single event.
+            eventManager.generateMapFeatureAddedEvent(event.getEvent(), oClientMap, event.getFeatures());
         }
     }
 
@@ -236,7 +237,7 @@ public abstract class MapInstanceEventHandler extends MapStatus implements IMapI
         IMap oClientMap = this.getClientMap();
 
         if (oClientMap != null) {
-            eventManager.generateMapFeatureRemovedEvent(event.getEvent(), oClientMap, event.getFeature());
+            eventManager.generateMapFeatureRemovedEvent(event.getEvent(), oClientMap, event.getFeatures());
         }
     }
 }
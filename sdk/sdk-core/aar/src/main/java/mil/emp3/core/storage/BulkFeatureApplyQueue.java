@@ -0,0 +1,290 @@
+package mil.emp3.core.storage;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import mil.emp3.api.interfaces.core.storage.IBulkApplyStatistics;
+import mil.emp3.mapengine.api.FeatureVisibility;
+import mil.emp3.mapengine.api.FeatureVisibilityList;
+
+/**
+ * This class holds the feature updates waiting to be sent to the map instances. Updates are kept per map and keyed
+ * by feature Id so that when the same feature is applied several times between flushes only its latest state is
+ * sent to the map engine.
+ *
+ * A flush is scheduled on a single background thread flushInterval milliseconds after the first update is queued.
+ * The owner is expected to flush immediately once the high water mark is reached.
+ *
+ * This class is not thread safe. All methods, including the flush task, must be executed while holding the
+ * StorageManager write lock. getStatistics may be executed while holding the read lock.
+ */
+public class BulkFeatureApplyQueue {
+    public static final long DEFAULT_FLUSH_INTERVAL = 100;
+    public static final int DEFAULT_HIGH_WATER_MARK = 500;
+
+    private final Runnable flushTask;
+    private final HashMap<UUID, FeatureVisibilityList> pendingList = new HashMap<>();
+    private int pendingCount = 0;
+
+    private long flushInterval = DEFAULT_FLUSH_INTERVAL;
+    private int highWaterMark = DEFAULT_HIGH_WATER_MARK;
+
+    private ScheduledExecutorService flushExecutor = null;
+    private ScheduledFuture<?> scheduledFlush = null;
+
+    // Counters since the last flush.
+    private int queuedCount = 0;
+    private int coalescedCount = 0;
+
+    private final Statistics statistics = new Statistics();
+
+    /**
+     * @param flushTask The task to execute on the flush thread. It must acquire the StorageManager write lock and call drain.
+     */
+    public BulkFeatureApplyQueue(Runnable flushTask) {
+        this.flushTask = flushTask;
+    }
+
+    /**
+     * Queues the update. If the feature is already queued for the map the previous update is replaced.
+     * @param mapId
+     * @param featureVisibility
+     */
+    public void enqueue(UUID mapId, FeatureVisibility featureVisibility) {
+        FeatureVisibilityList fvList = this.pendingList.get(mapId);
+
+        if (null == fvList) {
+            fvList = new FeatureVisibilityList();
+            this.pendingList.put(mapId, fvList);
+        }
+
+        this.queuedCount++;
+        if (fvList.addOrUpdate(featureVisibility)) {
+            this.pendingCount++;
+        } else {
+            this.coalescedCount++;
+        }
+    }
+
+    /**
+     * Queues all updates in the list for the map.
+     * @param mapId
+     * @param list
+     */
+    public void enqueueAll(UUID mapId, FeatureVisibilityList list) {
+        for (FeatureVisibility featureVisibility : list) {
+            this.enqueue(mapId, featureVisibility);
+        }
+    }
+
+    public boolean isEmpty() {
+        return (0 == this.pendingCount);
+    }
+
+    public int getPendingCount() {
+        return this.pendingCount;
+    }
+
+    public boolean isHighWaterMarkReached() {
+        return (this.pendingCount >= this.highWaterMark);
+    }
+
+    public void setFlushInterval(long flushInterval) {
+        if (flushInterval > 0) {
+            this.flushInterval = flushInterval;
+        }
+    }
+
+    public long getFlushInterval() {
+        return this.flushInterval;
+    }
+
+    public void setHighWaterMark(int highWaterMark) {
+        if (highWaterMark > 0) {
+            this.highWaterMark = highWaterMark;
+        }
+    }
+
+    public int getHighWaterMark() {
+        return this.highWaterMark;
+    }
+
+    /**
+     * Schedules a flush flushInterval milliseconds from now unless one is already scheduled.
+     */
+    public void scheduleFlush() {
+        if ((null != this.scheduledFlush) && !this.scheduledFlush.isDone()) {
+            return;
+        }
+
+        if (null == this.flushExecutor) {
+            this.flushExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "Bulk Feature Apply Thread");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        this.scheduledFlush = this.flushExecutor.schedule(this.flushTask, this.flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Removes and returns all queued updates keyed by map Id. Any scheduled flush is cancelled as there is nothing
+     * left for it to do.
+     * @return
+     */
+    public Map<UUID, FeatureVisibilityList> drain() {
+        Map<UUID, FeatureVisibilityList> drained = new HashMap<>(this.pendingList);
+
+        if (null != this.scheduledFlush) {
+            this.scheduledFlush.cancel(false);
+            this.scheduledFlush = null;
+        }
+
+        this.statistics.lastFlushQueuedCount = this.queuedCount;
+        this.statistics.lastFlushCoalescedCount = this.coalescedCount;
+        this.statistics.totalQueuedCount += this.queuedCount;
+        this.statistics.totalCoalescedCount += this.coalescedCount;
+
+        this.pendingList.clear();
+        this.pendingCount = 0;
+        this.queuedCount = 0;
+        this.coalescedCount = 0;
+        return drained;
+    }
+
+    /**
+     * Records the result of the flush that followed the last drain.
+     * @param flushedCount Number of features sent to the map instances.
+     * @param latency Time the flush took in nanoseconds.
+     */
+    public void flushCompleted(int flushedCount, long latency) {
+        this.statistics.flushCount++;
+        this.statistics.lastFlushFlushedCount = flushedCount;
+        this.statistics.totalFlushedCount += flushedCount;
+        this.statistics.lastFlushLatency = latency;
+        if (latency > this.statistics.maxFlushLatency) {
+            this.statistics.maxFlushLatency = latency;
+        }
+    }
+
+    /**
+     * Discards all queued updates without sending them.
+     */
+    public void clear() {
+        if (null != this.scheduledFlush) {
+            this.scheduledFlush.cancel(false);
+            this.scheduledFlush = null;
+        }
+        this.pendingList.clear();
+        this.pendingCount = 0;
+        this.queuedCount = 0;
+        this.coalescedCount = 0;
+    }
+
+    /**
+     * Discards all queued updates and stops the flush thread. A later scheduleFlush starts a new thread.
+     */
+    public void shutdown() {
+        this.clear();
+        if (null != this.flushExecutor) {
+            this.flushExecutor.shutdown();
+            this.flushExecutor = null;
+        }
+    }
+
+    /**
+     * @return A copy of the current counters.
+     */
+    public IBulkApplyStatistics getStatistics() {
+        Statistics snapshot = new Statistics(this.statistics);
+        snapshot.pendingCount = this.pendingCount;
+        return snapshot;
+    }
+
+    private static class Statistics implements IBulkApplyStatistics {
+        private int lastFlushQueuedCount = 0;
+        private int lastFlushCoalescedCount = 0;
+        private int lastFlushFlushedCount = 0;
+        private long lastFlushLatency = 0;
+        private long maxFlushLatency = 0;
+        private long flushCount = 0;
+        private long totalQueuedCount = 0;
+        private long totalCoalescedCount = 0;
+        private long totalFlushedCount = 0;
+        private int pendingCount = 0;
+
+        private Statistics() {
+        }
+
+        private Statistics(Statistics from) {
+            this.lastFlushQueuedCount = from.lastFlushQueuedCount;
+            this.lastFlushCoalescedCount = from.lastFlushCoalescedCount;
+            this.lastFlushFlushedCount = from.lastFlushFlushedCount;
+            this.lastFlushLatency = from.lastFlushLatency;
+            this.maxFlushLatency = from.maxFlushLatency;
+            this.flushCount = from.flushCount;
+            this.totalQueuedCount = from.totalQueuedCount;
+            this.totalCoalescedCount = from.totalCoalescedCount;
+            this.totalFlushedCount = from.totalFlushedCount;
+        }
+
+        @Override
+        public int getLastFlushQueuedCount() {
+            return this.lastFlushQueuedCount;
+        }
+
+        @Override
+        public int getLastFlushCoalescedCount() {
+            return this.lastFlushCoalescedCount;
+        }
+
+        @Override
+        public int getLastFlushFlushedCount() {
+            return this.lastFlushFlushedCount;
+        }
+
+        @Override
+        public long getLastFlushLatency() {
+            return this.lastFlushLatency;
+        }
+
+        @Override
+        public long getMaxFlushLatency() {
+            return this.maxFlushLatency;
+        }
+
+        @Override
+        public long getFlushCount() {
+            return this.flushCount;
+        }
+
+        @Override
+        public long getTotalQueuedCount() {
+            return this.totalQueuedCount;
+        }
+
+        @Override
+        public long getTotalCoalescedCount() {
+            return this.totalCoalescedCount;
+        }
+
+        @Override
+        public long getTotalFlushedCount() {
+            return this.totalFlushedCount;
+        }
+
+        @Override
+        public int getPendingCount() {
+            return this.pendingCount;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package mil.emp3.core.storage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import mil.emp3.api.interfaces.IContainer;
+import mil.emp3.api.interfaces.IFeature;
+import mil.emp3.api.interfaces.IOverlay;
+import mil.emp3.api.interfaces.core.storage.IStorageObjectWrapper;
+
+/**
+ * This class holds the flattened list of all direct and indirect children of a container. Each container with
+ * children keeps one in its StorageObjectWrapper. A view is built from the views of the children so that a change
+ * deep in the tree only causes the containers on the path to the root to be rebuilt, the rest are reused.
+ *
+ * A view is immutable once built. It holds wrappers, not objects, so replacing the object in a wrapper doesn't
+ * invalidate it.
+ */
+public class DescendantView {
+    static final DescendantView EMPTY = new DescendantView(Collections.<StorageObjectWrapper>emptyList(),
+            Collections.<StorageObjectWrapper>emptyList());
+
+    private final List<StorageObjectWrapper> descendants;
+    private final List<StorageObjectWrapper> features;
+
+    private DescendantView(List<StorageObjectWrapper> descendants, List<StorageObjectWrapper> features) {
+        this.descendants = descendants;
+        this.features = features;
+    }
+
+    /**
+     * Builds the view of the wrapper from the views of its children. Each descendant appears once even if it is
+     * reachable through more than one child.
+     * @param parentWrapper
+     * @return
+     */
+    static DescendantView build(StorageObjectWrapper<?> parentWrapper) {
+        if (!parentWrapper.hasChildren()) {
+            return EMPTY;
+        }
+
+        LinkedHashSet<StorageObjectWrapper> descendantSet = new LinkedHashSet<>();
+        for (IStorageObjectWrapper child : parentWrapper.getChildrenList().values()) {
+            StorageObjectWrapper childWrapper = (StorageObjectWrapper) child;
+            // If the child was already reached through a sibling so were all of its descendants.
+            if (descendantSet.add(childWrapper)) {
+                descendantSet.addAll(childWrapper.getDescendantView().descendants);
+            }
+        }
+
+        List<StorageObjectWrapper> descendants = new ArrayList<>(descendantSet);
+        List<StorageObjectWrapper> features = new ArrayList<>(descendants.size());
+        for (StorageObjectWrapper wrapper : descendants) {
+            if (wrapper.getObject() instanceof IFeature) {
+                features.add(wrapper);
+            }
+        }
+        return new DescendantView(Collections.unmodifiableList(descendants), Collections.unmodifiableList(features));
+    }
+
+    public int getDescendantCount() {
+        return this.descendants.size();
+    }
+
+    public int getFeatureCount() {
+        return this.features.size();
+    }
+
+    /**
+     * Returns a new list with all descendant features.
+     * @return
+     */
+    public List<IFeature> getFeatures() {
+        List<IFeature> list = new ArrayList<>(this.features.size());
+        for (StorageObjectWrapper wrapper : this.features) {
+            list.add((IFeature) wrapper.getObject());
+        }
+        return list;
+    }
+
+    /**
+     * Returns a new list with all descendant overlays.
+     * @return
+     */
+    public List<IOverlay> getOverlays() {
+        List<IOverlay> list = new ArrayList<>();
+        for (StorageObjectWrapper wrapper : this.descendants) {
+            IContainer container = wrapper.getObject();
+            if (container instanceof IOverlay) {
+                list.add((IOverlay) container);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Returns an iterator over the descendant features. It walks the view without copying it and remains valid
+     * after the view is replaced. remove is not supported.
+     * @return
+     */
+    public Iterator<IFeature> featureIterator() {
+        return new FeatureIterator(this.features.iterator());
+    }
+
+    /**
+     * Iterates over feature wrappers returning the wrapped feature.
+     */
+    static class FeatureIterator implements Iterator<IFeature> {
+        private final Iterator<StorageObjectWrapper> wrapperIterator;
+
+        FeatureIterator(Iterator<StorageObjectWrapper> wrapperIterator) {
+            this.wrapperIterator = wrapperIterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.wrapperIterator.hasNext();
+        }
+
+        @Override
+        public IFeature next() {
+            if (!this.wrapperIterator.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return (IFeature) this.wrapperIterator.next().getObject();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("The child feature iterator is read only.");
+        }
+    }
+}
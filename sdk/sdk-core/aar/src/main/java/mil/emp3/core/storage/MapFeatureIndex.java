@@ -0,0 +1,170 @@
+package mil.emp3.core.storage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import mil.emp3.api.MilStdSymbol;
+import mil.emp3.api.Point;
+import mil.emp3.api.interfaces.IFeature;
+
+/**
+ * This class indexes the features that are on one map by feature category. It is maintained by the StorageManager
+ * as features are added to and removed from the map so that operations that only affect one kind of feature, e.g.
+ * an icon size change, don't need to scan every object in storage.
+ *
+ * The class is not thread safe. It is modified under the StorageManager write lock and read under the read or
+ * write lock. The flattened snapshot used by getFeatures and getFeatureIterator is built on first use after a change
+ * and may be built concurrently by readers, each build produces an equal immutable list.
+ */
+public class MapFeatureIndex {
+
+    public enum FeatureCategory {
+        /**
+         * MIL-STD single point icons.
+         */
+        MILSTD_SINGLE_POINT,
+        /**
+         * MIL-STD tactical graphics.
+         */
+        MILSTD_TACTICAL_GRAPHIC,
+        /**
+         * Point features.
+         */
+        POINT,
+        /**
+         * All other features.
+         */
+        OTHER
+    }
+
+    private final EnumMap<FeatureCategory, LinkedHashMap<UUID, StorageObjectWrapper>> categoryIndex =
+            new EnumMap<>(FeatureCategory.class);
+    private final HashMap<UUID, FeatureCategory> featureCategory = new HashMap<>();
+    private volatile List<StorageObjectWrapper> snapshot = null;
+
+    public MapFeatureIndex() {
+        for (FeatureCategory category : FeatureCategory.values()) {
+            this.categoryIndex.put(category, new LinkedHashMap<UUID, StorageObjectWrapper>());
+        }
+    }
+
+    /**
+     * Returns the category of the feature.
+     * @param feature
+     * @return
+     */
+    public static FeatureCategory getCategory(IFeature feature) {
+        if (feature instanceof MilStdSymbol) {
+            if (((MilStdSymbol) feature).isTacticalGraphic()) {
+                return FeatureCategory.MILSTD_TACTICAL_GRAPHIC;
+            }
+            return FeatureCategory.MILSTD_SINGLE_POINT;
+        } else if (feature instanceof Point) {
+            return FeatureCategory.POINT;
+        }
+        return FeatureCategory.OTHER;
+    }
+
+    /**
+     * Adds the feature wrapper to the index. If it is already indexed it is re-categorized, as the symbol code of a
+     * MilStdSymbol may have changed.
+     * @param wrapper A wrapper of an IFeature.
+     */
+    public void add(StorageObjectWrapper wrapper) {
+        UUID featureId = wrapper.getGeoId();
+        FeatureCategory newCategory = getCategory((IFeature) wrapper.getObject());
+        FeatureCategory oldCategory = this.featureCategory.put(featureId, newCategory);
+
+        if (oldCategory != newCategory) {
+            if (null != oldCategory) {
+                this.categoryIndex.get(oldCategory).remove(featureId);
+            }
+            this.snapshot = null;
+        }
+        this.categoryIndex.get(newCategory).put(featureId, wrapper);
+    }
+
+    /**
+     * Removes the feature from the index.
+     * @param featureId
+     */
+    public void remove(UUID featureId) {
+        FeatureCategory category = this.featureCategory.remove(featureId);
+
+        if (null != category) {
+            this.categoryIndex.get(category).remove(featureId);
+            this.snapshot = null;
+        }
+    }
+
+    public boolean contains(UUID featureId) {
+        return this.featureCategory.containsKey(featureId);
+    }
+
+    public int size() {
+        return this.featureCategory.size();
+    }
+
+    public void clear() {
+        this.featureCategory.clear();
+        for (Map<UUID, StorageObjectWrapper> index : this.categoryIndex.values()) {
+            index.clear();
+        }
+        this.snapshot = null;
+    }
+
+    /**
+     * Returns a live view of the wrappers in the category. It must not be modified and must not be held past the
+     * lock under which it was retrieved.
+     * @param category
+     * @return
+     */
+    public Collection<StorageObjectWrapper> getWrappers(FeatureCategory category) {
+        return this.categoryIndex.get(category).values();
+    }
+
+    private List<StorageObjectWrapper> getSnapshot() {
+        List<StorageObjectWrapper> list = this.snapshot;
+
+        if (null == list) {
+            list = new ArrayList<>(this.featureCategory.size());
+            for (Map<UUID, StorageObjectWrapper> index : this.categoryIndex.values()) {
+                list.addAll(index.values());
+            }
+            list = Collections.unmodifiableList(list);
+            this.snapshot = list;
+        }
+        return list;
+    }
+
+    /**
+     * Returns a new list with all features in the index.
+     * @return
+     */
+    public List<IFeature> getFeatures() {
+        List<StorageObjectWrapper> wrappers = this.getSnapshot();
+        List<IFeature> features = new ArrayList<>(wrappers.size());
+
+        for (StorageObjectWrapper wrapper : wrappers) {
+            features.add((IFeature) wrapper.getObject());
+        }
+        return features;
+    }
+
+    /**
+     * Returns an iterator over a snapshot of the index. It can be used after the lock is released, later changes
+     * to the index are not reflected.
+     * @return
+     */
+    public Iterator<IFeature> getFeatureIterator() {
+        return new DescendantView.FeatureIterator(this.getSnapshot().iterator());
+    }
+}
@@ -22,12 +22,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import armyc2.c2sd.renderer.utilities.SymbolUtilities;
 import mil.emp3.api.Camera;
 import mil.emp3.api.MilStdSymbol;
-import mil.emp3.api.Point;
 import mil.emp3.api.enums.ContainerEventEnum;
 import mil.emp3.api.enums.FeatureEventEnum;
 import mil.emp3.api.enums.FontSizeModifierEnum;
@@ -47,17 +47,20 @@ import mil.emp3.api.interfaces.IOverlay;
 import mil.emp3.api.interfaces.IUUIDSet;
 import mil.emp3.api.interfaces.core.IEventManager;
 import mil.emp3.api.interfaces.core.IStorageManager;
+import mil.emp3.api.interfaces.core.storage.IBulkApplyStatistics;
 import mil.emp3.api.interfaces.core.storage.IClientMapRestoreData;
 import mil.emp3.api.interfaces.core.storage.IClientMapToMapInstance;
 import mil.emp3.api.interfaces.core.storage.IParentRelationship;
 import mil.emp3.api.interfaces.core.storage.IStorageObjectWrapper;
 import mil.emp3.api.utils.ContainerSet;
+import mil.emp3.api.utils.ManagerFactory;
 import mil.emp3.api.utils.UUIDSet;
 import mil.emp3.core.utils.IdentifierVisibilityHash;
 import mil.emp3.core.utils.milstd2525.icons.BitmapCacheFactory;
 import mil.emp3.mapengine.api.FeatureVisibility;
 import mil.emp3.mapengine.api.FeatureVisibilityList;
 import mil.emp3.mapengine.interfaces.IMapInstance;
+import mil.emp3.mapengine.interfaces.IMilStdRenderer;
 
 /**
  * This class implements the storage management of the core.
@@ -77,31 +80,48 @@ public class StorageManager implements IStorageManager {
     private final java.util.HashMap<IMap, ClientMapToMapInstance> oClientMapToMapInstanceMapping = new java.util.HashMap<>();
     private final java.util.HashMap<IMapInstance, ClientMapToMapInstance> oMapInstanceToClientMapMapping = new java.util.HashMap<>();
 
+    // The features on each map indexed by category, keyed by map Id. Maintained by executeTransaction.
+    private final java.util.HashMap<java.util.UUID, MapFeatureIndex> oMapFeatureIndex = new java.util.HashMap<>();
+
     // If an activity restarts e.g. orientation changes then we need to restore map engine and features. Please see Emp3DataManager for details
     // of how this works. Following data structure assists in preserving that required data.
 
     private final java.util.Map<String, ClientMapRestoreData> oMapNameToRestoreDataMapping = new java.util.HashMap<>();
 
-    // The ReentrantLock is used to make manipulation of Storage Manager assets thread safe. Application threads and MapInstance threads
+    // The ReentrantReadWriteLock is used to make manipulation of Storage Manager assets thread safe. Application threads and MapInstance threads
     // access Storage Manager assets. There are methods in Storage Manager that should only be invoked on UI thread and hence are not protected by
-    // ReentrantLock but a check is made to make sure current thread is UI thread. There are some get methods that do not need protecting.
-    // DON'T use the ReentrantLock in a private method as calling method has already put up a lock if required. There is no harm in doing so but
+    // the lock but a check is made to make sure current thread is UI thread. There are some get methods that do not need protecting.
+    // Methods that only read the object hierarchy (getChildFeatures, getVisibilityOnMap, isSelected etc.) take the read lock so that UI thread
+    // queries can proceed concurrently with each other. Any method that modifies the hierarchy, the selection, the mappings or the bulk apply
+    // queue, or that sends anything to a map instance, takes the write lock. A thread holding the write lock may call a read locked method but
+    // a read locked method must NEVER call a write locked method, the read lock can not be upgraded and the thread would deadlock.
+    // DON'T use the locks in a private method as calling method has already put up a lock if required. There is no harm in doing so but
     // incurs unnecessary overhead. This could be counter intuitive but consider the data structures maintained by Storage Manager and the need
     // to manipulate them atomically makes it necessary.
 
-    private ReentrantLock lock = new ReentrantLock();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock readLock = lock.readLock();
+    private final Lock writeLock = lock.writeLock();
 
     // We store the default stroke style for MilStd Icons keyed by the affiliation.
     private final java.util.concurrent.ConcurrentHashMap<MilStdSymbol.Affiliation, IGeoStrokeStyle> defaultIconStrokeStyleCache = new java.util.concurrent.ConcurrentHashMap<>();
     // We store the default fill style for MilStd Icons keyed by the affiliation.
     private final java.util.concurrent.ConcurrentHashMap<MilStdSymbol.Affiliation, IGeoFillStyle> defaultIconFillStyleCache = new java.util.concurrent.ConcurrentHashMap<>();
 
-    // This object stores the bulk update feature apply list.
-    private final java.util.HashMap<java.util.UUID, FeatureVisibilityList> bulkFeatureApplyList = new java.util.HashMap<>();
-    private int bulkFeatureApplyListCount = 0;
-    private static final int MAX_BULK_FEATURE_APPLY_COUNT = 500;
-
-    private Thread bulkFeatureApplyThread = null;
+    // This object stores the bulk update feature apply list. Updates are coalesced per map and feature, the flush task
+    // runs on the queue's scheduled executor.
+    private final BulkFeatureApplyQueue bulkFeatureApplyQueue = new BulkFeatureApplyQueue(new Runnable() {
+        @Override
+        public void run() {
+            try {
+                writeLock.lock();
+                //Log.d(TAG, "Thread processing list:" + StorageManager.this.bulkFeatureApplyQueue.getPendingCount());
+                StorageManager.this.processBulkFeatureApplyList();
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    });
 
 
     @Override
@@ -145,7 +165,7 @@ public class StorageManager implements IStorageManager {
 
         ClientMapRestoreData cmrd = null;
         try {
-            lock.lock();
+            writeLock.lock();
             cmrd = oMapNameToRestoreDataMapping.get(map.getName());
             if (null != cmrd) {
                 map.setGeoId(cmrd.getUuid()); // Use the previous UUID.
@@ -156,7 +176,7 @@ public class StorageManager implements IStorageManager {
                 oMapNameToRestoreDataMapping.put(map.getName(), cmrd);
             }
         } finally {
-            lock.unlock();
+            writeLock.unlock();
         }
         return cmrd;
     }
@@ -262,9 +282,16 @@ public class StorageManager implements IStorageManager {
             this.oObjectHash.clear();
             this.oClientMapToMapInstanceMapping.clear();
             this.oMapInstanceToClientMapMapping.clear();
+            this.oMapFeatureIndex.clear();
             this.oMapNameToRestoreDataMapping.clear();
             this.defaultIconFillStyleCache.clear();
             this.defaultIconStrokeStyleCache.clear();
+            try {
+                writeLock.lock();
+                this.bulkFeatureApplyQueue.shutdown();
+            } finally {
+                writeLock.unlock();
+            }
             eventManager.clear();
         } else {
             Log.i(TAG, "EMP3 shall restore the map");
@@ -297,12 +324,42 @@ public class StorageManager implements IStorageManager {
         }
 
         this.oObjectHash.put(clientMap.getGeoId(), oWrapper);
+
+        // If children were restored, index the features they bring to the map.
+        MapFeatureIndex featureIndex = new MapFeatureIndex();
+        this.indexMapFeatures(featureIndex, clientMap.getGeoId(), oWrapper, new java.util.HashSet<java.util.UUID>());
+        this.oMapFeatureIndex.put(clientMap.getGeoId(), featureIndex);
+        this.eventManager.invalidateRoutingTable();
+    }
+
+    /**
+     * Recursively adds all descendant features of parentWrapper that are on the map to the index.
+     * @param featureIndex
+     * @param mapId
+     * @param parentWrapper
+     * @param visited
+     */
+    private void indexMapFeatures(MapFeatureIndex featureIndex, java.util.UUID mapId, StorageObjectWrapper parentWrapper,
+                                  java.util.Set<java.util.UUID> visited) {
+        for (Object childId : parentWrapper.getChildIdList()) {
+            StorageObjectWrapper childWrapper = this.oObjectHash.get(childId);
+
+            if ((null == childWrapper) || !visited.add(childWrapper.getGeoId())) {
+                continue;
+            }
+            if ((childWrapper.getObject() instanceof IFeature) && childWrapper.isOnMap(mapId)) {
+                featureIndex.add(childWrapper);
+            }
+            this.indexMapFeatures(featureIndex, mapId, childWrapper, visited);
+        }
     }
 
     private void removeMapMapping(IMap clientMap, IMapInstance mapInstance) {
         if(null != clientMap) {
             this.oClientMapToMapInstanceMapping.remove(clientMap);
             this.oObjectHash.remove(clientMap.getGeoId());
+            this.oMapFeatureIndex.remove(clientMap.getGeoId());
+            this.eventManager.invalidateRoutingTable();
         }
         if(null != mapInstance) {
             this.oMapInstanceToClientMapMapping.remove(mapInstance);
@@ -425,7 +482,7 @@ public class StorageManager implements IStorageManager {
         IContainerSet oList;
         StorageObjectWrapper oWrapper;
         try {
-            lock.lock();
+            readLock.lock();
             if (this.oObjectHash.containsKey(oObject.getGeoId())) {
                 oWrapper = this.oObjectHash.get(oObject.getGeoId());
                 oList = oWrapper.getParents();
@@ -433,7 +490,7 @@ public class StorageManager implements IStorageManager {
                 oList = new ContainerSet();
             }
         } finally {
-            lock.unlock();
+            readLock.unlock();
         }
         
         return oList;
@@ -449,7 +506,7 @@ public class StorageManager implements IStorageManager {
         Map<UUID, IParentRelationship> parentRelationshipHash;
 
         try {
-            lock.lock();
+            writeLock.lock();
             for (java.util.UUID targetId : targetIdList) {
                 targetWrapper = this.oObjectHash.get(targetId);
                 parentRelationshipHash = targetWrapper.getParentList();
@@ -491,7 +548,7 @@ public class StorageManager implements IStorageManager {
 
             processVisibilityList(map, idVisibilityList);
         } finally {
-            lock.unlock();
+            writeLock.unlock();
         }
     }
     
@@ -618,12 +675,17 @@ public class StorageManager implements IStorageManager {
 
     @Override
     public boolean isOnMap(IMap map, IContainer target) {
-        StorageObjectWrapper oWrapper = this.oObjectHash.get(target.getGeoId());
-        if (oWrapper == null) {
-            return false;
-        }
+        try {
+            readLock.lock();
+            StorageObjectWrapper oWrapper = this.oObjectHash.get(target.getGeoId());
+            if (oWrapper == null) {
+                return false;
+            }
 
-        return oWrapper.isOnMap(map.getGeoId());
+            return oWrapper.isOnMap(map.getGeoId());
+        } finally {
+            readLock.unlock();
+        }
     }
 
     @Override
@@ -633,7 +695,7 @@ public class StorageManager implements IStorageManager {
         java.util.UUID mapId = map.getGeoId();
 
         try {
-            lock.lock();
+            writeLock.lock();
             StorageObjectWrapper targetWrapper = this.oObjectHash.get(targetId);
             StorageObjectWrapper parentWrapper = this.oObjectHash.get(parentId);
             VisibilityStateEnum prevVisibileState = targetWrapper.getVisibilityOnMap(mapId);
@@ -672,7 +734,7 @@ public class StorageManager implements IStorageManager {
 
             processVisibilityList(map, idVisibilityList);
         } finally {
-            lock.unlock();
+            writeLock.unlock();
         }
         // Generate the event.
         eventManager.generateVisibilityEvent(actionEnum, target, parent, map);
@@ -711,14 +773,14 @@ public class StorageManager implements IStorageManager {
     public VisibilityStateEnum getVisibilityOnMap(IMap map, IContainer target) {
         VisibilityStateEnum eRet = VisibilityStateEnum.HIDDEN;
         try {
-            lock.lock();
+            readLock.lock();
             StorageObjectWrapper targetWrapper = this.oObjectHash.get(target.getGeoId());
 
             if (null != targetWrapper) {
                 eRet = targetWrapper.getVisibilityOnMap(map.getGeoId());
             }
         } finally {
-            lock.unlock();
+            readLock.unlock();
         }
 
         return eRet;
@@ -727,12 +789,12 @@ public class StorageManager implements IStorageManager {
     @Override
     public VisibilityStateEnum getVisibilityOnMap(IMap map, IContainer target, IContainer parent) {
         try {
-            lock.lock();
+            readLock.lock();
             StorageObjectWrapper targetWrapper = this.oObjectHash.get(target.getGeoId());
 
             return targetWrapper.getVisibilityWithParentOnMap(map.getGeoId(), parent.getGeoId());
         } finally {
-            lock.unlock();
+            readLock.unlock();
         }
     }
 
@@ -762,6 +824,7 @@ public class StorageManager implements IStorageManager {
                 //Log.d(TAG, "containerWrapper " + containerWrapper.getGeoId() + " remove childWrapper " + childWrapper.getGeoId() +
                 //        " Name " + childWrapper.getObject().getName());
                 containerWrapper.removeChild(uuId);
+                this.eventManager.invalidateRoutingTable();
             } else {
                 // childWrapper ParentRelationShip mapVisibility needs to be cleaned up.
                 // childWrapper cannot reach the 'mapId' via this containerWrapper.
@@ -854,6 +917,8 @@ public class StorageManager implements IStorageManager {
             preMapList = childWrapper.getMapList();
             // We need to add it as a child of the parent.
             parentWrapper.addChild(childWrapper, (visible ? VisibilityStateEnum.VISIBLE : VisibilityStateEnum.HIDDEN));
+            // Event routes follow the parent child relationships.
+            this.eventManager.invalidateRoutingTable();
             // Get the map list after the operation.
             postMapList = childWrapper.getMapList();
             
@@ -871,7 +936,7 @@ public class StorageManager implements IStorageManager {
     @Override
     public void addOverlays(IMap map, List<IOverlay> overlays, boolean visible) throws EMP_Exception {
         try {
-            lock.lock();
+            writeLock.lock();
             java.util.UUID childId;
             java.util.UUID parentId = map.getGeoId();
             StorageObjectWrapper wrapper;
@@ -896,7 +961,7 @@ public class StorageManager implements IStorageManager {
 
             this.executeTransaction(transactionList);
         } finally {
-            lock.unlock();
+            writeLock.unlock();
             eventManager.generateContainerEvent(ContainerEventEnum.OBJECT_ADDED, map, overlays);
         }
     }
@@ -905,12 +970,16 @@ public class StorageManager implements IStorageManager {
      * This method send the features in the bulkFeatureApplyList to the map engines.
      */
     private void processBulkFeatureApplyList() {
-        if (this.bulkFeatureApplyList.isEmpty()) {
+        if (this.bulkFeatureApplyQueue.isEmpty()) {
             return;
         }
 
+        long startTime = System.nanoTime();
+        int flushedCount = 0;
+        Map<UUID, FeatureVisibilityList> pendingList = this.bulkFeatureApplyQueue.drain();
+
         // Loop thru the bulk Feature Apply List.
-        for (java.util.UUID uuid: this.bulkFeatureApplyList.keySet()) {
+        for (java.util.UUID uuid: pendingList.keySet()) {
             StorageObjectWrapper sowMap = this.oObjectHash.get(uuid);
 
             if (null != sowMap) {
@@ -919,7 +988,7 @@ public class StorageManager implements IStorageManager {
                 IClientMapToMapInstance mapMapping = this.getMapMapping(clientMap);
 
                 if (null != mapMapping) {
-                    FeatureVisibilityList fvList = this.bulkFeatureApplyList.get(uuid);
+                    FeatureVisibilityList fvList = pendingList.get(uuid);
                     VisibilityStateEnum visibility;
                     FeatureVisibility featureVisibility;
                     Iterator<FeatureVisibility> iterator = fvList.iterator();
@@ -927,8 +996,9 @@ public class StorageManager implements IStorageManager {
                     // Go thru all the feature and get their latest visibility.
                     while (iterator.hasNext()) {
                         featureVisibility = iterator.next();
-                        if (this.oObjectHash.containsKey(featureVisibility.feature.getGeoId())) {
-                            visibility = getVisibilityOnMap(clientMap, featureVisibility.feature);
+                        StorageObjectWrapper featureWrapper = this.oObjectHash.get(featureVisibility.feature.getGeoId());
+                        if (null != featureWrapper) {
+                            visibility = featureWrapper.getVisibilityOnMap(uuid);
                             featureVisibility.visible = (visibility == VisibilityStateEnum.VISIBLE);
                         } else {
                             // The feature was removed from the system.
@@ -939,12 +1009,12 @@ public class StorageManager implements IStorageManager {
                     if (!fvList.isEmpty()) {
                         // Send the list to the map engine.
                         mapMapping.getMapInstance().addFeatures(fvList);
+                        flushedCount += fvList.size();
                     }
                 }
             }
         }
-        this.bulkFeatureApplyListCount = 0;
-        this.bulkFeatureApplyList.clear();
+        this.bulkFeatureApplyQueue.flushCompleted(flushedCount, System.nanoTime() - startTime);
         //Log.d(TAG, "Processed List.");
     }
 
@@ -959,31 +1029,15 @@ public class StorageManager implements IStorageManager {
         // Ensure the feature has an altitude mode.
         this.setDefaultAltitudeMode(feature);
         try {
-            lock.lock();
+            writeLock.lock();
             StorageObjectWrapper sow = this.oObjectHash.get(feature.getGeoId());
             IUUIDSet oMapList = null;
-            FeatureVisibilityList fvList = null;
+            boolean queued = false;
 
             if (null != sow) {
                 oMapList = sow.getMapList(); // This is the list of IMap on which the feature was added
                 if (null != oMapList) {
-                    for (java.util.UUID uuid : oMapList) {
-                        StorageObjectWrapper sowMap = this.oObjectHash.get(uuid);
-                        VisibilityStateEnum visibility = getVisibilityOnMap((IMap) sowMap.getObject(), sow.getObject());
-                        IClientMapToMapInstance mapMapping = this.getMapMapping((IMap) sowMap.getObject());
-                        if ((null != mapMapping) && mapMapping.canPlot(feature)) {
-                            FeatureVisibility fv = new FeatureVisibility(feature, (VisibilityStateEnum.VISIBLE == visibility));
-
-                            if (this.bulkFeatureApplyList.containsKey(uuid)) {
-                                fvList = this.bulkFeatureApplyList.get(uuid);
-                            } else {
-                                fvList = new FeatureVisibilityList();
-                                this.bulkFeatureApplyList.put(uuid, fvList);
-                            }
-                            fvList.add(fv);
-                            this.bulkFeatureApplyListCount++;
-                        }
-                    }
+                    queued = this.enqueueApply(sow, feature, oMapList);
                 }
             }
             if ((null == sow) || (null == oMapList)) {
@@ -992,52 +1046,179 @@ public class StorageManager implements IStorageManager {
                         " " + feature.getGeoId());
             }
 
-            if ((null != fvList) && !fvList.isEmpty()) {
-                if (!batch || (this.bulkFeatureApplyListCount >= StorageManager.MAX_BULK_FEATURE_APPLY_COUNT)) {
-                    //Log.d(TAG, "Non Batch Apply processing :" + this.bulkFeatureApplyListCount);
+            if (queued) {
+                if (!batch || this.bulkFeatureApplyQueue.isHighWaterMarkReached()) {
+                    //Log.d(TAG, "Non Batch Apply processing :" + this.bulkFeatureApplyQueue.getPendingCount());
                     this.processBulkFeatureApplyList();
                 } else {
-                    //Log.d(TAG, "Batch Apply processing :" + this.bulkFeatureApplyListCount);
-                    this.startFeatureApplyThread();
+                    //Log.d(TAG, "Batch Apply processing :" + this.bulkFeatureApplyQueue.getPendingCount());
+                    this.bulkFeatureApplyQueue.scheduleFlush();
                 }
             }
         } finally {
-            lock.unlock();
+            writeLock.unlock();
         }
     }
 
-    private void startFeatureApplyThread() {
-        if (null == this.bulkFeatureApplyThread) {
-            this.bulkFeatureApplyThread = new Thread(new Runnable() {
-                @Override
-                public void run() {
-                    boolean bContinue = true;
+    /**
+     * Queues the feature update for every map in the map list on which it can be plotted. Must be called while
+     * holding the write lock.
+     * @param sow The wrapper of the feature.
+     * @param feature
+     * @param oMapList The list of IMap on which the feature was added.
+     * @return true if the update was queued for at least one map.
+     */
+    private boolean enqueueApply(StorageObjectWrapper sow, IFeature feature, IUUIDSet oMapList) {
+        boolean queued = false;
+
+        for (java.util.UUID uuid : oMapList) {
+            StorageObjectWrapper sowMap = this.oObjectHash.get(uuid);
+            MapFeatureIndex featureIndex = this.oMapFeatureIndex.get(uuid);
+            if (null != featureIndex) {
+                // The symbol code may have changed the feature category.
+                featureIndex.add(sow);
+            }
+            VisibilityStateEnum visibility = sow.getVisibilityOnMap(uuid);
+            IClientMapToMapInstance mapMapping = this.getMapMapping((IMap) sowMap.getObject());
+            if ((null != mapMapping) && mapMapping.canPlot(feature)) {
+                FeatureVisibility fv = new FeatureVisibility(feature, (VisibilityStateEnum.VISIBLE == visibility));
 
-                    while (bContinue) {
-                        try {
-                            Thread.sleep(100);
-
-                            if (StorageManager.this.bulkFeatureApplyListCount > 0) {
-                                try {
-                                    lock.lock();
-                                    //Log.d(TAG, "Thread processing list:" + StorageManager.this.bulkFeatureApplyListCount);
-                                    StorageManager.this.processBulkFeatureApplyList();
-                                } finally {
-                                    lock.unlock();
-                                }
-                            } else {
-                                bContinue = false;
-                            }
-                        } catch (InterruptedException ex) {
-                            bContinue = false;
-                        }
+                // If the feature is already queued for this map the latest state replaces it.
+                this.bulkFeatureApplyQueue.enqueue(uuid, fv);
+                queued = true;
+            }
+        }
+        return queued;
+    }
+
+    /**
+     * Applies the changes of all the features in the list in one pass. The updates are merged with any pending
+     * batched apply and each map instance receives a single addFeatures call. One OBJECT_UPDATED container event is
+     * generated for each parent of the applied features instead of one per feature.
+     * Features that are not on a map are skipped and reported by the exception once the others have been applied.
+     * @param features
+     * @throws EMP_Exception
+     */
+    @Override
+    public void apply(List<IFeature> features) throws EMP_Exception {
+        if ((null == features) || features.isEmpty()) {
+            return;
+        }
+
+        java.util.Map<IContainer, List<IFeature>> updatedByParent = new java.util.LinkedHashMap<>();
+        int notOnMapCount = 0;
+
+        for (IFeature feature : features) {
+            // Ensure the feature has an altitude mode.
+            this.setDefaultAltitudeMode(feature);
+        }
+
+        try {
+            writeLock.lock();
+            for (IFeature feature : features) {
+                StorageObjectWrapper sow = this.oObjectHash.get(feature.getGeoId());
+                IUUIDSet oMapList;
+
+                if ((null == sow) || (null == (oMapList = sow.getMapList()))) {
+                    notOnMapCount++;
+                    continue;
+                }
+                this.enqueueApply(sow, feature, oMapList);
+
+                for (IParentRelationship parentRelationship : (Collection<IParentRelationship>) sow.getParentList().values()) {
+                    IContainer parent = parentRelationship.getParentWrapper().getObject();
+                    List<IFeature> updatedList = updatedByParent.get(parent);
+                    if (null == updatedList) {
+                        updatedList = new ArrayList<>();
+                        updatedByParent.put(parent, updatedList);
                     }
-                    StorageManager.this.bulkFeatureApplyThread = null;
-                    //Log.d(TAG, "Thread exiting.");
+                    updatedList.add(feature);
+                }
+            }
+
+            this.processBulkFeatureApplyList();
+        } finally {
+            writeLock.unlock();
+            for (java.util.Map.Entry<IContainer, List<IFeature>> entry : updatedByParent.entrySet()) {
+                eventManager.generateContainerEvent(ContainerEventEnum.OBJECT_UPDATED, entry.getKey(), entry.getValue());
+            }
+        }
+
+        if (notOnMapCount > 0) {
+            Log.e(TAG, "apply " + notOnMapCount + " of " + features.size() + " features are not on a map");
+            throw new EMP_Exception(EMP_Exception.ErrorDetail.OTHER, notOnMapCount + " of " + features.size() +
+                    " features are not on a map");
+        }
+    }
+
+    /**
+     * Sets how long a batched apply may wait before it is sent to the map engines.
+     * @param millis
+     */
+    @Override
+    public void setBulkApplyFlushInterval(long millis) {
+        try {
+            writeLock.lock();
+            this.bulkFeatureApplyQueue.setFlushInterval(millis);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Sets the number of distinct pending feature updates that trigger an immediate flush.
+     * @param count
+     */
+    @Override
+    public void setBulkApplyHighWaterMark(int count) {
+        try {
+            writeLock.lock();
+            this.bulkFeatureApplyQueue.setHighWaterMark(count);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public IBulkApplyStatistics getBulkApplyStatistics() {
+        try {
+            readLock.lock();
+            return this.bulkFeatureApplyQueue.getStatistics();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Starts rendering the icons of the visible MilStd symbols the transaction adds to each map, so they are ready when
+     * the map engine first draws them. See IMilStdRenderer.prefetchIcons.
+     * @param transactionList
+     */
+    private void prefetchMilStdIcons(TransactionList transactionList) {
+        IMilStdRenderer milStdRenderer = ManagerFactory.getInstance().getMilStdRenderer();
+
+        if (null == milStdRenderer) {
+            return;
+        }
+
+        for (Map.Entry<UUID, FeatureVisibilityList> entry : transactionList.getFeatureAdds().entrySet()) {
+            StorageObjectWrapper mapWrapper = this.oObjectHash.get(entry.getKey());
+            ClientMapToMapInstance mapMapping = (null == mapWrapper) ? null :
+                    this.oClientMapToMapInstanceMapping.get((IMap) mapWrapper.getObject());
+
+            if ((null == mapMapping) || (null == mapMapping.getMapInstance())) {
+                continue;
+            }
+
+            List<MilStdSymbol> symbolList = new ArrayList<>();
+            for (FeatureVisibility featureVisibility : entry.getValue()) {
+                if (featureVisibility.visible && (featureVisibility.feature instanceof MilStdSymbol)) {
+                    symbolList.add((MilStdSymbol) featureVisibility.feature);
                 }
-            }, "Bulk Feature Apply Thread");
-            this.bulkFeatureApplyThread.start();
-            //Log.d(TAG, "Starting Thread.");
+            }
+            if (!symbolList.isEmpty()) {
+                milStdRenderer.prefetchIcons(symbolList, mapMapping.getMapInstance());
+            }
         }
     }
 
@@ -1058,10 +1239,15 @@ public class StorageManager implements IStorageManager {
             cm2mInstance = this.oClientMapToMapInstanceMapping.get(map);
             mapInstance = cm2mInstance.getMapInstance();
             removeFeatureList = mapRemoveFeatures.get(mapId);
+            MapFeatureIndex featureIndex = this.oMapFeatureIndex.get(mapId);
 
             for (Iterator<UUID> iter = removeFeatureList.iterator(); iter.hasNext(); ) {
                 UUID featureId = iter.next();
 
+                if (null != featureIndex) {
+                    featureIndex.remove(featureId);
+                }
+
                 // If feature was selected using IMap.selectFeature interface then remove feature from selected list
                 cm2mInstance.deselectFeature(featureId);
 
@@ -1084,15 +1270,20 @@ public class StorageManager implements IStorageManager {
         mapAddFeatures = transactionList.getFeatureAdds();
         for (java.util.UUID mapId: mapAddFeatures.keySet()) {
             addFeatureList = mapAddFeatures.get(mapId);
+            MapFeatureIndex featureIndex = this.oMapFeatureIndex.get(mapId);
 
-            //Log.d(TAG, "Execute Transaction added " + addFeatureList.size());
-            if (this.bulkFeatureApplyList.containsKey(mapId)) {
-                FeatureVisibilityList fvList = this.bulkFeatureApplyList.get(mapId);
-                fvList.addAll(addFeatureList);
-            } else {
-                this.bulkFeatureApplyList.put(mapId, addFeatureList);
+            if (null != featureIndex) {
+                for (FeatureVisibility featureVisibility : addFeatureList) {
+                    wrapper = this.oObjectHash.get(featureVisibility.feature.getGeoId());
+                    if (null != wrapper) {
+                        featureIndex.add(wrapper);
+                    }
+                }
             }
-            this.bulkFeatureApplyListCount += addFeatureList.size();
+
+            //Log.d(TAG, "Execute Transaction added " + addFeatureList.size());
+            // Merge into the pending list, a feature already pending is replaced not duplicated.
+            this.bulkFeatureApplyQueue.enqueueAll(mapId, addFeatureList);
         }
 
         if (mapAddFeatures.size() > 0) {
@@ -1101,82 +1292,76 @@ public class StorageManager implements IStorageManager {
     }
 
     /**
-     * Recursively gets all children of parentWrapper
-     * @param children
-     * @param parentWrapper
+     * This invoked to get all Features for map, overlay or feature. It returns all direct and indirect child
+     * features for the specified parent. The features of a map come from its feature index, those of other containers
+     * from the descendant view kept by their wrapper, neither is rebuilt unless the hierarchy below the parent changed.
+     * It presumes that 'add' methods ensured that there are no cycles.
+     * @param parent
      */
-    private void getChildren(java.util.Set<IContainer> children,
-                                       StorageObjectWrapper parentWrapper) {
-        if(null == parentWrapper) return;
-
-        //Log.d(TAG, "getChildren " + parentWrapper.getObject().getName());
-        java.util.Set<java.util.UUID> childIdList = new java.util.HashSet<>(parentWrapper.getChildIdList());
-        if(null == childIdList) return;
+    @Override
+    public List<IFeature> getChildFeatures(IContainer parent) {
 
-        for (java.util.UUID uuId: childIdList) {
+        try {
+            readLock.lock();
+            MapFeatureIndex featureIndex;
+            if ((parent instanceof IMap) && (null != (featureIndex = this.oMapFeatureIndex.get(parent.getGeoId())))) {
+                // All features on a map are in its index.
+                return featureIndex.getFeatures();
+            }
 
-            StorageObjectWrapper childWrapper = this.oObjectHash.get(uuId);
-            if((null == childWrapper) || (children.contains(childWrapper.getObject()))) {
-                continue;
-            } else {
-                children.add(childWrapper.getObject());
-                getChildren(children, childWrapper);
+            StorageObjectWrapper parentWrapper = this.oObjectHash.get(parent.getGeoId());
+            if (null != parentWrapper) {
+                return parentWrapper.getDescendantView().getFeatures();
             }
+        } finally {
+            readLock.unlock();
         }
+        return new ArrayList<>();
     }
 
     /**
-     * This invoked to get all Features for map, overlay or feature. It recursively gets all direct and indirect child
-     * features for the specified parent It presumes that 'add' methods ensured that there are no cycles.
+     * Same as getChildFeatures but the features are not copied into a list. The iterator walks a snapshot taken when
+     * this method is called so it can be used without holding any lock, changes made afterwards are not reflected.
      * @param parent
      */
     @Override
-    public List<IFeature> getChildFeatures(IContainer parent) {
+    public Iterator<IFeature> getChildFeaturesIterator(IContainer parent) {
 
-        List<IFeature> features = new ArrayList<>();
         try {
-            lock.lock();
+            readLock.lock();
+            MapFeatureIndex featureIndex;
+            if ((parent instanceof IMap) && (null != (featureIndex = this.oMapFeatureIndex.get(parent.getGeoId())))) {
+                return featureIndex.getFeatureIterator();
+            }
+
             StorageObjectWrapper parentWrapper = this.oObjectHash.get(parent.getGeoId());
             if (null != parentWrapper) {
-                java.util.Set<IContainer> children = new java.util.HashSet<>();
-                getChildren(children, parentWrapper);
-                for (IContainer container : children) {
-                    if (container instanceof IFeature) {
-                        features.add((IFeature) container);
-                    }
-                }
+                return parentWrapper.getDescendantView().featureIterator();
             }
         } finally {
-            lock.unlock();
+            readLock.unlock();
         }
-        return features;
+        return DescendantView.EMPTY.featureIterator();
     }
 
     /**
-     * This invoked to get all Overlays for map or overlay. It recursively gets all direct and indirect child
+     * This invoked to get all Overlays for map or overlay. It returns all direct and indirect child
      * overlays for the specified parent It presumes that 'add' methods ensured that there are no cycles.
      * @param parent
      */
     @Override
     public List<IOverlay> getChildOverlays(IContainer parent) {
 
-        List<IOverlay> overlays = new ArrayList<>();
         try {
-            lock.lock();
+            readLock.lock();
             StorageObjectWrapper parentWrapper = this.oObjectHash.get(parent.getGeoId());
             if (null != parentWrapper) {
-                java.util.Set<IContainer> children = new java.util.HashSet<>();
-                getChildren(children, parentWrapper);
-                for (IContainer container : children) {
-                    if (container instanceof IOverlay) {
-                        overlays.add((IOverlay) container);
-                    }
-                }
+                return parentWrapper.getDescendantView().getOverlays();
             }
         } finally {
-            lock.unlock();
+            readLock.unlock();
         }
-        return overlays;
+        return new ArrayList<>();
     }
 
     /**
@@ -1189,7 +1374,7 @@ public class StorageManager implements IStorageManager {
 
         List<IGeoBase> children = new ArrayList<>();
         try {
-            lock.lock();
+            readLock.lock();
             StorageObjectWrapper parentWrapper = this.oObjectHash.get(container.getGeoId());
             if((null != parentWrapper) && (parentWrapper.getChildIdList().size() != 0)) {
                 Collection<StorageObjectWrapper> childList = parentWrapper.getChildrenList().values();
@@ -1200,7 +1385,7 @@ public class StorageManager implements IStorageManager {
                 }
             }
         } finally {
-            lock.unlock();
+            readLock.unlock();
         }
         return children;
     }
@@ -1228,13 +1413,13 @@ public class StorageManager implements IStorageManager {
     public List<IContainer> getParents(IContainer childContainer) {
         List<IContainer> parents = new ArrayList<>();
         try {
-            lock.lock();
+            readLock.lock();
             StorageObjectWrapper childContainerWrapper;
             if ((null != childContainer) && (null != (childContainerWrapper = this.oObjectHash.get(childContainer.getGeoId())))) {
                 getParents(childContainerWrapper, parents);
             }
         } finally {
-            lock.unlock();
+            readLock.unlock();
         }
         return parents;
     }
@@ -1248,7 +1433,7 @@ public class StorageManager implements IStorageManager {
         StorageObjectWrapper childFeatureWrapper;
         List<IOverlay> parentOverlays = new ArrayList<>();
         try {
-            lock.lock();
+            readLock.lock();
             if ((null != childFeature) && (null != (childFeatureWrapper = this.oObjectHash.get(childFeature.getGeoId())))) {
                 List<IContainer> parents = new ArrayList<>();
                 getParents(childFeatureWrapper, parents);
@@ -1259,7 +1444,7 @@ public class StorageManager implements IStorageManager {
                 }
             }
         } finally {
-            lock.unlock();
+            readLock.unlock();
         }
         return parentOverlays;
     }
@@ -1274,7 +1459,7 @@ public class StorageManager implements IStorageManager {
         StorageObjectWrapper childFeatureWrapper;
         List<IFeature> parentFeatures = new ArrayList<>();
         try {
-            lock.lock();
+            readLock.lock();
             if ((null != childFeature) && (null != (childFeatureWrapper = this.oObjectHash.get(childFeature.getGeoId())))) {
                 List<IContainer> parents = new ArrayList<>();
                 getParents(childFeatureWrapper, parents);
@@ -1285,7 +1470,7 @@ public class StorageManager implements IStorageManager {
                 }
             }
         } finally {
-            lock.unlock();
+            readLock.unlock();
         }
         return parentFeatures;
     }
@@ -1294,7 +1479,7 @@ public class StorageManager implements IStorageManager {
     public void addOverlays(IOverlay parentOverlay, List<IOverlay> overlays, boolean visible)
              throws EMP_Exception {
         try {
-            lock.lock();
+            writeLock.lock();
             java.util.UUID childId;
             java.util.UUID parentId = parentOverlay.getGeoId();
             StorageObjectWrapper wrapper;
@@ -1322,7 +1507,7 @@ public class StorageManager implements IStorageManager {
 
             this.executeTransaction(transactionList);
         } finally {
-            lock.unlock();
+            writeLock.unlock();
             eventManager.generateContainerEvent(ContainerEventEnum.OBJECT_ADDED, parentOverlay, overlays);
         }
     }
@@ -1331,7 +1516,7 @@ public class StorageManager implements IStorageManager {
     public void addFeatures(IOverlay parentOverlay, List<IFeature> featureList, boolean visible)
              throws EMP_Exception {
         try {
-            lock.lock();
+            writeLock.lock();
             java.util.UUID childId;
             java.util.UUID parentId = parentOverlay.getGeoId();
             StorageObjectWrapper wrapper;
@@ -1359,9 +1544,10 @@ public class StorageManager implements IStorageManager {
                 this.addChildren(transactionList, parentWrapper, wrapper, visible);
             }
 
+            this.prefetchMilStdIcons(transactionList);
             this.executeTransaction(transactionList);
         } finally {
-            lock.unlock();
+            writeLock.unlock();
             eventManager.generateContainerEvent(ContainerEventEnum.OBJECT_ADDED, parentOverlay, featureList);
         }
     }
@@ -1374,7 +1560,7 @@ public class StorageManager implements IStorageManager {
         StorageObjectWrapper wrapper;
 
         try {
-            lock.lock();
+            writeLock.lock();
             StorageObjectWrapper parentWrapper = this.oObjectHash.get(parentId);
 
             if (null == parentWrapper)
@@ -1397,9 +1583,10 @@ public class StorageManager implements IStorageManager {
                 this.addChildren(transactionList, parentWrapper, wrapper, visible);
             }
 
+            this.prefetchMilStdIcons(transactionList);
             this.executeTransaction(transactionList);
         } finally {
-            lock.unlock();
+            writeLock.unlock();
             eventManager.generateContainerEvent(ContainerEventEnum.OBJECT_ADDED, parentFeature, featureList);
         }
     }
@@ -1426,6 +1613,7 @@ public class StorageManager implements IStorageManager {
             preMapList = childWrapper.getMapList();
             // We need to add it as a child of the parent.
             parentWrapper.removeChild(childWrapper.getGeoId());
+            this.eventManager.invalidateRoutingTable();
             // Get the map list after the operation.
             postMapList = childWrapper.getMapList();
 
@@ -1448,7 +1636,7 @@ public class StorageManager implements IStorageManager {
 
         //Log.d(TAG, "removeFeatures from Feature " + parentFeature.getName());
         try {
-            lock.lock();
+            writeLock.lock();
             //Log.v(TAG, "b4remove removeFeatures(IFeature parentFeature oObjectHash.size() " + oObjectHash.size());
             StorageObjectWrapper parentWrapper = this.oObjectHash.get(parentFeature.getGeoId());
 
@@ -1478,7 +1666,7 @@ public class StorageManager implements IStorageManager {
             executeTransaction(transactionList);
         } finally {
             //Log.v(TAG, "after removeFeatures(IFeature parentFeature oObjectHash.size() " + oObjectHash.size());
-            lock.unlock();
+            writeLock.unlock();
             eventManager.generateContainerEvent(ContainerEventEnum.OBJECT_REMOVED, parentFeature, features);
         }
     }
@@ -1499,7 +1687,7 @@ public class StorageManager implements IStorageManager {
 
         //Log.d(TAG, "removeFeatures from Overlay " + parentOverlay.getName());
         try {
-            lock.lock();
+            writeLock.lock();
             //Log.v(TAG, "b4remove removeFeatures(IOverlay parentOverlay oObjectHash.size() " + oObjectHash.size());
             StorageObjectWrapper parentWrapper = this.oObjectHash.get(parentOverlay.getGeoId());
 
@@ -1529,7 +1717,7 @@ public class StorageManager implements IStorageManager {
             executeTransaction(transactionList);
         } finally {
             //Log.v(TAG, "after removeFeatures(IOverlay parentOverlay oObjectHash.size() " + oObjectHash.size());
-            lock.unlock();
+            writeLock.unlock();
             eventManager.generateContainerEvent(ContainerEventEnum.OBJECT_REMOVED, parentOverlay, features);
         }
     }
@@ -1542,7 +1730,7 @@ public class StorageManager implements IStorageManager {
             throw new EMP_Exception(EMP_Exception.ErrorDetail.INVALID_PARAMETER, " parentOverlay or features list is NULL");
         }
         try {
-            lock.lock();
+            writeLock.lock();
             //Log.v(TAG, "b4remove removeOverlays(IMap clientMap oObjectHash.size() " + oObjectHash.size());
             StorageObjectWrapper parentWrapper = this.oObjectHash.get(clientMap.getGeoId());
             if (null == parentWrapper) {
@@ -1567,7 +1755,7 @@ public class StorageManager implements IStorageManager {
             executeTransaction(transactionList);
         } finally {
             //Log.v(TAG, "after removeOverlays(IMap clientMap oObjectHash.size() " + oObjectHash.size());
-            lock.unlock();
+            writeLock.unlock();
             eventManager.generateContainerEvent(ContainerEventEnum.OBJECT_REMOVED, clientMap, overlays);
         }
     }
@@ -1586,7 +1774,7 @@ public class StorageManager implements IStorageManager {
             throw new EMP_Exception(EMP_Exception.ErrorDetail.INVALID_PARAMETER, " parentOverlay or overlays list is NULL");
         }
         try {
-            lock.lock();
+            writeLock.lock();
             //Log.v(TAG, "b4remove removeOverlays(IOverlay parentOverlay oObjectHash.size() " + oObjectHash.size());
             // Validate the overlay list to make sure that each overlay is a child of the specified parentOverlay
             StorageObjectWrapper parentWrapper = this.oObjectHash.get(parentOverlay.getGeoId());
@@ -1611,7 +1799,7 @@ public class StorageManager implements IStorageManager {
             executeTransaction(transactionList);
         } finally {
             //Log.v(TAG, "after removeOverlays(IOverlay parentOverlay oObjectHash.size() " + oObjectHash.size());
-            lock.unlock();
+            writeLock.unlock();
             eventManager.generateContainerEvent(ContainerEventEnum.OBJECT_REMOVED, parentOverlay, overlays);
         }
     }
@@ -1625,7 +1813,7 @@ public class StorageManager implements IStorageManager {
     public void removeChildren(IContainer parentContainer) throws EMP_Exception {
         StorageObjectWrapper parentContainerWrapper;
         try {
-            lock.lock();
+            writeLock.lock();
             //Log.v(TAG, "b4remove removeChildren(IContainer parentContainer oObjectHash.size() " + oObjectHash.size());
             if ((null == parentContainer) || (null == (parentContainerWrapper = this.oObjectHash.get(parentContainer.getGeoId())))) {
                 throw new EMP_Exception(EMP_Exception.ErrorDetail.INVALID_PARAMETER, "removeChildren invalid parentContainer ");
@@ -1643,7 +1831,7 @@ public class StorageManager implements IStorageManager {
             }
         } finally {
             //Log.v(TAG, "after removeChildren(IContainer parentContainer oObjectHash.size() " + oObjectHash.size());
-            lock.unlock();
+            writeLock.unlock();
         }
     }
 
@@ -1656,16 +1844,19 @@ public class StorageManager implements IStorageManager {
         }
 
         try {
-            lock.lock();
-            List<IFeature> features = getChildFeatures(clientMap);
-            if ((null == features) || (0 == features.size())) {
+            writeLock.lock();
+            Iterator<IFeature> features = getChildFeaturesIterator(clientMap);
+            if (!features.hasNext()) {
                 //Log.i(TAG, "redrawAllfeatures: there are no features.");
                 return;
             }
 
             FeatureVisibilityList fvList = new FeatureVisibilityList();
-            for (IFeature feature : features) {
-                if (VisibilityStateEnum.VISIBLE == getVisibilityOnMap(clientMap, feature)) {
+            java.util.UUID mapId = clientMap.getGeoId();
+            while (features.hasNext()) {
+                IFeature feature = features.next();
+                StorageObjectWrapper featureWrapper = this.oObjectHash.get(feature.getGeoId());
+                if ((null != featureWrapper) && (VisibilityStateEnum.VISIBLE == featureWrapper.getVisibilityOnMap(mapId))) {
                     fvList.add(new FeatureVisibility(feature, true));
                 } else {
                     //Log.d(TAG, "feature is not visible " + feature.getClass().getSimpleName() + " " + feature.getGeoId());
@@ -1678,7 +1869,7 @@ public class StorageManager implements IStorageManager {
                 //Log.i(TAG, "redrawAllFeatures: There are no visible faetures");
             }
         } finally {
-            lock.unlock();
+            writeLock.unlock();
         }
     }
     @Override
@@ -1686,7 +1877,7 @@ public class StorageManager implements IStorageManager {
         ClientMapToMapInstance mapMapping;
 
         try {
-            lock.lock();
+            writeLock.lock();
             if (this.oClientMapToMapInstanceMapping.containsKey(map)) {
                 mapMapping = this.oClientMapToMapInstanceMapping.get(map);
                 mapMapping.getMapInstance().addMapService(mapService);
@@ -1700,7 +1891,7 @@ public class StorageManager implements IStorageManager {
                 }
             }
         } finally {
-            lock.unlock();
+            writeLock.unlock();
         }
     }
 
@@ -1709,7 +1900,7 @@ public class StorageManager implements IStorageManager {
         ClientMapToMapInstance mapMapping;
 
         try {
-            lock.lock();
+            writeLock.lock();
             if (this.oClientMapToMapInstanceMapping.containsKey(map)) {
                 mapMapping = this.oClientMapToMapInstanceMapping.get(map);
                 if (mapMapping.removeMapService(mapService)) {
@@ -1723,7 +1914,7 @@ public class StorageManager implements IStorageManager {
                 }
             }
         } finally {
-            lock.unlock();
+            writeLock.unlock();
         }
     }
     
@@ -1747,7 +1938,7 @@ public class StorageManager implements IStorageManager {
         java.util.UUID wmsId = mapService.getGeoId();
 
         try {
-            lock.lock();
+            writeLock.lock();
             for (ClientMapToMapInstance mapMapping : this.oClientMapToMapInstanceMapping.values()) {
                 if (mapMapping.hasWMS(wmsId)) {
                     mapMapping.addMapService(mapService);
@@ -1762,76 +1953,61 @@ public class StorageManager implements IStorageManager {
                 }
             }
         } finally {
-            lock.unlock();
+            writeLock.unlock();
         }
     }
 
     private void dirtySinglePointOnMap(IMap map) {
-        StorageObjectWrapper oWrapper;
-
         IMapInstance mapInstance = getMapInstance(map);
-        if(null == mapInstance) return;
+        MapFeatureIndex featureIndex = this.oMapFeatureIndex.get(map.getGeoId());
+        if((null == mapInstance) || (null == featureIndex)) return;
         FeatureVisibilityList fvList = new FeatureVisibilityList();
 
         // We need to force an update on all single point icon features
         // on the specified map.
-        for (java.util.UUID uuId: this.oObjectHash.keySet()) {
-            oWrapper = this.oObjectHash.get(uuId);
-            if (oWrapper.getObject() instanceof MilStdSymbol) {
-                if (oWrapper.isOnMap(map.getGeoId())) {
-                    MilStdSymbol oSymbol = (MilStdSymbol) oWrapper.getObject();
-                    if (!oSymbol.isTacticalGraphic()) {
-                        if (VisibilityStateEnum.VISIBLE == getVisibilityOnMap(map, oSymbol)) {
-                            fvList.add(new FeatureVisibility(oSymbol, true));
-                        } else {
-                            //Log.d(TAG, "feature is not visible " + oSymbol.getClass().getSimpleName() + " " + oSymbol.getGeoId());
-                        }
-                    }
-                }
-            } else if (oWrapper.getObject() instanceof Point) {
-                if (oWrapper.isOnMap(map.getGeoId())) {
-                    Point oPoint = (Point) oWrapper.getObject();
-                    if (VisibilityStateEnum.VISIBLE == getVisibilityOnMap(map, oPoint)) {
-                        fvList.add(new FeatureVisibility(oPoint, true));
-                    }
-                }
-            }
-        }
+        this.addVisibleFeatures(fvList, map.getGeoId(), featureIndex.getWrappers(MapFeatureIndex.FeatureCategory.MILSTD_SINGLE_POINT));
+        this.addVisibleFeatures(fvList, map.getGeoId(), featureIndex.getWrappers(MapFeatureIndex.FeatureCategory.POINT));
         if(fvList.size() > 0) {
             mapInstance.addFeatures(fvList);
         }
     }
 
     private void dirtyMilStdOnMap(IMap map) {
-        StorageObjectWrapper oWrapper;
-
         IMapInstance mapInstance = getMapInstance(map);
-        if(null == mapInstance) return;
+        MapFeatureIndex featureIndex = this.oMapFeatureIndex.get(map.getGeoId());
+        if((null == mapInstance) || (null == featureIndex)) return;
         FeatureVisibilityList fvList = new FeatureVisibilityList();
 
         // We need to force an update on all MilStd features
         // on the specified map.
-        for (java.util.UUID uuId: this.oObjectHash.keySet()) {
-            oWrapper = this.oObjectHash.get(uuId);
-            if (oWrapper.getObject() instanceof MilStdSymbol) {
-                if (oWrapper.isOnMap(map.getGeoId())) {
-                    MilStdSymbol oSymbol = (MilStdSymbol) oWrapper.getObject();
-                    if (VisibilityStateEnum.VISIBLE == getVisibilityOnMap(map, oSymbol)) {
-                        fvList.add(new FeatureVisibility(oSymbol, true));
-                    }
-                }
-            }
-        }
+        this.addVisibleFeatures(fvList, map.getGeoId(), featureIndex.getWrappers(MapFeatureIndex.FeatureCategory.MILSTD_SINGLE_POINT));
+        this.addVisibleFeatures(fvList, map.getGeoId(), featureIndex.getWrappers(MapFeatureIndex.FeatureCategory.MILSTD_TACTICAL_GRAPHIC));
         if(fvList.size() > 0) {
             mapInstance.addFeatures(fvList);
         }
     }
+
+    /**
+     * Adds the features of the wrappers that are visible on the map to the list.
+     * @param fvList
+     * @param mapId
+     * @param wrappers
+     */
+    private void addVisibleFeatures(FeatureVisibilityList fvList, java.util.UUID mapId, Collection<StorageObjectWrapper> wrappers) {
+        for (StorageObjectWrapper oWrapper : wrappers) {
+            if (VisibilityStateEnum.VISIBLE == oWrapper.getVisibilityOnMap(mapId)) {
+                fvList.add(new FeatureVisibility((IFeature) oWrapper.getObject(), true));
+            } else {
+                //Log.d(TAG, "feature is not visible " + oWrapper.getObject().getClass().getSimpleName() + " " + oWrapper.getGeoId());
+            }
+        }
+    }
     
     @Override
     public void setIconSize(IMap map, IconSizeEnum eSize)
             throws EMP_Exception {
         try {
-            lock.lock();
+            writeLock.lock();
             IClientMapToMapInstance oMapping = this.getMapMapping(map);
 
             if (oMapping == null) {
@@ -1841,7 +2017,7 @@ public class StorageManager implements IStorageManager {
             oMapping.setIconSize(eSize);
             this.dirtySinglePointOnMap(map);
         } finally {
-            lock.unlock();
+            writeLock.unlock();
         }
     }
 
@@ -1859,7 +2035,7 @@ public class StorageManager implements IStorageManager {
     public void setMilStdLabels(IMap map, MilStdLabelSettingEnum labelSetting)
             throws EMP_Exception {
         try {
-            lock.lock();
+            writeLock.lock();
             IClientMapToMapInstance oMapping = this.getMapMapping(map);
 
             if (oMapping == null) {
@@ -1869,7 +2045,7 @@ public class StorageManager implements IStorageManager {
             oMapping.setMilStdLabels(labelSetting);
             this.dirtyMilStdOnMap(map);
         } finally {
-            lock.unlock();
+            writeLock.unlock();
         }
     }
 
@@ -1918,7 +2094,7 @@ public class StorageManager implements IStorageManager {
         //Log.d(TAG, "addDrawFeature to map.");
 
         try {
-            lock.lock();
+            writeLock.lock();
             java.util.UUID childId;
             java.util.UUID parentId = oMap.getGeoId();
             StorageObjectWrapper wrapper;
@@ -1944,7 +2120,7 @@ public class StorageManager implements IStorageManager {
 
             this.executeTransaction(transactionList);
         } finally {
-            lock.unlock();
+            writeLock.unlock();
         }
     }
 
@@ -1953,7 +2129,7 @@ public class StorageManager implements IStorageManager {
         //Log.d(TAG, "removeDrawFeatures from map.");
 
         try {
-            lock.lock();
+            writeLock.lock();
             StorageObjectWrapper parentWrapper = this.oObjectHash.get(oMap.getGeoId());
 
             if (!parentWrapper.getChildIdList().contains(oFeature.getGeoId())) {
@@ -1973,14 +2149,14 @@ public class StorageManager implements IStorageManager {
 
             executeTransaction(transactionList);
         } finally {
-            lock.unlock();
+            writeLock.unlock();
         }
     }
 
     @Override
     public void setFarDistanceThreshold(IMap oMap, double dValue) {
         try {
-            lock.lock();
+            writeLock.lock();
             StorageObjectWrapper oMapWrapper = this.oObjectHash.get(oMap.getGeoId());
             IClientMapToMapInstance oMapping = this.getMapMapping((IMap) oMapWrapper.getObject());
 
@@ -1989,14 +2165,14 @@ public class StorageManager implements IStorageManager {
             }
             oMapping.setFarDistanceThreshold(dValue);
         } finally {
-            lock.unlock();
+            writeLock.unlock();
         }
     }
 
     @Override
     public double getFarDistanceThreshold(IMap oMap) {
         try {
-            lock.lock();
+            readLock.lock();
             // TODO This is a hack to test the far and mid distance threshold.
             StorageObjectWrapper oMapWrapper = this.oObjectHash.get(oMap.getGeoId());
             IClientMapToMapInstance oMapping = this.getMapMapping((IMap) oMapWrapper.getObject());
@@ -2006,14 +2182,14 @@ public class StorageManager implements IStorageManager {
             }
             return oMapping.getFarDistanceThreshold();
         } finally {
-            lock.unlock();
+            readLock.unlock();
         }
     }
 
     @Override
     public double getFarDistanceThreshold(IMapInstance mapInstance) {
         try {
-            lock.lock();
+            readLock.lock();
             IClientMapToMapInstance oMapping = this.getMapMapping(mapInstance);
 
             if (oMapping == null) {
@@ -2021,14 +2197,14 @@ public class StorageManager implements IStorageManager {
             }
             return oMapping.getFarDistanceThreshold();
         } finally {
-            lock.unlock();
+            readLock.unlock();
         }
     }
 
     @Override
     public void setMidDistanceThreshold(IMap oMap, double dValue) {
         try {
-            lock.lock();
+            writeLock.lock();
             StorageObjectWrapper oMapWrapper = this.oObjectHash.get(oMap.getGeoId());
             IClientMapToMapInstance oMapping = this.getMapMapping((IMap) oMapWrapper.getObject());
 
@@ -2041,7 +2217,7 @@ public class StorageManager implements IStorageManager {
             oMapping.setMidDistanceThreshold(dValue, setOnMapInstance);
 
         } finally {
-            lock.unlock();
+            writeLock.unlock();
         }
     }
 
@@ -2056,7 +2232,7 @@ public class StorageManager implements IStorageManager {
     @Override
     public void setMidDistanceThresholdActual(IMap oMap, double dValue) {
         try {
-            lock.lock();
+            writeLock.lock();
             StorageObjectWrapper oMapWrapper = this.oObjectHash.get(oMap.getGeoId());
             IClientMapToMapInstance oMapping = this.getMapMapping((IMap) oMapWrapper.getObject());
 
@@ -2068,14 +2244,14 @@ public class StorageManager implements IStorageManager {
             }
 
         } finally {
-            lock.unlock();
+            writeLock.unlock();
         }
     }
 
     @Override
     public double getMidDistanceThreshold(IMap oMap) {
         try {
-            lock.lock();
+            readLock.lock();
             if(null != oMap) {
                 StorageObjectWrapper oMapWrapper = this.oObjectHash.get(oMap.getGeoId());
                 IClientMapToMapInstance oMapping = this.getMapMapping((IMap) oMapWrapper.getObject());
@@ -2088,14 +2264,14 @@ public class StorageManager implements IStorageManager {
                 return Double.NaN;
             }
         } finally {
-            lock.unlock();
+            readLock.unlock();
         }
     }
 
     @Override
     public double getMidDistanceThreshold(IMapInstance mapInstance) {
         try {
-            lock.lock();
+            readLock.lock();
             if(null != mapInstance) {
                 IClientMapToMapInstance oMapping = this.getMapMapping(mapInstance);
 
@@ -2107,7 +2283,7 @@ public class StorageManager implements IStorageManager {
                 return Double.NaN;
             }
         } finally {
-            lock.unlock();
+            readLock.unlock();
         }
     }
 
@@ -2118,12 +2294,12 @@ public class StorageManager implements IStorageManager {
     public Map<IMap, Double> getMidDistanceThreshold() {
         Map<IMap, Double> midDistanceThreshols = new HashMap<>();
         try {
-            lock.lock();
+            readLock.lock();
             for(Map.Entry<IMap, ClientMapToMapInstance> entry : oClientMapToMapInstanceMapping.entrySet()) {
                 midDistanceThreshols.put(entry.getKey(), entry.getValue().getMidDistanceThreshold());
             }
         } finally {
-            lock.unlock();
+            readLock.unlock();
         }
         return midDistanceThreshols;
     }
@@ -2215,7 +2391,7 @@ public class StorageManager implements IStorageManager {
         if ((features != null) && (null != clientMap) && (null != (mapping = this.getMapMapping(clientMap)))){
             List<IFeature> featureList = new ArrayList<>();
             try {
-                lock.lock();
+                writeLock.lock();
                 StorageObjectWrapper wrapper;
 
                 for (IFeature feature : features) {
@@ -2233,7 +2409,7 @@ public class StorageManager implements IStorageManager {
                     mapping.getMapInstance().selectFeatures(featureList);
                 }
             } finally {
-                lock.unlock();
+                writeLock.unlock();
             }
 
             // Don't invoke application code within the lock
@@ -2259,7 +2435,7 @@ public class StorageManager implements IStorageManager {
             List<IFeature> featureList = new ArrayList<>();
 
             try {
-                lock.lock();
+                writeLock.lock();
                 StorageObjectWrapper wrapper;
 
                 for (IFeature feature : features) {
@@ -2277,7 +2453,7 @@ public class StorageManager implements IStorageManager {
                     mapping.getMapInstance().deselectFeatures(featureList);
                 }
             } finally {
-                lock.unlock();
+                writeLock.unlock();
             }
 
             // Don't invoke application code within a lock
@@ -2302,11 +2478,11 @@ public class StorageManager implements IStorageManager {
 
         if ((null != clientMap) && (null != (mapping = this.getMapMapping(clientMap)))) {
             try {
-                lock.lock();
+                readLock.lock();
                 list.addAll(mapping.getSelected());
                 return list;
             } finally {
-                lock.unlock();
+                readLock.unlock();
             }
         }
         return list;
@@ -2324,7 +2500,7 @@ public class StorageManager implements IStorageManager {
             List<IFeature> deselectList = new ArrayList<>();
 
             try {
-                lock.lock();
+                writeLock.lock();
                 StorageObjectWrapper wrapper;
                 // Get the list of selected feature on the map.
                 List<IFeature> featureList = mapping.getSelected();
@@ -2345,7 +2521,7 @@ public class StorageManager implements IStorageManager {
                     mapping.clearSelected();
                 }
             } finally {
-                lock.unlock();
+                writeLock.unlock();
             }
 
             // Don't invoke application code within a lock
@@ -2362,7 +2538,7 @@ public class StorageManager implements IStorageManager {
         IClientMapToMapInstance mapping;
         if ((null != feature) && (null != clientMap) && (null != (mapping = this.getMapMapping(clientMap)))) {
             try {
-                lock.lock();
+                readLock.lock();
                 StorageObjectWrapper wrapper;
 
                 wrapper = this.oObjectHash.get(feature.getGeoId());
@@ -2370,7 +2546,7 @@ public class StorageManager implements IStorageManager {
                     return mapping.isSelected(feature);
                 }
             } finally {
-                lock.unlock();
+                readLock.unlock();
             }
         }
         return false;
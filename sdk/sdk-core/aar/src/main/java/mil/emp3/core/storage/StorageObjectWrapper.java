@@ -5,6 +5,7 @@ import android.util.Log;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import mil.emp3.api.enums.VisibilityStateEnum;
 import mil.emp3.api.exceptions.EMP_Exception;
@@ -27,7 +28,20 @@ public class StorageObjectWrapper<T extends IContainer> implements IStorageObjec
     private T container;
     private final Map<UUID, IParentRelationship> parentList;
     private final Map<UUID, IStorageObjectWrapper> childrenList;
-    
+
+    // Effective visibility and on map state keyed by map Id. They are derived from the parent relationships on first use
+    // and the entry for a map is dropped whenever a relationship of this wrapper changes for that map. Relationship
+    // changes only happen under the StorageManager write lock, but readers holding the read lock populate the caches
+    // concurrently, hence the ConcurrentHashMap.
+    private final Map<UUID, VisibilityStateEnum> visibilityCache = new ConcurrentHashMap<>();
+    private final Map<UUID, Boolean> onMapCache = new ConcurrentHashMap<>();
+
+    // Flattened list of all descendants. It is built on first use and dropped, together with the views of all
+    // ancestors, when a child is added or removed anywhere below this wrapper. A wrapper with a valid view always
+    // has children with valid views, so invalidation stops at the first ancestor whose view is already gone.
+    // Map wrappers don't keep a view as the children of a restored map still refer to the previous map wrapper.
+    private volatile DescendantView descendantView = null;
+
     protected StorageObjectWrapper(T oContainer) {
         this.container = oContainer;
         this.parentList = new HashMap<>();
@@ -45,6 +59,55 @@ public class StorageObjectWrapper<T extends IContainer> implements IStorageObjec
     protected void copy(IStorageObjectWrapper from) {
         this.parentList.putAll(from.getParentList());
         this.childrenList.putAll(from.getChildrenList());
+        this.invalidateVisibility();
+        this.invalidateDescendantView();
+    }
+
+    /**
+     * Drops the cached state of all maps.
+     */
+    private void invalidateVisibility() {
+        this.visibilityCache.clear();
+        this.onMapCache.clear();
+    }
+
+    /**
+     * Drops the cached state of one map.
+     * @param mapId
+     */
+    private void invalidateVisibility(UUID mapId) {
+        this.visibilityCache.remove(mapId);
+        this.onMapCache.remove(mapId);
+    }
+
+    /**
+     * Returns the flattened list of all direct and indirect children, building it if needed. It must be called
+     * while holding the StorageManager read or write lock.
+     * @return
+     */
+    protected DescendantView getDescendantView() {
+        DescendantView view = this.descendantView;
+
+        if (null == view) {
+            view = DescendantView.build(this);
+            if (!(this.container instanceof IMap)) {
+                this.descendantView = view;
+            }
+        }
+        return view;
+    }
+
+    /**
+     * Drops the descendant view of this wrapper and of all its ancestors. It must be called while holding the
+     * StorageManager write lock.
+     */
+    private void invalidateDescendantView() {
+        if (null != this.descendantView) {
+            this.descendantView = null;
+            for (IParentRelationship parentRelationship: this.parentList.values()) {
+                ((StorageObjectWrapper) parentRelationship.getParentWrapper()).invalidateDescendantView();
+            }
+        }
     }
 
     protected java.util.Set<java.util.UUID> getChildIdList() {
@@ -114,6 +177,7 @@ public class StorageObjectWrapper<T extends IContainer> implements IStorageObjec
             ParentRelationship oParentRelationship = new ParentRelationship(parent);
 
             this.parentList.put(parent.getObject().getGeoId(), oParentRelationship);
+            this.invalidateVisibility();
             
             for (java.util.UUID uuId: parentMapIdList) {
                     visibilityStateEnum = VisibilityStateEnum.HIDDEN;
@@ -139,6 +203,7 @@ public class StorageObjectWrapper<T extends IContainer> implements IStorageObjec
                             break;
                     }
                     oParentRelationship.setVisibilityOnMap(uuId, visibilityStateEnum);
+                    this.invalidateVisibility(uuId);
                     this.setChildrenVisibilityOnMap(uuId, visibilityEnum);
             }
         }
@@ -156,6 +221,7 @@ public class StorageObjectWrapper<T extends IContainer> implements IStorageObjec
                 throw new EMP_Exception(EMP_Exception.ErrorDetail.INVALID_CHILD, "The object can not be its own ancestor.");
             } else {
                 this.childrenList.put(newChild.getObject().getGeoId(), newChild);
+                this.invalidateDescendantView();
                 newChild.addParent(this, visibilityEnum);
             }
         }
@@ -184,6 +250,7 @@ public class StorageObjectWrapper<T extends IContainer> implements IStorageObjec
         
         if (parentRelationship != null) {
             parentRelationship.setVisibilityOnMap(mapId, visibilitystate);
+            this.invalidateVisibility(mapId);
         }
     }
 
@@ -206,6 +273,16 @@ public class StorageObjectWrapper<T extends IContainer> implements IStorageObjec
 
     @Override
     public VisibilityStateEnum getVisibilityOnMap(java.util.UUID mapId) {
+        VisibilityStateEnum visibility = this.visibilityCache.get(mapId);
+
+        if (null == visibility) {
+            visibility = this.computeVisibilityOnMap(mapId);
+            this.visibilityCache.put(mapId, visibility);
+        }
+        return visibility;
+    }
+
+    private VisibilityStateEnum computeVisibilityOnMap(java.util.UUID mapId) {
         if (this.container instanceof IMap) {
             if (this.container.getGeoId().compareTo(mapId) == 0) {
                 return VisibilityStateEnum.VISIBLE;
@@ -215,7 +292,7 @@ public class StorageObjectWrapper<T extends IContainer> implements IStorageObjec
                 return VisibilityStateEnum.VISIBLE;
             }
         }
-        
+
         return VisibilityStateEnum.HIDDEN;
     }
     
@@ -240,6 +317,7 @@ public class StorageObjectWrapper<T extends IContainer> implements IStorageObjec
             IStorageObjectWrapper childWrapper = this.childrenList.get(childId);
             
             this.childrenList.remove(childId);
+            this.invalidateDescendantView();
             childWrapper.removeParent(this);
         }
     }
@@ -248,20 +326,25 @@ public class StorageObjectWrapper<T extends IContainer> implements IStorageObjec
     public void removeParent(IStorageObjectWrapper parentWrapper) {
         if (this.parentList.containsKey(parentWrapper.getGeoId())) {
             this.parentList.remove(parentWrapper.getGeoId());
+            this.invalidateVisibility();
         }
     }
     
     protected boolean isOnMap(java.util.UUID mapId) {
-        boolean bRet = false;
-        
-        for (IParentRelationship parentRelationship: this.parentList.values()) {
-            bRet = parentRelationship.isOnMap(mapId);
-            if (bRet) {
-                Log.d(TAG, "isOnMap parentRelationship " + parentRelationship.getParentWrapper().getGeoId());
-                break;
+        Boolean onMap = this.onMapCache.get(mapId);
+
+        if (null == onMap) {
+            onMap = false;
+            for (IParentRelationship parentRelationship: this.parentList.values()) {
+                if (parentRelationship.isOnMap(mapId)) {
+                    //Log.d(TAG, "isOnMap parentRelationship " + parentRelationship.getParentWrapper().getGeoId());
+                    onMap = true;
+                    break;
+                }
             }
+            this.onMapCache.put(mapId, onMap);
         }
-        return bRet;
+        return onMap;
     }
 
     protected void clearMapVisibility(StorageObjectWrapper parentWrapper, UUID mapId) {
@@ -271,6 +354,7 @@ public class StorageObjectWrapper<T extends IContainer> implements IStorageObjec
                 parentRelationship.resetVisibilityOnMap(mapId);
             }
         }
+        this.invalidateVisibility(mapId);
     }
 
     @Override
@@ -17,7 +17,9 @@ import org.cmapi.primitives.IGeoPosition;
 import org.cmapi.primitives.IGeoStrokeStyle;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 import armyc2.c2sd.graphics2d.Point2D;
 import armyc2.c2sd.renderer.utilities.MilStdAttributes;
@@ -38,10 +40,15 @@ import mil.emp3.api.interfaces.IFeature;
 import mil.emp3.api.interfaces.core.IStorageManager;
 import mil.emp3.api.utils.EmpGeoColor;
 import mil.emp3.api.utils.FontUtilities;
+import mil.emp3.api.utils.GeoLibrary;
 import mil.emp3.core.utils.milstd2525.MilStdUtilities;
 import mil.emp3.core.utils.milstd2525.icons.BitmapCacheFactory;
+import mil.emp3.core.utils.milstd2525.icons.CoreBitmapCache;
 import mil.emp3.core.utils.milstd2525.icons.IBitmapCache;
+import mil.emp3.core.utils.milstd2525.icons.IconPrefetcher;
+import mil.emp3.mapengine.api.MilStdSymbolKey;
 import mil.emp3.mapengine.interfaces.IEmpImageInfo;
+import mil.emp3.mapengine.interfaces.IIconPrefetchStatistics;
 import mil.emp3.mapengine.interfaces.IMapInstance;
 import mil.emp3.mapengine.interfaces.IMilStdRenderer;
 import sec.web.render.SECWebRenderer;
@@ -66,6 +73,7 @@ public class MilStdRenderer implements IMilStdRenderer {
     private static java.util.Set<IGeoMilSymbol.Modifier> oRequiredLabels = new java.util.HashSet<>();
     private static java.util.Set<IGeoMilSymbol.Modifier> oCommonLabels = new java.util.HashSet<>();
     private static IBitmapCache oBitmapCache = null;
+    private static final IconPrefetcher oIconPrefetcher = new IconPrefetcher();
 
     private boolean initialized;
 
@@ -811,10 +819,13 @@ public class MilStdRenderer implements IMilStdRenderer {
         SparseArray<String> attributes = this.getAttributes(mapInstance, symbol, selected);
         String altitudeModeStr = MilStdUtilities.geoAltitudeModeToString(symbol.getAltitudeMode());
 
-        armyc2.c2sd.renderer.utilities.MilStdSymbol renderSymbol = SECWebRenderer.RenderMultiPointAsMilStdSymbol(
-                symbol.getGeoId().toString(), symbol.getName(), symbol.getDescription(),
-                symbol.getSymbolCode(), coordinateStr, altitudeModeStr, scale, boundingBoxStr,
-                modifiers, attributes, milstdVersion);
+        armyc2.c2sd.renderer.utilities.MilStdSymbol renderSymbol;
+        synchronized (CoreBitmapCache.RENDERER_LOCK) {
+            renderSymbol = SECWebRenderer.RenderMultiPointAsMilStdSymbol(
+                    symbol.getGeoId().toString(), symbol.getName(), symbol.getDescription(),
+                    symbol.getSymbolCode(), coordinateStr, altitudeModeStr, scale, boundingBoxStr,
+                    modifiers, attributes, milstdVersion);
+        }
         Log.d(TAG, "After RenderMultiPointAsMilStdSymbol renderSymbolgetSymbolShapes().size() " + renderSymbol.getSymbolShapes().size());
         // Retrieve the list of shapes.
         this.renderShapeParser(featureList, mapInstance, renderSymbol, symbol, selected);
@@ -842,6 +853,89 @@ public class MilStdRenderer implements IMilStdRenderer {
         return MilStdRenderer.oBitmapCache.getImageInfo(sSymbolCode, oModifiers, oAttr);
     }
 
+    @Override
+    public IEmpImageInfo getMilStdIcon(MilStdSymbolKey oSymbolKey) {
+        initCheck();
+
+        return MilStdRenderer.oBitmapCache.getImageInfo(oSymbolKey);
+    }
+
+    @Override
+    public void prefetchIcons(Collection<MilStdSymbol> symbols, final IMapInstance mapInstance) {
+        // The cache is created when the first map sets the cache directory, there is nothing to draw before that.
+        final IBitmapCache oCache = MilStdRenderer.oBitmapCache;
+
+        if ((null == oCache) || (null == mapInstance) || (null == symbols) || symbols.isEmpty()) {
+            return;
+        }
+
+        // The keys are built on the prefetch thread, the caller only copies the list.
+        final List<MilStdSymbol> symbolList = new ArrayList<>(symbols);
+        MilStdRenderer.oIconPrefetcher.prefetch(oCache, new IconPrefetcher.KeyCollector() {
+            @Override
+            public int collectKeys(Set<MilStdSymbolKey> keys) {
+                return MilStdRenderer.this.collectIconKeys(mapInstance, symbolList, keys);
+            }
+        });
+    }
+
+    @Override
+    public IIconPrefetchStatistics getIconPrefetchStatistics() {
+        return MilStdRenderer.oIconPrefetcher.getStatistics();
+    }
+
+    /**
+     * Builds the keys the map engine will ask for when it first draws the symbols. The level of detail is selected
+     * by the distance from the camera to the symbol, as the map engine does. Symbols beyond the far distance threshold
+     * are drawn as a dot and are not collected. The keys are those of the unselected symbols.
+     * @param mapInstance
+     * @param symbols
+     * @param keys The set the keys are added to.
+     * @return The number of symbols a key was collected for.
+     */
+    private int collectIconKeys(IMapInstance mapInstance, List<MilStdSymbol> symbols, Set<MilStdSymbolKey> keys) {
+        double dFarThreshold = this.getFarDistanceThreshold(mapInstance);
+        double dMidThreshold = this.getMidDistanceThreshold(mapInstance);
+        ICamera camera = mapInstance.getCamera();
+        IGeoPosition cameraPosition = null;
+        int iSymbolCount = 0;
+
+        if (null != camera) {
+            cameraPosition = new GeoPosition();
+            cameraPosition.setLatitude(camera.getLatitude());
+            cameraPosition.setLongitude(camera.getLongitude());
+        }
+
+        for (MilStdSymbol symbol : symbols) {
+            try {
+                IGeoPosition position = symbol.getPosition();
+
+                if (!symbol.isSinglePoint() || (null == position)) {
+                    continue;
+                }
+
+                double dDistance = 0;
+                if (null != cameraPosition) {
+                    double dGroundDistance = GeoLibrary.computeDistanceBetween(cameraPosition, position);
+                    double dHeight = camera.getAltitude() - position.getAltitude();
+                    dDistance = Math.sqrt((dGroundDistance * dGroundDistance) + (dHeight * dHeight));
+                }
+                if (dDistance > dFarThreshold) {
+                    continue;
+                }
+
+                // The medium level of detail has no modifiers.
+                SparseArray<String> oModifiers = (dDistance > dMidThreshold) ? null : this.getUnitModifiers(mapInstance, symbol);
+                keys.add(MilStdSymbolKey.create(symbol.getSymbolCode(), oModifiers, this.getAttributes(mapInstance, symbol, false)));
+                iSymbolCount++;
+            } catch (RuntimeException e) {
+                // The symbol may be changed by the application while the keys are collected.
+                Log.w(TAG, "prefetchIcons skipped symbol " + symbol.getGeoId() + " " + e.getMessage());
+            }
+        }
+        return iSymbolCount;
+    }
+
     /**
      * This method converts a IGeoMilSymbol.SymbolStandard enumerated value to a
      * MilStd Renderer symbol version value.
@@ -973,10 +1067,13 @@ public class MilStdRenderer implements IMilStdRenderer {
             return oList;
         }
 
-        armyc2.c2sd.renderer.utilities.MilStdSymbol renderSymbol = SECWebRenderer.RenderMultiPointAsMilStdSymbol(
-                feature.getGeoId().toString(), feature.getName(), feature.getDescription(),
-                symbolCode, coordinateStr, altitudeModeStr, scale, boundingBoxStr,
-                modifiers, attributes, 1);
+        armyc2.c2sd.renderer.utilities.MilStdSymbol renderSymbol;
+        synchronized (CoreBitmapCache.RENDERER_LOCK) {
+            renderSymbol = SECWebRenderer.RenderMultiPointAsMilStdSymbol(
+                    feature.getGeoId().toString(), feature.getName(), feature.getDescription(),
+                    symbolCode, coordinateStr, altitudeModeStr, scale, boundingBoxStr,
+                    modifiers, attributes, 1);
+        }
 
         // Retrieve the list of shapes.
         this.renderBasicShapeParser(oList, mapInstance, renderSymbol, feature, selected);
@@ -1,7 +1,6 @@
 package mil.emp3.core.utils.milstd2525.icons;
 
 import android.util.Log;
-import android.util.SparseArray;
 
 import java.util.HashMap;
 import java.util.Iterator;
@@ -12,6 +11,7 @@ import mil.emp3.api.interfaces.IMap;
 import mil.emp3.api.interfaces.core.IStorageManager;
 import mil.emp3.api.utils.ManagerFactory;
 import mil.emp3.core.utils.milstd2525.EmpImageInfo;
+import mil.emp3.mapengine.api.MilStdSymbolKey;
 import mil.emp3.mapengine.interfaces.IEmpImageInfo;
 
 /**
@@ -63,10 +63,10 @@ public class AdaptiveBitmapCache extends CoreBitmapCache {
 
     // This cache contains Bitmaps that contain either medium or high amount of details. I have seen Bitmap sizes of 60K for high
     // level of detail and it will probably be more in future. It is this cache that is used to manage MDT.
-    private java.util.concurrent.ConcurrentHashMap<String, IEmpImageInfo> oBitmapCache = new java.util.concurrent.ConcurrentHashMap<>();
+    private java.util.concurrent.ConcurrentHashMap<MilStdSymbolKey, IEmpImageInfo> oBitmapCache = new java.util.concurrent.ConcurrentHashMap<>();
 
     // These are the icons that are beyond the FDT and each have 400 bytes of Bitmap, Algorithm doesn't look at this cache.
-    private java.util.concurrent.ConcurrentHashMap<String, IEmpImageInfo> oBitmapCacheFarImage = new java.util.concurrent.ConcurrentHashMap<>();
+    private java.util.concurrent.ConcurrentHashMap<MilStdSymbolKey, IEmpImageInfo> oBitmapCacheFarImage = new java.util.concurrent.ConcurrentHashMap<>();
 
     // Control access to the Caches even though they use Concurrent Hash Maps as there are multiple places where we are doing insert and
     // remove operations and calculating cache size. If this is deemed unnecessary in future we can remove it.
@@ -273,13 +273,11 @@ public class AdaptiveBitmapCache extends CoreBitmapCache {
 
     /**
      * Either the EmpImageInfo from cache or create one.
-     * @param sSymbolCode
-     * @param oModifiers
-     * @param oAttr
+     * @param sKey
      * @return
      */
-    public IEmpImageInfo getImageInfo(String sSymbolCode, SparseArray oModifiers, SparseArray oAttr) {
-        String sKey = makeKey(sSymbolCode, oModifiers, oAttr);
+    @Override
+    public IEmpImageInfo getImageInfo(MilStdSymbolKey sKey) {
 
         // Remember that Bitmap is a WeakReference in EmpImgaeInfo and could be null as was garbage collected
         // If Weak Reference is detected then it should be removed from the cache.
@@ -302,7 +300,7 @@ public class AdaptiveBitmapCache extends CoreBitmapCache {
         }
 
         if (empImageInfo == null) {
-            empImageInfo = createImageInfo(sSymbolCode, oModifiers, oAttr);
+            empImageInfo = createImageInfo(sKey);
             if (!empImageInfo.isFarImageIcon()) {
                 Log.d(TAG, "cache create getImageInfo oBitmapCache key/size " + sizeBitmapCache + " " + empImageInfo.getImageKey() + " " +
                         empImageInfo.getImageSize());
@@ -323,7 +321,7 @@ public class AdaptiveBitmapCache extends CoreBitmapCache {
      * @param sKey
      * @param oEmpImageInfo
      */
-    protected void put(String sKey, EmpImageInfo oEmpImageInfo) {
+    protected void put(MilStdSymbolKey sKey, EmpImageInfo oEmpImageInfo) {
         if(!oEmpImageInfo.isFarImageIcon()) {
             if(sizeBitmapCache >= (MaxBitmapCacheSize * distanceManager.memoryThreshold)) {
                 cleanBitmapCache();
@@ -409,7 +407,7 @@ public class AdaptiveBitmapCache extends CoreBitmapCache {
      * Remove and update size.
      * @param sKey
      */
-    private void removeFromBitmapCache(String sKey) {
+    private void removeFromBitmapCache(MilStdSymbolKey sKey) {
         try {
             lock.lock();
             IEmpImageInfo eii = oBitmapCache.remove(sKey);
@@ -425,7 +423,7 @@ public class AdaptiveBitmapCache extends CoreBitmapCache {
      * Remove and update size
      * @param sKey
      */
-    private void removeFromBitmapCacheFarImage(String sKey) {
+    private void removeFromBitmapCacheFarImage(MilStdSymbolKey sKey) {
         try {
             lock.lock();
             IEmpImageInfo eii = oBitmapCacheFarImage.remove(sKey);
@@ -444,9 +442,9 @@ public class AdaptiveBitmapCache extends CoreBitmapCache {
         try {
             lock.lock();
             sizeBitmapCache = 0;
-            Iterator<Map.Entry<String, IEmpImageInfo>> iter = oBitmapCache.entrySet().iterator();
+            Iterator<Map.Entry<MilStdSymbolKey, IEmpImageInfo>> iter = oBitmapCache.entrySet().iterator();
             while (iter.hasNext()) {
-                Map.Entry<String, IEmpImageInfo> entry = iter.next();
+                Map.Entry<MilStdSymbolKey, IEmpImageInfo> entry = iter.next();
                 if (entry.getValue().getImage() == null) {
                     Log.i(TAG, "Weak Reference " + entry.getKey() + " " + entry.getValue().getImageSize());
                     iter.remove();
@@ -1,13 +1,13 @@
 package mil.emp3.core.utils.milstd2525.icons;
 
 import android.util.Log;
-import android.util.SparseArray;
 
 
 import java.lang.ref.WeakReference;
 
 import mil.emp3.api.interfaces.IMap;
 import mil.emp3.core.utils.milstd2525.EmpImageInfo;
+import mil.emp3.mapengine.api.MilStdSymbolKey;
 import mil.emp3.mapengine.interfaces.IEmpImageInfo;
 
 /**
@@ -18,7 +18,7 @@ import mil.emp3.mapengine.interfaces.IEmpImageInfo;
 public class BitmapCache extends CoreBitmapCache {
     private static final String TAG = BitmapCache.class.getSimpleName();
     private static BitmapCache instance = null;
-    private java.util.concurrent.ConcurrentHashMap<String, WeakReference<EmpImageInfo>> oBitmapCache = new java.util.concurrent.ConcurrentHashMap<>();
+    private java.util.concurrent.ConcurrentHashMap<MilStdSymbolKey, WeakReference<EmpImageInfo>> oBitmapCache = new java.util.concurrent.ConcurrentHashMap<>();
 
     private BitmapCache(String sCacheDir) {
         super(TAG, sCacheDir);
@@ -42,10 +42,10 @@ public class BitmapCache extends CoreBitmapCache {
         int cacheSize = this.oBitmapCache.size();
 
         if (cacheSize > 100) {
-            String[] keyArray = new String[cacheSize];
+            MilStdSymbolKey[] keyArray = new MilStdSymbolKey[cacheSize];
             this.oBitmapCache.keySet().toArray(keyArray);
 
-            for (String symbolCode : keyArray) {
+            for (MilStdSymbolKey symbolCode : keyArray) {
                 WeakReference<EmpImageInfo> oReference = this.oBitmapCache.get(symbolCode);
                 IEmpImageInfo oImageInfo = (oReference == null) ? null : oReference.get();
 
@@ -60,27 +60,26 @@ public class BitmapCache extends CoreBitmapCache {
         }
     }
 
-    public IEmpImageInfo getImageInfo(String sSymbolCode, SparseArray oModifiers, SparseArray oAttr) {
-        String sKey = this.makeKey(sSymbolCode, oModifiers, oAttr);
-
-        //Log.d(TAG, "Key: " + sKey);
-        WeakReference<EmpImageInfo> oReference = this.oBitmapCache.get(sKey);
+    @Override
+    public IEmpImageInfo getImageInfo(MilStdSymbolKey oKey) {
+        //Log.d(TAG, "Key: " + oKey);
+        WeakReference<EmpImageInfo> oReference = this.oBitmapCache.get(oKey);
         IEmpImageInfo oImageInfo = (oReference == null)? null: oReference.get();
 
         if (oImageInfo == null) {
-            oImageInfo = this.createImageInfo(sSymbolCode, oModifiers, oAttr);
+            oImageInfo = this.createImageInfo(oKey);
             Log.e(TAG, "cache create getImageInfo key/size " + oBitmapCache.size() + " " + oImageInfo.getImageKey() + " " + oImageInfo.getImage().getAllocationByteCount());
         } else if (oImageInfo.getImage() == null) {
-            this.oBitmapCache.remove(oImageInfo);
-            oImageInfo = this.createImageInfo(sSymbolCode, oModifiers, oAttr);
+            this.oBitmapCache.remove(oKey);
+            oImageInfo = this.createImageInfo(oKey);
             Log.e(TAG, "cache weak create getImageInfo key/size " + oBitmapCache.size() + " " + oImageInfo.getImageKey() + " " + oImageInfo.getImage().getAllocationByteCount());
         }
 
         return oImageInfo;
     }
 
-    protected void put(String sKey, EmpImageInfo oEmpImageInfo) {
-        this.oBitmapCache.put(sKey, new WeakReference<EmpImageInfo>(oEmpImageInfo));
+    protected void put(MilStdSymbolKey oKey, EmpImageInfo oEmpImageInfo) {
+        this.oBitmapCache.put(oKey, new WeakReference<EmpImageInfo>(oEmpImageInfo));
     }
 
     protected int cacheSize() {
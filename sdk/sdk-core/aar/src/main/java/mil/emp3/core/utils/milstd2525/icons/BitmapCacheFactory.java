@@ -10,7 +10,7 @@ import mil.emp3.core.utils.milstd2525.MilStdUtilities;
 /**
  * This will create the BitmapCache that you want to deploy.
  *
- * Currently three types of Cache implementations are supported
+ * Currently four types of Cache implementations are supported, see CacheType
  *
  * BitmapCache - Caches WeakReferences to Bitmaps and releases and reclaims nodes as Bitmaps are garbage collected. This mechanism did not work well
  *     in the tests we performed, hence we started investigating further and developed AdaptiveBitmapCache
@@ -18,8 +18,15 @@ import mil.emp3.core.utils.milstd2525.MilStdUtilities;
  * AdaptiveBitmapCache - This reduces Mid Distance Threshold as we reach the preset memory usage limit and increases the MDT as memory usage returns to
  *     normal. This return to normal logic isn't working well because of the way World Wind is handling the Bitmaps. This lead to the NoBitmapCache
  *
- * NoBitmapCache doesn't cache anything, it depends on underlying map engine to manage the render cache. Cache was created so that we can continue
- *     to use the methods that build an ImageInfo when it is required.
+ * NoBitmapCache doesn't cache the icons the map engine asks for, it depends on underlying map engine to manage the render cache. Cache was
+ *     created so that we can continue to use the methods that build an ImageInfo when it is required. It only holds prefetched icons until the
+ *     map engine asks for them, up to NoBitmapCache.MAX_PREFETCHED_BYTES.
+ *
+ * LruBitmapCache - Holds strong references to the Bitmaps and evicts the least recently used ones when the bytes of the Bitmaps exceed a fraction
+ *     of the memory class. This stops frequently used icons from being rendered again each time the GC runs.
+ *
+ * Any of these caches can be backed by the IconDiskStore, so icons rendered by a previous launch of the application are read
+ * from the cache directory instead of being rendered again. See setIconDiskStoreEnabled.
  *
  * Here is a brief explanation of why Bitmap caching by EMP will NOT work, it also answers the question about multiple map instances:
  *
@@ -36,8 +43,15 @@ public class BitmapCacheFactory {
     private static String TAG = BitmapCacheFactory.class.getSimpleName();
     private static BitmapCacheFactory factoryInstance;
 
-    private static boolean useAdaptiveBitMapCache = false;
-    private static boolean useNoBitmapCache = true;
+    public enum CacheType {
+        NO_CACHE,
+        WEAK_REFERENCE,
+        ADAPTIVE,
+        LRU
+    }
+
+    private static CacheType cacheType = CacheType.NO_CACHE;
+    private static boolean iconDiskStoreEnabled = true;
     private IBitmapCache bitmapCache = null;
 
     public static BitmapCacheFactory instance() {
@@ -66,6 +80,45 @@ public class BitmapCacheFactory {
         rs.setTextOutlineWidth(4);  // 4 is the default
     }
 
+    /**
+     * Selects the type of cache to create. This must be called before the first map is created, the cache can't be changed once
+     * it was initialized.
+     * @param type
+     */
+    public static void setCacheType(CacheType type) {
+        if (null == type) {
+            throw new IllegalArgumentException("type must not be null");
+        }
+        synchronized (BitmapCacheFactory.class) {
+            if ((null != BitmapCacheFactory.factoryInstance) && (null != BitmapCacheFactory.factoryInstance.bitmapCache)) {
+                throw new IllegalStateException("bitmapCache was already initialized");
+            }
+            BitmapCacheFactory.cacheType = type;
+        }
+    }
+
+    public static CacheType getCacheType() {
+        return BitmapCacheFactory.cacheType;
+    }
+
+    /**
+     * Enables or disables the IconDiskStore, which keeps the rendered icons in the cache directory for the next launch of the
+     * application. It is enabled by default. This must be called before the first map is created.
+     * @param enabled
+     */
+    public static void setIconDiskStoreEnabled(boolean enabled) {
+        synchronized (BitmapCacheFactory.class) {
+            if ((null != BitmapCacheFactory.factoryInstance) && (null != BitmapCacheFactory.factoryInstance.bitmapCache)) {
+                throw new IllegalStateException("bitmapCache was already initialized");
+            }
+            BitmapCacheFactory.iconDiskStoreEnabled = enabled;
+        }
+    }
+
+    public static boolean isIconDiskStoreEnabled() {
+        return BitmapCacheFactory.iconDiskStoreEnabled;
+    }
+
     /**
      * This is used by the MilStdRenderwer to initialize the cache.
      * @param sCacheDir
@@ -76,14 +129,21 @@ public class BitmapCacheFactory {
             return bitmapCache;
         }
 
-        synchronized(BitmapCacheFactory.factoryInstance) {
+        synchronized(BitmapCacheFactory.class) {
             if(null == bitmapCache) {
-                if (useAdaptiveBitMapCache) {
-                    bitmapCache = AdaptiveBitmapCache.getInstance(sCacheDir, getMemoryClass);
-                } else if(useNoBitmapCache) {
-                    bitmapCache = NoBitmapCache.getInstance(sCacheDir);
-                } else {
-                    bitmapCache = BitmapCache.getInstance(sCacheDir);
+                switch (cacheType) {
+                    case ADAPTIVE:
+                        bitmapCache = AdaptiveBitmapCache.getInstance(sCacheDir, getMemoryClass);
+                        break;
+                    case WEAK_REFERENCE:
+                        bitmapCache = BitmapCache.getInstance(sCacheDir);
+                        break;
+                    case LRU:
+                        bitmapCache = LruBitmapCache.getInstance(sCacheDir, getMemoryClass);
+                        break;
+                    default:
+                        bitmapCache = NoBitmapCache.getInstance(sCacheDir);
+                        break;
                 }
             }
         }
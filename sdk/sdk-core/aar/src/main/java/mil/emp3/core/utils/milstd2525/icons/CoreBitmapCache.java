@@ -14,6 +14,7 @@ import armyc2.c2sd.renderer.utilities.ImageInfo;
 import armyc2.c2sd.renderer.utilities.SymbolUtilities;
 import mil.emp3.api.interfaces.IMap;
 import mil.emp3.core.utils.milstd2525.EmpImageInfo;
+import mil.emp3.mapengine.api.MilStdSymbolKey;
 import mil.emp3.mapengine.interfaces.IEmpImageInfo;
 
 /**
@@ -22,18 +23,24 @@ import mil.emp3.mapengine.interfaces.IEmpImageInfo;
 public abstract class CoreBitmapCache implements IBitmapCache {
     private final String TAG;
 
+    /**
+     * The SEC renderer keeps static state. Every call into it, the single point icons rendered here and the multipoint
+     * symbols rendered by MilStdRenderer, is made while holding this lock, whatever the thread.
+     */
+    public static final Object RENDERER_LOCK = new Object();
+
     /**
      * The image to use when the renderer cannot render an image.
      */
     protected Bitmap defaultImage = BitmapFactory.decodeResource(Resources.getSystem(), android.R.drawable.ic_dialog_alert); // Warning triangle
 
-    protected final SparseArray<String> emptyArray = new SparseArray<>();    // may be used in a cache key
-    protected final String emptyArrayString = emptyArray.toString();
-
     protected MilStdIconRenderer oIconRenderer = null;
 
     protected final EmpImageInfo oDefaultEmpImageInfo;
 
+    // Icons rendered by a previous launch of the application, null if the store is not enabled.
+    protected final IconDiskStore oDiskStore;
+
     protected CoreBitmapCache(String TAG, String sCacheDir ) {
         this.TAG = CoreBitmapCache.class.getSimpleName() + "." + TAG;
         this.oIconRenderer = MilStdIconRenderer.getInstance();
@@ -42,18 +49,31 @@ public abstract class CoreBitmapCache implements IBitmapCache {
         android.graphics.Rect oRect = new android.graphics.Rect(0, 0, this.defaultImage.getWidth() - 1, this.defaultImage.getHeight() - 1);
         this.oDefaultEmpImageInfo = new EmpImageInfo(sKey, new android.graphics.Point(this.defaultImage.getWidth() / 2, this.defaultImage.getHeight() / 2),
                 oRect, oRect, this.defaultImage);
+        this.oDiskStore = ((sCacheDir != null) && BitmapCacheFactory.isIconDiskStoreEnabled()) ?
+                new IconDiskStore(sCacheDir, IconDiskStore.getRendererVersion()) : null;
     }
 
-    protected String makeKey(String sSymbolCode, SparseArray oModifiers, SparseArray oAttr) {
-        StringBuilder keyBuilder = new StringBuilder();
-        keyBuilder.append(sSymbolCode);
-        keyBuilder.append((oModifiers == null) ? emptyArrayString : oModifiers.toString());
-        keyBuilder.append((oAttr == null) ? emptyArrayString : oAttr.toString());
+    protected MilStdSymbolKey makeKey(String sSymbolCode, SparseArray oModifiers, SparseArray oAttr) {
+        return MilStdSymbolKey.create(sSymbolCode, oModifiers, oAttr);
+    }
+
+    /**
+     * The key is built once and the lookup is done by the subclass.
+     */
+    @Override
+    public IEmpImageInfo getImageInfo(String sSymbolCode, SparseArray oModifiers, SparseArray oAttr) {
+        return this.getImageInfo(this.makeKey(sSymbolCode, oModifiers, oAttr));
+    }
 
-        return keyBuilder.toString();
+    /**
+     * A cache keeps the icon it renders, so prefetching is a lookup.
+     */
+    @Override
+    public void prefetch(MilStdSymbolKey oSymbolKey) {
+        this.getImageInfo(oSymbolKey);
     }
 
-    protected void put(String sKey, EmpImageInfo oEmpImageInfo) {
+    protected void put(MilStdSymbolKey oKey, EmpImageInfo oEmpImageInfo) {
         throw new UnsupportedOperationException("You must override this");
     }
 
@@ -76,50 +96,60 @@ public abstract class CoreBitmapCache implements IBitmapCache {
         throw new UnsupportedOperationException("You must override this");
     }
 
-    protected IEmpImageInfo createImageInfo(String sSymbolCode, SparseArray oModifiers, SparseArray oAttr) {
+    protected IEmpImageInfo createImageInfo(MilStdSymbolKey oKey) {
         ImageInfo oImageInfo;
         EmpImageInfo oEmpImageInfo = null;
-
-        if ((oAttr != null) || (oModifiers != null)) {
-            if (!this.oIconRenderer.CanRender(sSymbolCode, ((oModifiers == null) ? this.emptyArray : oModifiers), ((oAttr == null) ? this.emptyArray : oAttr))) {
-                Log.e(TAG, "The render can not render the icon.");
-                return this.oDefaultEmpImageInfo;
+        String sSymbolCode = oKey.getSymbolCode();
+
+        if (oKey.hasAttributes() || oKey.hasModifiers()) {
+            if (null != this.oDiskStore) {
+                oEmpImageInfo = this.oDiskStore.read(oKey);
+                if (null != oEmpImageInfo) {
+                    this.put(oKey, oEmpImageInfo);
+                    return oEmpImageInfo;
+                }
             }
 
-            // TODO The MilStd icon renderer has a bug which Spinelli is working on. For some type of icons it adds a modifier to the SparseArray we pass in. We will drop this code when it is corrected in the renderer.
-            if ((oModifiers == null) && (this.emptyArray.size() > 0)) {
-                //Log.d(TAG, sSymbolCode + " empty array not empty.");
-                this.emptyArray.clear();
-            }
+            // The arrays are created for this call, the renderer may add entries to them.
+            SparseArray<String> oModifiers = oKey.createModifiers();
+            SparseArray<String> oAttr = oKey.createAttributes();
 
-            try {
-                oImageInfo = this.oIconRenderer.RenderIcon(sSymbolCode, ((oModifiers == null) ? this.emptyArray : oModifiers), ((oAttr == null) ? this.emptyArray : oAttr));
-            } catch (OutOfMemoryError Ex) {
-                Log.e(TAG, "The render failed to render the icon. Lower the Mid Distance Threshold. BitMaps: " + cacheSize() + ". Mem remaining: " + Runtime.getRuntime().freeMemory() + ".");
-                // TODO >>> By the time this happens very little memory is left. So this recovery does not work.
-                // TODO >>> We need to come up with a better way to limit the number of Bitmaps we allocate.
-                return this.oDefaultEmpImageInfo;
+            if (oModifiers == null) {
+                oModifiers = new SparseArray<>();
+            }
+            if (oAttr == null) {
+                oAttr = new SparseArray<>();
             }
 
-            // TODO The MilStd icon renderer has a bug which Spinelli is working on. For some type of icons it adds a modifier to the SparseArray we pass in. We will drop this code when it is corrected in the renderer.
-            if ((oModifiers == null) && (this.emptyArray.size() > 0)) {
-                //Log.d(TAG, sSymbolCode + " empty array not empty.");
-                //String sKey = this.makeKey(sSymbolCode, oModifiers, oAttr);
-                this.emptyArray.clear();
+            synchronized (RENDERER_LOCK) {
+                if (!this.oIconRenderer.CanRender(sSymbolCode, oModifiers, oAttr)) {
+                    Log.e(TAG, "The render can not render the icon.");
+                    return this.oDefaultEmpImageInfo;
+                }
+
+                try {
+                    oImageInfo = this.oIconRenderer.RenderIcon(sSymbolCode, oModifiers, oAttr);
+                } catch (OutOfMemoryError Ex) {
+                    Log.e(TAG, "The render failed to render the icon. Lower the Mid Distance Threshold. BitMaps: " + cacheSize() + ". Mem remaining: " + Runtime.getRuntime().freeMemory() + ".");
+                    // TODO >>> By the time this happens very little memory is left. So this recovery does not work.
+                    // TODO >>> We need to come up with a better way to limit the number of Bitmaps we allocate.
+                    return this.oDefaultEmpImageInfo;
+                }
             }
+
             if (oImageInfo != null) {
-                String sKey = this.makeKey(sSymbolCode, oModifiers, oAttr);
-                oEmpImageInfo = new EmpImageInfo(sKey, oImageInfo.getCenterPoint(), oImageInfo.getImageBounds(), oImageInfo.getSymbolBounds(), oImageInfo.getImage());
-                this.put(sKey, oEmpImageInfo);
+                oEmpImageInfo = new EmpImageInfo(oKey.toString(), oImageInfo.getCenterPoint(), oImageInfo.getImageBounds(), oImageInfo.getSymbolBounds(), oImageInfo.getImage());
+                this.put(oKey, oEmpImageInfo);
+                if (null != this.oDiskStore) {
+                    this.oDiskStore.write(oKey, oEmpImageInfo);
+                }
             } else {
-                Log.e(TAG, "Renderer failed to generate icon for " + sSymbolCode + " Modifiers: " + oModifiers.toString() + " Attributes: " + oAttr.toString());
+                Log.e(TAG, "Renderer failed to generate icon for " + oKey);
                 return this.oDefaultEmpImageInfo;
             }
         } else {
             // Both the attributes and the modifiers are null.
             oEmpImageInfo = this.createFarImageIcon(armyc2.c2sd.renderer.utilities.SymbolUtilities.getAffiliation(sSymbolCode));
-            oEmpImageInfo.setFarImageIcon();
-            this.put(oEmpImageInfo.getImageKey(), oEmpImageInfo);
         }
 
         if(null != oEmpImageInfo) {
@@ -142,7 +172,7 @@ public abstract class CoreBitmapCache implements IBitmapCache {
         int iLastPixel = iWidthHeight - 1;
         android.graphics.Point point = new android.graphics.Point(iWidthHeight / 2, iWidthHeight / 2);
         android.graphics.Rect imageBounds = new android.graphics.Rect(0, 0, iLastPixel, iLastPixel);
-        String sKey = this.makeKey(sSymbolCode, null, null);
+        MilStdSymbolKey oKey = this.makeKey(sSymbolCode, null, null);
 
         oColor = SymbolUtilities.getFillColorOfAffiliation(sSymbolCode);
         iColor = oColor.getAlpha();
@@ -158,8 +188,9 @@ public abstract class CoreBitmapCache implements IBitmapCache {
         oPaint.setColor(iColor);
         oCanvas.drawCircle(iWidthHeight / 2, iWidthHeight / 2, (float) (iWidthHeight / 2.5), oPaint);
 
-        oImageInfo = new EmpImageInfo(sKey, point, imageBounds, imageBounds, oBitmap);
-        this.put(sKey, oImageInfo);
+        oImageInfo = new EmpImageInfo(oKey.toString(), point, imageBounds, imageBounds, oBitmap);
+        oImageInfo.setFarImageIcon();
+        this.put(oKey, oImageInfo);
 
         return oImageInfo;
     }
@@ -3,6 +3,7 @@ package mil.emp3.core.utils.milstd2525.icons;
 import android.util.SparseArray;
 
 import mil.emp3.api.interfaces.IMap;
+import mil.emp3.mapengine.api.MilStdSymbolKey;
 import mil.emp3.mapengine.interfaces.IEmpImageInfo;
 
 /**
@@ -26,6 +27,19 @@ public interface IBitmapCache {
 
     IEmpImageInfo getImageInfo(String sSymbolCode, SparseArray oModifiers, SparseArray oAttr);
 
+    /**
+     * Same as above for callers that keep the key of the symbol.
+     * @param oSymbolKey
+     * @return
+     */
+    IEmpImageInfo getImageInfo(MilStdSymbolKey oSymbolKey);
+
+    /**
+     * Renders the icon ahead of its first use so getImageInfo finds it. May be called from several threads at once.
+     * @param oSymbolKey
+     */
+    void prefetch(MilStdSymbolKey oSymbolKey);
+
     /**
      * Stores the supplied midDistanceThreshold.
      * Returns true if new setting can be applied to MapInstance without affecting the BitmapCache adversely
@@ -0,0 +1,628 @@
+package mil.emp3.core.utils.milstd2525.icons;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Point;
+import android.graphics.Rect;
+import android.util.Log;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.BitSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import armyc2.c2sd.renderer.utilities.RendererSettings;
+import mil.emp3.core.utils.milstd2525.EmpImageInfo;
+import mil.emp3.mapengine.api.MilStdSymbolKey;
+
+/**
+ * This class stores the icons rendered by the MilStd icon renderer in the cache directory of the application, so the next
+ * launch of the application reads an icon instead of rendering it. It is used by CoreBitmapCache before and after it renders
+ * an icon, see BitmapCacheFactory.setIconDiskStoreEnabled.
+ *
+ * The store is made of two files:
+ *
+ *     index - A header with the renderer version followed by a hash table of SLOT_COUNT fixed size slots: the hash of the
+ *         key, the offset and the length of the icon in the data file. The index is memory mapped when the first icon is
+ *         looked up and icons are found by probing the mapped slots, the index is not copied into memory.
+ *     data - One record per icon: the key, the center point and bounds and the Bitmap compressed as a PNG.
+ *
+ * The renderer version covers the renderer library, the symbology standard and the screen density. When it doesn't match the
+ * version in the index both files are deleted and the store starts empty. The same happens when the files are found to be
+ * corrupt.
+ *
+ * Icons are written by a background thread. When an icon would take the data file past MAX_DATA_BYTES or the index past
+ * MAX_ENTRIES, the store is compacted: the icons read by this launch and then the ones it wrote are copied to new files, up
+ * to half of the limits, and the other icons are dropped.
+ *
+ * A read only holds the lock to look the icon up in the index, the record is read and decoded after the lock is released.
+ */
+public class IconDiskStore {
+    private static final String TAG = IconDiskStore.class.getSimpleName();
+
+    private static final int MAGIC = 0x454D5049;                 // EMPI
+    // Part of the renderer version. Version 2 writes a null modifier or attribute array of a key as null, not {}. Version 3
+    // replaces the list of index entries with a hash table.
+    private static final int FORMAT = 3;
+    private static final int ENTRY_BYTES = 8 + 8 + 4;            // hash, offset, length
+    static final int SLOT_COUNT = 16384;                         // Must be a power of two.
+    static final int MAX_ENTRIES = (SLOT_COUNT / 4) * 3;
+    static final long MAX_DATA_BYTES = 32 * 1024 * 1024;
+    private static final String DIRECTORY_NAME = "milstd-icons";
+
+    private final File indexFile;
+    private final File dataFile;
+    private final String rendererVersion;
+
+    // The mapped index, null until the store is loaded. The slots start at tableOffset.
+    private MappedByteBuffer index = null;
+    private int tableOffset = 0;
+    private int entryCount = 0;
+    // The slots of the icons read and of the icons written since the store was loaded, they are kept by a compaction.
+    private final BitSet readSlots = new BitSet(SLOT_COUNT);
+    private final BitSet writtenSlots = new BitSet(SLOT_COUNT);
+    private FileChannel dataChannel = null;
+    private long dataLength = 0;
+    private volatile boolean disabled = false;
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, TAG);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    IconDiskStore(String sCacheDir, String rendererVersion) {
+        File directory = new File(sCacheDir, DIRECTORY_NAME);
+
+        this.indexFile = new File(directory, "index");
+        this.dataFile = new File(directory, "data");
+        this.rendererVersion = rendererVersion;
+    }
+
+    /**
+     * Builds the version the stored icons must match. The renderer library version comes from the BuildConfig of the view
+     * library, the same way About finds it.
+     * @return
+     */
+    static String getRendererVersion() {
+        String rendererId = "unknown";
+
+        try {
+            Class<?> buildConfig = IconDiskStore.class.getClassLoader().loadClass("mil.emp3.view.BuildConfig");
+            Field field = buildConfig.getField("Implementation_Sec_Renderer_Id");
+            rendererId = String.valueOf(field.get(null));
+        } catch (Exception e) {
+            Log.w(TAG, "Renderer version not available, " + e.getMessage());
+        }
+
+        return FORMAT + " " + rendererId + " " + RendererSettings.getInstance().getSymbologyStandard() + " " +
+                Resources.getSystem().getDisplayMetrics().densityDpi;
+    }
+
+    /**
+     * 64 bit FNV-1a hash of the key string, the 32 bit hash code of the key is too short for a store shared by all launches.
+     * Zero marks an empty slot, it is never returned.
+     */
+    static long hash(String sKey) {
+        long hash = 0xcbf29ce484222325L;
+
+        for (int index = 0; index < sKey.length(); index++) {
+            hash ^= sKey.charAt(index);
+            hash *= 0x100000001b3L;
+        }
+        return (0 == hash) ? 1 : hash;
+    }
+
+    /**
+     * Finds the slot of a hash by linear probing, or the empty slot where it would be added.
+     * @return The slot, -1 if the table is full.
+     */
+    private static int findSlot(ByteBuffer table, int tableOffset, long hash) {
+        int slot = (int) (hash ^ (hash >>> 32)) & (SLOT_COUNT - 1);
+
+        for (int probe = 0; probe < SLOT_COUNT; probe++) {
+            long slotHash = table.getLong(tableOffset + (slot * ENTRY_BYTES));
+
+            if ((slotHash == hash) || (0 == slotHash)) {
+                return slot;
+            }
+            slot = (slot + 1) & (SLOT_COUNT - 1);
+        }
+        return -1;
+    }
+
+    /**
+     * Writes a slot. The hash is written last, a slot that has its hash has its offset and length.
+     */
+    private static void putSlot(ByteBuffer table, int tableOffset, int slot, long hash, long offset, int length) {
+        int position = tableOffset + (slot * ENTRY_BYTES);
+
+        table.putLong(position + 8, offset);
+        table.putInt(position + 16, length);
+        table.putLong(position, hash);
+    }
+
+    private int slotPosition(int slot) {
+        return this.tableOffset + (slot * ENTRY_BYTES);
+    }
+
+    /**
+     * Must be called with the lock held.
+     * @return true if the slot holds the icon of the hash.
+     */
+    private boolean isStored(int slot, long hash) {
+        return (slot >= 0) && (this.index.getLong(this.slotPosition(slot)) == hash) &&
+                (this.index.getInt(this.slotPosition(slot) + 16) > 0);
+    }
+
+    /**
+     * Loads the store if it wasn't yet. Must be called with the lock held.
+     * @return false if the store can't be used.
+     */
+    private boolean load() {
+        if (this.disabled) {
+            return false;
+        }
+        if (null != this.index) {
+            return true;
+        }
+
+        try {
+            if (!this.openIndex()) {
+                this.reset();
+                if (!this.openIndex()) {
+                    throw new IOException("Can't open the new icon store");
+                }
+            }
+            this.dataChannel = new RandomAccessFile(this.dataFile, "rw").getChannel();
+            this.dataLength = this.dataChannel.size();
+        } catch (IOException e) {
+            Log.e(TAG, "Icon store disabled", e);
+            this.disable();
+            return false;
+        }
+        Log.i(TAG, "Icon store loaded " + this.entryCount + " icons");
+        return true;
+    }
+
+    /**
+     * Maps the index. The slots are only counted, an icon is looked up in the mapped index when it is read.
+     * @return false if there is no index, it is for another renderer version or it is corrupt.
+     * @throws IOException
+     */
+    private boolean openIndex() throws IOException {
+        if (!this.indexFile.exists() || !this.dataFile.exists()) {
+            return false;
+        }
+
+        byte[] version = this.rendererVersion.getBytes("UTF-8");
+        int tableOffset = 8 + version.length;
+        RandomAccessFile file = new RandomAccessFile(this.indexFile, "rw");
+        try {
+            FileChannel channel = file.getChannel();
+
+            if (channel.size() != (tableOffset + ((long) SLOT_COUNT * ENTRY_BYTES))) {
+                return false;
+            }
+
+            // The mapping stays valid once the file is closed.
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            if ((buffer.getInt(0) != MAGIC) || (buffer.getInt(4) != version.length)) {
+                return false;
+            }
+            for (int index = 0; index < version.length; index++) {
+                if (buffer.get(8 + index) != version[index]) {
+                    Log.i(TAG, "Renderer version changed, the icon store is cleared");
+                    return false;
+                }
+            }
+
+            int count = 0;
+            for (int slot = 0; slot < SLOT_COUNT; slot++) {
+                if (0 != buffer.getLong(tableOffset + (slot * ENTRY_BYTES))) {
+                    count++;
+                }
+            }
+            this.index = buffer;
+            this.tableOffset = tableOffset;
+            this.entryCount = count;
+            this.readSlots.clear();
+            this.writtenSlots.clear();
+            return true;
+        } finally {
+            file.close();
+        }
+    }
+
+    /**
+     * Writes an index with the header and the slots.
+     * @param file
+     * @param table The slots, SLOT_COUNT * ENTRY_BYTES bytes.
+     * @throws IOException
+     */
+    private void writeIndex(File file, byte[] table) throws IOException {
+        byte[] version = this.rendererVersion.getBytes("UTF-8");
+        RandomAccessFile output = new RandomAccessFile(file, "rw");
+        try {
+            output.setLength(0);
+            output.writeInt(MAGIC);
+            output.writeInt(version.length);
+            output.write(version);
+            output.write(table);
+        } finally {
+            output.close();
+        }
+    }
+
+    /**
+     * Deletes both files and creates an empty store.
+     * @throws IOException
+     */
+    private void reset() throws IOException {
+        File directory = this.indexFile.getParentFile();
+
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Can't create " + directory);
+        }
+        if ((this.indexFile.exists() && !this.indexFile.delete()) || (this.dataFile.exists() && !this.dataFile.delete())) {
+            throw new IOException("Can't delete the icon store");
+        }
+
+        if (!this.dataFile.createNewFile()) {
+            throw new IOException("Can't create " + this.dataFile);
+        }
+        this.writeIndex(this.indexFile, new byte[SLOT_COUNT * ENTRY_BYTES]);
+    }
+
+    /**
+     * Closes the data file and drops the mapped index. Must be called with the lock held.
+     */
+    private void close() {
+        this.index = null;
+        try {
+            if (null != this.dataChannel) {
+                this.dataChannel.close();
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "close", e);
+        }
+        this.dataChannel = null;
+    }
+
+    private void disable() {
+        this.disabled = true;
+        this.close();
+    }
+
+    /**
+     * Disables the store after an IO error on a data file, unless the file was replaced by a compaction in the meantime.
+     */
+    private synchronized void failed(FileChannel channel, IOException e) {
+        if (channel == this.dataChannel) {
+            Log.e(TAG, "Icon store disabled", e);
+            this.disable();
+        }
+    }
+
+    /**
+     * Reads an icon from the store.
+     * @param oKey
+     * @return The icon, null if it is not in the store.
+     */
+    public EmpImageInfo read(MilStdSymbolKey oKey) {
+        String sKey = oKey.toString();
+        long hash = hash(sKey);
+        FileChannel channel;
+        long offset;
+        int length;
+        int slot;
+
+        synchronized (this) {
+            if (!this.load()) {
+                return null;
+            }
+
+            slot = findSlot(this.index, this.tableOffset, hash);
+            if (!this.isStored(slot, hash)) {
+                return null;
+            }
+            offset = this.index.getLong(this.slotPosition(slot) + 8);
+            length = this.index.getInt(this.slotPosition(slot) + 16);
+            if ((offset < 0) || ((offset + length) > this.dataLength)) {
+                return null;
+            }
+            this.readSlots.set(slot);
+            channel = this.dataChannel;
+        }
+
+        // A record is never changed once its slot is written, it is read without the lock.
+        ByteBuffer record = ByteBuffer.allocate(length);
+        try {
+            while (record.hasRemaining()) {
+                if (channel.read(record, offset + record.position()) < 0) {
+                    throw new EOFException("Icon record past the end of the data");
+                }
+            }
+        } catch (IOException e) {
+            this.failed(channel, e);
+            return null;
+        }
+
+        try {
+            DataInputStream input = new DataInputStream(new ByteArrayInputStream(record.array()));
+            if (!sKey.equals(input.readUTF())) {
+                // Two keys with the same hash, the first one stored wins.
+                return null;
+            }
+            Point centerPoint = new Point(input.readInt(), input.readInt());
+            Rect imageBounds = new Rect(input.readInt(), input.readInt(), input.readInt(), input.readInt());
+            Rect symbolBounds = new Rect(input.readInt(), input.readInt(), input.readInt(), input.readInt());
+            int pngLength = input.readInt();
+            int pngOffset = length - input.available();
+            Bitmap bitmap = BitmapFactory.decodeByteArray(record.array(), pngOffset, pngLength);
+
+            if (null != bitmap) {
+                return new EmpImageInfo(sKey, centerPoint, imageBounds, symbolBounds, bitmap);
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Corrupt icon record " + sKey);
+        }
+
+        this.invalidate(channel, slot, hash);
+        return null;
+    }
+
+    /**
+     * Marks the slot of a record that can't be decoded, the icon is written again the next time it is rendered.
+     */
+    private synchronized void invalidate(FileChannel channel, int slot, long hash) {
+        if ((channel == this.dataChannel) && this.isStored(slot, hash)) {
+            this.index.putInt(this.slotPosition(slot) + 16, 0);
+        }
+    }
+
+    /**
+     * Queues an icon that was just rendered to be written to the store.
+     * @param oKey
+     * @param oImageInfo
+     */
+    public void write(final MilStdSymbolKey oKey, final EmpImageInfo oImageInfo) {
+        final Bitmap bitmap = oImageInfo.getImage();
+
+        if ((null == bitmap) || this.disabled) {
+            return;
+        }
+        this.writer.execute(new Runnable() {
+            @Override
+            public void run() {
+                IconDiskStore.this.append(oKey.toString(), oImageInfo, bitmap);
+            }
+        });
+    }
+
+    /**
+     * Writes an icon to the store, on the writer thread. The writer thread is the only one that adds to the data file.
+     */
+    private void append(String sKey, EmpImageInfo oImageInfo, Bitmap bitmap) {
+        long hash = hash(sKey);
+
+        synchronized (this) {
+            if (!this.load() || this.isStored(findSlot(this.index, this.tableOffset, hash), hash)) {
+                return;
+            }
+        }
+
+        // Compress outside of the lock, a read doesn't wait for a write.
+        ByteArrayOutputStream png = new ByteArrayOutputStream(bitmap.getByteCount() / 4);
+        if (!bitmap.compress(Bitmap.CompressFormat.PNG, 100, png)) {
+            return;
+        }
+
+        ByteArrayOutputStream record = new ByteArrayOutputStream(png.size() + sKey.length() + 64);
+        try {
+            DataOutputStream output = new DataOutputStream(record);
+            Point centerPoint = oImageInfo.getCenterPoint();
+            Rect imageBounds = oImageInfo.getImageBounds();
+            Rect symbolBounds = oImageInfo.getSymbolBounds();
+
+            output.writeUTF(sKey);
+            output.writeInt(centerPoint.x);
+            output.writeInt(centerPoint.y);
+            output.writeInt(imageBounds.left);
+            output.writeInt(imageBounds.top);
+            output.writeInt(imageBounds.right);
+            output.writeInt(imageBounds.bottom);
+            output.writeInt(symbolBounds.left);
+            output.writeInt(symbolBounds.top);
+            output.writeInt(symbolBounds.right);
+            output.writeInt(symbolBounds.bottom);
+            output.writeInt(png.size());
+            png.writeTo(output);
+            output.flush();
+        } catch (IOException e) {
+            return;
+        }
+        if (record.size() > (MAX_DATA_BYTES / 2)) {
+            return;
+        }
+
+        boolean full;
+        synchronized (this) {
+            if (!this.load()) {
+                return;
+            }
+            full = ((this.dataLength + record.size()) > MAX_DATA_BYTES) || (this.entryCount >= MAX_ENTRIES);
+        }
+        if (full) {
+            this.compact();
+        }
+
+        FileChannel channel;
+        long offset;
+        synchronized (this) {
+            if (!this.load() || this.isStored(findSlot(this.index, this.tableOffset, hash), hash) ||
+                    ((this.dataLength + record.size()) > MAX_DATA_BYTES) || (this.entryCount >= MAX_ENTRIES)) {
+                return;
+            }
+            channel = this.dataChannel;
+            offset = this.dataLength;
+        }
+
+        // The data is written before the slot, a slot never points past the end of the data.
+        ByteBuffer data = ByteBuffer.wrap(record.toByteArray());
+        try {
+            while (data.hasRemaining()) {
+                channel.write(data, offset + data.position());
+            }
+        } catch (IOException e) {
+            this.failed(channel, e);
+            return;
+        }
+
+        synchronized (this) {
+            if (channel != this.dataChannel) {
+                return;
+            }
+
+            int slot = findSlot(this.index, this.tableOffset, hash);
+            if (slot < 0) {
+                return;
+            }
+            if (0 == this.index.getLong(this.slotPosition(slot))) {
+                this.entryCount++;
+            }
+            putSlot(this.index, this.tableOffset, slot, hash, offset, data.capacity());
+            this.dataLength = offset + data.capacity();
+            this.writtenSlots.set(slot);
+        }
+    }
+
+    /**
+     * Replaces the store with one that only has the icons read since the store was loaded and then the ones written since,
+     * up to half of MAX_ENTRIES and MAX_DATA_BYTES. The icons are copied to new files while the reads continue on the old
+     * ones. Runs on the writer thread.
+     */
+    private void compact() {
+        FileChannel oldChannel;
+        long[] kept = new long[4 * (MAX_ENTRIES / 2)];       // hash, offset, length, read
+        int keptCount = 0;
+
+        synchronized (this) {
+            if (!this.load()) {
+                return;
+            }
+
+            long keptBytes = 0;
+            for (int pass = 0; pass < 2; pass++) {
+                BitSet slots = (0 == pass) ? this.readSlots : this.writtenSlots;
+
+                for (int slot = slots.nextSetBit(0); (slot >= 0) && (keptCount < (MAX_ENTRIES / 2));
+                        slot = slots.nextSetBit(slot + 1)) {
+                    int position = this.slotPosition(slot);
+                    int length = this.index.getInt(position + 16);
+
+                    if (((1 == pass) && this.readSlots.get(slot)) || (length <= 0) ||
+                            ((keptBytes + length) > (MAX_DATA_BYTES / 2))) {
+                        continue;
+                    }
+                    kept[4 * keptCount] = this.index.getLong(position);
+                    kept[(4 * keptCount) + 1] = this.index.getLong(position + 8);
+                    kept[(4 * keptCount) + 2] = length;
+                    kept[(4 * keptCount) + 3] = 1 - pass;
+                    keptBytes += length;
+                    keptCount++;
+                }
+            }
+            oldChannel = this.dataChannel;
+        }
+
+        File newIndexFile = new File(this.indexFile.getParentFile(), "index.new");
+        File newDataFile = new File(this.dataFile.getParentFile(), "data.new");
+        byte[] table = new byte[SLOT_COUNT * ENTRY_BYTES];
+        ByteBuffer newTable = ByteBuffer.wrap(table);
+        BitSet keptReadSlots = new BitSet(SLOT_COUNT);
+        BitSet keptWrittenSlots = new BitSet(SLOT_COUNT);
+
+        try {
+            RandomAccessFile output = new RandomAccessFile(newDataFile, "rw");
+            try {
+                FileChannel outputChannel = output.getChannel();
+                long newLength = 0;
+
+                output.setLength(0);
+                for (int index = 0; index < keptCount; index++) {
+                    long hash = kept[4 * index];
+                    ByteBuffer record = ByteBuffer.allocate((int) kept[(4 * index) + 2]);
+
+                    while (record.hasRemaining()) {
+                        if (oldChannel.read(record, kept[(4 * index) + 1] + record.position()) < 0) {
+                            throw new EOFException("Icon record past the end of the data");
+                        }
+                    }
+                    record.flip();
+                    while (record.hasRemaining()) {
+                        outputChannel.write(record, newLength + record.position());
+                    }
+
+                    int slot = findSlot(newTable, 0, hash);
+                    putSlot(newTable, 0, slot, hash, newLength, record.capacity());
+                    ((1 == kept[(4 * index) + 3]) ? keptReadSlots : keptWrittenSlots).set(slot);
+                    newLength += record.capacity();
+                }
+            } finally {
+                output.close();
+            }
+            this.writeIndex(newIndexFile, table);
+        } catch (IOException e) {
+            newIndexFile.delete();
+            newDataFile.delete();
+            this.failed(oldChannel, e);
+            return;
+        }
+
+        synchronized (this) {
+            if (oldChannel != this.dataChannel) {
+                newIndexFile.delete();
+                newDataFile.delete();
+                return;
+            }
+
+            this.close();
+            try {
+                // Without an index the store is cleared, the old index never points into the new data.
+                if (!this.indexFile.delete() || !newDataFile.renameTo(this.dataFile) || !newIndexFile.renameTo(this.indexFile)) {
+                    throw new IOException("Can't replace the icon store");
+                }
+                if (!this.openIndex()) {
+                    throw new IOException("Can't open the compacted icon store");
+                }
+                this.dataChannel = new RandomAccessFile(this.dataFile, "rw").getChannel();
+                this.dataLength = this.dataChannel.size();
+                this.readSlots.or(keptReadSlots);
+                this.writtenSlots.or(keptWrittenSlots);
+            } catch (IOException e) {
+                Log.e(TAG, "Icon store disabled", e);
+                this.disable();
+                return;
+            }
+        }
+        Log.i(TAG, "Icon store compacted to " + keptCount + " icons");
+    }
+}
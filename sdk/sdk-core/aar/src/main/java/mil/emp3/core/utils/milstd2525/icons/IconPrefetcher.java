@@ -0,0 +1,209 @@
+package mil.emp3.core.utils.milstd2525.icons;
+
+import android.util.Log;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import mil.emp3.mapengine.api.MilStdSymbolKey;
+import mil.emp3.mapengine.interfaces.IIconPrefetchStatistics;
+
+/**
+ * This class renders MilStd icons in the background before the map engine draws them. A prefetch is executed in two
+ * steps on the prefetch thread:
+ *
+ *     The keys of the icons are collected. Symbols with the same appearance have equal keys, the set of keys holds
+ *         each icon once.
+ *     Each distinct icon is rendered into the cache.
+ *
+ * Prefetches are executed one after the other, the statistics of a prefetch are recorded once its last icon is rendered.
+ * The SEC renderer keeps static state so the icons are rendered one at a time, see CoreBitmapCache. A single thread
+ * is all the renderer can use, it keeps the rendering off the UI and map engine render threads.
+ */
+public class IconPrefetcher {
+    private static final String TAG = IconPrefetcher.class.getSimpleName();
+
+    /**
+     * Collects the keys of the icons to prefetch. It is executed on the prefetch thread.
+     */
+    public interface KeyCollector {
+        /**
+         * @param keys The set to add the keys to.
+         * @return The number of symbols a key was collected for, including the ones whose key was already in the set.
+         */
+        int collectKeys(Set<MilStdSymbolKey> keys);
+    }
+
+    private final ExecutorService prefetchExecutor = Executors.newSingleThreadExecutor(new PrefetchThreadFactory("prefetch"));
+
+    private final Statistics statistics = new Statistics();
+
+    /**
+     * The thread runs below the priority of the UI and map engine render threads and doesn't keep the application alive.
+     */
+    private static class PrefetchThreadFactory implements ThreadFactory {
+        private final String name;
+        private int threadCount = 0;
+
+        private PrefetchThreadFactory(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public synchronized Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, TAG + "-" + this.name + "-" + this.threadCount++);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    /**
+     * Queues a prefetch, it is executed once the previous ones completed.
+     * @param oBitmapCache The cache the icons are rendered into.
+     * @param collector Collects the keys of the icons to render.
+     */
+    public void prefetch(final IBitmapCache oBitmapCache, final KeyCollector collector) {
+        synchronized (this.statistics) {
+            this.statistics.pendingCount++;
+        }
+        this.prefetchExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                IconPrefetcher.this.execute(oBitmapCache, collector);
+            }
+        });
+    }
+
+    private void execute(IBitmapCache oBitmapCache, KeyCollector collector) {
+        long startTime = System.nanoTime();
+        Set<MilStdSymbolKey> keys = new HashSet<>();
+        int symbolCount = 0;
+
+        try {
+            symbolCount = collector.collectKeys(keys);
+        } catch (RuntimeException e) {
+            Log.e(TAG, "prefetch failed to collect the icons", e);
+        }
+
+        for (MilStdSymbolKey oKey : keys) {
+            try {
+                oBitmapCache.prefetch(oKey);
+            } catch (RuntimeException e) {
+                Log.e(TAG, "prefetch failed to render " + oKey, e);
+            }
+        }
+
+        long duration = System.nanoTime() - startTime;
+        int duplicateCount = symbolCount - keys.size();
+
+        synchronized (this.statistics) {
+            this.statistics.pendingCount--;
+            this.statistics.prefetchCount++;
+            this.statistics.lastSymbolCount = symbolCount;
+            this.statistics.lastIconCount = keys.size();
+            this.statistics.lastDuplicateCount = duplicateCount;
+            this.statistics.lastPrefetchDuration = duration;
+            if (duration > this.statistics.maxPrefetchDuration) {
+                this.statistics.maxPrefetchDuration = duration;
+            }
+            this.statistics.totalSymbolCount += symbolCount;
+            this.statistics.totalIconCount += keys.size();
+            this.statistics.totalDuplicateCount += duplicateCount;
+        }
+        Log.i(TAG, "prefetch " + symbolCount + " symbols " + keys.size() + " icons " + duplicateCount + " duplicates in " +
+                TimeUnit.NANOSECONDS.toMillis(duration) + " ms");
+    }
+
+    /**
+     * @return A copy of the current counters.
+     */
+    public IIconPrefetchStatistics getStatistics() {
+        synchronized (this.statistics) {
+            return new Statistics(this.statistics);
+        }
+    }
+
+    private static class Statistics implements IIconPrefetchStatistics {
+        private int lastSymbolCount = 0;
+        private int lastIconCount = 0;
+        private int lastDuplicateCount = 0;
+        private long lastPrefetchDuration = 0;
+        private long maxPrefetchDuration = 0;
+        private long prefetchCount = 0;
+        private long totalSymbolCount = 0;
+        private long totalIconCount = 0;
+        private long totalDuplicateCount = 0;
+        private int pendingCount = 0;
+
+        private Statistics() {
+        }
+
+        private Statistics(Statistics from) {
+            this.lastSymbolCount = from.lastSymbolCount;
+            this.lastIconCount = from.lastIconCount;
+            this.lastDuplicateCount = from.lastDuplicateCount;
+            this.lastPrefetchDuration = from.lastPrefetchDuration;
+            this.maxPrefetchDuration = from.maxPrefetchDuration;
+            this.prefetchCount = from.prefetchCount;
+            this.totalSymbolCount = from.totalSymbolCount;
+            this.totalIconCount = from.totalIconCount;
+            this.totalDuplicateCount = from.totalDuplicateCount;
+            this.pendingCount = from.pendingCount;
+        }
+
+        @Override
+        public int getLastSymbolCount() {
+            return this.lastSymbolCount;
+        }
+
+        @Override
+        public int getLastIconCount() {
+            return this.lastIconCount;
+        }
+
+        @Override
+        public int getLastDuplicateCount() {
+            return this.lastDuplicateCount;
+        }
+
+        @Override
+        public long getLastPrefetchDuration() {
+            return this.lastPrefetchDuration;
+        }
+
+        @Override
+        public long getMaxPrefetchDuration() {
+            return this.maxPrefetchDuration;
+        }
+
+        @Override
+        public long getPrefetchCount() {
+            return this.prefetchCount;
+        }
+
+        @Override
+        public long getTotalSymbolCount() {
+            return this.totalSymbolCount;
+        }
+
+        @Override
+        public long getTotalIconCount() {
+            return this.totalIconCount;
+        }
+
+        @Override
+        public long getTotalDuplicateCount() {
+            return this.totalDuplicateCount;
+        }
+
+        @Override
+        public int getPendingCount() {
+            return this.pendingCount;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package mil.emp3.core.utils.milstd2525.icons;
+
+import android.graphics.Bitmap;
+import android.util.Log;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import mil.emp3.api.interfaces.IMap;
+import mil.emp3.core.utils.milstd2525.EmpImageInfo;
+import mil.emp3.mapengine.api.MilStdSymbolKey;
+import mil.emp3.mapengine.interfaces.IEmpImageInfo;
+
+/**
+ * This class implements the Bitmap cache for the MilStd single point icons as a least recently used cache. Unlike BitmapCache
+ * it holds strong references to the Bitmaps, so frequently used icons are not collected and rendered again by the icon renderer
+ * every time the GC runs. The total size of the cache is bounded by the bytes of the Bitmaps it holds. When a new icon takes the
+ * cache above the limit, the least recently used icons are evicted. Icons that are evicted are not recycled as the map engine may
+ * still be using them.
+ *
+ * The limit is a fraction of the memory class of the application, see setTotalAvailableMemory. It never goes below
+ * MINIMUM_MAX_CACHE_BYTES.
+ */
+public class LruBitmapCache extends CoreBitmapCache {
+    private static final String TAG = LruBitmapCache.class.getSimpleName();
+    private static LruBitmapCache instance = null;
+
+    static final long MINIMUM_MAX_CACHE_BYTES = 4 * 1024 * 1024;
+    private static final double MEMORY_CLASS_FRACTION = 0.125;
+
+    // Access ordered, the eldest entry is the least recently used one. All access is synchronized on the cache.
+    private final LinkedHashMap<MilStdSymbolKey, CacheEntry> oBitmapCache = new LinkedHashMap<>(256, 0.75f, true);
+
+    private long maxCacheBytes = MINIMUM_MAX_CACHE_BYTES;
+    private long cacheBytes = 0;
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long evictionCount = 0;
+
+    private LruBitmapCache(String sCacheDir) {
+        super(TAG, sCacheDir);
+    }
+
+    static synchronized IBitmapCache getInstance(String sCacheDir, int getMemoryClass) {
+
+        if (LruBitmapCache.instance == null) {
+            LruBitmapCache.instance = new LruBitmapCache(sCacheDir);
+            LruBitmapCache.instance.setTotalAvailableMemory(getMemoryClass);
+        }
+
+        return LruBitmapCache.instance;
+    }
+
+    /**
+     * The Bitmap is kept here as EmpImageInfo only holds a WeakReference to it. The size is taken once so the accounting
+     * doesn't change while the entry is in the cache.
+     */
+    private static class CacheEntry {
+        private final EmpImageInfo oImageInfo;
+        private final Bitmap oBitmap;
+        private final long bytes;
+
+        private CacheEntry(EmpImageInfo oImageInfo) {
+            this.oImageInfo = oImageInfo;
+            this.oBitmap = oImageInfo.getImage();
+            this.bytes = (this.oBitmap == null) ? 0 : this.oBitmap.getAllocationByteCount();
+        }
+    }
+
+    @Override
+    public void clearCache() {
+        synchronized (this.oBitmapCache) {
+            this.oBitmapCache.clear();
+            this.cacheBytes = 0;
+        }
+    }
+
+    @Override
+    public IEmpImageInfo getImageInfo(MilStdSymbolKey oKey) {
+        synchronized (this.oBitmapCache) {
+            CacheEntry oEntry = this.oBitmapCache.get(oKey);
+
+            if (oEntry != null) {
+                this.hitCount++;
+                return oEntry.oImageInfo;
+            }
+            this.missCount++;
+        }
+
+        // The icon is rendered outside of the lock. Two threads asking for the same missing icon may both render it, the last
+        // one in the cache wins.
+        return this.createImageInfo(oKey);
+    }
+
+    @Override
+    protected void put(MilStdSymbolKey oKey, EmpImageInfo oEmpImageInfo) {
+        synchronized (this.oBitmapCache) {
+            CacheEntry oEntry = new CacheEntry(oEmpImageInfo);
+            CacheEntry oPrevious = this.oBitmapCache.put(oKey, oEntry);
+
+            this.cacheBytes += oEntry.bytes - ((oPrevious == null) ? 0 : oPrevious.bytes);
+            this.trimToSize(this.maxCacheBytes);
+        }
+    }
+
+    /**
+     * Evicts the least recently used icons until the cache is at or below maxBytes. The most recently used icon is always kept
+     * so an icon that is larger than the limit can still be handed out. Must be called with the lock on oBitmapCache held.
+     * @param maxBytes
+     */
+    private void trimToSize(long maxBytes) {
+        Iterator<Map.Entry<MilStdSymbolKey, CacheEntry>> iterator = this.oBitmapCache.entrySet().iterator();
+
+        while ((this.cacheBytes > maxBytes) && (this.oBitmapCache.size() > 1) && iterator.hasNext()) {
+            Map.Entry<MilStdSymbolKey, CacheEntry> eldest = iterator.next();
+
+            iterator.remove();
+            this.cacheBytes -= eldest.getValue().bytes;
+            this.evictionCount++;
+        }
+    }
+
+    @Override
+    protected int cacheSize() {
+        synchronized (this.oBitmapCache) {
+            return this.oBitmapCache.size();
+        }
+    }
+
+    /**
+     * @return Sum of the bytes of the Bitmaps currently in the cache.
+     */
+    public long getCacheBytes() {
+        synchronized (this.oBitmapCache) {
+            return this.cacheBytes;
+        }
+    }
+
+    public long getMaxCacheBytes() {
+        synchronized (this.oBitmapCache) {
+            return this.maxCacheBytes;
+        }
+    }
+
+    /**
+     * @return Number of icons found in the cache since it was created.
+     */
+    public long getHitCount() {
+        synchronized (this.oBitmapCache) {
+            return this.hitCount;
+        }
+    }
+
+    /**
+     * @return Number of icons not found in the cache, and therefore rendered, since it was created.
+     */
+    public long getMissCount() {
+        synchronized (this.oBitmapCache) {
+            return this.missCount;
+        }
+    }
+
+    /**
+     * @return Number of icons evicted to keep the cache within its limit since it was created.
+     */
+    public long getEvictionCount() {
+        synchronized (this.oBitmapCache) {
+            return this.evictionCount;
+        }
+    }
+
+    @Override
+    public boolean setMidDistanceThreshold(IMap clientMap, double midDistanceThreshold) {
+        Log.w(TAG, "setMidDistanceThreshold is not supported by this cache");
+        return true; // This will allow applying to MapInstance.
+    }
+
+    @Override
+    public boolean getAlgorithmStatus() {
+        Log.w(TAG, "getAlgorithmStatus is not supported by this cache");
+        return false;
+    }
+
+    @Override
+    public void setAlgorithmStatus(boolean enable) {
+        Log.w(TAG, "setAlgorithmStatus is not supported by this cache");
+    }
+
+    /**
+     * Sets the limit of the cache to a fraction of the memory class and evicts icons if the cache is above the new limit.
+     * @param availableMB This is the value returned from getMemoryClass.
+     */
+    @Override
+    public void setTotalAvailableMemory(int availableMB) {
+        long maxBytes = Math.max(MINIMUM_MAX_CACHE_BYTES, (long) (availableMB * 1024L * 1024L * MEMORY_CLASS_FRACTION));
+
+        synchronized (this.oBitmapCache) {
+            this.maxCacheBytes = maxBytes;
+            this.trimToSize(maxBytes);
+        }
+        Log.i(TAG, "Setting maxCacheBytes = " + maxBytes);
+    }
+}
@@ -1,16 +1,25 @@
 package mil.emp3.core.utils.milstd2525.icons;
 
+import android.graphics.Bitmap;
 import android.util.Log;
-import android.util.SparseArray;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import mil.emp3.api.interfaces.IMap;
 import mil.emp3.core.utils.milstd2525.EmpImageInfo;
+import mil.emp3.mapengine.api.MilStdSymbolKey;
 import mil.emp3.mapengine.interfaces.IEmpImageInfo;
 
 /**
- * NoBitmapCache class is used when we wan to use the NASA Render Cache (which will be used by the engine anyway) and avoid
- * caching any Bitmaps in EMP. code in the map engine (worldwind-aar) will invoke the getImageInfo method when it needs to
- * create a new Bitmap as it doesn't exist in the Render Cache.
+ * NoBitmapCache class is used when we wan to use the NASA Render Cache (which will be used by the engine anyway). Icons the
+ * map engine asks for are not cached in EMP, code in the map engine (worldwind-aar) will invoke the getImageInfo method when
+ * it needs to create a new Bitmap as it doesn't exist in the Render Cache.
+ *
+ * The one thing this cache holds is the icons rendered by prefetch, as there is no Render Cache entry for them yet. They are
+ * kept with strong references, up to MAX_PREFETCHED_BYTES, until the map engine asks for them. Above the limit the icons
+ * prefetched least recently are dropped, the map engine renders them again if it still needs them.
  *
  * All other methods here are basically NO-OP.
  */
@@ -18,6 +27,14 @@ public class NoBitmapCache extends CoreBitmapCache {
 
     private static final String TAG = NoBitmapCache.class.getSimpleName();
     private static NoBitmapCache instance = null;
+
+    static final long MAX_PREFETCHED_BYTES = 16 * 1024 * 1024;
+
+    // Prefetched icons not yet handed to the map engine. Access ordered, the eldest entry is the one prefetched least
+    // recently. All access is synchronized on the map.
+    private final LinkedHashMap<MilStdSymbolKey, PrefetchedIcon> oPrefetched = new LinkedHashMap<>(64, 0.75f, true);
+    private long prefetchedBytes = 0;
+
     private NoBitmapCache(String sCacheDir) {
         super(TAG, sCacheDir);
     }
@@ -31,23 +48,100 @@ public class NoBitmapCache extends CoreBitmapCache {
         return NoBitmapCache.instance;
     }
 
+    /**
+     * The Bitmap is kept here as EmpImageInfo only holds a WeakReference to it.
+     */
+    private static class PrefetchedIcon {
+        private final EmpImageInfo oImageInfo;
+        private final Bitmap oBitmap;
+        private final long bytes;
+
+        private PrefetchedIcon(EmpImageInfo oImageInfo, Bitmap oBitmap) {
+            this.oImageInfo = oImageInfo;
+            this.oBitmap = oBitmap;
+            this.bytes = oBitmap.getAllocationByteCount();
+        }
+    }
+
     @Override
     public void clearCache() {
-
+        synchronized (this.oPrefetched) {
+            this.oPrefetched.clear();
+            this.prefetchedBytes = 0;
+        }
     }
 
     @Override
-    public IEmpImageInfo getImageInfo(String sSymbolCode, SparseArray oModifiers, SparseArray oAttr) {
-        IEmpImageInfo oImageInfo = this.createImageInfo(sSymbolCode, oModifiers, oAttr);
+    public IEmpImageInfo getImageInfo(MilStdSymbolKey oKey) {
+        synchronized (this.oPrefetched) {
+            PrefetchedIcon oIcon = this.oPrefetched.remove(oKey);
+
+            if (oIcon != null) {
+                this.prefetchedBytes -= oIcon.bytes;
+                // From here on the map engine keeps the icon in its Render Cache.
+                return oIcon.oImageInfo;
+            }
+        }
+
+        IEmpImageInfo oImageInfo = this.createImageInfo(oKey);
         return oImageInfo;
     }
 
-    protected void put(String sKey, EmpImageInfo oEmpImageInfo) {
+    /**
+     * Renders the icon and holds it until the map engine asks for it. Far icons are not held as they are drawn, not
+     * rendered. An icon that is already held is marked as the most recently prefetched one.
+     * @param oKey
+     */
+    @Override
+    public void prefetch(MilStdSymbolKey oKey) {
+        if (!oKey.hasModifiers() && !oKey.hasAttributes()) {
+            return;
+        }
+        synchronized (this.oPrefetched) {
+            if (this.oPrefetched.get(oKey) != null) {
+                return;
+            }
+        }
+
+        IEmpImageInfo oImageInfo = this.createImageInfo(oKey);
+        Bitmap oBitmap = oImageInfo.getImage();
+
+        if ((oImageInfo == this.oDefaultEmpImageInfo) || (oBitmap == null)) {
+            return;
+        }
+        synchronized (this.oPrefetched) {
+            PrefetchedIcon oIcon = new PrefetchedIcon((EmpImageInfo) oImageInfo, oBitmap);
+            PrefetchedIcon oPrevious = this.oPrefetched.put(oKey, oIcon);
+
+            this.prefetchedBytes += oIcon.bytes - ((oPrevious == null) ? 0 : oPrevious.bytes);
+            this.trimToSize(MAX_PREFETCHED_BYTES);
+        }
+    }
+
+    /**
+     * Drops the icons prefetched least recently until the held icons are at or below maxBytes. The icon prefetched last
+     * is always kept. Must be called with the lock on oPrefetched held.
+     * @param maxBytes
+     */
+    private void trimToSize(long maxBytes) {
+        Iterator<Map.Entry<MilStdSymbolKey, PrefetchedIcon>> iterator = this.oPrefetched.entrySet().iterator();
+
+        while ((this.prefetchedBytes > maxBytes) && (this.oPrefetched.size() > 1) && iterator.hasNext()) {
+            Map.Entry<MilStdSymbolKey, PrefetchedIcon> eldest = iterator.next();
+
+            iterator.remove();
+            this.prefetchedBytes -= eldest.getValue().bytes;
+        }
+    }
+
+    protected void put(MilStdSymbolKey oKey, EmpImageInfo oEmpImageInfo) {
         // There is no cache so nothing to put anywhere
     }
 
     protected int cacheSize() {
-        return 0;
+        synchronized (this.oPrefetched) {
+            return this.oPrefetched.size();
+        }
     }
 
     @Override
@@ -12,6 +12,7 @@ import org.cmapi.primitives.IGeoBounds;
 import org.cmapi.primitives.IGeoPosition;
 import org.cmapi.primitives.IGeoStrokeStyle;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Timer;
@@ -36,6 +37,7 @@ import mil.emp3.api.interfaces.IContainer;
 import mil.emp3.api.interfaces.IContainerSet;
 import mil.emp3.api.interfaces.IEmpPropertyList;
 import mil.emp3.api.interfaces.IFeature;
+import mil.emp3.api.interfaces.IFrameMetrics;
 import mil.emp3.api.interfaces.ILookAt;
 import mil.emp3.api.interfaces.IMap;
 import mil.emp3.api.interfaces.IMapService;
@@ -199,6 +201,12 @@ public class RemoteMap implements IMap {
         return this.oClientMap.getAllFeatures();
     }
 
+    @Override
+    public void applyFeatures(java.util.List<IFeature> features)
+            throws EMP_Exception {
+        this.oClientMap.applyFeatures(features);
+    }
+
     @Override
     public java.util.List<IOverlay> getAllOverlays() {
         return this.oClientMap.getAllOverlays();
@@ -684,6 +692,66 @@ public class RemoteMap implements IMap {
         return this.oClientMap.getBackgroundBrightness();
     }
 
+    @Override
+    public void setDistanceThresholdHysteresis(double dValue) {
+        this.oClientMap.setDistanceThresholdHysteresis(dValue);
+    }
+
+    @Override
+    public double getDistanceThresholdHysteresis() {
+        return this.oClientMap.getDistanceThresholdHysteresis();
+    }
+
+    @Override
+    public void setMaxLevelOfDetailChangesPerFrame(int iValue) {
+        this.oClientMap.setMaxLevelOfDetailChangesPerFrame(iValue);
+    }
+
+    @Override
+    public int getMaxLevelOfDetailChangesPerFrame() {
+        return this.oClientMap.getMaxLevelOfDetailChangesPerFrame();
+    }
+
+    @Override
+    public void setSinglePointClustering(boolean enable) {
+        this.oClientMap.setSinglePointClustering(enable);
+    }
+
+    @Override
+    public boolean isSinglePointClusteringEnabled() {
+        return this.oClientMap.isSinglePointClusteringEnabled();
+    }
+
+    @Override
+    public void setIconAtlas(boolean enable) {
+        this.oClientMap.setIconAtlas(enable);
+    }
+
+    @Override
+    public boolean isIconAtlasEnabled() {
+        return this.oClientMap.isIconAtlasEnabled();
+    }
+
+    @Override
+    public IFrameMetrics getFrameMetrics() {
+        return this.oClientMap.getFrameMetrics();
+    }
+
+    @Override
+    public void setFrameMetricsOverlay(boolean visible) {
+        this.oClientMap.setFrameMetricsOverlay(visible);
+    }
+
+    @Override
+    public boolean isFrameMetricsOverlayVisible() {
+        return this.oClientMap.isFrameMetricsOverlayVisible();
+    }
+
+    @Override
+    public List<IFeature> getFeaturesInBounds(IGeoBounds bounds) {
+        return this.oClientMap.getFeaturesInBounds(bounds);
+    }
+
     static private class NoMap extends CoreMapInstance {
         static final private String TAG = NoMap.class.getSimpleName();
 
@@ -871,6 +939,61 @@ public class RemoteMap implements IMap {
         public int getBackgroundBrightness() {
             return 50;
         }
+
+        @Override
+        public void setDistanceThresholdHysteresis(double dValue) {
+        }
+
+        @Override
+        public double getDistanceThresholdHysteresis() {
+            return 0.1;
+        }
+
+        @Override
+        public void setMaxLevelOfDetailChangesPerFrame(int iValue) {
+        }
+
+        @Override
+        public int getMaxLevelOfDetailChangesPerFrame() {
+            return 50;
+        }
+
+        @Override
+        public void setSinglePointClustering(boolean enable) {
+        }
+
+        @Override
+        public boolean isSinglePointClusteringEnabled() {
+            return false;
+        }
+
+        @Override
+        public void setIconAtlas(boolean enable) {
+        }
+
+        @Override
+        public boolean isIconAtlasEnabled() {
+            return false;
+        }
+
+        @Override
+        public IFrameMetrics getFrameMetrics() {
+            return null;
+        }
+
+        @Override
+        public void setFrameMetricsOverlay(boolean visible) {
+        }
+
+        @Override
+        public boolean isFrameMetricsOverlayVisible() {
+            return false;
+        }
+
+        @Override
+        public List<IFeature> getFeaturesInBounds(IGeoBounds bounds) {
+            return new ArrayList<>();
+        }
         
         @Override
         public View showMiniMap() {
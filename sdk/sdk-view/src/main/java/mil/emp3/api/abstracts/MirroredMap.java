@@ -18,10 +18,12 @@ import mil.emp3.api.events.MapFeatureRemovedEvent;
 import mil.emp3.api.events.MapStateChangeEvent;
 import mil.emp3.api.exceptions.EMP_Exception;
 import mil.emp3.api.interfaces.IEmpPropertyList;
+import mil.emp3.api.interfaces.IFeature;
 import mil.emp3.api.interfaces.IMap;
 import mil.emp3.api.interfaces.IUUIDSet;
 import mil.emp3.api.interfaces.core.IStorageManager;
 import mil.emp3.api.listeners.EventListenerHandle;
+import mil.emp3.api.listeners.IBatchEventListener;
 import mil.emp3.api.listeners.ICameraEventListener;
 import mil.emp3.api.listeners.IFeatureEventListener;
 import mil.emp3.api.listeners.IMapFeatureAddedEventListener;
@@ -288,50 +290,47 @@ public class MirroredMap extends Map {
 
         public void onEvent(MapFeatureAddedEvent event) {
             ensureOnUiThread();
-            try {
-                if (event.getFeature() instanceof IGeoMilSymbol) {
-                    final MirrorableMilStdSymbol feature = new MirrorableMilStdSymbol((IGeoMilSymbol) event.getFeature());
-                    feature.setMirrorKey(event.getFeature().getGeoId().toString());
-
-                    new UpdateMirrorCacheTask().execute(new IdentifiedMirrorable(feature, feature.getGeoId().toString()));
-
-                } else if (event.getFeature() instanceof IGeoPoint) {
-                    final MirrorablePoint feature = new MirrorablePoint((IGeoPoint) event.getFeature());
-                    feature.setMirrorKey(event.getFeature().getGeoId().toString());
-
-                    new UpdateMirrorCacheTask().execute(new IdentifiedMirrorable(feature, feature.getGeoId().toString()));
-
-                } else {
-                    Log.w(TAG, "Unsupported MirrorCache feature type: " + event.getFeature());
-                }
-
-            } catch (EMP_Exception e) {
-                Log.e(TAG, "ERROR: " + e.getMessage(), e);
+            IdentifiedMirrorable[] features = toMirrorables(event.getFeatures());
+            if (features.length > 0) {
+                // One task for all the features in the event.
+                new UpdateMirrorCacheTask().execute(features);
             }
         }
 
         public void onEvent(MapFeatureRemovedEvent event) {
             ensureOnUiThread();
-            try {
-                if (event.getFeature() instanceof IGeoMilSymbol) {
-                    final MirrorableMilStdSymbol feature = new MirrorableMilStdSymbol((IGeoMilSymbol) event.getFeature());
-                    feature.setMirrorKey(event.getFeature().getGeoId().toString());
+            IdentifiedMirrorable[] features = toMirrorables(event.getFeatures());
+            if (features.length > 0) {
+                new DeleteMirrorCacheTask().execute(features);
+            }
+        }
 
-                    new DeleteMirrorCacheTask().execute(new IdentifiedMirrorable(feature, feature.getGeoId().toString()));
+        private IdentifiedMirrorable[] toMirrorables(java.util.List<IFeature> features) {
+            java.util.List<IdentifiedMirrorable> mirrorables = new java.util.ArrayList<>(features.size());
 
-                } else if (event.getFeature() instanceof IGeoPoint) {
-                    final MirrorablePoint feature = new MirrorablePoint((IGeoPoint) event.getFeature());
-                    feature.setMirrorKey(event.getFeature().getGeoId().toString());
+            for (IFeature oFeature : features) {
+                try {
+                    if (oFeature instanceof IGeoMilSymbol) {
+                        final MirrorableMilStdSymbol feature = new MirrorableMilStdSymbol((IGeoMilSymbol) oFeature);
+                        feature.setMirrorKey(oFeature.getGeoId().toString());
 
-                    new DeleteMirrorCacheTask().execute(new IdentifiedMirrorable(feature, feature.getGeoId().toString()));
+                        mirrorables.add(new IdentifiedMirrorable(feature, feature.getGeoId().toString()));
 
-                } else {
-                    Log.w(TAG, "Unsupported MirrorCache feature type: " + event.getFeature());
-                }
+                    } else if (oFeature instanceof IGeoPoint) {
+                        final MirrorablePoint feature = new MirrorablePoint((IGeoPoint) oFeature);
+                        feature.setMirrorKey(oFeature.getGeoId().toString());
 
-            } catch (EMP_Exception e) {
-                Log.e(TAG, "ERROR: " + e.getMessage(), e);
+                        mirrorables.add(new IdentifiedMirrorable(feature, feature.getGeoId().toString()));
+
+                    } else {
+                        Log.w(TAG, "Unsupported MirrorCache feature type: " + oFeature);
+                    }
+
+                } catch (EMP_Exception e) {
+                    Log.e(TAG, "ERROR: " + e.getMessage(), e);
+                }
             }
+            return mirrorables.toArray(new IdentifiedMirrorable[mirrorables.size()]);
         }
 
         public void onEvent(FeatureEvent event) {
@@ -468,6 +467,15 @@ public class MirroredMap extends Map {
     // -+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+- //
     // -+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+- //
 
+    /**
+     * The MirrorCache listeners receive all the features added or removed by one update in a single event.
+     */
+    private interface IBatchMapFeatureAddedEventListener extends IMapFeatureAddedEventListener, IBatchEventListener {
+    }
+
+    private interface IBatchMapFeatureRemovedEventListener extends IMapFeatureRemovedEventListener, IBatchEventListener {
+    }
+
     /**
      * This class listens for MapStateChangeEvents, specifically MapStateEnum.MAP_READY.
      * Upon receiving a MAP_READY event, this class will instantiate and execute an
@@ -498,13 +506,13 @@ public class MirroredMap extends Map {
                     try {
                         final MapEventHandler mapEventHandler = new MapEventHandler(map);
 
-                        map.mapFeatureAddedEventHandle = map.addMapFeatureAddedEventListener(new IMapFeatureAddedEventListener() {
+                        map.mapFeatureAddedEventHandle = map.addMapFeatureAddedEventListener(new IBatchMapFeatureAddedEventListener() {
                             @Override
                             public void onEvent(MapFeatureAddedEvent event) {
                                 mapEventHandler.onEvent(event);
                             }
                         });
-                        map.mapFeatureRemovedEventHandle = map.addMapFeatureRemovedEventListener(new IMapFeatureRemovedEventListener() {
+                        map.mapFeatureRemovedEventHandle = map.addMapFeatureRemovedEventListener(new IBatchMapFeatureRemovedEventListener() {
                             @Override
                             public void onEvent(MapFeatureRemovedEvent event) {
                                 mapEventHandler.onEvent(event);
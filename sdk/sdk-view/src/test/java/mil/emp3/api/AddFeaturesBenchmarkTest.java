@@ -0,0 +1,73 @@
+package mil.emp3.api;
+
+import android.util.Log;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.List;
+
+import mil.emp3.api.interfaces.IFeature;
+import mil.emp3.api.utils.BasicUtilities;
+
+/**
+ * Measures the time it takes to add large feature lists to a single overlay through StorageManager. The features are
+ * delivered to MockMapInstance so the figures cover the core only, not a map engine. The measurement is ignored by
+ * default, the features reaching the map instance are checked on a small list.
+ */
+public class AddFeaturesBenchmarkTest extends TestBaseSingleMap {
+    private static String TAG = AddFeaturesBenchmarkTest.class.getSimpleName();
+    private static final int[] FEATURE_COUNTS = {1000, 10000, 50000};
+    double latitude = 40.2171;
+    double longitude = -74.7429;
+
+    @Before
+    public void setUp() throws Exception {
+        setupSingleMap(TAG);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+
+    }
+
+    private long addFeatures(int count) throws Exception {
+        Overlay overlay = new Overlay();
+        overlay.setName("benchmark_" + count);
+        remoteMap.addOverlay(overlay, true);
+
+        List<IFeature> list = BasicUtilities.generateMilStdSymbolList(count, latitude, longitude);
+        mapInstance.cleanQueues();
+
+        long start = System.nanoTime();
+        overlay.addFeatures(list, true);
+        long elapsed = System.nanoTime() - start;
+
+        Assert.assertEquals("All features should be sent to the map instance", count, mapInstance.drainAddFeatureCount());
+
+        remoteMap.removeOverlay(overlay);
+        mapInstance.cleanQueues();
+        return elapsed;
+    }
+
+    @Test
+    public void addFeaturesReachMapInstance() throws Exception {
+        addFeatures(FEATURE_COUNTS[0]);
+    }
+
+    @Ignore
+    @Test
+    public void addFeaturesToOverlay() throws Exception {
+        // Warm up the JIT so the first size is not penalized.
+        addFeatures(FEATURE_COUNTS[0]);
+
+        for (int count : FEATURE_COUNTS) {
+            long elapsed = addFeatures(count);
+            Log.i(TAG, "addFeatures " + count + " features " + (elapsed / 1000000) + " ms " +
+                    (elapsed / count) + " ns/feature");
+        }
+    }
+}
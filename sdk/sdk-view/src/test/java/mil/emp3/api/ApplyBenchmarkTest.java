@@ -0,0 +1,117 @@
+package mil.emp3.api;
+
+import android.util.Log;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import mil.emp3.api.interfaces.IFeature;
+import mil.emp3.api.utils.BasicUtilities;
+
+/**
+ * Compares updating a large number of features one apply at a time with a single applyFeatures call. The features
+ * are delivered to MockMapInstance so the figures cover the core only, not a map engine. The comparison is ignored by
+ * default, the features reaching the map instance are checked on a small list.
+ */
+public class ApplyBenchmarkTest extends TestBaseSingleMap {
+    private static String TAG = ApplyBenchmarkTest.class.getSimpleName();
+    private static final int FEATURE_COUNT = 5000;
+    private static final int SMALL_FEATURE_COUNT = 100;
+    private static final int ROUNDS = 5;
+    double latitude = 40.2171;
+    double longitude = -74.7429;
+
+    private Overlay overlay;
+    private List<IFeature> features;
+
+    @Before
+    public void setUp() throws Exception {
+        setupSingleMap(TAG);
+
+        overlay = new Overlay();
+        overlay.setName("apply_benchmark");
+        remoteMap.addOverlay(overlay, true);
+    }
+
+    private void addFeatures(int count) throws Exception {
+        features = BasicUtilities.generateMilStdSymbolList(count, latitude, longitude);
+        overlay.addFeatures(features, true);
+        mapInstance.cleanQueues();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        remoteMap.removeOverlay(overlay);
+        mapInstance.cleanQueues();
+    }
+
+    private void moveFeatures(int round) {
+        for (IFeature feature : features) {
+            BasicUtilities.updateMilStdSymbolLatLong(feature, latitude + (round * .001), longitude);
+        }
+    }
+
+    private long applyEach(int round) throws Exception {
+        moveFeatures(round);
+        long start = System.nanoTime();
+        for (IFeature feature : features) {
+            storageManager.apply(feature, false);
+        }
+        long elapsed = System.nanoTime() - start;
+        Assert.assertEquals("All features should be sent to the map instance", features.size(), mapInstance.drainAddFeatureCount());
+        return elapsed;
+    }
+
+    private long applyAll(int round) throws Exception {
+        moveFeatures(round);
+        long start = System.nanoTime();
+        overlay.applyFeatures(features);
+        long elapsed = System.nanoTime() - start;
+        Assert.assertEquals("All features should be sent to the map instance", features.size(), mapInstance.drainAddFeatureCount());
+        return elapsed;
+    }
+
+    @Test
+    public void applyFeaturesReachMapInstance() throws Exception {
+        addFeatures(SMALL_FEATURE_COUNT);
+        applyEach(1);
+        applyAll(2);
+
+        moveFeatures(3);
+        remoteMap.applyFeatures(features);
+        Assert.assertEquals(SMALL_FEATURE_COUNT, mapInstance.drainAddFeatureCount());
+
+        // Nothing to apply is not an error.
+        remoteMap.applyFeatures(null);
+        remoteMap.applyFeatures(new ArrayList<IFeature>());
+        overlay.applyFeatures(null);
+        Assert.assertEquals(0, mapInstance.drainAddFeatureCount());
+    }
+
+    @Ignore
+    @Test
+    public void applyEachVersusApplyAll() throws Exception {
+        addFeatures(FEATURE_COUNT);
+        // Warm up the JIT so the first round is not penalized.
+        applyEach(0);
+        applyAll(0);
+
+        long eachTotal = 0;
+        long allTotal = 0;
+        for (int round = 1; round <= ROUNDS; round++) {
+            eachTotal += applyEach(round);
+            allTotal += applyAll(round);
+        }
+
+        Log.i(TAG, "apply " + FEATURE_COUNT + " features one at a time " + (eachTotal / ROUNDS / 1000000) + " ms " +
+                (eachTotal / ROUNDS / FEATURE_COUNT) + " ns/feature");
+        Log.i(TAG, "applyFeatures " + FEATURE_COUNT + " features " + (allTotal / ROUNDS / 1000000) + " ms " +
+                (allTotal / ROUNDS / FEATURE_COUNT) + " ns/feature");
+    }
+}
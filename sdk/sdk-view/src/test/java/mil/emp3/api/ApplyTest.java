@@ -12,10 +12,14 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
+import mil.emp3.api.enums.ContainerEventEnum;
 import mil.emp3.api.enums.IconSizeEnum;
+import mil.emp3.api.events.ContainerEvent;
 import mil.emp3.api.exceptions.EMP_Exception;
 import mil.emp3.api.interfaces.IFeature;
 import mil.emp3.api.interfaces.IOverlay;
+import mil.emp3.api.interfaces.core.storage.IBulkApplyStatistics;
+import mil.emp3.api.listeners.IContainerEventListener;
 import mil.emp3.api.utils.BasicUtilities;
 
 public class ApplyTest extends TestBaseMultiMap {
@@ -84,4 +88,84 @@ public class ApplyTest extends TestBaseMultiMap {
 
         Log.d(TAG, "Ending test6");
     }
+
+    @Test
+    public void coalesceBatchedApply() throws EMP_Exception, InterruptedException {
+
+        Log.d(TAG, "Starting coalesceBatchedApply");
+
+        remoteMap[0].addOverlay(o1, true);
+        o1.addFeature(p1, true);
+        o1.addFeature(p2, true);
+        Assert.assertTrue("Features p1 and p2 should be added to remoteMap[0]", mapInstance[0].validateAddFeatures(p1, p2));
+
+        long flushCount = storageManager.getBulkApplyStatistics().getFlushCount();
+        for (int ii = 1; ii <= 5; ii++) {
+            updateMilStdSymbolPosition(p1, latitude + (ii * .01), longitude + (ii * .01));
+            p1.apply();
+        }
+        p2.apply();
+        Thread.sleep(1000, 0);
+
+        // Each feature must reach the map instance once, with its latest state.
+        Assert.assertTrue("Features p1 and p2 should be applied once", mapInstance[0].validateAddFeatures(p1, p2));
+
+        IBulkApplyStatistics statistics = storageManager.getBulkApplyStatistics();
+        Assert.assertEquals("One flush expected", flushCount + 1, statistics.getFlushCount());
+        Assert.assertEquals("Queued count", 6, statistics.getLastFlushQueuedCount());
+        Assert.assertEquals("Coalesced count", 4, statistics.getLastFlushCoalescedCount());
+        Assert.assertEquals("Flushed count", 2, statistics.getLastFlushFlushedCount());
+
+        Log.d(TAG, "Ending coalesceBatchedApply");
+    }
+
+    @Test
+    public void bulkApply() throws EMP_Exception, InterruptedException {
+
+        Log.d(TAG, "Starting bulkApply");
+
+        remoteMap[0].addOverlay(o1, true);
+        remoteMap[1].addOverlay(o1, true);
+        o1.addFeature(p1, true);
+        o1.addFeature(p2, true);
+        Assert.assertTrue("Features p1 and p2 should be added to remoteMap[0]", mapInstance[0].validateAddFeatures(p1, p2));
+        Assert.assertTrue("Features p1 and p2 should be added to remoteMap[1]", mapInstance[1].validateAddFeatures(p1, p2));
+
+        final List<ContainerEvent> events = new ArrayList<>();
+        o1.addContainerEventListener(new IContainerEventListener() {
+            @Override
+            public void onEvent(ContainerEvent event) {
+                events.add(event);
+            }
+        });
+
+        long flushCount = storageManager.getBulkApplyStatistics().getFlushCount();
+        updateMilStdSymbolPosition(p1, latitude + .01, longitude + .01);
+        updateMilStdSymbolPosition(p2, latitude + .02, longitude + .02);
+        List<IFeature> features = new ArrayList<>();
+        features.add(p1);
+        features.add(p2);
+        o1.applyFeatures(features);
+
+        // The updates are sent without waiting for the flush interval.
+        Assert.assertTrue("Features p1 and p2 should be applied to remoteMap[0]", mapInstance[0].validateAddFeatures(p1, p2));
+        Assert.assertTrue("Features p1 and p2 should be applied to remoteMap[1]", mapInstance[1].validateAddFeatures(p1, p2));
+        Assert.assertEquals("One flush expected", flushCount + 1, storageManager.getBulkApplyStatistics().getFlushCount());
+        Assert.assertEquals("Flushed count", 4, storageManager.getBulkApplyStatistics().getLastFlushFlushedCount());
+
+        Assert.assertEquals("One container event expected", 1, events.size());
+        Assert.assertEquals("OBJECT_UPDATED expected", ContainerEventEnum.OBJECT_UPDATED, events.get(0).getEvent());
+        Assert.assertEquals("Both features should be reported", 2, events.get(0).getAffectedChildren().size());
+
+        features.add(p3);
+        try {
+            o1.applyFeatures(features);
+            Assert.fail("p3 is not on a map");
+        } catch (EMP_Exception e) {
+            // expected, p1 and p2 must still be applied.
+        }
+        Assert.assertTrue("Features p1 and p2 should be applied to remoteMap[0]", mapInstance[0].validateAddFeatures(p1, p2));
+
+        Log.d(TAG, "Ending bulkApply");
+    }
 }
@@ -0,0 +1,245 @@
+package mil.emp3.api;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import mil.emp3.api.enums.CameraEventEnum;
+import mil.emp3.api.enums.FeatureEventEnum;
+import mil.emp3.api.events.CameraEvent;
+import mil.emp3.api.events.FeatureEvent;
+import mil.emp3.api.interfaces.IFeature;
+import mil.emp3.api.interfaces.core.IEventDispatchStatistics;
+import mil.emp3.api.listeners.EventListenerHandle;
+import mil.emp3.api.listeners.ICameraEventListener;
+import mil.emp3.api.listeners.IFeatureEventListener;
+import mil.emp3.api.utils.BasicUtilities;
+
+/**
+ * Verifies asynchronous event dispatch: delivery off the generating thread, per listener ordering, isolation from a
+ * slow listener, coalescing of in motion camera events and the queue bound, which only drops in motion events.
+ */
+public class AsyncEventDispatchTest extends TestBaseSingleMap {
+    private static String TAG = AsyncEventDispatchTest.class.getSimpleName();
+    private static final int FEATURE_COUNT = 100;
+
+    private Overlay overlay;
+    private List<IFeature> features;
+    private List<EventListenerHandle> handles = new ArrayList<>();
+
+    private static class RecordingListener implements IFeatureEventListener {
+        private final List<IFeature> received = Collections.synchronizedList(new ArrayList<IFeature>());
+        private final CountDownLatch done;
+        private final CountDownLatch release;
+        private volatile Thread thread;
+
+        private RecordingListener(int expected, CountDownLatch release) {
+            this.done = new CountDownLatch(expected);
+            this.release = release;
+        }
+
+        @Override
+        public void onEvent(FeatureEvent event) {
+            thread = Thread.currentThread();
+            try {
+                if (null != release) {
+                    release.await();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.add(event.getTarget());
+            done.countDown();
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        setupSingleMap(TAG);
+
+        overlay = new Overlay();
+        overlay.setName("async_dispatch");
+        remoteMap.addOverlay(overlay, true);
+        features = BasicUtilities.generateMilStdSymbolList(FEATURE_COUNT, 40.2171, -74.7429);
+        overlay.addFeatures(features, true);
+        mapInstance.cleanQueues();
+        eventManager.setAsynchronousDispatch(true);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        eventManager.setAsynchronousDispatch(false);
+        eventManager.setDispatchQueueCapacity(mil.emp3.core.events.EventDispatcher.DEFAULT_QUEUE_CAPACITY);
+        eventManager.setCoalesceMotionEvents(true);
+        for (EventListenerHandle handle : handles) {
+            eventManager.removeEventHandler(handle);
+        }
+        remoteMap.removeOverlay(overlay);
+        mapInstance.cleanQueues();
+    }
+
+    private void selectAll() {
+        for (IFeature feature : features) {
+            eventManager.generateFeatureEvent(FeatureEventEnum.FEATURE_SELECTED, feature, true);
+        }
+    }
+
+    @Test
+    public void orderedOffThread() throws Exception {
+        RecordingListener listener = new RecordingListener(FEATURE_COUNT, null);
+        handles.add(overlay.addFeatureEventListener(listener));
+
+        selectAll();
+        Assert.assertTrue(listener.done.await(5, TimeUnit.SECONDS));
+        Assert.assertNotSame("Listener must not run on the generating thread", Thread.currentThread(), listener.thread);
+        Assert.assertEquals("Events must arrive in dispatch order", features, new ArrayList<>(listener.received));
+    }
+
+    @Test
+    public void slowListenerDoesNotBlock() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingListener slowListener = new RecordingListener(FEATURE_COUNT, release);
+        RecordingListener fastListener = new RecordingListener(FEATURE_COUNT, null);
+        handles.add(overlay.addFeatureEventListener(slowListener));
+        handles.add(remoteMap.addFeatureEventListener(fastListener));
+
+        selectAll();
+        Assert.assertTrue("Fast listener is held up by the slow one", fastListener.done.await(5, TimeUnit.SECONDS));
+        Assert.assertTrue(eventManager.getDispatchStatistics().getQueueDepth() > 0);
+
+        release.countDown();
+        Assert.assertTrue(slowListener.done.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(features, new ArrayList<>(slowListener.received));
+    }
+
+    @Test
+    public void stopKeepsOrder() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingListener slowListener = new RecordingListener(2 * FEATURE_COUNT, release);
+        handles.add(overlay.addFeatureEventListener(slowListener));
+
+        selectAll();
+        eventManager.setAsynchronousDispatch(false);
+        // The listener still has queued events, the later ones must follow them on the delivery thread and not run
+        // on this thread.
+        selectAll();
+        Assert.assertEquals(0, slowListener.received.size());
+        release.countDown();
+        Assert.assertTrue(slowListener.done.await(5, TimeUnit.SECONDS));
+        Assert.assertNotSame(Thread.currentThread(), slowListener.thread);
+
+        List<IFeature> expected = new ArrayList<>(features);
+        expected.addAll(features);
+        Assert.assertEquals(expected, new ArrayList<>(slowListener.received));
+
+        // A listener without queued events is called on the calling thread.
+        RecordingListener syncListener = new RecordingListener(1, null);
+        handles.add(remoteMap.addFeatureEventListener(syncListener));
+        eventManager.generateFeatureEvent(FeatureEventEnum.FEATURE_SELECTED, features.get(0), true);
+        Assert.assertEquals(0, syncListener.done.getCount());
+        Assert.assertSame(Thread.currentThread(), syncListener.thread);
+    }
+
+    @Test
+    public void queueBoundKeepsEvents() throws Exception {
+        eventManager.setDispatchQueueCapacity(10);
+        IEventDispatchStatistics before = eventManager.getDispatchStatistics();
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingListener slowListener = new RecordingListener(FEATURE_COUNT, release);
+        handles.add(overlay.addFeatureEventListener(slowListener));
+
+        selectAll();
+        IEventDispatchStatistics after = eventManager.getDispatchStatistics();
+        release.countDown();
+        Assert.assertTrue(slowListener.done.await(5, TimeUnit.SECONDS));
+
+        // Only in motion events are dropped, the others are queued beyond the capacity.
+        Assert.assertEquals(0, after.getDroppedCount() - before.getDroppedCount());
+        Assert.assertTrue(after.getMaxQueueDepth() > 10);
+        Assert.assertEquals(features, new ArrayList<>(slowListener.received));
+    }
+
+    @Test
+    public void queueBoundDropsMotionEvents() throws Exception {
+        eventManager.setDispatchQueueCapacity(10);
+        eventManager.setCoalesceMotionEvents(false);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<CameraEvent> received = Collections.synchronizedList(new ArrayList<CameraEvent>());
+        final CountDownLatch stopped = new CountDownLatch(1);
+        Camera camera = new Camera();
+
+        handles.add(camera.addCameraEventListener(new ICameraEventListener() {
+            @Override
+            public void onEvent(CameraEvent event) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                received.add(event);
+                if (event.getEvent() == CameraEventEnum.CAMERA_MOTION_STOPPED) {
+                    stopped.countDown();
+                }
+            }
+        }));
+
+        IEventDispatchStatistics before = eventManager.getDispatchStatistics();
+        for (int ii = 0; ii < 50; ii++) {
+            eventManager.generateCameraEvent(CameraEventEnum.CAMERA_IN_MOTION, camera, false);
+        }
+        eventManager.generateCameraEvent(CameraEventEnum.CAMERA_MOTION_STOPPED, camera, false);
+        IEventDispatchStatistics after = eventManager.getDispatchStatistics();
+        release.countDown();
+
+        Assert.assertTrue(stopped.await(5, TimeUnit.SECONDS));
+        // Ten events are queued, one more may have been in delivery, the rest of the in motion events are dropped. The
+        // motion stopped event is never dropped.
+        long dropped = after.getDroppedCount() - before.getDroppedCount();
+        Assert.assertTrue(dropped >= 50 - 11);
+        Assert.assertEquals(51, received.size() + dropped);
+        Assert.assertEquals(CameraEventEnum.CAMERA_MOTION_STOPPED, received.get(received.size() - 1).getEvent());
+    }
+
+    @Test
+    public void coalesceCameraInMotion() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<CameraEvent> received = Collections.synchronizedList(new ArrayList<CameraEvent>());
+        final CountDownLatch stopped = new CountDownLatch(1);
+        Camera camera = new Camera();
+
+        handles.add(camera.addCameraEventListener(new ICameraEventListener() {
+            @Override
+            public void onEvent(CameraEvent event) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                received.add(event);
+                if (event.getEvent() == CameraEventEnum.CAMERA_MOTION_STOPPED) {
+                    stopped.countDown();
+                }
+            }
+        }));
+
+        IEventDispatchStatistics before = eventManager.getDispatchStatistics();
+        for (int ii = 0; ii < 50; ii++) {
+            eventManager.generateCameraEvent(CameraEventEnum.CAMERA_IN_MOTION, camera, false);
+        }
+        eventManager.generateCameraEvent(CameraEventEnum.CAMERA_MOTION_STOPPED, camera, false);
+        release.countDown();
+
+        Assert.assertTrue(stopped.await(5, TimeUnit.SECONDS));
+        // The first event may already be in delivery, the rest collapse into one.
+        Assert.assertTrue(received.size() <= 3);
+        Assert.assertEquals(CameraEventEnum.CAMERA_MOTION_STOPPED, received.get(received.size() - 1).getEvent());
+        Assert.assertTrue(eventManager.getDispatchStatistics().getCoalescedCount() - before.getCoalescedCount() >= 48);
+    }
+}
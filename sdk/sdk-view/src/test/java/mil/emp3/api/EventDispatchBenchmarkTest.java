@@ -0,0 +1,226 @@
+package mil.emp3.api;
+
+import android.util.Log;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import mil.emp3.api.enums.FeatureEventEnum;
+import mil.emp3.api.enums.UserInteractionEventEnum;
+import mil.emp3.api.enums.UserInteractionKeyEnum;
+import mil.emp3.api.enums.UserInteractionMouseButtonEnum;
+import mil.emp3.api.events.FeatureEvent;
+import mil.emp3.api.events.FeatureUserInteractionEvent;
+import mil.emp3.api.interfaces.IFeature;
+import mil.emp3.api.interfaces.IOverlay;
+import mil.emp3.api.listeners.EventListenerHandle;
+import mil.emp3.api.listeners.IFeatureEventListener;
+import mil.emp3.api.listeners.IFeatureInteractionEventListener;
+import mil.emp3.api.utils.BasicUtilities;
+
+/**
+ * Dispatches feature events on the leaves of a five level overlay tree (root overlay and four levels of overlays under
+ * it, the features are the leaves) with listeners on the map, the root overlay and the leaf overlays. The first pass
+ * builds the routes, later passes use the cached routes. The timing run on 10000 features is ignored by default, the
+ * routing is checked on a small tree of the same depth.
+ */
+public class EventDispatchBenchmarkTest extends TestBaseSingleMap {
+    private static String TAG = EventDispatchBenchmarkTest.class.getSimpleName();
+    private static final int OVERLAY_DEPTH = 4;
+    // 5^4 leaf overlays with 16 features each, 10000 leaves.
+    private static final int FAN_OUT = 5;
+    private static final int FEATURES_PER_OVERLAY = 16;
+    private static final int SMALL_FAN_OUT = 2;
+    private static final int SMALL_FEATURES_PER_OVERLAY = 2;
+    private static final int ROUNDS = 5;
+    double latitude = 40.2171;
+    double longitude = -74.7429;
+
+    private Overlay rootOverlay;
+    private List<IOverlay> leafOverlays;
+    private List<IFeature> features;
+    private List<EventListenerHandle> handles;
+
+    private static class CountingListener implements IFeatureEventListener {
+        private int count = 0;
+
+        @Override
+        public void onEvent(FeatureEvent event) {
+            count++;
+        }
+    }
+
+    private static class CountingInteractionListener implements IFeatureInteractionEventListener {
+        private int count = 0;
+
+        @Override
+        public void onEvent(FeatureUserInteractionEvent event) {
+            count++;
+        }
+    }
+
+    private CountingListener mapListener;
+    private CountingListener rootListener;
+    private CountingListener leafListener;
+
+    @Before
+    public void setUp() throws Exception {
+        setupSingleMap(TAG);
+        handles = new ArrayList<>();
+    }
+
+    private void buildTree(int fanOut, int featuresPerOverlay) throws Exception {
+        rootOverlay = new Overlay();
+        rootOverlay.setName("root");
+        remoteMap.addOverlay(rootOverlay, true);
+
+        List<IOverlay> level = new ArrayList<>();
+        level.add(rootOverlay);
+        for (int depth = 0; depth < OVERLAY_DEPTH; depth++) {
+            List<IOverlay> nextLevel = new ArrayList<>();
+            for (IOverlay parent : level) {
+                List<IOverlay> children = new ArrayList<>();
+                for (int ii = 0; ii < fanOut; ii++) {
+                    Overlay child = new Overlay();
+                    child.setName(parent.getName() + "." + ii);
+                    children.add(child);
+                }
+                parent.addOverlays(children, true);
+                nextLevel.addAll(children);
+            }
+            level = nextLevel;
+        }
+        leafOverlays = level;
+
+        features = new ArrayList<>();
+        for (IOverlay overlay : leafOverlays) {
+            List<IFeature> list = BasicUtilities.generateMilStdSymbolList(featuresPerOverlay, latitude, longitude);
+            overlay.addFeatures(list, true);
+            features.addAll(list);
+        }
+        mapInstance.cleanQueues();
+
+        mapListener = new CountingListener();
+        rootListener = new CountingListener();
+        leafListener = new CountingListener();
+        handles.add(remoteMap.addFeatureEventListener(mapListener));
+        handles.add(rootOverlay.addFeatureEventListener(rootListener));
+        // The same listener on the root overlay and every leaf overlay must be called once per event.
+        handles.add(rootOverlay.addFeatureEventListener(leafListener));
+        for (IOverlay overlay : leafOverlays) {
+            handles.add(overlay.addFeatureEventListener(leafListener));
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        for (EventListenerHandle handle : handles) {
+            remoteMap.removeEventListener(handle);
+        }
+        if (null != rootOverlay) {
+            remoteMap.removeOverlay(rootOverlay);
+        }
+        mapInstance.cleanQueues();
+    }
+
+    private long dispatchAll() {
+        long start = System.nanoTime();
+        for (IFeature feature : features) {
+            eventManager.generateFeatureEvent(FeatureEventEnum.FEATURE_SELECTED, feature, true);
+        }
+        return System.nanoTime() - start;
+    }
+
+    @Test
+    public void dispatchFeatureEventsOnce() throws Exception {
+        buildTree(SMALL_FAN_OUT, SMALL_FEATURES_PER_OVERLAY);
+        int featureCount = features.size();
+        Assert.assertEquals(SMALL_FAN_OUT * SMALL_FAN_OUT * SMALL_FAN_OUT * SMALL_FAN_OUT * SMALL_FEATURES_PER_OVERLAY, featureCount);
+
+        for (int round = 1; round <= 2; round++) {
+            dispatchAll();
+            Assert.assertEquals(featureCount * round, mapListener.count);
+            Assert.assertEquals(featureCount * round, rootListener.count);
+            Assert.assertEquals("A listener reached through two registrations is called once", featureCount * round,
+                    leafListener.count);
+        }
+    }
+
+    @Test
+    public void mergedRoutesCallEachListenerOnce() throws Exception {
+        buildTree(SMALL_FAN_OUT, SMALL_FEATURES_PER_OVERLAY);
+        CountingInteractionListener rootInteractionListener = new CountingInteractionListener();
+        CountingInteractionListener leafInteractionListener = new CountingInteractionListener();
+        handles.add(rootOverlay.addFeatureInteractionEventListener(rootInteractionListener));
+        for (IOverlay overlay : leafOverlays) {
+            handles.add(overlay.addFeatureInteractionEventListener(leafInteractionListener));
+        }
+
+        // One event on the features of every leaf overlay.
+        for (int round = 1; round <= 2; round++) {
+            eventManager.generateFeatureInteractionEvent(UserInteractionEventEnum.CLICKED,
+                    EnumSet.noneOf(UserInteractionKeyEnum.class), UserInteractionMouseButtonEnum.LEFT, features,
+                    remoteMap, null, null, null);
+            Assert.assertEquals(round, rootInteractionListener.count);
+            Assert.assertEquals(round, leafInteractionListener.count);
+        }
+    }
+
+    @Ignore
+    @Test
+    public void dispatchFeatureEvents() throws Exception {
+        buildTree(FAN_OUT, FEATURES_PER_OVERLAY);
+        int featureCount = features.size();
+        Assert.assertEquals(10000, featureCount);
+
+        long cold = dispatchAll();
+        long warmTotal = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            warmTotal += dispatchAll();
+        }
+        Assert.assertEquals(featureCount * (ROUNDS + 1), mapListener.count);
+
+        Log.i(TAG, "dispatch " + featureCount + " feature events first pass " + (cold / 1000000) + " ms " +
+                (cold / featureCount) + " ns/event");
+        Log.i(TAG, "dispatch " + featureCount + " feature events cached " + (warmTotal / ROUNDS / 1000000) + " ms " +
+                (warmTotal / ROUNDS / featureCount) + " ns/event");
+    }
+
+    @Test
+    public void routesFollowHierarchyChanges() throws Exception {
+        buildTree(SMALL_FAN_OUT, SMALL_FEATURES_PER_OVERLAY);
+        IOverlay leafOverlay = leafOverlays.get(0);
+        IFeature feature = leafOverlay.getFeatures().get(0);
+
+        eventManager.generateFeatureEvent(FeatureEventEnum.FEATURE_SELECTED, feature, true);
+        Assert.assertEquals(1, mapListener.count);
+        Assert.assertEquals(1, rootListener.count);
+
+        // Moving the feature directly under the map takes it out of the root overlay path.
+        Overlay other = new Overlay();
+        remoteMap.addOverlay(other, true);
+        other.addFeature(feature, true);
+        leafOverlay.removeFeature(feature);
+
+        eventManager.generateFeatureEvent(FeatureEventEnum.FEATURE_SELECTED, feature, true);
+        Assert.assertEquals(2, mapListener.count);
+        Assert.assertEquals("The removed parent must not receive the event", 1, rootListener.count);
+
+        // A listener added after the route was cached must receive the event.
+        CountingListener otherListener = new CountingListener();
+        handles.add(other.addFeatureEventListener(otherListener));
+        eventManager.generateFeatureEvent(FeatureEventEnum.FEATURE_SELECTED, feature, true);
+        Assert.assertEquals(1, otherListener.count);
+        Assert.assertEquals(3, mapListener.count);
+
+        remoteMap.removeOverlay(other);
+        mapInstance.cleanQueues();
+    }
+}
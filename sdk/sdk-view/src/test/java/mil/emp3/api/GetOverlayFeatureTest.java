@@ -323,4 +323,71 @@ public class GetOverlayFeatureTest extends TestBaseMultiMap {
         Log.d(TAG, "Ending test2");
 
     }
+
+    private List<String> getNames(List<IFeature> features) {
+        List<String> nameList = new ArrayList<>();
+        for(IFeature feature: features) {
+            nameList.add(feature.getName());
+        }
+        return nameList;
+    }
+
+    /*
+       m1 -> o1 -> o2 -> o3 -> p1
+       Changes deep in the tree must be reflected by the cached descendant view of every ancestor.
+     */
+    @Test
+    public void test3()  throws EMP_Exception, InterruptedException {
+
+        Log.d(TAG, "Starting test3");
+
+        remoteMap[0].addOverlay(o1, true);
+        o1.addOverlay(o2, true);
+        o2.addOverlay(o3, true);
+        o3.addFeature(p1, true);
+
+        Assert.assertEquals("o1 should have one feature", 1, o1.getFeatures().size());
+        Assert.assertEquals("o2 should have one feature", 1, o2.getFeatures().size());
+
+        o3.addFeature(p2, true);
+        List<String> featureNameList = getNames(o1.getFeatures());
+        Assert.assertEquals("o1 should have two features", 2, featureNameList.size());
+        Assert.assertTrue("TRUCK2", featureNameList.contains("TRUCK2"));
+        Assert.assertEquals("o2 should have two features", 2, o2.getFeatures().size());
+
+        o2.addFeature(p2, true);
+        Assert.assertEquals("o1 should not have duplicate features", 2, o1.getFeatures().size());
+
+        o3.removeFeature(p1);
+        featureNameList = getNames(o1.getFeatures());
+        Assert.assertEquals("o1 should have one feature", 1, featureNameList.size());
+        Assert.assertTrue("TRUCK2", featureNameList.contains("TRUCK2"));
+
+        o1.addFeature(p3, true);
+        o1.removeOverlay(o2);
+        featureNameList = getNames(o1.getFeatures());
+        Assert.assertEquals("o1 should have one feature", 1, featureNameList.size());
+        Assert.assertTrue("TRUCK3", featureNameList.contains("TRUCK3"));
+        Assert.assertEquals("o1 should have zero overlays", 0, o1.getOverlays().size());
+
+        List<IFeature> features = new ArrayList<>();
+        java.util.Iterator<IFeature> iterator = storageManager.getChildFeaturesIterator(remoteMap[0]);
+        while (iterator.hasNext()) {
+            features.add(iterator.next());
+        }
+        Assert.assertEquals("iterator should match getAllFeatures", getNames(remoteMap[0].getAllFeatures()), getNames(features));
+
+        iterator = storageManager.getChildFeaturesIterator(o1);
+        Assert.assertTrue("o1 iterator has a feature", iterator.hasNext());
+        iterator.next();
+        try {
+            iterator.remove();
+            Assert.fail("iterator remove should not be supported");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        Assert.assertEquals("o1 should still have one feature", 1, o1.getFeatures().size());
+
+        Log.d(TAG, "Ending test3");
+    }
 }
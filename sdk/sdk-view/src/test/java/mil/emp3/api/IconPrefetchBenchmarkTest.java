@@ -0,0 +1,143 @@
+package mil.emp3.api;
+
+import android.util.Log;
+import android.util.SparseArray;
+
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import mil.emp3.api.interfaces.IMap;
+import mil.emp3.core.utils.milstd2525.icons.IBitmapCache;
+import mil.emp3.core.utils.milstd2525.icons.IconPrefetcher;
+import mil.emp3.mapengine.api.MilStdSymbolKey;
+import mil.emp3.mapengine.interfaces.IEmpImageInfo;
+import mil.emp3.mapengine.interfaces.IIconPrefetchStatistics;
+
+/**
+ * Prefetches icons into a cache that takes a fixed time to render an icon. Symbols share a small number of
+ * appearances, as the units of an overlay do. The timing run logs the time of the prefetch next to the time rendering
+ * every symbol would take, it is ignored by default as it only measures.
+ */
+public class IconPrefetchBenchmarkTest {
+    private static String TAG = IconPrefetchBenchmarkTest.class.getSimpleName();
+    private static final int SYMBOL_COUNT = 2000;
+    private static final int RENDER_TIME = 10;           // milliseconds per icon
+    private static final long TIMEOUT = 30000;
+
+    private static class RenderTimeCache implements IBitmapCache {
+        private final Set<MilStdSymbolKey> rendered = Collections.synchronizedSet(new HashSet<MilStdSymbolKey>());
+        private final AtomicInteger renderCount = new AtomicInteger();
+
+        @Override
+        public void prefetch(MilStdSymbolKey oSymbolKey) {
+            renderCount.incrementAndGet();
+            rendered.add(oSymbolKey);
+            try {
+                Thread.sleep(RENDER_TIME);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void clearCache() {
+        }
+
+        @Override
+        public IEmpImageInfo getImageInfo(String sSymbolCode, SparseArray oModifiers, SparseArray oAttr) {
+            return null;
+        }
+
+        @Override
+        public IEmpImageInfo getImageInfo(MilStdSymbolKey oSymbolKey) {
+            return null;
+        }
+
+        @Override
+        public boolean setMidDistanceThreshold(IMap clientMap, double midDistanceThreshold) {
+            return true;
+        }
+
+        @Override
+        public boolean getAlgorithmStatus() {
+            return false;
+        }
+
+        @Override
+        public void setAlgorithmStatus(boolean enable) {
+        }
+
+        @Override
+        public void setTotalAvailableMemory(int availableMB) {
+        }
+    }
+
+    private static IconPrefetcher.KeyCollector symbols(final int appearanceCount) {
+        return new IconPrefetcher.KeyCollector() {
+            @Override
+            public int collectKeys(Set<MilStdSymbolKey> keys) {
+                for (int index = 0; index < SYMBOL_COUNT; index++) {
+                    String symbolCode = String.format("SFGPUCI%03d-----", index % appearanceCount);
+                    keys.add(MilStdSymbolKey.create(symbolCode, null, null));
+                }
+                return SYMBOL_COUNT;
+            }
+        };
+    }
+
+    private static IIconPrefetchStatistics waitForPrefetch(IconPrefetcher prefetcher, long prefetchCount) throws Exception {
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+
+        while (prefetcher.getStatistics().getPrefetchCount() < prefetchCount) {
+            Assert.assertTrue("The prefetch should complete", System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+        return prefetcher.getStatistics();
+    }
+
+    @Test
+    public void prefetchRendersEachAppearanceOnce() throws Exception {
+        IconPrefetcher prefetcher = new IconPrefetcher();
+        RenderTimeCache cache = new RenderTimeCache();
+
+        prefetcher.prefetch(cache, symbols(50));
+        IIconPrefetchStatistics statistics = waitForPrefetch(prefetcher, 1);
+
+        Assert.assertEquals(50, cache.renderCount.get());
+        Assert.assertEquals(50, cache.rendered.size());
+        Assert.assertEquals(SYMBOL_COUNT, statistics.getLastSymbolCount());
+        Assert.assertEquals(50, statistics.getLastIconCount());
+        Assert.assertEquals(SYMBOL_COUNT - 50, statistics.getLastDuplicateCount());
+        Assert.assertEquals(0, statistics.getPendingCount());
+
+        prefetcher.prefetch(cache, symbols(10));
+        statistics = waitForPrefetch(prefetcher, 2);
+        Assert.assertEquals(10, statistics.getLastIconCount());
+        Assert.assertEquals(60, statistics.getTotalIconCount());
+        Assert.assertEquals(2 * SYMBOL_COUNT, statistics.getTotalSymbolCount());
+    }
+
+    @Ignore
+    @Test
+    public void prefetchTime() throws Exception {
+        int appearanceCount = 200;
+        IconPrefetcher prefetcher = new IconPrefetcher();
+        RenderTimeCache cache = new RenderTimeCache();
+
+        prefetcher.prefetch(cache, symbols(appearanceCount));
+        IIconPrefetchStatistics statistics = waitForPrefetch(prefetcher, 1);
+
+        long prefetchTime = statistics.getLastPrefetchDuration() / 1000000;
+        Log.i(TAG, "prefetch " + SYMBOL_COUNT + " symbols " + statistics.getLastIconCount() + " icons " +
+                statistics.getLastDuplicateCount() + " duplicates in " + prefetchTime + " ms, every symbol " +
+                (SYMBOL_COUNT * RENDER_TIME) + " ms");
+
+        Assert.assertEquals(appearanceCount, cache.renderCount.get());
+    }
+}
@@ -0,0 +1,110 @@
+package mil.emp3.api;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import mil.emp3.api.events.MapFeatureAddedEvent;
+import mil.emp3.api.events.MapFeatureRemovedEvent;
+import mil.emp3.api.interfaces.IFeature;
+import mil.emp3.api.listeners.EventListenerHandle;
+import mil.emp3.api.listeners.IBatchEventListener;
+import mil.emp3.api.listeners.IMapFeatureAddedEventListener;
+import mil.emp3.api.listeners.IMapFeatureRemovedEventListener;
+import mil.emp3.api.utils.BasicUtilities;
+
+/**
+ * Verifies that map feature added and removed events generated by the map engine for a list of features are
+ * delivered once to batch listeners and once per feature to all other listeners.
+ */
+public class MapFeatureEventTest extends TestBaseSingleMap {
+    private static String TAG = MapFeatureEventTest.class.getSimpleName();
+    private static final int FEATURE_COUNT = 3;
+
+    private interface IBatchAddedListener extends IMapFeatureAddedEventListener, IBatchEventListener {
+    }
+
+    private interface IBatchRemovedListener extends IMapFeatureRemovedEventListener, IBatchEventListener {
+    }
+
+    private final List<MapFeatureAddedEvent> featureAddedEvents = new ArrayList<>();
+    private final List<MapFeatureAddedEvent> batchAddedEvents = new ArrayList<>();
+    private final List<MapFeatureRemovedEvent> featureRemovedEvents = new ArrayList<>();
+    private final List<MapFeatureRemovedEvent> batchRemovedEvents = new ArrayList<>();
+    private final List<EventListenerHandle> handles = new ArrayList<>();
+    private List<IFeature> features;
+
+    @Before
+    public void setUp() throws Exception {
+        setupSingleMap(TAG);
+        features = BasicUtilities.generateMilStdSymbolList(FEATURE_COUNT, 40.2171, -74.7429);
+
+        handles.add(remoteMap.addMapFeatureAddedEventListener(new IMapFeatureAddedEventListener() {
+            @Override
+            public void onEvent(MapFeatureAddedEvent event) {
+                featureAddedEvents.add(event);
+            }
+        }));
+        handles.add(remoteMap.addMapFeatureAddedEventListener(new IBatchAddedListener() {
+            @Override
+            public void onEvent(MapFeatureAddedEvent event) {
+                batchAddedEvents.add(event);
+            }
+        }));
+        handles.add(remoteMap.addMapFeatureRemovedEventListener(new IMapFeatureRemovedEventListener() {
+            @Override
+            public void onEvent(MapFeatureRemovedEvent event) {
+                featureRemovedEvents.add(event);
+            }
+        }));
+        handles.add(remoteMap.addMapFeatureRemovedEventListener(new IBatchRemovedListener() {
+            @Override
+            public void onEvent(MapFeatureRemovedEvent event) {
+                batchRemovedEvents.add(event);
+            }
+        }));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        for (EventListenerHandle handle : handles) {
+            remoteMap.removeEventListener(handle);
+        }
+    }
+
+    @Test
+    public void featureAdded() throws Exception {
+        mapInstance.simulateFeaturesAdded(features);
+
+        Assert.assertEquals("One event per feature", FEATURE_COUNT, featureAddedEvents.size());
+        for (int ii = 0; ii < FEATURE_COUNT; ii++) {
+            Assert.assertEquals("Single feature per event", 1, featureAddedEvents.get(ii).getFeatures().size());
+            Assert.assertEquals("Feature order", features.get(ii), featureAddedEvents.get(ii).getFeature());
+        }
+
+        Assert.assertEquals("One batch event", 1, batchAddedEvents.size());
+        Assert.assertEquals("All features in the batch event", features, batchAddedEvents.get(0).getFeatures());
+        Assert.assertEquals("getFeature returns the first feature", features.get(0), batchAddedEvents.get(0).getFeature());
+    }
+
+    @Test
+    public void featureRemoved() throws Exception {
+        mapInstance.simulateFeaturesRemoved(features);
+
+        Assert.assertEquals("One event per feature", FEATURE_COUNT, featureRemovedEvents.size());
+        Assert.assertEquals("One batch event", 1, batchRemovedEvents.size());
+        Assert.assertEquals("All features in the batch event", features, batchRemovedEvents.get(0).getFeatures());
+    }
+
+    @Test
+    public void emptyList() throws Exception {
+        mapInstance.simulateFeaturesAdded(new ArrayList<IFeature>());
+
+        Assert.assertEquals("No per feature events", 0, featureAddedEvents.size());
+        Assert.assertEquals("No batch events", 0, batchAddedEvents.size());
+    }
+}
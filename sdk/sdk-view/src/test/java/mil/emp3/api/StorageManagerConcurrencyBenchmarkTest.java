@@ -0,0 +1,211 @@
+package mil.emp3.api;
+
+import android.util.Log;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import mil.emp3.api.interfaces.IFeature;
+import mil.emp3.api.utils.BasicUtilities;
+
+/**
+ * Runs reader threads (getChildFeatures, getVisibilityOnMap, isSelected) concurrently with a writer thread (apply)
+ * against StorageManager and reports throughput and p99 latency of each operation. The timed run is ignored by
+ * default, a short run with a fixed number of applies checks that no thread fails.
+ */
+public class StorageManagerConcurrencyBenchmarkTest extends TestBaseSingleMap {
+    private static String TAG = StorageManagerConcurrencyBenchmarkTest.class.getSimpleName();
+    private static final int FEATURE_COUNT = 5000;
+    private static final int READER_COUNT = 4;
+    private static final long RUN_TIME_MILLIS = 3000;
+    private static final int APPLY_COUNT = 1000;
+    double latitude = 40.2171;
+    double longitude = -74.7429;
+
+    private Overlay overlay;
+    private List<IFeature> features;
+
+    private enum Operation {
+        GET_CHILD_FEATURES,
+        GET_VISIBILITY,
+        IS_SELECTED,
+        APPLY
+    }
+
+    /**
+     * Latencies recorded by one thread.
+     */
+    private static class Recorder {
+        private final List<long[]> samples = new ArrayList<>();
+        private final int[] counts = new int[Operation.values().length];
+
+        private Recorder() {
+            for (int ii = 0; ii < Operation.values().length; ii++) {
+                samples.add(new long[1024]);
+            }
+        }
+
+        private void record(Operation operation, long latency) {
+            int index = operation.ordinal();
+            long[] values = samples.get(index);
+            if (counts[index] == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+                samples.set(index, values);
+            }
+            values[counts[index]++] = latency;
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        setupSingleMap(TAG);
+
+        overlay = new Overlay();
+        overlay.setName("concurrency");
+        remoteMap.addOverlay(overlay, true);
+        features = BasicUtilities.generateMilStdSymbolList(FEATURE_COUNT, latitude, longitude);
+        overlay.addFeatures(features, true);
+        remoteMap.selectFeatures(features.subList(0, FEATURE_COUNT / 10));
+        mapInstance.cleanQueues();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        remoteMap.removeOverlay(overlay);
+        mapInstance.cleanQueues();
+    }
+
+    @Test
+    public void mixedReadWriteDoesNotFail() throws Exception {
+        Recorder[] recorders = run(APPLY_COUNT, 0);
+
+        int applied = 0;
+        for (Recorder recorder : recorders) {
+            applied += recorder.counts[Operation.APPLY.ordinal()];
+        }
+        Assert.assertEquals(APPLY_COUNT, applied);
+    }
+
+    @Ignore
+    @Test
+    public void mixedReadWrite() throws Exception {
+        Recorder[] recorders = run(0, RUN_TIME_MILLIS);
+
+        for (Operation operation : Operation.values()) {
+            int total = 0;
+            for (Recorder recorder : recorders) {
+                total += recorder.counts[operation.ordinal()];
+            }
+            if (0 == total) {
+                continue;
+            }
+
+            long[] merged = new long[total];
+            int offset = 0;
+            for (Recorder recorder : recorders) {
+                int count = recorder.counts[operation.ordinal()];
+                System.arraycopy(recorder.samples.get(operation.ordinal()), 0, merged, offset, count);
+                offset += count;
+            }
+            Arrays.sort(merged);
+            long p99 = merged[Math.min(total - 1, (int) (total * 0.99))];
+            Log.i(TAG, operation + " ops " + total + " throughput " + (total * 1000 / RUN_TIME_MILLIS) + " ops/s p50 " +
+                    (merged[total / 2] / 1000) + " us p99 " + (p99 / 1000) + " us");
+        }
+    }
+
+    /**
+     * Runs the readers and the writer until the writer applied applyCount updates, or for runTimeMillis.
+     * @param applyCount The number of applies, 0 to run for runTimeMillis.
+     * @param runTimeMillis
+     * @return The recorders of the readers followed by the recorder of the writer.
+     */
+    private Recorder[] run(final int applyCount, long runTimeMillis) throws Exception {
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final CountDownLatch done = new CountDownLatch(READER_COUNT + 1);
+        final Recorder[] recorders = new Recorder[READER_COUNT + 1];
+        List<Thread> threads = new ArrayList<>();
+
+        for (int ii = 0; ii < READER_COUNT; ii++) {
+            final Recorder recorder = recorders[ii] = new Recorder();
+            final int seed = ii;
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        int index = seed;
+                        while (running.get()) {
+                            IFeature feature = features.get(index++ % FEATURE_COUNT);
+                            long start = System.nanoTime();
+                            storageManager.getVisibilityOnMap(remoteMap, feature);
+                            recorder.record(Operation.GET_VISIBILITY, System.nanoTime() - start);
+
+                            start = System.nanoTime();
+                            storageManager.isSelected(remoteMap, feature);
+                            recorder.record(Operation.IS_SELECTED, System.nanoTime() - start);
+
+                            if (0 == (index % 100)) {
+                                start = System.nanoTime();
+                                storageManager.getChildFeatures(remoteMap);
+                                recorder.record(Operation.GET_CHILD_FEATURES, System.nanoTime() - start);
+                            }
+                        }
+                    } catch (Throwable t) {
+                        failure.set(t);
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }, "reader-" + ii));
+        }
+
+        final Recorder writerRecorder = recorders[READER_COUNT] = new Recorder();
+        threads.add(new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    int index = 0;
+                    while (running.get() && ((0 == applyCount) || (index < applyCount))) {
+                        IFeature feature = features.get(index++ % FEATURE_COUNT);
+                        BasicUtilities.updateMilStdSymbolLatLong(feature, latitude + (index * .0001), longitude);
+                        long start = System.nanoTime();
+                        storageManager.apply(feature, false);
+                        writerRecorder.record(Operation.APPLY, System.nanoTime() - start);
+                        if (0 == (index % 1000)) {
+                            mapInstance.cleanQueues();
+                        }
+                    }
+                } catch (Throwable t) {
+                    failure.set(t);
+                } finally {
+                    // The readers stop with the writer.
+                    running.set(false);
+                    done.countDown();
+                }
+            }
+        }, "writer"));
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        if (0 == applyCount) {
+            Thread.sleep(runTimeMillis);
+            running.set(false);
+        }
+        done.await();
+
+        Assert.assertNull("Worker thread failed " + failure.get(), failure.get());
+        return recorders;
+    }
+}
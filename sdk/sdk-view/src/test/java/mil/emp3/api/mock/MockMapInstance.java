@@ -247,6 +247,17 @@ public class MockMapInstance extends MockMapInstance_ {
         return false;
     }
 
+    /**
+     * Returns the number of features queued by addFeatures and clears the queue. Used by the benchmarks where
+     * validating each feature would dominate the measurement.
+     * @return
+     */
+    public int drainAddFeatureCount() {
+        int count = addFeatureQueue.size();
+        addFeatureQueue.clear();
+        return count;
+    }
+
     public void cleanQueues() {
         addFeatureQueue.clear();
         removeFeatureQueue.clear();
@@ -296,6 +307,17 @@ public class MockMapInstance extends MockMapInstance_ {
         generateFeatureUserInteractionEvent(event, null, null, pickList, null, newPosition, oldPosition);
     }
 
+    /**
+     * Generates the events a map engine generates after plotting or removing a list of features in one update.
+     */
+    public void simulateFeaturesAdded(List<IFeature> features) {
+        generateFeatureAddedEvent(features);
+    }
+
+    public void simulateFeaturesRemoved(List<IFeature> features) {
+        generateFeatureRemovedEvent(features);
+    }
+
     public boolean validateSelectedFeatures(IFeature ... feature) throws InterruptedException {
         java.util.List<IFeature> features = new ArrayList<>();
         for(IFeature aFeature : feature) {
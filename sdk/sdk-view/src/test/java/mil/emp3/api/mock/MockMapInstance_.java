@@ -8,6 +8,7 @@ import android.view.View;
 import org.cmapi.primitives.IGeoBounds;
 import org.cmapi.primitives.IGeoPosition;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.BlockingQueue;
@@ -22,6 +23,7 @@ import mil.emp3.api.exceptions.EMP_Exception;
 import mil.emp3.api.interfaces.ICamera;
 import mil.emp3.api.interfaces.ICapture;
 import mil.emp3.api.interfaces.IFeature;
+import mil.emp3.api.interfaces.IFrameMetrics;
 import mil.emp3.api.interfaces.ILookAt;
 import mil.emp3.api.interfaces.IMapService;
 import mil.emp3.api.interfaces.IUUIDSet;
@@ -274,6 +276,61 @@ public class MockMapInstance_ extends CoreMapInstance {
     public int getBackgroundBrightness() {
         return 50;
     }
+
+    @Override
+    public void setDistanceThresholdHysteresis(double dValue) {
+    }
+
+    @Override
+    public double getDistanceThresholdHysteresis() {
+        return 0.1;
+    }
+
+    @Override
+    public void setMaxLevelOfDetailChangesPerFrame(int iValue) {
+    }
+
+    @Override
+    public int getMaxLevelOfDetailChangesPerFrame() {
+        return 50;
+    }
+
+    @Override
+    public void setSinglePointClustering(boolean enable) {
+    }
+
+    @Override
+    public boolean isSinglePointClusteringEnabled() {
+        return false;
+    }
+
+    @Override
+    public void setIconAtlas(boolean enable) {
+    }
+
+    @Override
+    public boolean isIconAtlasEnabled() {
+        return false;
+    }
+
+    @Override
+    public IFrameMetrics getFrameMetrics() {
+        return null;
+    }
+
+    @Override
+    public void setFrameMetricsOverlay(boolean visible) {
+    }
+
+    @Override
+    public boolean isFrameMetricsOverlayVisible() {
+        return false;
+    }
+
+    @Override
+    public List<IFeature> getFeaturesInBounds(IGeoBounds bounds) {
+        return new ArrayList<>();
+    }
     
     @Override
     public android.view.View showMiniMap() {
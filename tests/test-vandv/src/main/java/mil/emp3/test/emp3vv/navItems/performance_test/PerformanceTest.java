@@ -329,10 +329,8 @@ public class PerformanceTest extends NavItemBase implements PerformanceTestConfi
 
                     if (this.bBatchUpdate) {
                         try {
-                            for (IFeature oSymbol: oBatchList) {
-                                oSymbol.apply();
-                            }
-                            //this.oMainActivity.oRootOverlay.addFeatures(oBatchList, true);
+                            // One transaction and one container event for the whole interval.
+                            this.oOverlay.applyFeatures(oBatchList);
                         } catch (Exception e) {
                             e.printStackTrace();
                         }